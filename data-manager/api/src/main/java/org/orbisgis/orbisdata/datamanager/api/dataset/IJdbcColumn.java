@@ -36,6 +36,9 @@
  */
 package org.orbisgis.orbisdata.datamanager.api.dataset;
 
+import org.locationtech.jts.geom.Geometry;
+import org.orbisgis.commons.annotations.Nullable;
+
 /**
  * Column of a {@link IJdbcTable}.
  *
@@ -98,4 +101,75 @@ public interface IJdbcColumn extends IColumn {
      * @param srid The SRID code of the column.
      */
     void setSrid(int srid);
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * read as NaN.
+     *
+     * @return The values of the column, null if they can't be read.
+     */
+    @Nullable
+    default double[] toDoubleArray() {
+        return toDoubleArray(Double.NaN);
+    }
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * replaced by the given value.
+     *
+     * @param nullValue Value stored in place of the null values.
+     * @return The values of the column, null if they can't be read or if there are too many values for an array.
+     */
+    @Nullable
+    double[] toDoubleArray(double nullValue);
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * read as 0, use {@link #toLongArray(long)} to distinguish them.
+     *
+     * @return The values of the column, null if they can't be read.
+     */
+    @Nullable
+    default long[] toLongArray() {
+        return toLongArray(0);
+    }
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * replaced by the given value.
+     *
+     * @param nullValue Value stored in place of the null values.
+     * @return The values of the column, null if they can't be read or if there are too many values for an array.
+     */
+    @Nullable
+    long[] toLongArray(long nullValue);
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * read as 0, use {@link #toIntArray(int)} to distinguish them.
+     *
+     * @return The values of the column, null if they can't be read.
+     */
+    @Nullable
+    default int[] toIntArray() {
+        return toIntArray(0);
+    }
+
+    /**
+     * Read all the values of the column into a primitive array with a single column query. The null values are
+     * replaced by the given value.
+     *
+     * @param nullValue Value stored in place of the null values.
+     * @return The values of the column, null if they can't be read or if there are too many values for an array.
+     */
+    @Nullable
+    int[] toIntArray(int nullValue);
+
+    /**
+     * Read all the geometries of the column into an array with a single column query.
+     *
+     * @return The geometries of the column, null if they can't be read.
+     */
+    @Nullable
+    Geometry[] toGeometryArray();
 }
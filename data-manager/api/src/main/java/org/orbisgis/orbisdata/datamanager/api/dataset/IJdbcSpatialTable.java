@@ -38,6 +38,10 @@ package org.orbisgis.orbisdata.datamanager.api.dataset;
 
 
 import org.h2gis.utilities.SpatialResultSet;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+
+import java.util.List;
 
 /**
  * Extension of the {@link IJdbcTable} and {@link ISpatialTable} interfaces.
@@ -46,4 +50,20 @@ import org.h2gis.utilities.SpatialResultSet;
  * @author Sylvain PALOMINOS (Lab-STICC UBS 2019)
  */
 public interface IJdbcSpatialTable<T> extends IJdbcTable<T>, ISpatialTable<T> {
+
+    /**
+     * Save the {@link IJdbcSpatialTable} into several files written in parallel. The table is split into exactly
+     * <code>tileCount</code> spatial tiles covering the extent of the first geometry column, arranged in horizontal
+     * strips, each feature being written in the tile containing the lower left corner of its envelope. The tiles are suffixed with '_part' followed by their
+     * index.
+     *
+     * @param filePath   Path of the file to be saved.
+     * @param tileCount  Number of tiles to write.
+     * @param merge      True to concatenate the tiles into the given file (CSV and GeoJSON only), false to keep
+     *                   them as a multi-file dataset.
+     * @param deleteFile True to delete the files if they exist.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    List<String> saveTiled(@NotNull String filePath, int tileCount, boolean merge, boolean deleteFile);
 }
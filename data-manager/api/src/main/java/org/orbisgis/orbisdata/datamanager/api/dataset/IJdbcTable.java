@@ -41,6 +41,7 @@ import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IResultSetProperties;
 
 import java.sql.ResultSet;
@@ -74,6 +75,14 @@ public interface IJdbcTable<T> extends ITable<T, T>, ResultSet {
     @Nullable
     TableLocation getTableLocation();
 
+    /**
+     * Return the {@link IJdbcDataSource} containing the {@link IJdbcTable}.
+     *
+     * @return The {@link IJdbcDataSource} of the table.
+     */
+    @NotNull
+    IJdbcDataSource getJdbcDataSource();
+
     /**
      * Return the {@link DBTypes} type of the {@link IJdbcTable}.
      *
@@ -152,4 +161,45 @@ public interface IJdbcTable<T> extends ITable<T, T>, ResultSet {
      */
     @NotNull
     IResultSetProperties getResultSetProperties();
+
+    /**
+     * Stream the {@link IJdbcTable} into a CSV or GeoJSON file from a forward only cursor, without creating any
+     * intermediate table. Unlike the <code>save</code> methods, which use the H2GIS drivers, the values are written by
+     * the native stream writers : the numbers are written in their exact form and the geometries of a CSV file as
+     * EWKT.
+     *
+     * @param filePath   Path of the CSV or GeoJSON file to be saved.
+     * @param deleteFile True to delete the file if it exists.
+     * @return The path of the saved file, null if the file cannot be saved.
+     */
+    @Nullable
+    String saveStreamed(@NotNull String filePath, boolean deleteFile);
+
+    /**
+     * Save the {@link IJdbcTable} into several files written in parallel. The table is split into ranges of the
+     * given numeric key column, each range being written on its own connection and thread when the data source
+     * allows it. The parts are suffixed with '_part' followed by their index.
+     *
+     * @param filePath       Path of the file to be saved.
+     * @param keyColumn      Numeric column used to split the table.
+     * @param partitionCount Number of parts to write.
+     * @param merge          True to concatenate the parts into the given file (CSV and GeoJSON only), false to
+     *                       keep them as a multi-file dataset.
+     * @param deleteFile     True to delete the files if they exist.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    List<String> savePartitioned(@NotNull String filePath, @NotNull String keyColumn, int partitionCount,
+                                 boolean merge, boolean deleteFile);
+
+    /**
+     * Copy the whole {@link IJdbcTable} once into off-heap column oriented buffers and return a read only
+     * {@link IMaterializedTable} over them, so that repeated scans do not request the database anymore. The memory
+     * used by the copies is limited by a global budget and should be given back with
+     * {@link IMaterializedTable#release()} or by closing the {@link IMaterializedTable}.
+     *
+     * @return The {@link IMaterializedTable}, null if the table can't be read or if the memory budget is exceeded.
+     */
+    @Nullable
+    IMaterializedTable<?, ?> materialize();
 }
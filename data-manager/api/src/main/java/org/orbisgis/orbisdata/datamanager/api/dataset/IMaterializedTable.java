@@ -0,0 +1,72 @@
+/*
+ * Bundle DataManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2019-2020 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.api.dataset;
+
+/**
+ * Extension of {@link ITable}. A {@link IMaterializedTable} is a read only copy of a table held in memory. Its memory
+ * is counted in a global budget and should be given back with {@link #release()}, or by closing it, once the table is
+ * not used anymore.
+ *
+ * @param <T> The type of elements returned by the iterator.
+ * @param <U> The type of elements streamed.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public interface IMaterializedTable<T, U> extends ITable<T, U>, AutoCloseable {
+
+    /**
+     * Release the memory of the table and give it back to the budget. The table should not be used anymore. Calling
+     * this method several times has no effect.
+     */
+    void release();
+
+    /**
+     * Return true if the memory of the table has been released.
+     *
+     * @return True if the memory of the table has been released.
+     */
+    boolean isReleased();
+
+    /**
+     * Release the memory of the table, same as {@link #release()}.
+     */
+    @Override
+    default void close() {
+        release();
+    }
+}
@@ -203,4 +203,20 @@ public interface ISpatialTable<T> extends ITable<T, T> {
      */
     @Nullable
     ISpatialTable<T> reproject(int srid);
+
+    /**
+     * Join the current {@link ISpatialTable} with another one using a spatial predicate on their first geometry
+     * columns. The current table is aliased as <code>a</code> and the other one as <code>b</code> so the selected
+     * columns can be written as <code>a.id, b.the_geom</code>. Missing spatial indexes are created before the join
+     * and a bounding box filter is applied before the exact predicate. The join is lazily evaluated.
+     *
+     * @param other     {@link ISpatialTable} to join with.
+     * @param predicate Name of the binary spatial predicate, e.g. <code>ST_Intersects</code>.
+     * @param columns   Columns to select. If none is given, all the columns of both tables are selected, the
+     *                  columns of the other table having the same name as a column of the current one being
+     *                  prefixed by <code>B_</code>.
+     * @return The joined {@link ISpatialTable}.
+     */
+    @Nullable
+    ISpatialTable<T> spatialJoin(@NotNull ISpatialTable<?> other, @NotNull String predicate, String... columns);
 }
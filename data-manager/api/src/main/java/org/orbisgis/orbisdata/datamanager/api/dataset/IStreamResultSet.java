@@ -36,6 +36,7 @@
  */
 package org.orbisgis.orbisdata.datamanager.api.dataset;
 
+import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.slf4j.Logger;
 
@@ -46,6 +47,10 @@ import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 /**
  * Interface for wrapper of {@link ResultSet} used to simplified the usage of {@link ITable#stream()}, avoiding the usage of
@@ -56,6 +61,11 @@ import java.util.Map;
  */
 public interface IStreamResultSet extends ResultSet {
 
+    /**
+     * Number of values read before being given to the primitive consumers.
+     */
+    int PRIMITIVE_CHUNK_SIZE = 1024;
+
     /**
      * Returns the {@link ResultSet} used for streaming.
      * @return The {@link ResultSet} used for streaming.
@@ -1932,4 +1942,133 @@ public interface IStreamResultSet extends ResultSet {
             return false;
         }
     }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getDouble(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Index of the column, starting at 1.
+     * @param consumer {@link DoubleConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachDouble(int column, @NotNull DoubleConsumer consumer) {
+        double[] chunk = new double[PRIMITIVE_CHUNK_SIZE];
+        return PrimitiveChunks.forEachChunk(this, column, "double", (rs, index, i) -> {
+            chunk[i] = rs.getDouble(index);
+            return !rs.wasNull();
+        }, size -> {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(chunk[i]);
+            }
+        });
+    }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getDouble(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Label of the column.
+     * @param consumer {@link DoubleConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachDouble(@NotNull String column, @NotNull DoubleConsumer consumer) {
+        int index = PrimitiveChunks.findColumnIndex(this, column);
+        return index < 1 ? -1 : forEachDouble(index, consumer);
+    }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getLong(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Index of the column, starting at 1.
+     * @param consumer {@link LongConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachLong(int column, @NotNull LongConsumer consumer) {
+        long[] chunk = new long[PRIMITIVE_CHUNK_SIZE];
+        return PrimitiveChunks.forEachChunk(this, column, "long", (rs, index, i) -> {
+            chunk[i] = rs.getLong(index);
+            return !rs.wasNull();
+        }, size -> {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(chunk[i]);
+            }
+        });
+    }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getLong(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Label of the column.
+     * @param consumer {@link LongConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachLong(@NotNull String column, @NotNull LongConsumer consumer) {
+        int index = PrimitiveChunks.findColumnIndex(this, column);
+        return index < 1 ? -1 : forEachLong(index, consumer);
+    }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getInt(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Index of the column, starting at 1.
+     * @param consumer {@link IntConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachInt(int column, @NotNull IntConsumer consumer) {
+        int[] chunk = new int[PRIMITIVE_CHUNK_SIZE];
+        return PrimitiveChunks.forEachChunk(this, column, "int", (rs, index, i) -> {
+            chunk[i] = rs.getInt(index);
+            return !rs.wasNull();
+        }, size -> {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(chunk[i]);
+            }
+        });
+    }
+
+    /**
+     * Read the remaining rows of the given column with {@link ResultSet#getInt(int)} into a fixed-size primitive
+     * chunk and give each non null value to the consumer, without boxing nor per row allocation.
+     *
+     * @param column   Label of the column.
+     * @param consumer {@link IntConsumer} receiving the values.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    default long forEachInt(@NotNull String column, @NotNull IntConsumer consumer) {
+        int index = PrimitiveChunks.findColumnIndex(this, column);
+        return index < 1 ? -1 : forEachInt(index, consumer);
+    }
+
+    /**
+     * Reduce the non null values of the remaining rows of the given column with the given operator, e.g.
+     * <code>reduceDouble(1, 0, Double::sum)</code>.
+     *
+     * @param column   Index of the column, starting at 1.
+     * @param identity Initial value of the reduction.
+     * @param operator {@link DoubleBinaryOperator} combining the current result with a value.
+     * @return The result of the reduction, NaN if an error occurred, even after some values have been reduced.
+     */
+    default double reduceDouble(int column, double identity, @NotNull DoubleBinaryOperator operator) {
+        double[] result = {identity};
+        long count = forEachDouble(column, value -> result[0] = operator.applyAsDouble(result[0], value));
+        return count < 0 ? Double.NaN : result[0];
+    }
+
+    /**
+     * Reduce the non null values of the remaining rows of the given column with the given operator, e.g.
+     * <code>reduceDouble("value", 0, Double::sum)</code>.
+     *
+     * @param column   Label of the column.
+     * @param identity Initial value of the reduction.
+     * @param operator {@link DoubleBinaryOperator} combining the current result with a value.
+     * @return The result of the reduction, NaN if an error occurred, even after some values have been reduced.
+     */
+    default double reduceDouble(@NotNull String column, double identity, @NotNull DoubleBinaryOperator operator) {
+        double[] result = {identity};
+        long count = forEachDouble(column, value -> result[0] = operator.applyAsDouble(result[0], value));
+        return count < 0 ? Double.NaN : result[0];
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Bundle DataManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2019-2020 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.api.dataset;
+
+import org.orbisgis.commons.annotations.NotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.IntConsumer;
+
+/**
+ * Helper methods of the primitive consumers of {@link IStreamResultSet}, kept out of the interface as it can't
+ * declare private methods in Java 8.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC)
+ */
+final class PrimitiveChunks {
+
+    /**
+     * Private constructor of the utility class.
+     */
+    private PrimitiveChunks() {
+    }
+
+    /**
+     * Read the non null values of the remaining rows of the given column into a fixed-size primitive chunk with the
+     * given {@link ChunkReader} and give them to the chunk consumer each time the chunk is full. If a
+     * {@link SQLException} is thrown in the middle of the rows, the values already read are still given to the
+     * consumer, so that the values consumed are exactly the ones read before the failure.
+     *
+     * @param rs       {@link IStreamResultSet} to read.
+     * @param column   Index of the column, starting at 1.
+     * @param type     Name of the read primitive type, used in the error message.
+     * @param reader   {@link ChunkReader} storing the value of the current row into the chunk.
+     * @param consumer {@link IntConsumer} receiving the number of values of the chunk to consume.
+     * @return The number of consumed values. If an error occurred, -1 minus the number of values consumed before it.
+     */
+    static long forEachChunk(@NotNull IStreamResultSet rs, int column, @NotNull String type,
+                             @NotNull ChunkReader reader, @NotNull IntConsumer consumer) {
+        long count = 0;
+        int size = 0;
+        try {
+            ResultSet resultSet = rs.getResultSet();
+            while (resultSet.next()) {
+                if (reader.read(resultSet, column, size)) {
+                    size++;
+                    if (size == IStreamResultSet.PRIMITIVE_CHUNK_SIZE) {
+                        consumer.accept(size);
+                        count += size;
+                        size = 0;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            consumer.accept(size);
+            count += size;
+            rs.getLogger().error("Unable to read the " + type + " values of the column " + column + " after " + count +
+                    " values.", e);
+            return -1 - count;
+        }
+        consumer.accept(size);
+        return count + size;
+    }
+
+    /**
+     * Return the index of the given column, logging an error if it is not found.
+     *
+     * @param rs     {@link IStreamResultSet} to read.
+     * @param column Label of the column.
+     * @return The index of the column starting at 1, -1 if it is not found.
+     */
+    static int findColumnIndex(@NotNull IStreamResultSet rs, @NotNull String column) {
+        try {
+            return rs.getResultSet().findColumn(column);
+        } catch (SQLException e) {
+            rs.getLogger().error("Unable to find the column '" + column + "'.", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Reader storing the value of the current row of a column into a primitive chunk.
+     */
+    @FunctionalInterface
+    interface ChunkReader {
+
+        /**
+         * Store the value of the current row of the given column into the chunk at the given position.
+         *
+         * @param rs     {@link ResultSet} to read.
+         * @param column Index of the column, starting at 1.
+         * @param index  Position of the value in the chunk.
+         * @return True if the value has been stored, false if it is null.
+         * @throws SQLException Exception thrown if the value can't be read.
+         */
+        boolean read(@NotNull ResultSet rs, int column, int index) throws SQLException;
+    }
+}
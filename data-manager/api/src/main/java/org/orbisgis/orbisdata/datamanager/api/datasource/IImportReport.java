@@ -0,0 +1,99 @@
+/*
+ * Bundle DataManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2019-2020 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.api.datasource;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Report of the import of several files into an {@link IJdbcDataSource}, giving the loaded table, the import time and
+ * the error of each file.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public interface IImportReport {
+
+    /**
+     * Return the loaded tables by file path.
+     *
+     * @return The loaded tables by file path.
+     */
+    @NotNull
+    Map<String, String> getTables();
+
+    /**
+     * Return the import time in milliseconds by file path.
+     *
+     * @return The import time in milliseconds by file path.
+     */
+    @NotNull
+    Map<String, Long> getTimes();
+
+    /**
+     * Return the error message by path of the files which failed to be loaded, or by name of the gathering table if
+     * the loaded tables can't be gathered.
+     *
+     * @return The error messages.
+     */
+    @NotNull
+    Map<String, String> getErrors();
+
+    /**
+     * Return the name of the table or view gathering the loaded tables.
+     *
+     * @return The name of the gathering table or view, null if the tables were not gathered.
+     */
+    @Nullable
+    String getMergedTable();
+
+    /**
+     * Return the total time of the import in milliseconds.
+     *
+     * @return The total time of the import in milliseconds.
+     */
+    long getTotalTime();
+
+    /**
+     * Return true if all the files have been loaded and gathered if requested.
+     *
+     * @return True if the whole import succeeded, false otherwise.
+     */
+    boolean isSuccessful();
+}
@@ -36,6 +36,7 @@
  */
 package org.orbisgis.orbisdata.datamanager.api.datasource;
 
+import groovy.lang.Closure;
 import groovy.lang.GString;
 import groovy.lang.GroovyObject;
 import groovy.lang.MissingMethodException;
@@ -51,6 +52,7 @@ import java.net.URI;
 import java.net.URL;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.List;
@@ -533,6 +535,28 @@ public interface IJdbcDataSource extends IDataSource<ResultSet>, GroovyObject, D
     @Nullable
     String load(@NotNull File file, @NotNull String dataSetId, @Nullable String encoding, boolean delete);
 
+    /**
+     * Load several files, each one into its own table. The files may be loaded concurrently, each one on its own
+     * connection, when the implementation allows it.
+     *
+     * @param files   Files to load.
+     * @param options Import options, can be null. The supported options depend on the implementation.
+     * @return The {@link IImportReport} giving the loaded table, the import time and the error of each file.
+     */
+    @NotNull
+    IImportReport load(@NotNull Collection<File> files, @Nullable Map<String, Object> options);
+
+    /**
+     * Load several files, each one into its own table, with the default options.
+     *
+     * @param files Files to load.
+     * @return The {@link IImportReport} giving the loaded table, the import time and the error of each file.
+     */
+    @NotNull
+    default IImportReport load(@NotNull Collection<File> files) {
+        return load(files, null);
+    }
+
     /**
      * Load a table from another {@link IDataSource}.
      *
@@ -796,6 +820,36 @@ public interface IJdbcDataSource extends IDataSource<ResultSet>, GroovyObject, D
      */
     IJdbcDataSource autoCommit(boolean autoCommit);
 
+    /**
+     * Run the given {@link Closure} in a single transaction : all the statements issued inside it, including the ones
+     * from <code>save</code>, <code>load</code> and <code>execute</code>, are committed once at the end of the
+     * closure or rolled back if it fails. The scope owns the shared connection, so it should only be opened when no
+     * other thread uses the data source.
+     *
+     * @param closure {@link Closure} to run, called with the {@link java.sql.Connection} if it takes a parameter.
+     * @throws SQLException Exception thrown if the transaction fails.
+     */
+    void withTransaction(@NotNull Closure closure) throws SQLException;
+
+    /**
+     * Run the given {@link Closure} in a single transaction and execute the updates issued inside it by batches of
+     * the given size.
+     *
+     * @param batchSize Number of statements executed together.
+     * @param closure   {@link Closure} to run, called with the batch statement if it takes a parameter.
+     * @return The update counts of the batched statements.
+     * @throws SQLException Exception thrown if the transaction or one of the batches fails.
+     */
+    int[] withBatch(int batchSize, @NotNull Closure closure) throws SQLException;
+
+    /**
+     * Return true if the statements are executed inside a {@link #withTransaction(Closure)} or
+     * {@link #withBatch(int, Closure)} scope, in which case they should not be committed one by one.
+     *
+     * @return True if a transaction scope is opened, false otherwise.
+     */
+    boolean isInTransaction();
+
     /**
      * Convert the type name to a java class using a lookup map
      * @param typeName
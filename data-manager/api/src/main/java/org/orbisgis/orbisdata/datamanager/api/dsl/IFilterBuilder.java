@@ -37,6 +37,9 @@
 package org.orbisgis.orbisdata.datamanager.api.dsl;
 
 import groovy.lang.GString;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
 
 import java.util.List;
@@ -74,4 +77,46 @@ public interface IFilterBuilder extends IBuilderResult {
      * @return {@link IFilterBuilder} instance to continue building.
      */
     IBuilderResult filter(String filter, List<Object> params);
+
+    /**
+     * Add a filter keeping the rows whose geometry intersects the given {@link Geometry}. A bounding box filter is
+     * added before the exact predicate so the spatial index can be used. The geometry is given as query parameter.
+     *
+     * @param column   Name of the geometric column to filter.
+     * @param geometry {@link Geometry} to intersect with. Its SRID is used.
+     * @return {@link IFilterBuilder} instance to continue building.
+     */
+    IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry);
+
+    /**
+     * Add a filter keeping the rows whose geometry intersects the given {@link Envelope}. A bounding box filter is
+     * added before the exact predicate so the spatial index can be used. The envelope is given as query parameter.
+     *
+     * @param column   Name of the geometric column to filter.
+     * @param envelope {@link Envelope} to intersect with.
+     * @param srid     SRID of the envelope.
+     * @return {@link IFilterBuilder} instance to continue building.
+     */
+    IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid);
+
+    /**
+     * Add a filter keeping the rows whose geometry is within the given {@link Geometry}. A bounding box filter is
+     * added before the exact predicate so the spatial index can be used. The geometry is given as query parameter.
+     *
+     * @param column   Name of the geometric column to filter.
+     * @param geometry {@link Geometry} which should contain the rows geometries. Its SRID is used.
+     * @return {@link IFilterBuilder} instance to continue building.
+     */
+    IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry);
+
+    /**
+     * Add a filter keeping the rows whose geometry is within the given {@link Envelope}. A bounding box filter is
+     * added before the exact predicate so the spatial index can be used. The envelope is given as query parameter.
+     *
+     * @param column   Name of the geometric column to filter.
+     * @param envelope {@link Envelope} which should contain the rows geometries.
+     * @param srid     SRID of the envelope.
+     * @return {@link IFilterBuilder} instance to continue building.
+     */
+    IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid);
 }
@@ -40,6 +40,8 @@ import groovy.lang.GString;
 import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
@@ -223,6 +225,12 @@ public class IJdbcTableTest {
             return location;
         }
 
+        @NotNull
+        @Override
+        public IJdbcDataSource getJdbcDataSource() {
+            return null;
+        }
+
         @NotNull
         @Override
         public DBTypes getDbType() {
@@ -273,6 +281,22 @@ public class IJdbcTableTest {
             return null;
         }
 
+        @Override
+        public String saveStreamed(String filePath, boolean deleteFile) {
+            return null;
+        }
+
+        @Override
+        public List<String> savePartitioned(String filePath, String keyColumn, int partitionCount, boolean merge,
+                                            boolean deleteFile) {
+            return null;
+        }
+
+        @Override
+        public IMaterializedTable<?, ?> materialize() {
+            return null;
+        }
+
         @Override
         public boolean reload() {
             return false;
@@ -1184,5 +1208,25 @@ public class IJdbcTableTest {
         public IFilterBuilder columns(String... columns) {
             return null;
         }
+
+        @Override
+        public IFilterBuilder intersects(String column, Geometry geometry) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder intersects(String column, Envelope envelope, int srid) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder within(String column, Geometry geometry) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder within(String column, Envelope envelope, int srid) {
+            return null;
+        }
     }
 }
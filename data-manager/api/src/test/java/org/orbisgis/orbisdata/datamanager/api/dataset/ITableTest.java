@@ -40,6 +40,8 @@ import groovy.lang.Closure;
 import groovy.lang.GString;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
@@ -673,6 +675,26 @@ public class ITableTest {
         public IFilterBuilder columns(String... columns) {
             return null;
         }
+
+        @Override
+        public IFilterBuilder intersects(String column, Geometry geometry) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder intersects(String column, Envelope envelope, int srid) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder within(String column, Geometry geometry) {
+            return null;
+        }
+
+        @Override
+        public IFilterBuilder within(String column, Envelope envelope, int srid) {
+            return null;
+        }
     }
 
     private static class DummyIterator implements Iterator {
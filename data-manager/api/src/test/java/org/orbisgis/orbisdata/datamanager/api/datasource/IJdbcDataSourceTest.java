@@ -36,6 +36,7 @@
  */
 package org.orbisgis.orbisdata.datamanager.api.datasource;
 
+import groovy.lang.Closure;
 import groovy.lang.GString;
 import groovy.lang.MetaClass;
 import groovy.lang.MissingMethodException;
@@ -332,6 +333,11 @@ public class IJdbcDataSourceTest {
             return null;
         }
 
+        @Override
+        public IImportReport load(@NotNull Collection<File> files, @Nullable Map<String, Object> options) {
+            return null;
+        }
+
         @Override
         public String load(@NotNull URL url) {
             return null;
@@ -646,6 +652,20 @@ public class IJdbcDataSourceTest {
             return null;
         }
 
+        @Override
+        public void withTransaction(@NotNull Closure closure) {
+        }
+
+        @Override
+        public int[] withBatch(int batchSize, @NotNull Closure closure) {
+            return new int[0];
+        }
+
+        @Override
+        public boolean isInTransaction() {
+            return false;
+        }
+
         @Override
         public Connection getConnection() throws SQLException {
             return null;
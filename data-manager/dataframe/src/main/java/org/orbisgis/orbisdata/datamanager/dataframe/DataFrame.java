@@ -39,6 +39,7 @@ package org.orbisgis.orbisdata.datamanager.dataframe;
 import groovy.lang.GString;
 import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
@@ -50,6 +51,7 @@ import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IBuilderResult;
+import org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import smile.data.Tuple;
@@ -793,6 +795,7 @@ public class DataFrame implements smile.data.DataFrame, ITable<BaseVector, Tuple
         try {
             PreparedStatement preparedStatement = null;
             Connection outputconnection = dataSource.getConnection();
+            boolean inTransaction = dataSource.isInTransaction();
             try {
                 Statement outputconnectionStatement = outputconnection.createStatement();
                 if (deleteTable) {
@@ -819,7 +822,9 @@ public class DataFrame implements smile.data.DataFrame, ITable<BaseVector, Tuple
                 }
                 create_table_.append(")");
                 insertTable.append(")");
-                outputconnection.setAutoCommit(false);
+                if (!inTransaction) {
+                    outputconnection.setAutoCommit(false);
+                }
                 outputconnectionStatement.execute(create_table_.toString());
                 preparedStatement = outputconnection.prepareStatement(insertTable.toString());
                 //Check the first row in order to limit the batch size if the query doesn't work
@@ -828,7 +833,9 @@ public class DataFrame implements smile.data.DataFrame, ITable<BaseVector, Tuple
                     preparedStatement.setObject(i +1,getObject(i) );
                 }
                 preparedStatement.execute();
-                outputconnection.commit();
+                if (!inTransaction) {
+                    outputconnection.commit();
+                }
                 long batch_size = 0;
                 while (this.next()) {
                     for (int i = 0; i < getColumnCount(); i++) {
@@ -849,7 +856,9 @@ public class DataFrame implements smile.data.DataFrame, ITable<BaseVector, Tuple
                 LOGGER.error("Cannot save the dataframe.\n", e);
                 return null;
             } finally {
-                outputconnection.setAutoCommit(true);
+                if (!inTransaction) {
+                    outputconnection.setAutoCommit(true);
+                }
                 if (preparedStatement != null) {
                     preparedStatement.close();
                 }
@@ -895,6 +904,26 @@ public class DataFrame implements smile.data.DataFrame, ITable<BaseVector, Tuple
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     @NotNull
     public Map<String, Object> firstRow() {
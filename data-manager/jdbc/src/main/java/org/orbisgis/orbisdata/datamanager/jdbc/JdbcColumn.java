@@ -44,6 +44,10 @@ import org.h2gis.utilities.GeometryTableUtilities;
 import org.h2gis.utilities.JDBCUtilities;
 import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcColumn;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
@@ -51,10 +55,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * Contains the methods which are in common to all the {@link IJdbcColumn} subclasses.
@@ -66,6 +73,23 @@ public class JdbcColumn implements IJdbcColumn, GroovyObject {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcColumn.class);
 
+    /**
+     * Fetch size used to read the values of the column.
+     */
+    private static final int FETCH_SIZE = 10000;
+    /**
+     * Size of the arrays when the row count can't be estimated.
+     */
+    private static final int DEFAULT_ARRAY_SIZE = 1024;
+    /**
+     * Maximum initial size of the arrays, the row count estimate being possibly wrong. The arrays grow from it.
+     */
+    private static final int MAX_INITIAL_ARRAY_SIZE = 1 << 16;
+    /**
+     * Maximum size of an array.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
     /**
      * MetaClass use for groovy methods/properties binding
      */
@@ -175,9 +199,201 @@ public class JdbcColumn implements IJdbcColumn, GroovyObject {
     @Nullable
     @Override
     public Object asType(Class<?> clazz) {
+        if (clazz == double[].class) {
+            return toDoubleArray();
+        } else if (clazz == long[].class) {
+            return toLongArray();
+        } else if (clazz == int[].class) {
+            return toIntArray();
+        } else if (clazz == Geometry[].class) {
+            return toGeometryArray();
+        }
         return null;
     }
 
+    @Nullable
+    @Override
+    public double[] toDoubleArray(double nullValue) {
+        return readValues("values", double[]::new, (rs, values, index) -> {
+            double value = rs.getDouble(1);
+            values[index] = rs.wasNull() ? nullValue : value;
+        });
+    }
+
+    @Nullable
+    @Override
+    public long[] toLongArray(long nullValue) {
+        return readValues("values", long[]::new, (rs, values, index) -> {
+            long value = rs.getLong(1);
+            values[index] = rs.wasNull() ? nullValue : value;
+        });
+    }
+
+    @Nullable
+    @Override
+    public int[] toIntArray(int nullValue) {
+        return readValues("values", int[]::new, (rs, values, index) -> {
+            int value = rs.getInt(1);
+            values[index] = rs.wasNull() ? nullValue : value;
+        });
+    }
+
+    @Nullable
+    @Override
+    public Geometry[] toGeometryArray() {
+        WKBReader reader = new WKBReader();
+        return readValues("geometries", Geometry[]::new, (rs, values, index) -> {
+            Object value = rs.getObject(1);
+            if (value == null || value instanceof Geometry) {
+                values[index] = (Geometry) value;
+            } else if (value instanceof byte[]) {
+                values[index] = reader.read((byte[]) value);
+            } else {
+                values[index] = reader.read(WKBReader.hexToBytes(value.toString()));
+            }
+        });
+    }
+
+    /**
+     * Reader storing the value of the current row of the projection query into an array.
+     *
+     * @param <A> Type of the array.
+     */
+    @FunctionalInterface
+    private interface ValueReader<A> {
+
+        /**
+         * Store the value of the current row into the array.
+         *
+         * @param rs     {@link ResultSet} of the projection query.
+         * @param values Array of the values.
+         * @param index  Index of the value in the array.
+         * @throws SQLException   Exception thrown if the value can't be read.
+         * @throws ParseException Exception thrown if the geometry can't be parsed.
+         */
+        void read(@NotNull ResultSet rs, @NotNull A values, int index) throws SQLException, ParseException;
+    }
+
+    /**
+     * Read all the values of the column into an array. The array is first sized from the row count estimate,
+     * capped to {@link #MAX_INITIAL_ARRAY_SIZE}, grown as needed and trimmed to the exact number of values.
+     *
+     * @param what     Name of the read values, used in the error messages.
+     * @param newArray Function creating an array of the given size.
+     * @param reader   {@link ValueReader} storing the value of the current row into the array.
+     * @param <A>      Type of the array.
+     * @return The values of the column, null if they can't be read or if there are more than
+     * {@link #MAX_ARRAY_SIZE} values.
+     */
+    @Nullable
+    private <A> A readValues(@NotNull String what, @NotNull IntFunction<A> newArray, @NotNull ValueReader<A> reader) {
+        Connection con = getProjectionConnection();
+        if (con == null) {
+            return null;
+        }
+        try (PreparedStatement statement = prepareProjection(con); ResultSet rs = statement.executeQuery()) {
+            int length = Math.min(getRowCountEstimate(), MAX_INITIAL_ARRAY_SIZE);
+            A values = newArray.apply(length);
+            int size = 0;
+            while (rs.next()) {
+                if (size == length) {
+                    if (size == MAX_ARRAY_SIZE) {
+                        LOGGER.error("Unable to read the " + what + " of the column '" + name + "' in the table '" +
+                                tableName + "', there are more than " + MAX_ARRAY_SIZE + " of them.");
+                        return null;
+                    }
+                    length = grow(size);
+                    A grown = newArray.apply(length);
+                    System.arraycopy(values, 0, grown, 0, size);
+                    values = grown;
+                }
+                reader.read(rs, values, size++);
+            }
+            if (size == length) {
+                return values;
+            }
+            A trimmed = newArray.apply(size);
+            System.arraycopy(values, 0, trimmed, 0, size);
+            return trimmed;
+        } catch (SQLException | ParseException e) {
+            LOGGER.error("Unable to read the " + what + " of the column '" + name + "' in the table '" + tableName +
+                    "'.\n" + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Return the connection used to read the values of the column.
+     *
+     * @return The connection, null if the column is not valid.
+     */
+    @Nullable
+    private Connection getProjectionConnection() {
+        if (dataSource == null || name == null || tableName == null) {
+            LOGGER.error("Unable to read the values of the column.");
+            return null;
+        }
+        Connection con = dataSource.getConnection();
+        if (con == null) {
+            LOGGER.error("Unable to get the connection.");
+        }
+        return con;
+    }
+
+    /**
+     * Prepare the forward only query selecting only the column.
+     *
+     * @param con {@link Connection} to use.
+     * @return The {@link PreparedStatement} of the projection query.
+     * @throws SQLException Exception thrown if the query can't be prepared.
+     */
+    @NotNull
+    private PreparedStatement prepareProjection(@NotNull Connection con) throws SQLException {
+        DBTypes type = dataSource.getDataBaseType();
+        PreparedStatement statement = con.prepareStatement("SELECT " + TableLocation.quoteIdentifier(name, type) +
+                " FROM " + tableName.toString(type), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+
+    /**
+     * Return the estimated row count of the table from the database statistics, used to size the arrays.
+     *
+     * @return The estimated row count.
+     */
+    private int getRowCountEstimate() {
+        DBTypes type = dataSource.getDataBaseType();
+        try {
+            Map<?, ?> map;
+            if (type == DBTypes.H2GIS || type == DBTypes.H2) {
+                map = dataSource.firstRow("SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES " +
+                                "WHERE TABLE_SCHEMA=? AND TABLE_NAME=?",
+                        new Object[]{tableName.getSchema("PUBLIC"), tableName.getTable()});
+            } else {
+                map = dataSource.firstRow("SELECT reltuples FROM pg_class WHERE oid = to_regclass(?)",
+                        new Object[]{tableName.toString(type)});
+            }
+            if (map != null && !map.isEmpty() && map.values().iterator().next() instanceof Number) {
+                long estimate = ((Number) map.values().iterator().next()).longValue();
+                return (int) Math.max(0, Math.min(MAX_ARRAY_SIZE, estimate));
+            }
+        } catch (SQLException e) {
+            LOGGER.debug("Unable to get the row count estimate of the table '" + tableName + "'.\n" +
+                    e.getLocalizedMessage());
+        }
+        return DEFAULT_ARRAY_SIZE;
+    }
+
+    /**
+     * Return the grown size of an array.
+     *
+     * @param size Current size of the array.
+     * @return The grown size.
+     */
+    private static int grow(int size) {
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max(DEFAULT_ARRAY_SIZE, size + (size >> 1) + 1L));
+    }
+
     @Override
     public boolean isSpatial() {
         return "GEOMETRY".equals(getType());
@@ -40,6 +40,7 @@ import groovy.lang.Closure;
 import groovy.lang.GString;
 import groovy.lang.GroovyObject;
 import groovy.lang.MetaClass;
+import groovy.sql.BatchingStatementWrapper;
 import groovy.sql.GroovyRowResult;
 import groovy.sql.Sql;
 import groovy.text.SimpleTemplateEngine;
@@ -59,6 +60,7 @@ import org.orbisgis.orbisdata.datamanager.api.datasource.IDataSourceLocation;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IResultSetBuilder;
 import org.orbisgis.orbisdata.datamanager.jdbc.dsl.ResultSetBuilder;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.MultiFileImport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,6 +73,7 @@ import java.net.URL;
 import java.sql.Date;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -156,6 +159,20 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
      * Wrapped {@link DataSource}
      */
     private final DataSource dataSource;
+    /**
+     * Transaction and batch scopes opened by the current thread. A scope belongs to the thread which has opened it, so
+     * the scopes of concurrent threads don't change each other's depth or batch.
+     */
+    private final ThreadLocal<Scope> scope = ThreadLocal.withInitial(Scope::new);
+    /**
+     * Lock held by the thread running a transaction scope, as the scope owns the shared connection until it ends.
+     */
+    private final ReentrantLock scopeLock = new ReentrantLock();
+    /**
+     * Pattern of the statements returning a result, which can't be batched.
+     */
+    private static final Pattern QUERY_PATTERN =
+            Pattern.compile("^\\s*(SELECT|WITH|VALUES|TABLE|CALL|SHOW|EXPLAIN|SCRIPT)\\b", Pattern.CASE_INSENSITIVE);
 
     /**
      * Constructor to create a {@link JdbcDataSource} from a {@link Sql} object.
@@ -335,6 +352,7 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     @Override
     @Nullable
     public Connection getConnection() {
+        flushBatch();
         Connection con = super.getConnection();
         if (con == null) {
             try {
@@ -346,6 +364,25 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
         return con;
     }
 
+    /**
+     * Return a new {@link Connection} to the database, distinct from the main one, to be used by a concurrent task.
+     * The caller is in charge of closing it.
+     *
+     * @return A new {@link Connection}, null if the data source has been open from a single connection.
+     */
+    @Nullable
+    public Connection getNewConnection() {
+        if (getDataSource() == null) {
+            return null;
+        }
+        try {
+            return getDataSource().getConnection();
+        } catch (SQLException e) {
+            LOGGER.error("Unable to get a new connection from the DataSource.\n" + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
     @Override
     @NotNull
     public DBTypes getDataBaseType() {
@@ -435,25 +472,21 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     @Override
     public boolean execute(GString gstring) throws SQLException {
         boolean b;
+        Savepoint savepoint = setRetrySavepoint();
         try {
             b = super.execute(gstring);
+            releaseRetrySavepoint(savepoint);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
             return b;
         } catch (SQLException e) {
             LOGGER.debug("Unable to execute the request as a GString.\n" + e.getLocalizedMessage());
-            try {
-                if(!getConnection().getAutoCommit()){
-                    super.rollback();
-                }
-            } catch (SQLException e2) {
-                LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
-            }
+            rollbackForRetry(savepoint);
         }
         b = super.execute(gstring.toString());
         if(!getConnection().getAutoCommit()){
-            super.commit();
+            commit();
         }
         return b;
     }
@@ -491,41 +524,42 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     @Override
     public GroovyRowResult firstRow(GString gstring) throws SQLException {
         GroovyRowResult row;
+        Savepoint savepoint = setRetrySavepoint();
         try {
             row = super.firstRow(gstring);
+            releaseRetrySavepoint(savepoint);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
             return row;
         } catch (SQLException e) {
             LOGGER.debug("Unable to execute the request as a GString.", e.getLocalizedMessage());
-            try {
-                if(!getConnection().getAutoCommit()){
-                    super.rollback();
-                }
-            } catch (SQLException e2) {
-                LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
-            }
+            rollbackForRetry(savepoint);
         }
         row = super.firstRow(gstring.toString());
         if(!getConnection().getAutoCommit()){
-            super.commit();
+            commit();
         }
         return row;
     }
 
     @Override
     public boolean execute(String sql) throws SQLException {
+        ScopeBatch batch = scope.get().batch;
+        if (batch != null && !QUERY_PATTERN.matcher(sql).find()) {
+            batch.addBatch(sql);
+            return false;
+        }
         try {
             boolean b = super.execute(sql);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
             return b;
         } catch (SQLException e) {
             try {
                 if(!getConnection().getAutoCommit()){
-                    super.rollback();
+                    rollback();
                 }
             } catch (SQLException e2) {
                 LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
@@ -537,25 +571,21 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     @Override
     public List<GroovyRowResult> rows(GString gstring) throws SQLException {
         List<GroovyRowResult> rows;
+        Savepoint savepoint = setRetrySavepoint();
         try {
             rows = super.rows(gstring);
+            releaseRetrySavepoint(savepoint);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
             return rows;
         } catch (SQLException e) {
             LOGGER.debug("Unable to execute the request as a GString.\n" + e.getLocalizedMessage());
-            try {
-                if(!getConnection().getAutoCommit()){
-                    super.rollback();
-                }
-            } catch (SQLException e2) {
-                LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
-            }
+            rollbackForRetry(savepoint);
         }
         rows = super.rows(gstring.toString());
         if(!getConnection().getAutoCommit()){
-            super.commit();
+            commit();
         }
         return rows;
     }
@@ -564,21 +594,16 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     public void eachRow(String sql,
                         @ClosureParams(value = SimpleType.class, options = "groovy.sql.GroovyResultSet") Closure closure)
             throws SQLException {
+        Savepoint savepoint = setRetrySavepoint();
         try {
             super.eachRow(sql, closure);
+            releaseRetrySavepoint(savepoint);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
         } catch (SQLException e) {
             LOGGER.debug("Unable to execute the request as a String.\n" + e.getLocalizedMessage());
-
-            try {
-                if(!getConnection().getAutoCommit()){
-                    super.rollback();
-                }
-            } catch (SQLException e2) {
-                LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
-            }
+            rollbackForRetry(savepoint);
             super.eachRow(sql.toString(), closure);
         }
     }
@@ -587,21 +612,16 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     public void eachRow(GString gstring,
                         @ClosureParams(value = SimpleType.class, options = "java.sql.ResultSet") Closure closure)
             throws SQLException {
+        Savepoint savepoint = setRetrySavepoint();
         try {
             super.eachRow(gstring, closure);
+            releaseRetrySavepoint(savepoint);
             if(!getConnection().getAutoCommit()){
-                super.commit();
+                commit();
             }
         } catch (SQLException e) {
             LOGGER.debug("Unable to execute the request as a GString.\n" + e.getLocalizedMessage());
-
-            try {
-                if(!getConnection().getAutoCommit()){
-                    super.rollback();
-                }
-            } catch (SQLException e2) {
-                LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
-            }
+            rollbackForRetry(savepoint);
             super.eachRow(gstring.toString(), closure);
         }
     }
@@ -614,7 +634,7 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
             if (FileUtilities.isExtensionWellFormated(file, "sql")) {
                 b = executeScript(new FileInputStream(file), bindings);
                 if(!getConnection().getAutoCommit()){
-                    super.commit();
+                    commit();
                 }
                 return b;
             }
@@ -622,7 +642,7 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
             LOGGER.error("Unable to read the SQL file.", e.getLocalizedMessage());
             try {
                 if(!getConnection().getAutoCommit()){
-                    super.rollback();
+                    rollback();
                 }
             } catch (SQLException e2) {
                 LOGGER.error("Unable to rollback.", e2.getLocalizedMessage());
@@ -657,7 +677,7 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
                 try {
                     execute(commandSQL);
                     if(!getConnection().getAutoCommit()){
-                        super.commit();
+                        commit();
                     }
                 } catch (SQLException e) {
                     LOGGER.error("Unable to execute the Sql command '" + commandSQL + "'.\n" + e.getLocalizedMessage());
@@ -1020,6 +1040,34 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
         return load(file.getAbsolutePath(), tableName, encoding, delete);
     }
 
+    /**
+     * Load several files, each one into its own table. The files are loaded concurrently, each one on its own
+     * connection, if the data source has been open from a {@link DataSource}. The supported options are described
+     * in {@link MultiFileImport}.
+     *
+     * @param files   Files to load.
+     * @param options Import options, can be null.
+     * @return The {@link MultiFileImport.Report} giving the loaded table, the import time and the error of each file.
+     */
+    @Override
+    @NotNull
+    public MultiFileImport.Report load(@NotNull Collection<File> files, @Nullable Map<String, Object> options) {
+        return new MultiFileImport(this).load(files, options);
+    }
+
+    /**
+     * Load several files, each one into its own table. The files are loaded concurrently, each one on its own
+     * connection, if the data source has been open from a {@link DataSource}.
+     *
+     * @param files Files to load.
+     * @return The {@link MultiFileImport.Report} giving the loaded table, the import time and the error of each file.
+     */
+    @Override
+    @NotNull
+    public MultiFileImport.Report load(@NotNull Collection<File> files) {
+        return load(files, null);
+    }
+
     @Override
     public String load(@NotNull IJdbcDataSource dataSource, @NotNull String inputTableName, @NotNull String outputTableName, boolean deleteIfExists) {
         return load(dataSource, inputTableName, outputTableName, deleteIfExists, 1000);
@@ -1268,4 +1316,349 @@ public abstract class JdbcDataSource extends Sql implements IJdbcDataSource, IRe
     public Class<?> typeNameToClass(@NotNull String typeName) {
         return  TYPE_NAME_TO_CLASS.get(typeName);
     }
+
+    @Override
+    public void commit() throws SQLException {
+        if (!isInTransaction()) {
+            checkScopeOwner();
+            super.commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        if (!isInTransaction()) {
+            checkScopeOwner();
+            super.rollback();
+        }
+    }
+
+    /**
+     * Check that no transaction scope is running on another thread, as the connection is shared and the requests,
+     * commits and rollbacks of the current thread would be mixed with the transaction of the scope.
+     *
+     * @throws SQLException Exception thrown if a transaction scope is running on another thread.
+     */
+    private void checkScopeOwner() throws SQLException {
+        if (scopeLock.isLocked() && !scopeLock.isHeldByCurrentThread()) {
+            throw new SQLException("The connection is used by a transaction scope running on another thread.");
+        }
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return scope.get().depth > 0;
+    }
+
+    /**
+     * Set the savepoint to which a failed GString request is rolled back before being retried as a String, so that
+     * only the failed request is undone inside a transaction scope, where {@link #rollback()} does nothing. Outside
+     * of the scopes, the failed request is undone by rolling back the transaction.
+     *
+     * @return The {@link Savepoint}, null outside of the transaction scopes or if the connection doesn't support
+     * savepoints.
+     */
+    @Nullable
+    private Savepoint setRetrySavepoint() {
+        if (!isInTransaction()) {
+            return null;
+        }
+        Connection con = getConnection();
+        try {
+            if (con != null && !con.getAutoCommit()) {
+                return con.setSavepoint();
+            }
+        } catch (SQLException e) {
+            LOGGER.debug("Unable to set a savepoint.\n" + e.getLocalizedMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Release the given retry savepoint once the GString request has succeeded.
+     *
+     * @param savepoint {@link Savepoint} to release, may be null.
+     */
+    private void releaseRetrySavepoint(@Nullable Savepoint savepoint) {
+        if (savepoint != null) {
+            try {
+                getConnection().releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                LOGGER.debug("Unable to release the savepoint.\n" + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Undo a failed GString request before retrying it as a String : roll back to the given savepoint if any, else
+     * roll back the whole transaction outside of the transaction scopes.
+     *
+     * @param savepoint {@link Savepoint} set before the request, may be null.
+     */
+    private void rollbackForRetry(@Nullable Savepoint savepoint) {
+        try {
+            Connection con = getConnection();
+            if (savepoint != null) {
+                con.rollback(savepoint);
+            } else if (con != null && !con.getAutoCommit()) {
+                rollback();
+            }
+        } catch (SQLException e) {
+            LOGGER.error("Unable to rollback.", e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Run the given {@link Closure} in a single transaction : the commits issued by the statements executed inside
+     * the closure, including the ones from <code>save</code>, <code>load</code> and <code>execute</code>, are
+     * skipped and the whole transaction is committed at the end of the closure or rolled back if it fails. A scope
+     * opened inside another one joins it.
+     *
+     * The scope owns the shared connection until it ends : a scope opened by another thread waits for it, while the
+     * requests, commits and rollbacks issued by other threads outside of a scope fail with an {@link SQLException}.
+     * A scope should thus not be opened while other threads, like the parallel process runners, use the data source.
+     *
+     * @param closure {@link Closure} to run, called with the {@link Connection} if it takes a parameter.
+     * @throws SQLException Exception thrown if the transaction fails.
+     */
+    @Override
+    public void withTransaction(@NotNull Closure closure) throws SQLException {
+        Scope current = scope.get();
+        if (current.depth > 0) {
+            callScopeClosure(closure, getConnection());
+            return;
+        }
+        scopeLock.lock();
+        current.depth++;
+        try {
+            super.withTransaction(closure);
+        } finally {
+            current.depth--;
+            scopeLock.unlock();
+        }
+    }
+
+    /**
+     * Run the given {@link Closure} in a single transaction, as {@link #withTransaction(Closure)} does, and group
+     * the updates executed inside it into batches of the given size. The closure receives the
+     * {@link BatchingStatementWrapper} to which the statements can be added and the updates executed with
+     * {@link #execute(String)} are added to the same batch. The requests executed with {@link #execute(GString)}
+     * have bound parameters and are not batched : the pending updates are executed first, then the request itself.
+     * Pending updates are executed before any access to the connection, so the queries issued inside the closure see
+     * them. The scope belongs to the calling thread.
+     *
+     * @param batchSize Number of statements executed together.
+     * @param closure   {@link Closure} to run.
+     * @return The update counts of the batched statements.
+     * @throws SQLException Exception thrown if the transaction or one of the batches fails.
+     */
+    @Override
+    public int[] withBatch(int batchSize, @NotNull Closure closure) throws SQLException {
+        Scope current = scope.get();
+        if (current.batch != null) {
+            callScopeClosure(closure, current.batch);
+            return new int[0];
+        }
+        int[][] counts = new int[1][];
+        try {
+            withTransaction(new ScopeClosure(this, () -> {
+                Connection con = getConnection();
+                if (con == null) {
+                    throw new SQLException("Unable to get the connection.");
+                }
+                ScopeBatch batch = new ScopeBatch(con.createStatement(), Math.max(1, batchSize));
+                current.batch = batch;
+                try {
+                    callScopeClosure(closure, batch);
+                    counts[0] = batch.flushAll();
+                } finally {
+                    current.batch = null;
+                    batch.close();
+                }
+            }));
+        } catch (ScopeException e) {
+            throw e.getCause();
+        }
+        return counts[0];
+    }
+
+    @Override
+    protected Connection createConnection() throws SQLException {
+        checkScopeOwner();
+        flushBatch();
+        return super.createConnection();
+    }
+
+    /**
+     * Execute the pending statements of the current batch scope. A failure is kept to make the scope fail.
+     */
+    private void flushBatch() {
+        ScopeBatch batch = scope.get().batch;
+        if (batch != null) {
+            try {
+                batch.flush();
+            } catch (SQLException e) {
+                LOGGER.error("Unable to execute the batched statements.\n" + e.getLocalizedMessage());
+                if (batch.failure == null) {
+                    batch.failure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Call the given scope {@link Closure} with the given argument if it takes a parameter.
+     *
+     * @param closure  {@link Closure} to call.
+     * @param argument Argument of the closure.
+     */
+    private static void callScopeClosure(@NotNull Closure<?> closure, Object argument) {
+        if (closure.getMaximumNumberOfParameters() == 0) {
+            closure.call();
+        } else {
+            closure.call(argument);
+        }
+    }
+
+    /**
+     * Action run inside a transaction scope.
+     */
+    @FunctionalInterface
+    private interface ScopeAction {
+        /**
+         * Run the action.
+         *
+         * @throws SQLException Exception thrown if the action fails.
+         */
+        void run() throws SQLException;
+    }
+
+    /**
+     * {@link Closure} running a {@link ScopeAction}, the {@link SQLException} being wrapped into a
+     * {@link ScopeException}.
+     */
+    private static final class ScopeClosure extends Closure<Object> {
+        /**
+         * Action to run.
+         */
+        private final ScopeAction action;
+
+        /**
+         * Main constructor.
+         *
+         * @param owner  Owner of the closure.
+         * @param action Action to run.
+         */
+        private ScopeClosure(Object owner, ScopeAction action) {
+            super(owner);
+            this.action = action;
+        }
+
+        @Override
+        public Object call(Object... args) {
+            try {
+                action.run();
+            } catch (SQLException e) {
+                throw new ScopeException(e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Unchecked wrapper of the {@link SQLException} thrown inside a {@link ScopeClosure}.
+     */
+    private static final class ScopeException extends RuntimeException {
+        /**
+         * Main constructor.
+         *
+         * @param cause Wrapped {@link SQLException}.
+         */
+        private ScopeException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    /**
+     * Transaction and batch scopes opened by a thread.
+     */
+    private static final class Scope {
+        /**
+         * Depth of the opened transaction scopes.
+         */
+        private int depth = 0;
+        /**
+         * Batch shared by the statements executed inside a {@link #withBatch(int, Closure)} scope, null outside of it.
+         */
+        private ScopeBatch batch = null;
+    }
+
+    /**
+     * {@link BatchingStatementWrapper} shared by all the statements executed inside a {@link #withBatch(int, Closure)}
+     * scope, keeping the update counts of all its batches.
+     */
+    private static final class ScopeBatch extends BatchingStatementWrapper {
+        /**
+         * Wrapped {@link Statement}.
+         */
+        private final Statement statement;
+        /**
+         * Update counts of the executed batches.
+         */
+        private final List<Integer> counts = new ArrayList<>();
+        /**
+         * First failure of an implicit flush, null if there is none.
+         */
+        private SQLException failure = null;
+
+        /**
+         * Main constructor.
+         *
+         * @param statement {@link Statement} used to execute the batches.
+         * @param batchSize Number of statements executed together.
+         */
+        private ScopeBatch(Statement statement, int batchSize) {
+            super(statement, batchSize, LOG);
+            this.statement = statement;
+        }
+
+        @Override
+        protected void processResult(int[] lastResult) {
+            super.processResult(lastResult);
+            for (int count : lastResult) {
+                counts.add(count);
+            }
+        }
+
+        /**
+         * Execute the pending statements.
+         *
+         * @throws SQLException Exception thrown if the batch fails.
+         */
+        private void flush() throws SQLException {
+            if (batchCount > 0) {
+                batchCount = 0;
+                processResult(statement.executeBatch());
+            }
+        }
+
+        /**
+         * Execute the pending statements and return the update counts of all the batches.
+         *
+         * @return The update counts of all the batches.
+         * @throws SQLException Exception thrown if a batch has failed.
+         */
+        private int[] flushAll() throws SQLException {
+            if (failure != null) {
+                throw failure;
+            }
+            flush();
+            return counts.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
 }
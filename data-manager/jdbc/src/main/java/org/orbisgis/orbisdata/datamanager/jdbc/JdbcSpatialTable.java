@@ -43,7 +43,9 @@ import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcSpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IRaster;
+import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.PartitionedExport;
 import org.orbisgis.orbisdata.datamanager.jdbc.resultset.ResultSetSpliterator;
 import org.orbisgis.orbisdata.datamanager.jdbc.resultset.StreamSpatialResultSet;
 import org.slf4j.Logger;
@@ -54,6 +56,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -67,6 +70,11 @@ public abstract class JdbcSpatialTable extends JdbcTable<StreamSpatialResultSet>
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcTable.class);
 
+    /**
+     * Pattern of the accepted spatial predicate names.
+     */
+    private static final Pattern SPATIAL_PREDICATE_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
     /**
      * Main constructor.
      *
@@ -381,6 +389,134 @@ public abstract class JdbcSpatialTable extends JdbcTable<StreamSpatialResultSet>
         }
     }
 
+    @Override
+    @Nullable
+    public ISpatialTable<StreamSpatialResultSet> spatialJoin(@NotNull ISpatialTable<?> other, @NotNull String predicate,
+                                                             String... columns) {
+        if (!(other instanceof JdbcSpatialTable)) {
+            LOGGER.error("The spatial join is only supported between JDBC spatial tables.");
+            return null;
+        }
+        JdbcSpatialTable right = (JdbcSpatialTable) other;
+        if (right.getJdbcDataSource() != getJdbcDataSource()) {
+            LOGGER.error("The spatial join requires both tables to come from the same datasource.");
+            return null;
+        }
+        if (!SPATIAL_PREDICATE_PATTERN.matcher(predicate).matches()) {
+            LOGGER.error("The spatial predicate '" + predicate + "' is not a valid function name.");
+            return null;
+        }
+        String leftGeom = getFirstGeometricColumn();
+        String rightGeom = right.getFirstGeometricColumn();
+        if (leftGeom == null || rightGeom == null) {
+            LOGGER.error("Unable to find the geometric columns to join.");
+            return null;
+        }
+        if (!ensureSpatialIndex(leftGeom) || !right.ensureSpatialIndex(rightGeom)) {
+            return null;
+        }
+        String select = columns == null || columns.length == 0 ? getJoinProjection(right) : String.join(", ", columns);
+        if (select == null) {
+            return null;
+        }
+        String a = "a." + TableLocation.quoteIdentifier(leftGeom, getDbType());
+        String b = "b." + TableLocation.quoteIdentifier(rightGeom, right.getDbType());
+        String query = "(SELECT " + select + " FROM " + getSource() + " AS a, " + right.getSource() +
+                " AS b WHERE " + a + " && " + b + " AND " + predicate + "(" + a + ", " + b + "))";
+        List<Object> params = new ArrayList<>();
+        if (getParams() != null) {
+            params.addAll(getParams());
+        }
+        if (right.getParams() != null) {
+            params.addAll(right.getParams());
+        }
+        IJdbcSpatialTable joined = getJdbcDataSource().getSpatialTable(query, params);
+        if (!(joined instanceof JdbcSpatialTable)) {
+            LOGGER.error("Unable to create the joined table.");
+            return null;
+        }
+        return (JdbcSpatialTable) joined;
+    }
+
+    /**
+     * Return the default projection of a spatial join : all the columns of both tables, the columns of the right
+     * table having the same name as a column of the left table being prefixed by <code>B_</code>.
+     *
+     * @param right Right table of the join.
+     * @return The projection of the join, null if the columns can't be read.
+     */
+    @Nullable
+    private String getJoinProjection(@NotNull JdbcSpatialTable right) {
+        Collection<String> leftColumns = getColumns();
+        Collection<String> rightColumns = right.getColumns();
+        if (leftColumns == null || rightColumns == null) {
+            LOGGER.error("Unable to get the columns of the joined tables.");
+            return null;
+        }
+        Set<String> names = new HashSet<>();
+        List<String> select = new ArrayList<>();
+        for (String column : leftColumns) {
+            names.add(column.toUpperCase());
+            select.add("a." + TableLocation.quoteIdentifier(column, getDbType()));
+        }
+        for (String column : rightColumns) {
+            String quoted = "b." + TableLocation.quoteIdentifier(column, right.getDbType());
+            if (names.contains(column.toUpperCase())) {
+                String alias = (column.equals(column.toUpperCase()) ? "B_" : "b_") + column;
+                select.add(quoted + " AS " + TableLocation.quoteIdentifier(alias, getDbType()));
+            } else {
+                select.add(quoted);
+            }
+        }
+        return String.join(", ", select);
+    }
+
+    /**
+     * Return the name of the first geometric column of the table.
+     *
+     * @return The name of the first geometric column, null if there is none.
+     */
+    @Nullable
+    private String getFirstGeometricColumn() {
+        List<String> geomColumns = getGeometricColumns();
+        if (geomColumns == null || geomColumns.isEmpty()) {
+            return null;
+        }
+        return geomColumns.get(0);
+    }
+
+    /**
+     * Create the spatial index of the given geometric column if it is missing. Query based tables can't be indexed
+     * and are used as is.
+     *
+     * @param geomColumn Name of the geometric column.
+     * @return True if the column is indexed or can't be indexed, false if the index creation failed.
+     */
+    private boolean ensureSpatialIndex(@NotNull String geomColumn) {
+        if (getTableLocation() == null) {
+            return true;
+        }
+        JdbcColumn column = new JdbcColumn(geomColumn, getLocation(), getJdbcDataSource());
+        if (!column.isSpatialIndexed() && !column.createSpatialIndex()) {
+            LOGGER.error("Unable to create the spatial index on the column '" + geomColumn + "' of the table '" +
+                    getLocation() + "'.");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public List<String> saveTiled(@NotNull String filePath, int tileCount, boolean merge, boolean deleteFile) {
+        String geomColumn = getFirstGeometricColumn();
+        if (geomColumn == null) {
+            LOGGER.error("Unable to find the geometric column to split the table.");
+            return null;
+        }
+        return new PartitionedExport(getJdbcDataSource(), getSource(), getParams())
+                .bySpatialTile(filePath, geomColumn, tileCount, merge, deleteFile);
+    }
+
     @Override
     public Iterator<StreamSpatialResultSet> iterator() {
         return new ResultSetIterator(this);
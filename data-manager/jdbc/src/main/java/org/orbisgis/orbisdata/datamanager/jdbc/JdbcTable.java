@@ -44,6 +44,8 @@ import org.h2gis.utilities.GeometryTableUtilities;
 import org.h2gis.utilities.JDBCUtilities;
 import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.commons.printer.Ascii;
@@ -55,12 +57,17 @@ import org.orbisgis.orbisdata.datamanager.api.dsl.IBuilderResult;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IQueryBuilder;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IResultSetProperties;
+import org.orbisgis.orbisdata.datamanager.jdbc.cache.MaterializedTable;
 import org.orbisgis.orbisdata.datamanager.jdbc.dsl.QueryBuilder;
 import org.orbisgis.orbisdata.datamanager.jdbc.dsl.ResultSetProperties;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.PartitionedExport;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.StreamWriter;
 import org.orbisgis.orbisdata.datamanager.jdbc.resultset.DefaultResultSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 import java.util.function.Consumer;
@@ -229,12 +236,9 @@ public abstract class JdbcTable<T extends ResultSet> extends DefaultResultSet im
         return null;
     }
 
-    /**
-     * Return the parent DataSource.
-     *
-     * @return The parent DataSource.
-     */
-    protected IJdbcDataSource getJdbcDataSource() {
+    @NotNull
+    @Override
+    public IJdbcDataSource getJdbcDataSource() {
         return jdbcDataSource;
     }
 
@@ -478,14 +482,14 @@ public abstract class JdbcTable<T extends ResultSet> extends DefaultResultSet im
             ResultSet rowCountRs = con.createStatement().executeQuery("SELECT COUNT(*) FROM (" + query + ") as foo");
             rowCountRs.next();
             int c = rowCountRs.getInt(1);
-            if(!con.getAutoCommit()) {
+            if(!con.getAutoCommit() && !jdbcDataSource.isInTransaction()) {
                 con.commit();
             }
             return c;
         } catch (SQLException e) {
             LOGGER.error("Unable to get the number of rows.");
             try {
-                if(!con.getAutoCommit()) {
+                if(!con.getAutoCommit() && !jdbcDataSource.isInTransaction()) {
                     con.rollback();
                 }
             } catch (SQLException e1) {
@@ -562,6 +566,72 @@ public abstract class JdbcTable<T extends ResultSet> extends DefaultResultSet im
         }
     }
 
+    @Override
+    @Nullable
+    public String saveStreamed(@NotNull String filePath, boolean deleteFile) {
+        if (!StreamWriter.isSupported(filePath)) {
+            LOGGER.error("Only the CSV and GeoJSON files can be streamed : " + filePath);
+            return null;
+        }
+        Connection con = getJdbcDataSource().getConnection();
+        if (con == null) {
+            LOGGER.error("Unable to get the connection to save the file : " + filePath);
+            return null;
+        }
+        try {
+            StreamWriter.export(con, getBaseQuery(), getParams(), new File(filePath), deleteFile);
+            return filePath;
+        } catch (IOException | SQLException e) {
+            LOGGER.error("Cannot save the file : " + filePath, e);
+            return null;
+        }
+    }
+
+    @Override
+    @Nullable
+    public List<String> savePartitioned(@NotNull String filePath, @NotNull String keyColumn, int partitionCount,
+                                        boolean merge, boolean deleteFile) {
+        return new PartitionedExport(getJdbcDataSource(), getSource(), getParams())
+                .byKeyRange(filePath, keyColumn, partitionCount, merge, deleteFile);
+    }
+
+    @Override
+    @Nullable
+    public MaterializedTable materialize() {
+        Connection con = getJdbcDataSource().getConnection();
+        if (con == null) {
+            LOGGER.error("Unable to get the connection.");
+            return null;
+        }
+        try (PreparedStatement statement = con.prepareStatement(getBaseQuery(), ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(MaterializedTable.FETCH_SIZE);
+            for (int i = 0; params != null && i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return MaterializedTable.of(getTableLocation(), getName(), rs);
+            }
+        } catch (SQLException | IllegalStateException e) {
+            LOGGER.error("Unable to materialize the table '" + getName() + "'.\n" + e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Return the table location or the sub-query wrapped into parenthesis to use in a FROM clause.
+     *
+     * @return The table location or the sub-query to use in a FROM clause.
+     */
+    @NotNull
+    protected String getSource() {
+        if (getTableLocation() != null) {
+            return getTableLocation().toString(getDbType());
+        }
+        String query = getBaseQuery().trim();
+        return query.startsWith("(") && query.endsWith(")") ? query : "(" + query + ")";
+    }
+
     @Override
     public String save(@NotNull String filePath, String encoding) {
         String toSave = getTableLocation() == null ? "(" + getBaseQuery() + ")" : getTableLocation().toString(getDbType());
@@ -696,6 +766,38 @@ public abstract class JdbcTable<T extends ResultSet> extends DefaultResultSet im
         return builder.columns(columns);
     }
 
+    @Override
+    @NotNull
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry) {
+        String loc = getTableLocation() != null ? getTableLocation().toString(getDbType()) : getBaseQuery();
+        IQueryBuilder builder = new QueryBuilder(getJdbcDataSource(), loc, getResultSetProperties());
+        return builder.intersects(column, geometry);
+    }
+
+    @Override
+    @NotNull
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        String loc = getTableLocation() != null ? getTableLocation().toString(getDbType()) : getBaseQuery();
+        IQueryBuilder builder = new QueryBuilder(getJdbcDataSource(), loc, getResultSetProperties());
+        return builder.intersects(column, envelope, srid);
+    }
+
+    @Override
+    @NotNull
+    public IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry) {
+        String loc = getTableLocation() != null ? getTableLocation().toString(getDbType()) : getBaseQuery();
+        IQueryBuilder builder = new QueryBuilder(getJdbcDataSource(), loc, getResultSetProperties());
+        return builder.within(column, geometry);
+    }
+
+    @Override
+    @NotNull
+    public IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        String loc = getTableLocation() != null ? getTableLocation().toString(getDbType()) : getBaseQuery();
+        IQueryBuilder builder = new QueryBuilder(getJdbcDataSource(), loc, getResultSetProperties());
+        return builder.within(column, envelope, srid);
+    }
+
     @Override
     public IJdbcTable<? extends IStreamResultSet> getTable() {
         return (IJdbcTable) asType(IJdbcTable.class);
@@ -852,7 +954,7 @@ public abstract class JdbcTable<T extends ResultSet> extends DefaultResultSet im
             LOGGER.error("Unable to get connection.", e);
         }
         try {
-            if (!con.getAutoCommit()) {
+            if (!con.getAutoCommit() && !getJdbcDataSource().isInTransaction()) {
                 con.commit();
             }
         } catch (SQLException e) {
@@ -0,0 +1,714 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.cache;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of the values of one column of a {@link MaterializedTable}. The integer, boolean and floating point values
+ * are stored into off-heap primitive buffers, the strings are dictionary encoded and the geometries are stored as
+ * packed coordinates. The other values are kept on heap.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+abstract class ColumnStore {
+
+    /**
+     * Initial capacity in bytes of the buffers.
+     */
+    protected static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * Name of the column.
+     */
+    private final String name;
+    /**
+     * Database type name of the column.
+     */
+    private final String typeName;
+    /**
+     * SQL type of the column from {@link Types}.
+     */
+    protected final int sqlType;
+
+    /**
+     * Main constructor.
+     *
+     * @param name     Name of the column.
+     * @param typeName Database type name of the column.
+     * @param sqlType  SQL type of the column from {@link Types}.
+     */
+    protected ColumnStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+        this.name = name;
+        this.typeName = typeName;
+        this.sqlType = sqlType;
+    }
+
+    /**
+     * Create the {@link ColumnStore} matching the type of the given column.
+     *
+     * @param meta  {@link ResultSetMetaData} of the materialized {@link ResultSet}.
+     * @param index Index of the column, starting at 1.
+     * @return The {@link ColumnStore} of the column.
+     * @throws SQLException Exception thrown if the metadata can't be read.
+     */
+    @NotNull
+    static ColumnStore create(@NotNull ResultSetMetaData meta, int index) throws SQLException {
+        String name = meta.getColumnLabel(index);
+        String typeName = meta.getColumnTypeName(index);
+        typeName = typeName == null ? "" : typeName;
+        int sqlType = meta.getColumnType(index);
+        if (typeName.toUpperCase().startsWith("GEOMETRY")) {
+            return new GeometryStore(name, typeName, sqlType);
+        }
+        switch (sqlType) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return new LongStore(name, typeName, sqlType);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleStore(name, typeName, sqlType);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringStore(name, typeName, sqlType);
+            default:
+                return new ObjectStore(name, typeName, sqlType);
+        }
+    }
+
+    /**
+     * Return the name of the column.
+     *
+     * @return The name of the column.
+     */
+    @NotNull
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Return the database type name of the column.
+     *
+     * @return The database type name of the column.
+     */
+    @NotNull
+    String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Return the class of the values of the column.
+     *
+     * @return The class of the values of the column.
+     */
+    @NotNull
+    abstract Class<?> getValueClass();
+
+    /**
+     * Append the value of the current row of the given {@link ResultSet}.
+     *
+     * @param rs    {@link ResultSet} to read.
+     * @param index Index of the column, starting at 1.
+     * @param row   Index of the row, starting at 0.
+     * @throws SQLException Exception thrown if the value can't be read.
+     */
+    abstract void append(@NotNull ResultSet rs, int index, int row) throws SQLException;
+
+    /**
+     * Return the value of the given row.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, null if the value is null.
+     */
+    @Nullable
+    abstract Object getObject(int row);
+
+    /**
+     * Return the value of the given row as a double.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, 0 if the value is null.
+     */
+    double getDouble(int row) {
+        Object value = getObject(row);
+        if (value == null) {
+            return 0;
+        }
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+    }
+
+    /**
+     * Return the value of the given row as a long.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, 0 if the value is null.
+     */
+    long getLong(int row) {
+        Object value = getObject(row);
+        if (value == null) {
+            return 0;
+        }
+        return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+    }
+
+    /**
+     * Return the value of the given row as a boolean.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, false if the value is null.
+     */
+    boolean getBoolean(int row) {
+        Object value = getObject(row);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    /**
+     * Return the value of the given row as a {@link String}.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, null if the value is null.
+     */
+    @Nullable
+    String getString(int row) {
+        Object value = getObject(row);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Return the value of the given row as a {@link BigDecimal}.
+     *
+     * @param row Index of the row, starting at 0.
+     * @return The value, null if the value is null.
+     */
+    @Nullable
+    BigDecimal getBigDecimal(int row) {
+        Object value = getObject(row);
+        if (value == null || value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * Give back the memory of the column.
+     */
+    abstract void release();
+
+    /**
+     * Storage of the integer and boolean values into an off-heap long buffer.
+     */
+    static class LongStore extends ColumnStore {
+        private final OffHeapBuffer values = new OffHeapBuffer(INITIAL_CAPACITY);
+        private final OffHeapBuffer nulls = new OffHeapBuffer(INITIAL_CAPACITY / Long.BYTES);
+
+        LongStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+            super(name, typeName, sqlType);
+        }
+
+        @NotNull
+        @Override
+        Class<?> getValueClass() {
+            switch (sqlType) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return Boolean.class;
+                case Types.TINYINT:
+                    return Byte.class;
+                case Types.SMALLINT:
+                    return Short.class;
+                case Types.INTEGER:
+                    return Integer.class;
+                default:
+                    return Long.class;
+            }
+        }
+
+        @Override
+        void append(@NotNull ResultSet rs, int index, int row) throws SQLException {
+            long value = sqlType == Types.BIT || sqlType == Types.BOOLEAN ?
+                    (rs.getBoolean(index) ? 1 : 0) : rs.getLong(index);
+            if (rs.wasNull()) {
+                nulls.setBit(row);
+            }
+            values.putLong((long) row * Long.BYTES, value);
+        }
+
+        @Nullable
+        @Override
+        Object getObject(int row) {
+            if (nulls.getBit(row)) {
+                return null;
+            }
+            long value = getLong(row);
+            switch (sqlType) {
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return value != 0;
+                case Types.TINYINT:
+                    return (byte) value;
+                case Types.SMALLINT:
+                    return (short) value;
+                case Types.INTEGER:
+                    return (int) value;
+                default:
+                    return value;
+            }
+        }
+
+        @Override
+        long getLong(int row) {
+            return values.getLong((long) row * Long.BYTES);
+        }
+
+        @Override
+        double getDouble(int row) {
+            return getLong(row);
+        }
+
+        @Override
+        boolean getBoolean(int row) {
+            return getLong(row) != 0;
+        }
+
+        @Override
+        void release() {
+            values.release();
+            nulls.release();
+        }
+    }
+
+    /**
+     * Storage of the floating point values into an off-heap double buffer.
+     */
+    static class DoubleStore extends ColumnStore {
+        private final OffHeapBuffer values = new OffHeapBuffer(INITIAL_CAPACITY);
+        private final OffHeapBuffer nulls = new OffHeapBuffer(INITIAL_CAPACITY / Double.BYTES);
+
+        DoubleStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+            super(name, typeName, sqlType);
+        }
+
+        @NotNull
+        @Override
+        Class<?> getValueClass() {
+            return sqlType == Types.REAL ? Float.class : Double.class;
+        }
+
+        @Override
+        void append(@NotNull ResultSet rs, int index, int row) throws SQLException {
+            double value = rs.getDouble(index);
+            if (rs.wasNull()) {
+                nulls.setBit(row);
+            }
+            values.putDouble((long) row * Double.BYTES, value);
+        }
+
+        @Nullable
+        @Override
+        Object getObject(int row) {
+            if (nulls.getBit(row)) {
+                return null;
+            }
+            double value = getDouble(row);
+            return sqlType == Types.REAL ? (Object) (float) value : (Object) value;
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values.getDouble((long) row * Double.BYTES);
+        }
+
+        @Override
+        long getLong(int row) {
+            return (long) getDouble(row);
+        }
+
+        @Override
+        void release() {
+            values.release();
+            nulls.release();
+        }
+    }
+
+    /**
+     * Storage of the strings as off-heap dictionary codes, the dictionary containing each distinct value once.
+     */
+    static class StringStore extends ColumnStore {
+        private final OffHeapBuffer codes = new OffHeapBuffer(INITIAL_CAPACITY);
+        private final Map<String, Integer> codeMap = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        StringStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+            super(name, typeName, sqlType);
+        }
+
+        @NotNull
+        @Override
+        Class<?> getValueClass() {
+            return String.class;
+        }
+
+        @Override
+        void append(@NotNull ResultSet rs, int index, int row) throws SQLException {
+            String value = rs.getString(index);
+            int code = -1;
+            if (value != null) {
+                Integer existing = codeMap.get(value);
+                if (existing == null) {
+                    code = dictionary.size();
+                    codeMap.put(value, code);
+                    dictionary.add(value);
+                } else {
+                    code = existing;
+                }
+            }
+            codes.putInt((long) row * Integer.BYTES, code);
+        }
+
+        @Nullable
+        @Override
+        Object getObject(int row) {
+            return getString(row);
+        }
+
+        @Nullable
+        @Override
+        String getString(int row) {
+            int code = codes.getInt((long) row * Integer.BYTES);
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        /**
+         * Return the distinct non null values of the column.
+         *
+         * @return The distinct non null values.
+         */
+        @NotNull
+        List<String> getDictionary() {
+            return dictionary;
+        }
+
+        @Override
+        void release() {
+            codes.release();
+        }
+    }
+
+    /**
+     * Storage of the geometries. The structure of each geometry (type, part and coordinate counts) is stored into an
+     * off-heap int buffer and its ordinates into an off-heap double buffer.
+     */
+    static class GeometryStore extends ColumnStore {
+        private static final int POINT = 1;
+        private static final int LINESTRING = 2;
+        private static final int LINEARRING = 3;
+        private static final int POLYGON = 4;
+        private static final int MULTIPOINT = 5;
+        private static final int MULTILINESTRING = 6;
+        private static final int MULTIPOLYGON = 7;
+        private static final int GEOMETRYCOLLECTION = 8;
+        /**
+         * Size in bytes of the row index entry : structure offset, ordinate offset and SRID.
+         */
+        private static final int ENTRY_SIZE = 3 * Integer.BYTES;
+
+        private final OffHeapBuffer index = new OffHeapBuffer(INITIAL_CAPACITY);
+        private final OffHeapBuffer structures = new OffHeapBuffer(INITIAL_CAPACITY);
+        private final OffHeapBuffer ordinates = new OffHeapBuffer(INITIAL_CAPACITY * 4);
+        private final Map<Integer, GeometryFactory> factories = new HashMap<>();
+        private final WKBReader wkbReader = new WKBReader();
+        private int structureCount = 0;
+        private int ordinateCount = 0;
+
+        GeometryStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+            super(name, typeName, sqlType);
+        }
+
+        @NotNull
+        @Override
+        Class<?> getValueClass() {
+            return Geometry.class;
+        }
+
+        @Override
+        void append(@NotNull ResultSet rs, int index, int row) throws SQLException {
+            Object value = rs.getObject(index);
+            Geometry geometry;
+            try {
+                if (value == null || value instanceof Geometry) {
+                    geometry = (Geometry) value;
+                } else if (value instanceof byte[]) {
+                    geometry = wkbReader.read((byte[]) value);
+                } else {
+                    geometry = wkbReader.read(WKBReader.hexToBytes(value.toString()));
+                }
+            } catch (ParseException | RuntimeException e) {
+                throw new SQLException("Unable to decode the geometry of the column '" + getName() + "'.", e);
+            }
+            long offset = (long) row * ENTRY_SIZE;
+            if (geometry == null) {
+                this.index.putInt(offset, -1);
+                return;
+            }
+            this.index.putInt(offset, structureCount);
+            this.index.putInt(offset + Integer.BYTES, ordinateCount);
+            this.index.putInt(offset + 2 * Integer.BYTES, geometry.getSRID());
+            encode(geometry);
+        }
+
+        /**
+         * Append the structure and the ordinates of the given geometry.
+         *
+         * @param geometry {@link Geometry} to encode.
+         */
+        private void encode(@NotNull Geometry geometry) {
+            if (geometry instanceof Point) {
+                putStructure(POINT);
+                putSequence(((Point) geometry).getCoordinateSequence());
+            } else if (geometry instanceof LinearRing) {
+                putStructure(LINEARRING);
+                putSequence(((LinearRing) geometry).getCoordinateSequence());
+            } else if (geometry instanceof LineString) {
+                putStructure(LINESTRING);
+                putSequence(((LineString) geometry).getCoordinateSequence());
+            } else if (geometry instanceof Polygon) {
+                Polygon polygon = (Polygon) geometry;
+                putStructure(POLYGON);
+                putStructure(polygon.getNumInteriorRing() + 1);
+                encode(polygon.getExteriorRing());
+                for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                    encode(polygon.getInteriorRingN(i));
+                }
+            } else {
+                if (geometry instanceof MultiPoint) {
+                    putStructure(MULTIPOINT);
+                } else if (geometry instanceof MultiLineString) {
+                    putStructure(MULTILINESTRING);
+                } else if (geometry instanceof MultiPolygon) {
+                    putStructure(MULTIPOLYGON);
+                } else {
+                    putStructure(GEOMETRYCOLLECTION);
+                }
+                putStructure(geometry.getNumGeometries());
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    encode(geometry.getGeometryN(i));
+                }
+            }
+        }
+
+        private void putStructure(int value) {
+            structures.putInt((long) structureCount * Integer.BYTES, value);
+            structureCount++;
+        }
+
+        private void putSequence(@NotNull CoordinateSequence sequence) {
+            int dimension = Math.max(2, Math.min(3, sequence.getDimension() - sequence.getMeasures()));
+            putStructure(dimension);
+            putStructure(sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                for (int j = 0; j < dimension; j++) {
+                    ordinates.putDouble((long) ordinateCount * Double.BYTES, sequence.getOrdinate(i, j));
+                    ordinateCount++;
+                }
+            }
+        }
+
+        @Nullable
+        @Override
+        Object getObject(int row) {
+            return getGeometry(row);
+        }
+
+        /**
+         * Decode the geometry of the given row.
+         *
+         * @param row Index of the row, starting at 0.
+         * @return The decoded {@link Geometry}, null if the value is null.
+         */
+        @Nullable
+        Geometry getGeometry(int row) {
+            long offset = (long) row * ENTRY_SIZE;
+            int structure = index.getInt(offset);
+            if (structure < 0) {
+                return null;
+            }
+            int srid = index.getInt(offset + 2 * Integer.BYTES);
+            GeometryFactory factory = factories.computeIfAbsent(srid,
+                    key -> new GeometryFactory(new PrecisionModel(), key));
+            return decode(factory, new int[]{structure, index.getInt(offset + Integer.BYTES)});
+        }
+
+        /**
+         * Decode the geometry starting at the given cursor.
+         *
+         * @param factory {@link GeometryFactory} used to build the geometry.
+         * @param cursor  Current structure and ordinate indexes, updated while decoding.
+         * @return The decoded {@link Geometry}.
+         */
+        @NotNull
+        private Geometry decode(@NotNull GeometryFactory factory, @NotNull int[] cursor) {
+            int type = nextStructure(cursor);
+            switch (type) {
+                case POINT:
+                    return factory.createPoint(nextSequence(factory, cursor));
+                case LINESTRING:
+                    return factory.createLineString(nextSequence(factory, cursor));
+                case LINEARRING:
+                    return factory.createLinearRing(nextSequence(factory, cursor));
+                case POLYGON: {
+                    int count = nextStructure(cursor);
+                    LinearRing shell = (LinearRing) decode(factory, cursor);
+                    LinearRing[] holes = new LinearRing[count - 1];
+                    for (int i = 0; i < holes.length; i++) {
+                        holes[i] = (LinearRing) decode(factory, cursor);
+                    }
+                    return factory.createPolygon(shell, holes);
+                }
+                default: {
+                    Geometry[] geometries = new Geometry[nextStructure(cursor)];
+                    for (int i = 0; i < geometries.length; i++) {
+                        geometries[i] = decode(factory, cursor);
+                    }
+                    switch (type) {
+                        case MULTIPOINT:
+                            return factory.createMultiPoint(GeometryFactory.toPointArray(Arrays.asList(geometries)));
+                        case MULTILINESTRING:
+                            return factory.createMultiLineString(
+                                    GeometryFactory.toLineStringArray(Arrays.asList(geometries)));
+                        case MULTIPOLYGON:
+                            return factory.createMultiPolygon(GeometryFactory.toPolygonArray(Arrays.asList(geometries)));
+                        default:
+                            return factory.createGeometryCollection(geometries);
+                    }
+                }
+            }
+        }
+
+        private int nextStructure(@NotNull int[] cursor) {
+            return structures.getInt((long) cursor[0]++ * Integer.BYTES);
+        }
+
+        @NotNull
+        private CoordinateSequence nextSequence(@NotNull GeometryFactory factory, @NotNull int[] cursor) {
+            int dimension = nextStructure(cursor);
+            int size = nextStructure(cursor);
+            CoordinateSequence sequence = factory.getCoordinateSequenceFactory().create(size, dimension);
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < dimension; j++) {
+                    sequence.setOrdinate(i, j, ordinates.getDouble((long) cursor[1]++ * Double.BYTES));
+                }
+            }
+            return sequence;
+        }
+
+        @Override
+        void release() {
+            index.release();
+            structures.release();
+            ordinates.release();
+        }
+    }
+
+    /**
+     * Storage of the values without primitive representation, kept on heap.
+     */
+    static class ObjectStore extends ColumnStore {
+        private final List<Object> values = new ArrayList<>();
+        private Class<?> valueClass = null;
+
+        ObjectStore(@NotNull String name, @NotNull String typeName, int sqlType) {
+            super(name, typeName, sqlType);
+        }
+
+        @NotNull
+        @Override
+        Class<?> getValueClass() {
+            return valueClass == null ? Object.class : valueClass;
+        }
+
+        @Override
+        void append(@NotNull ResultSet rs, int index, int row) throws SQLException {
+            Object value = rs.getObject(index);
+            if (valueClass == null && value != null) {
+                valueClass = value.getClass();
+            }
+            values.add(value);
+        }
+
+        @Nullable
+        @Override
+        Object getObject(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void release() {
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,1036 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.cache;
+
+import groovy.lang.GString;
+import org.h2gis.utilities.TableLocation;
+import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.commons.printer.Ascii;
+import org.orbisgis.commons.printer.Html;
+import org.orbisgis.commons.printer.ICustomPrinter;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IMaterializedTable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.api.dsl.IBuilderResult;
+import org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder;
+import org.orbisgis.orbisdata.datamanager.jdbc.JdbcTableSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.orbisgis.commons.printer.ICustomPrinter.CellPosition.*;
+
+/**
+ * Read only {@link ITable} holding a copy of a table into off-heap column oriented buffers. The integer, boolean and
+ * floating point columns are stored as primitives, the string columns are dictionary encoded and the geometry columns
+ * are stored as packed coordinates, so the table can be scanned many times without requesting the database nor
+ * creating garbage for the primitive values.
+ *
+ * The memory used by all the {@link MaterializedTable}s is limited by a global budget. A {@link MaterializedTable}
+ * should be released with {@link #release()}, or closed, once not used anymore to give back its memory to the budget.
+ * If it is not, the memory is given back on the next reservation or release following the garbage collection of the
+ * table.
+ *
+ * Each iteration ({@link #iterator()}, {@link #stream()}, {@link #eachRow(groovy.lang.Closure)}) uses its own cursor,
+ * so concurrent iterations don't interfere with each other nor with the cursor of the table itself.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class MaterializedTable implements IMaterializedTable<MaterializedTable, MaterializedTable> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaterializedTable.class);
+
+    /**
+     * Fetch size used to read the materialized table.
+     */
+    public static final int FETCH_SIZE = 10000;
+    /**
+     * Default width of the columns in ascii print
+     */
+    private static final int ASCII_COLUMN_WIDTH = 20;
+    /**
+     * Memory used by all the {@link MaterializedTable}s in bytes.
+     */
+    private static final AtomicLong USED_MEMORY = new AtomicLong();
+    /**
+     * Maximum memory usable by all the {@link MaterializedTable}s in bytes.
+     */
+    private static volatile long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+    /**
+     * {@link ReferenceQueue} receiving the {@link Memory} of the {@link MaterializedTable}s garbage collected without
+     * having been released.
+     */
+    private static final ReferenceQueue<MaterializedTable> QUEUE = new ReferenceQueue<>();
+    /**
+     * {@link Memory} of the {@link MaterializedTable}s not released yet, kept reachable until they are enqueued.
+     */
+    private static final Set<Memory> MEMORIES = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Location of the materialized table, null for a query.
+     */
+    private final TableLocation location;
+    /**
+     * Name of the materialized table.
+     */
+    private final String name;
+    /**
+     * Storage of the columns.
+     */
+    private final ColumnStore[] stores;
+    /**
+     * Indexes of the columns, starting at 1, by upper case name.
+     */
+    private final Map<String, Integer> indexes;
+    /**
+     * Row count.
+     */
+    private final int rowCount;
+    /**
+     * Current row, starting at 1, 0 being before the first row and row count + 1 after the last one.
+     */
+    private int row = 0;
+    /**
+     * Memory of the column stores, shared by the table and its cursors.
+     */
+    private final Memory memory;
+    /**
+     * Table owning the memory. It is referenced by the cursors so that it can't be garbage collected, and so cleaned,
+     * while an iteration is running.
+     */
+    private final MaterializedTable owner;
+
+    /**
+     * Main constructor.
+     *
+     * @param location Location of the materialized table, null for a query.
+     * @param name     Name of the materialized table.
+     * @param stores   Storage of the columns.
+     * @param rowCount Row count.
+     */
+    private MaterializedTable(@Nullable TableLocation location, @NotNull String name, @NotNull ColumnStore[] stores,
+                              int rowCount) {
+        this.location = location;
+        this.name = name;
+        this.stores = stores;
+        this.rowCount = rowCount;
+        this.indexes = new HashMap<>();
+        for (int i = 0; i < stores.length; i++) {
+            indexes.putIfAbsent(stores[i].getName().toUpperCase(), i + 1);
+        }
+        this.memory = new Memory(this, stores);
+        MEMORIES.add(memory);
+        this.owner = this;
+    }
+
+    /**
+     * Cursor constructor. The cursor shares the columns of the given table and has its own current row.
+     *
+     * @param table {@link MaterializedTable} to iterate.
+     */
+    private MaterializedTable(@NotNull MaterializedTable table) {
+        this.location = table.location;
+        this.name = table.name;
+        this.stores = table.stores;
+        this.rowCount = table.rowCount;
+        this.indexes = table.indexes;
+        this.memory = table.memory;
+        this.owner = table.owner;
+    }
+
+    /**
+     * Copy all the rows of the given {@link ResultSet} into a new {@link MaterializedTable}.
+     *
+     * @param location Location of the materialized table, null for a query.
+     * @param name     Name of the materialized table.
+     * @param rs       {@link ResultSet} to copy.
+     * @return The {@link MaterializedTable}.
+     * @throws SQLException          Exception thrown if the {@link ResultSet} can't be read.
+     * @throws IllegalStateException Exception thrown if the memory budget is exceeded.
+     */
+    @NotNull
+    public static MaterializedTable of(@Nullable TableLocation location, @NotNull String name,
+                                       @NotNull ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        ColumnStore[] stores = new ColumnStore[meta.getColumnCount()];
+        try {
+            for (int i = 0; i < stores.length; i++) {
+                stores[i] = ColumnStore.create(meta, i + 1);
+            }
+            int count = 0;
+            while (rs.next()) {
+                for (int i = 0; i < stores.length; i++) {
+                    stores[i].append(rs, i + 1, count);
+                }
+                count++;
+            }
+            return new MaterializedTable(location, name, stores, count);
+        } catch (SQLException | RuntimeException e) {
+            for (ColumnStore store : stores) {
+                if (store != null) {
+                    store.release();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Set the maximum memory usable by all the {@link MaterializedTable}s.
+     *
+     * @param bytes Maximum memory in bytes.
+     */
+    public static void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+    }
+
+    /**
+     * Return the maximum memory usable by all the {@link MaterializedTable}s.
+     *
+     * @return The maximum memory in bytes.
+     */
+    public static long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Return the memory used by all the {@link MaterializedTable}s.
+     *
+     * @return The used memory in bytes.
+     */
+    public static long getUsedMemory() {
+        return USED_MEMORY.get();
+    }
+
+    /**
+     * Reserve memory from the budget.
+     *
+     * @param bytes Memory to reserve in bytes.
+     * @throws IllegalStateException Exception thrown if the budget is exceeded.
+     */
+    static void reserve(long bytes) {
+        drainQueue();
+        long used;
+        do {
+            used = USED_MEMORY.get();
+            if (used + bytes > memoryBudget) {
+                throw new IllegalStateException("The materialization memory budget of " + memoryBudget +
+                        " bytes is exceeded.");
+            }
+        } while (!USED_MEMORY.compareAndSet(used, used + bytes));
+    }
+
+    /**
+     * Give back memory to the budget.
+     *
+     * @param bytes Memory to give back in bytes.
+     */
+    static void free(long bytes) {
+        USED_MEMORY.addAndGet(-bytes);
+        drainQueue();
+    }
+
+    /**
+     * Give back to the budget the memory of the {@link MaterializedTable}s garbage collected without having been
+     * released.
+     */
+    private static void drainQueue() {
+        Reference<? extends MaterializedTable> reference;
+        while ((reference = QUEUE.poll()) != null) {
+            ((Memory) reference).release();
+        }
+    }
+
+    /**
+     * Release the memory of the table. The table and all its cursors should not be used anymore.
+     */
+    @Override
+    public void release() {
+        memory.release();
+    }
+
+    @Override
+    public boolean isReleased() {
+        return memory.released.get();
+    }
+
+    /**
+     * Return the {@link ColumnStore} of the given column.
+     *
+     * @param column Index of the column, starting at 1.
+     * @return The {@link ColumnStore} of the column.
+     * @throws SQLException Exception thrown if the column or the current row is not valid.
+     */
+    @NotNull
+    private ColumnStore getStore(int column) throws SQLException {
+        if (memory.released.get()) {
+            throw new SQLException("The materialized table '" + name + "' has been released.");
+        }
+        if (column < 1 || column > stores.length) {
+            throw new SQLException("The column index " + column + " is not valid.");
+        }
+        if (row < 1 || row > rowCount) {
+            throw new SQLException("There is no current row.");
+        }
+        return stores[column - 1];
+    }
+
+    /**
+     * Return the index of the given column.
+     *
+     * @param column Name of the column.
+     * @return The index of the column, starting at 1.
+     * @throws SQLException Exception thrown if the column is not found.
+     */
+    private int getIndex(@NotNull String column) throws SQLException {
+        Integer index = indexes.get(column.toUpperCase());
+        if (index == null) {
+            throw new SQLException("The column '" + column + "' is not found.");
+        }
+        return index;
+    }
+
+    /**
+     * Return an iterator over the rows. The iterator uses its own cursor, which is returned for each row, so the
+     * current row of this table is not changed.
+     *
+     * @return An iterator over the rows.
+     */
+    @Override
+    @NotNull
+    public Iterator<MaterializedTable> iterator() {
+        MaterializedTable cursor = new MaterializedTable(this);
+        return new Iterator<MaterializedTable>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.row < rowCount;
+            }
+
+            @Override
+            public MaterializedTable next() {
+                if (!cursor.next()) {
+                    throw new NoSuchElementException();
+                }
+                return cursor;
+            }
+        };
+    }
+
+    @Override
+    @NotNull
+    public Stream<MaterializedTable> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    @NotNull
+    public Collection<String> getColumns() {
+        List<String> columns = new ArrayList<>();
+        for (ColumnStore store : stores) {
+            columns.add(store.getName());
+        }
+        return columns;
+    }
+
+    @Override
+    @NotNull
+    public Map<String, String> getColumnsTypes() {
+        Map<String, String> types = new LinkedHashMap<>();
+        for (ColumnStore store : stores) {
+            types.put(store.getName(), store.getTypeName());
+        }
+        return types;
+    }
+
+    @Override
+    @Nullable
+    public String getColumnType(@NotNull String columnName) {
+        Integer index = indexes.get(columnName.toUpperCase());
+        return index == null ? null : stores[index - 1].getTypeName();
+    }
+
+    @Override
+    public boolean hasColumn(@NotNull String columnName, @NotNull Class<?> clazz) {
+        Integer index = indexes.get(columnName.toUpperCase());
+        return index != null && clazz.isAssignableFrom(stores[index - 1].getValueClass());
+    }
+
+    @Override
+    public int getColumnCount() {
+        return stores.length;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public boolean next() {
+        if (row < rowCount) {
+            row++;
+            return true;
+        }
+        row = rowCount + 1;
+        return false;
+    }
+
+    @Override
+    public boolean previous() {
+        if (row > 1) {
+            row--;
+            return true;
+        }
+        row = 0;
+        return false;
+    }
+
+    @Override
+    public boolean first() {
+        row = rowCount > 0 ? 1 : 0;
+        return rowCount > 0;
+    }
+
+    @Override
+    public boolean last() {
+        row = rowCount;
+        return rowCount > 0;
+    }
+
+    @Override
+    public boolean isFirst() {
+        return rowCount > 0 && row == 1;
+    }
+
+    @Override
+    public boolean isLast() {
+        return rowCount > 0 && row == rowCount;
+    }
+
+    @Override
+    @NotNull
+    public Collection<String> getUniqueValues(@NotNull String column) {
+        Integer index = indexes.get(column.toUpperCase());
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        ColumnStore store = stores[index - 1];
+        if (store instanceof ColumnStore.StringStore) {
+            return new ArrayList<>(((ColumnStore.StringStore) store).getDictionary());
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (int i = 0; i < rowCount; i++) {
+            String value = store.getString(i);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * A {@link MaterializedTable} can't be saved into a file, the original table should be saved instead.
+     *
+     * @return Always null.
+     */
+    @Override
+    public String save(@NotNull String filePath, boolean delete) {
+        LOGGER.error("Unable to save the materialized table '" + name + "' into a file, save the original table " +
+                "instead.");
+        return null;
+    }
+
+    /**
+     * A {@link MaterializedTable} can't be saved into a file, the original table should be saved instead.
+     *
+     * @return Always null.
+     */
+    @Override
+    public String save(@NotNull String filePath, @Nullable String encoding) {
+        return save(filePath, false);
+    }
+
+    @Override
+    public String save(@Nullable IJdbcDataSource dataSource, int batchSize) {
+        return save(dataSource, false, batchSize);
+    }
+
+    @Override
+    public String save(@Nullable IJdbcDataSource dataSource, boolean deleteTable) {
+        return save(dataSource, deleteTable, 1000);
+    }
+
+    @Override
+    public String save(@Nullable IJdbcDataSource dataSource, boolean deleteTable, int batchSize) {
+        return save(dataSource, location == null ? name : location.getTable(), deleteTable, batchSize);
+    }
+
+    @Override
+    public String save(@Nullable IJdbcDataSource dataSource, @NotNull String outputTableName, boolean deleteTable) {
+        return save(dataSource, outputTableName, deleteTable, 1000);
+    }
+
+    /**
+     * Save the cached rows into a new table of the given {@link IJdbcDataSource}. The columns are created with the
+     * database type names of the original table.
+     */
+    @Override
+    public String save(@Nullable IJdbcDataSource dataSource, @NotNull String outputTableName, boolean deleteTable,
+                       int batchSize) {
+        if (dataSource == null) {
+            LOGGER.error("The output datasource connexion cannot be null\n");
+            return null;
+        }
+        if (memory.released.get()) {
+            LOGGER.error("The materialized table '" + name + "' has been released.");
+            return null;
+        }
+        DBTypes dbType = dataSource.getDataBaseType();
+        String outputTable = TableLocation.parse(outputTableName, dbType).toString(dbType);
+        StringBuilder create = new StringBuilder("CREATE TABLE ").append(outputTable).append(" (");
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(outputTable).append(" VALUES (");
+        for (int i = 0; i < stores.length; i++) {
+            if (i > 0) {
+                create.append(", ");
+                insert.append(", ");
+            }
+            create.append(TableLocation.quoteIdentifier(stores[i].getName(), dbType)).append(" ")
+                    .append(stores[i].getTypeName());
+            insert.append("?");
+        }
+        create.append(")");
+        insert.append(")");
+        int size = Math.max(batchSize, 1);
+        Connection connection = dataSource.getConnection();
+        try {
+            try (Statement statement = connection.createStatement()) {
+                if (deleteTable) {
+                    statement.execute("DROP TABLE IF EXISTS " + outputTable);
+                }
+                statement.execute(create.toString());
+            }
+            try (PreparedStatement statement = connection.prepareStatement(insert.toString())) {
+                for (int i = 0; i < rowCount; i++) {
+                    for (int j = 0; j < stores.length; j++) {
+                        statement.setObject(j + 1, stores[j].getObject(i));
+                    }
+                    statement.addBatch();
+                    if ((i + 1) % size == 0) {
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return outputTable;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to save the materialized table '" + name + "' into '" + outputTable + "'.\n" +
+                    e.getLocalizedMessage());
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Unable to rollback.\n" + ex.getLocalizedMessage());
+            }
+            return null;
+        }
+    }
+
+    @Override
+    @NotNull
+    public List<Object> getFirstRow() {
+        List<Object> list = new ArrayList<>();
+        if (rowCount > 0) {
+            for (ColumnStore store : stores) {
+                list.add(store.getObject(0));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    @NotNull
+    public Map<String, Object> firstRow() {
+        Map<String, Object> map = new HashMap<>();
+        if (rowCount > 0) {
+            for (ColumnStore store : stores) {
+                map.put(store.getName(), store.getObject(0));
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public boolean isSpatial() {
+        for (ColumnStore store : stores) {
+            if (store instanceof ColumnStore.GeometryStore) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@link Geometry} value of the given column at the current row.
+     *
+     * @param column Index of the geometric column, starting at 1.
+     * @return The {@link Geometry} value of the given column at the current row.
+     * @throws SQLException Exception thrown if the column or the current row is not valid.
+     */
+    @Nullable
+    public Geometry getGeometry(int column) throws SQLException {
+        Object value = getObject(column);
+        if (value == null || value instanceof Geometry) {
+            return (Geometry) value;
+        }
+        throw new SQLException("The column " + column + " is not a geometric one.");
+    }
+
+    /**
+     * Returns the {@link Geometry} value of the given column at the current row.
+     *
+     * @param column Label of the geometric column.
+     * @return The {@link Geometry} value of the given column at the current row.
+     * @throws SQLException Exception thrown if the column or the current row is not valid.
+     */
+    @Nullable
+    public Geometry getGeometry(@NotNull String column) throws SQLException {
+        return getGeometry(getIndex(column));
+    }
+
+    @Override
+    public String getString(int column) throws SQLException {
+        return getStore(column).getString(row - 1);
+    }
+
+    @Override
+    public boolean getBoolean(int column) throws SQLException {
+        return getStore(column).getBoolean(row - 1);
+    }
+
+    @Override
+    public byte getByte(int column) throws SQLException {
+        return (byte) getStore(column).getLong(row - 1);
+    }
+
+    @Override
+    public short getShort(int column) throws SQLException {
+        return (short) getStore(column).getLong(row - 1);
+    }
+
+    @Override
+    public int getInt(int column) throws SQLException {
+        return (int) getStore(column).getLong(row - 1);
+    }
+
+    @Override
+    public long getLong(int column) throws SQLException {
+        return getStore(column).getLong(row - 1);
+    }
+
+    @Override
+    public float getFloat(int column) throws SQLException {
+        return (float) getStore(column).getDouble(row - 1);
+    }
+
+    @Override
+    public double getDouble(int column) throws SQLException {
+        return getStore(column).getDouble(row - 1);
+    }
+
+    @Override
+    public byte[] getBytes(int column) throws SQLException {
+        Object value = getObject(column);
+        return value instanceof byte[] ? (byte[]) value : null;
+    }
+
+    @Override
+    public Date getDate(int column) throws SQLException {
+        Object value = getObject(column);
+        if (value == null || value instanceof Date) {
+            return (Date) value;
+        }
+        return value instanceof java.util.Date ? new Date(((java.util.Date) value).getTime()) : null;
+    }
+
+    @Override
+    public Time getTime(int column) throws SQLException {
+        Object value = getObject(column);
+        if (value == null || value instanceof Time) {
+            return (Time) value;
+        }
+        return value instanceof java.util.Date ? new Time(((java.util.Date) value).getTime()) : null;
+    }
+
+    @Override
+    public Timestamp getTimestamp(int column) throws SQLException {
+        Object value = getObject(column);
+        if (value == null || value instanceof Timestamp) {
+            return (Timestamp) value;
+        }
+        return value instanceof java.util.Date ? new Timestamp(((java.util.Date) value).getTime()) : null;
+    }
+
+    @Override
+    public Object getObject(int column) throws SQLException {
+        return getStore(column).getObject(row - 1);
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int column) throws SQLException {
+        return getStore(column).getBigDecimal(row - 1);
+    }
+
+    @Override
+    public String getString(@NotNull String column) throws SQLException {
+        return getString(getIndex(column));
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull String column) throws SQLException {
+        return getBoolean(getIndex(column));
+    }
+
+    @Override
+    public byte getByte(@NotNull String column) throws SQLException {
+        return getByte(getIndex(column));
+    }
+
+    @Override
+    public short getShort(@NotNull String column) throws SQLException {
+        return getShort(getIndex(column));
+    }
+
+    @Override
+    public int getInt(@NotNull String column) throws SQLException {
+        return getInt(getIndex(column));
+    }
+
+    @Override
+    public long getLong(@NotNull String column) throws SQLException {
+        return getLong(getIndex(column));
+    }
+
+    @Override
+    public float getFloat(@NotNull String column) throws SQLException {
+        return getFloat(getIndex(column));
+    }
+
+    @Override
+    public double getDouble(@NotNull String column) throws SQLException {
+        return getDouble(getIndex(column));
+    }
+
+    @Override
+    public byte[] getBytes(@NotNull String column) throws SQLException {
+        return getBytes(getIndex(column));
+    }
+
+    @Override
+    public Date getDate(@NotNull String column) throws SQLException {
+        return getDate(getIndex(column));
+    }
+
+    @Override
+    public Time getTime(@NotNull String column) throws SQLException {
+        return getTime(getIndex(column));
+    }
+
+    @Override
+    public Timestamp getTimestamp(@NotNull String column) throws SQLException {
+        return getTimestamp(getIndex(column));
+    }
+
+    @Override
+    public Object getObject(@NotNull String column) throws SQLException {
+        return getObject(getIndex(column));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(@NotNull String column) throws SQLException {
+        return getBigDecimal(getIndex(column));
+    }
+
+    @Override
+    public <V> V getObject(int column, @NotNull Class<V> clazz) throws SQLException {
+        Object value = getObject(column);
+        if (value == null || clazz.isInstance(value)) {
+            return clazz.cast(value);
+        }
+        if (clazz == String.class) {
+            return clazz.cast(value.toString());
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (clazz == Double.class) {
+                return clazz.cast(number.doubleValue());
+            } else if (clazz == Float.class) {
+                return clazz.cast(number.floatValue());
+            } else if (clazz == Long.class) {
+                return clazz.cast(number.longValue());
+            } else if (clazz == Integer.class) {
+                return clazz.cast(number.intValue());
+            } else if (clazz == Short.class) {
+                return clazz.cast(number.shortValue());
+            } else if (clazz == Byte.class) {
+                return clazz.cast(number.byteValue());
+            }
+        }
+        throw new SQLException("Unable to convert the value of the column " + column + " into '" +
+                clazz.getName() + "'.");
+    }
+
+    @Override
+    public <V> V getObject(@NotNull String column, @NotNull Class<V> clazz) throws SQLException {
+        return getObject(getIndex(column), clazz);
+    }
+
+    @Override
+    public String getLocation() {
+        return location == null ? name : location.toString();
+    }
+
+    @Override
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    @NotNull
+    public Object getMetaData() {
+        return getColumnsTypes();
+    }
+
+    @Override
+    @NotNull
+    public JdbcTableSummary getSummary() {
+        return new JdbcTableSummary(location, getColumnCount(), getRowCount());
+    }
+
+    /**
+     * A {@link MaterializedTable} is a snapshot which can't be reloaded.
+     *
+     * @return Always false.
+     */
+    @Override
+    public boolean reload() {
+        return false;
+    }
+
+    @Override
+    public Object asType(@NotNull Class<?> clazz) {
+        if (ICustomPrinter.class.isAssignableFrom(clazz)) {
+            StringBuilder builder = new StringBuilder();
+            ICustomPrinter printer;
+            if (clazz == Ascii.class) {
+                printer = new Ascii(builder);
+            } else if (clazz == Html.class) {
+                printer = new Html(builder);
+            } else {
+                return this;
+            }
+            printer.startTable(ASCII_COLUMN_WIDTH, stores.length);
+            printer.appendTableTitle(this.getName());
+            printer.appendTableLineSeparator();
+            for (ColumnStore store : stores) {
+                printer.appendTableHeaderValue(store.getName(), CENTER);
+            }
+            printer.appendTableLineSeparator();
+            for (int i = 0; i < rowCount; i++) {
+                for (ColumnStore store : stores) {
+                    Object obj = store.getObject(i);
+                    printer.appendTableValue(obj, obj instanceof Number ? RIGHT : LEFT);
+                }
+            }
+            printer.appendTableLineSeparator();
+            printer.endTable();
+            return printer;
+        } else if (ITable.class.isAssignableFrom(clazz)) {
+            return this;
+        }
+        return null;
+    }
+
+    /**
+     * Log that the SQL query builder is not available on a {@link MaterializedTable}.
+     *
+     * @return Always null.
+     */
+    @Nullable
+    private <V> V queryUnsupported() {
+        LOGGER.error("The materialized table '" + name + "' can't be requested with SQL, filter the original table " +
+                "instead.");
+        return null;
+    }
+
+    @Override
+    public IFilterBuilder columns(String... columns) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IBuilderResult filter(String filter) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IBuilderResult filter(GString filter) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IBuilderResult filter(String filter, List<Object> params) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry) {
+        return queryUnsupported();
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return queryUnsupported();
+    }
+
+    @Override
+    @NotNull
+    public ITable<?, ?> getTable() {
+        return this;
+    }
+
+    /**
+     * A {@link MaterializedTable} has no spatial view, its geometries are read with {@link #getGeometry(int)}.
+     *
+     * @return Always null.
+     */
+    @Override
+    public ISpatialTable<?> getSpatialTable() {
+        LOGGER.error("The materialized table '" + name + "' has no spatial view, use getGeometry() instead.");
+        return null;
+    }
+
+    @Override
+    @NotNull
+    public List<Object> getParams() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    @NotNull
+    public String toString() {
+        return getSummary().toString();
+    }
+
+    /**
+     * Memory of the column stores of a {@link MaterializedTable}, released once either explicitly or when drained
+     * from the {@link #QUEUE}. As a {@link PhantomReference} it does not prevent the table from being garbage
+     * collected.
+     */
+    private static final class Memory extends PhantomReference<MaterializedTable> {
+
+        /**
+         * Storage of the columns.
+         */
+        private final ColumnStore[] stores;
+        /**
+         * True if the memory has been released.
+         */
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Main constructor.
+         *
+         * @param table  {@link MaterializedTable} owning the memory.
+         * @param stores Storage of the columns.
+         */
+        private Memory(@NotNull MaterializedTable table, @NotNull ColumnStore[] stores) {
+            super(table, QUEUE);
+            this.stores = stores;
+        }
+
+        /**
+         * Release the column stores if they are not already released.
+         */
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                MEMORIES.remove(this);
+                clear();
+                for (ColumnStore store : stores) {
+                    store.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Growable direct {@link ByteBuffer} accessed with absolute byte offsets, allocated on the first write. Each
+ * allocation is reserved from the memory budget of the {@link MaterializedTable}s and given back on
+ * {@link #release()}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+class OffHeapBuffer {
+
+    /**
+     * Maximum capacity of a buffer.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    /**
+     * Underlying direct buffer, null until the first write.
+     */
+    private ByteBuffer buffer = null;
+    /**
+     * Capacity in bytes of the first allocation.
+     */
+    private final int initialCapacity;
+
+    /**
+     * Main constructor. The memory is allocated on the first write.
+     *
+     * @param initialCapacity Capacity in bytes of the first allocation.
+     */
+    OffHeapBuffer(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    /**
+     * Ensure that the buffer can hold the given number of bytes, growing it if needed.
+     *
+     * @param size Number of bytes the buffer should hold.
+     */
+    void ensure(long size) {
+        int capacity = buffer == null ? 0 : buffer.capacity();
+        if (size <= capacity) {
+            return;
+        }
+        if (size > MAX_CAPACITY) {
+            throw new IllegalStateException("The column is too large to be materialized.");
+        }
+        int newCapacity = (int) Math.min(MAX_CAPACITY, Math.max(Math.max(size, initialCapacity), 2L * capacity));
+        MaterializedTable.reserve(newCapacity - capacity);
+        ByteBuffer newBuffer = ByteBuffer.allocateDirect(newCapacity).order(ByteOrder.nativeOrder());
+        if (buffer != null) {
+            ByteBuffer old = buffer.duplicate();
+            old.clear();
+            newBuffer.put(old);
+            newBuffer.clear();
+        }
+        buffer = newBuffer;
+    }
+
+    /**
+     * Write an int at the given byte offset, growing the buffer if needed.
+     *
+     * @param offset Offset in bytes.
+     * @param value  Value to write.
+     */
+    void putInt(long offset, int value) {
+        ensure(offset + Integer.BYTES);
+        buffer.putInt((int) offset, value);
+    }
+
+    /**
+     * Read the int at the given byte offset.
+     *
+     * @param offset Offset in bytes.
+     * @return The read value.
+     */
+    int getInt(long offset) {
+        return buffer.getInt((int) offset);
+    }
+
+    /**
+     * Write a long at the given byte offset, growing the buffer if needed.
+     *
+     * @param offset Offset in bytes.
+     * @param value  Value to write.
+     */
+    void putLong(long offset, long value) {
+        ensure(offset + Long.BYTES);
+        buffer.putLong((int) offset, value);
+    }
+
+    /**
+     * Read the long at the given byte offset.
+     *
+     * @param offset Offset in bytes.
+     * @return The read value.
+     */
+    long getLong(long offset) {
+        return buffer.getLong((int) offset);
+    }
+
+    /**
+     * Write a double at the given byte offset, growing the buffer if needed.
+     *
+     * @param offset Offset in bytes.
+     * @param value  Value to write.
+     */
+    void putDouble(long offset, double value) {
+        ensure(offset + Double.BYTES);
+        buffer.putDouble((int) offset, value);
+    }
+
+    /**
+     * Read the double at the given byte offset.
+     *
+     * @param offset Offset in bytes.
+     * @return The read value.
+     */
+    double getDouble(long offset) {
+        return buffer.getDouble((int) offset);
+    }
+
+    /**
+     * Set the bit of the given index.
+     *
+     * @param index Index of the bit.
+     */
+    void setBit(long index) {
+        long offset = index >>> 3;
+        ensure(offset + 1);
+        buffer.put((int) offset, (byte) (buffer.get((int) offset) | (1 << (index & 7))));
+    }
+
+    /**
+     * Return the bit of the given index.
+     *
+     * @param index Index of the bit.
+     * @return True if the bit is set, false otherwise.
+     */
+    boolean getBit(long index) {
+        long offset = index >>> 3;
+        return buffer != null && offset < buffer.capacity() && (buffer.get((int) offset) & (1 << (index & 7))) != 0;
+    }
+
+    /**
+     * Give back the buffer memory to the budget. The buffer should not be used anymore.
+     */
+    void release() {
+        if (buffer != null) {
+            MaterializedTable.free(buffer.capacity());
+            buffer = null;
+        }
+    }
+}
@@ -37,6 +37,11 @@
 package org.orbisgis.orbisdata.datamanager.jdbc.dsl;
 
 import groovy.lang.GString;
+import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKBWriter;
+import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
 import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
@@ -44,6 +49,7 @@ import org.orbisgis.orbisdata.datamanager.api.dsl.IBuilderResult;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder;
 import org.orbisgis.orbisdata.datamanager.api.dsl.IResultSetProperties;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -59,6 +65,10 @@ public class FilterBuilder extends BuilderResult implements IFilterBuilder {
     private final List<Object> params;
     private final IJdbcDataSource dataSource;
     private final IResultSetProperties rsp;
+    /**
+     * True if a typed spatial filter has already opened the WHERE clause.
+     */
+    private boolean hasSpatialFilter = false;
 
     public FilterBuilder(IJdbcDataSource dataSource, String query, List<Object> params, IResultSetProperties properties) {
         this.dataSource = dataSource;
@@ -102,6 +112,62 @@ public class FilterBuilder extends BuilderResult implements IFilterBuilder {
         return this;
     }
 
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry) {
+        return spatialFilter(column, "ST_Intersects", "&&", "ST_GeomFromWKB(?, ?)",
+                Arrays.asList(new WKBWriter().write(geometry), geometry.getSRID()));
+    }
+
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return spatialFilter(column, "ST_Intersects", "&&", "ST_MakeEnvelope(?, ?, ?, ?, ?)",
+                Arrays.asList(envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY(), srid));
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry) {
+        return spatialFilter(column, "ST_Within", getContainedByOperator(), "ST_GeomFromWKB(?, ?)",
+                Arrays.asList(new WKBWriter().write(geometry), geometry.getSRID()));
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return spatialFilter(column, "ST_Within", getContainedByOperator(), "ST_MakeEnvelope(?, ?, ?, ?, ?)",
+                Arrays.asList(envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY(), srid));
+    }
+
+    /**
+     * Return the bounding box operator checking that the left bounding box is contained by the right one. PostGIS
+     * supports the index-aware '@' operator, H2GIS only supports the '&&' overlap operator.
+     *
+     * @return The bounding box operator to use for a within filter.
+     */
+    private String getContainedByOperator() {
+        DBTypes dbType = dataSource.getDataBaseType();
+        return dbType == DBTypes.POSTGIS || dbType == DBTypes.POSTGRESQL ? "@" : "&&";
+    }
+
+    /**
+     * Append a spatial filter made of a bounding box filter followed by the exact spatial predicate.
+     *
+     * @param column       Name of the geometric column to filter.
+     * @param predicate    Name of the exact spatial predicate function.
+     * @param bboxOperator Bounding box operator.
+     * @param value        SQL expression building the geometry from the parameters.
+     * @param valueParams  Parameters of the geometry expression.
+     * @return {@link IFilterBuilder} instance to continue building.
+     */
+    private IFilterBuilder spatialFilter(String column, String predicate, String bboxOperator, String value,
+                                         List<Object> valueParams) {
+        query.append(hasSpatialFilter ? " AND " : " WHERE ")
+                .append(column).append(" ").append(bboxOperator).append(" ").append(value)
+                .append(" AND ").append(predicate).append("(").append(column).append(", ").append(value).append(")");
+        params.addAll(valueParams);
+        params.addAll(valueParams);
+        hasSpatialFilter = true;
+        return this;
+    }
+
     @Override
     protected IJdbcDataSource getDataSource() {
         return dataSource;
@@ -39,6 +39,8 @@ package org.orbisgis.orbisdata.datamanager.jdbc.dsl;
 import groovy.lang.GString;
 import org.h2gis.utilities.TableLocation;
 import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
@@ -119,6 +121,26 @@ public class QueryBuilder extends BuilderResult implements IQueryBuilder {
         return new FilterBuilder(dataSource, getQuery(), getResultSetProperties());
     }
 
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Geometry geometry) {
+        return new FilterBuilder(dataSource, getQuery(), getResultSetProperties()).intersects(column, geometry);
+    }
+
+    @Override
+    public IFilterBuilder intersects(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return new FilterBuilder(dataSource, getQuery(), getResultSetProperties()).intersects(column, envelope, srid);
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Geometry geometry) {
+        return new FilterBuilder(dataSource, getQuery(), getResultSetProperties()).within(column, geometry);
+    }
+
+    @Override
+    public IFilterBuilder within(@NotNull String column, @NotNull Envelope envelope, int srid) {
+        return new FilterBuilder(dataSource, getQuery(), getResultSetProperties()).within(column, envelope, srid);
+    }
+
     @Override
     protected IJdbcDataSource getDataSource() {
         return dataSource;
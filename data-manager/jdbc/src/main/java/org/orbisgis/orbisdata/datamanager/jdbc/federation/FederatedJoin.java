@@ -0,0 +1,732 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.federation;
+
+import org.h2gis.utilities.dbtypes.DBTypes;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKTReader;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Join between a table of an {@link IJdbcDataSource} and a table of another one, for example a local H2GIS working
+ * table and a reference POSTGIS table, without loading one table into the other database.
+ *
+ * The filters and the projections are pushed down to each data source, so only the needed rows and columns are read.
+ * The side with the fewest rows is streamed into a hash index for an equality join or into a spatial index for a
+ * spatial join. The other side is then read with a forward only cursor and each of its rows probes the index. The
+ * indexed side can be chosen with {@link #buildLeft(Boolean)}, otherwise the rows are estimated by the query planner
+ * on PostgreSQL/PostGIS and counted with a <code>COUNT(*)</code> query on the other databases.
+ *
+ * The joined rows contain the projected columns of the left table followed by the projected columns of the right
+ * table. A right column having the same label as a left one is prefixed by {@link #RIGHT_PREFIX}, so the columns
+ * sharing a name should rather be aliased in the projections.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class FederatedJoin {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedJoin.class);
+
+    /**
+     * Fetch size used to stream the rows of the joined tables.
+     */
+    public static final int FETCH_SIZE = 10000;
+    /**
+     * Label of the join key added to the pushed down queries.
+     */
+    private static final String KEY_LABEL = "FEDERATION_KEY";
+    /**
+     * Prefix of the right columns having the same label as a left one.
+     */
+    public static final String RIGHT_PREFIX = "RIGHT_";
+    /**
+     * Pattern of the number of rows estimated by the PostgreSQL query planner.
+     */
+    private static final Pattern ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+    /**
+     * Pattern of a hexadecimal (E)WKB.
+     */
+    private static final Pattern HEX_PATTERN = Pattern.compile("([0-9A-Fa-f]{2})+");
+
+    /**
+     * Left side of the join.
+     */
+    private final Side left;
+    /**
+     * Right side of the join.
+     */
+    private final Side right;
+    /**
+     * Spatial predicate of the join, null for an equality join.
+     */
+    private BiPredicate<Geometry, Geometry> spatialPredicate;
+    /**
+     * True if an invalid join condition has been set.
+     */
+    private boolean invalidCondition = false;
+    /**
+     * True to index the left side, false to index the right side, null to index the side with the fewest rows.
+     */
+    @Nullable
+    private Boolean buildLeft;
+
+    /**
+     * Main constructor.
+     *
+     * @param leftDataSource  {@link IJdbcDataSource} containing the left table.
+     * @param leftTable       Name of the left table.
+     * @param rightDataSource {@link IJdbcDataSource} containing the right table.
+     * @param rightTable      Name of the right table.
+     */
+    public FederatedJoin(@NotNull IJdbcDataSource leftDataSource, @NotNull String leftTable,
+                         @NotNull IJdbcDataSource rightDataSource, @NotNull String rightTable) {
+        this.left = new Side(leftDataSource, leftTable);
+        this.right = new Side(rightDataSource, rightTable);
+    }
+
+    /**
+     * Set the columns of the left table to read. All the columns are read if none is given.
+     *
+     * @param columns Columns or expressions to read, which can be aliased.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin leftColumns(@Nullable String... columns) {
+        left.columns = columns;
+        return this;
+    }
+
+    /**
+     * Set the columns of the right table to read. All the columns are read if none is given.
+     *
+     * @param columns Columns or expressions to read, which can be aliased.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin rightColumns(@Nullable String... columns) {
+        right.columns = columns;
+        return this;
+    }
+
+    /**
+     * Set the filter applied by the left data source on its table, e.g. <code>type = 'building'</code>.
+     *
+     * @param filter SQL condition in the dialect of the left data source.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin leftFilter(@Nullable String filter) {
+        left.filter = filter;
+        return this;
+    }
+
+    /**
+     * Set the filter applied by the right data source on its table, e.g. <code>type = 'building'</code>.
+     *
+     * @param filter SQL condition in the dialect of the right data source.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin rightFilter(@Nullable String filter) {
+        right.filter = filter;
+        return this;
+    }
+
+    /**
+     * Set the side of the join indexed in memory, which should be the one with the fewest rows. This avoids the
+     * estimation of the number of rows of each side.
+     *
+     * @param buildLeft True to index the left side, false to index the right side, null to index the side with the
+     *                  fewest estimated rows.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin buildLeft(@Nullable Boolean buildLeft) {
+        this.buildLeft = buildLeft;
+        return this;
+    }
+
+    /**
+     * Join the rows whose values of the given columns are equal. The numbers are compared by value whatever their
+     * Java type and scale, and the null values never match.
+     *
+     * @param leftColumn  Column or expression of the left table.
+     * @param rightColumn Column or expression of the right table.
+     * @return The current {@link FederatedJoin}.
+     */
+    @NotNull
+    public FederatedJoin on(@NotNull String leftColumn, @NotNull String rightColumn) {
+        left.key = leftColumn;
+        right.key = rightColumn;
+        spatialPredicate = null;
+        invalidCondition = false;
+        return this;
+    }
+
+    /**
+     * Join the rows whose geometries satisfy the given spatial predicate, evaluated as
+     * <code>predicate(leftGeometry, rightGeometry)</code>. The candidates are first selected with the bounding box of
+     * the geometries.
+     *
+     * @param leftColumn  Geometric column or expression of the left table.
+     * @param rightColumn Geometric column or expression of the right table.
+     * @param predicate   Name of the predicate, with or without the <code>ST_</code> prefix : intersects, contains,
+     *                    within, covers, coveredBy, touches, crosses, overlaps or equals.
+     * @return The current {@link FederatedJoin}, which join fails if the predicate is not supported.
+     */
+    @NotNull
+    public FederatedJoin spatial(@NotNull String leftColumn, @NotNull String rightColumn, @NotNull String predicate) {
+        BiPredicate<Geometry, Geometry> spatial = getSpatialPredicate(predicate);
+        left.key = leftColumn;
+        right.key = rightColumn;
+        spatialPredicate = spatial;
+        invalidCondition = spatial == null;
+        if (invalidCondition) {
+            LOGGER.error("Unsupported spatial predicate '" + predicate + "'.");
+        }
+        return this;
+    }
+
+    /**
+     * Run the join and give each joined row to the given {@link Consumer}.
+     *
+     * @param consumer {@link Consumer} of the joined rows.
+     * @return The number of joined rows, -1 if the join failed.
+     */
+    public long eachRow(@NotNull Consumer<Map<String, Object>> consumer) {
+        if (left.key == null || right.key == null) {
+            LOGGER.error("The join condition should be set with 'on' or 'spatial'.");
+            return -1;
+        }
+        if (invalidCondition) {
+            LOGGER.error("The join condition is not valid.");
+            return -1;
+        }
+        boolean buildLeft;
+        if (this.buildLeft != null) {
+            buildLeft = this.buildLeft;
+        } else {
+            long leftCount = left.estimate();
+            long rightCount = right.estimate();
+            if (leftCount < 0 || rightCount < 0) {
+                return -1;
+            }
+            buildLeft = leftCount <= rightCount;
+        }
+        Side build = buildLeft ? left : right;
+        Side probe = buildLeft ? right : left;
+        try {
+            Index index = spatialPredicate == null ? new HashIndex() : new SpatialIndex();
+            List<String> buildLabels = build.read(index::add);
+            if (buildLabels == null) {
+                return -1;
+            }
+            long[] count = new long[1];
+            List<String> labels = new ArrayList<>();
+            List<String> probeLabels = probe.read((key, probeRow) -> {
+                if (labels.isEmpty()) {
+                    labels.addAll(buildLeft ? getLabels(buildLabels, probe.labels) :
+                            getLabels(probe.labels, buildLabels));
+                }
+                for (Object[] buildRow : index.probe(key, buildLeft)) {
+                    consumer.accept(buildLeft ? merge(buildRow, probeRow, labels) : merge(probeRow, buildRow, labels));
+                    count[0]++;
+                }
+            });
+            return probeLabels == null ? -1 : count[0];
+        } catch (ParseException e) {
+            LOGGER.error("Unable to decode a join geometry.\n" + e.getLocalizedMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Run the join and return all the joined rows.
+     *
+     * @return The joined rows, null if the join failed.
+     */
+    @Nullable
+    public List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        return eachRow(rows::add) < 0 ? null : rows;
+    }
+
+    /**
+     * Return the labels of the joined rows : the left labels followed by the right ones, the right labels already
+     * used being prefixed by {@link #RIGHT_PREFIX}.
+     *
+     * @param leftLabels  Labels of the left columns.
+     * @param rightLabels Labels of the right columns.
+     * @return The labels of the joined rows.
+     */
+    @NotNull
+    private static List<String> getLabels(@NotNull List<String> leftLabels, @NotNull List<String> rightLabels) {
+        List<String> labels = new ArrayList<>(leftLabels);
+        for (String label : rightLabels) {
+            String unique = label;
+            while (labels.contains(unique)) {
+                unique = RIGHT_PREFIX + unique;
+            }
+            if (!unique.equals(label)) {
+                LOGGER.warn("The right column '" + label + "' has the same label as a left one, it is renamed '" +
+                        unique + "'.");
+            }
+            labels.add(unique);
+        }
+        return labels;
+    }
+
+    /**
+     * Merge a left row and a right row into a joined row.
+     *
+     * @param leftRow  Values of the left row.
+     * @param rightRow Values of the right row.
+     * @param labels   Labels of the joined row, as returned by {@link #getLabels(List, List)}.
+     * @return The joined row.
+     */
+    @NotNull
+    private static Map<String, Object> merge(@NotNull Object[] leftRow, @NotNull Object[] rightRow,
+                                             @NotNull List<String> labels) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < leftRow.length; i++) {
+            row.put(labels.get(i), leftRow[i]);
+        }
+        for (int i = 0; i < rightRow.length; i++) {
+            row.put(labels.get(leftRow.length + i), rightRow[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Return the JTS predicate matching the given name.
+     *
+     * @param name Name of the predicate, with or without the <code>ST_</code> prefix.
+     * @return The JTS predicate, null if the name is not supported.
+     */
+    @Nullable
+    private static BiPredicate<Geometry, Geometry> getSpatialPredicate(@NotNull String name) {
+        String lower = name.toLowerCase();
+        if (lower.startsWith("st_")) {
+            lower = lower.substring(3);
+        }
+        switch (lower) {
+            case "intersects":
+                return Geometry::intersects;
+            case "contains":
+                return Geometry::contains;
+            case "within":
+                return Geometry::within;
+            case "covers":
+                return Geometry::covers;
+            case "coveredby":
+                return Geometry::coveredBy;
+            case "touches":
+                return Geometry::touches;
+            case "crosses":
+                return Geometry::crosses;
+            case "overlaps":
+                return Geometry::overlaps;
+            case "equals":
+                return Geometry::equalsTopo;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Normalize a join key so that the values equal in the databases are equal in Java : all the numbers are
+     * converted into a {@link BigDecimal} without trailing zeros, the not finite floating numbers being kept as they
+     * are.
+     *
+     * @param value Value of the join key.
+     * @return The normalized value.
+     */
+    @Nullable
+    static Object normalize(@Nullable Object value) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            decimal = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            //The floating numbers are converted from their shortest decimal representation
+            try {
+                decimal = new BigDecimal(value.toString());
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return decimal.stripTrailingZeros();
+    }
+
+    /**
+     * Decode the given join key as a {@link Geometry}, keeping its SRID. The key can be a JTS {@link Geometry}, as
+     * returned by H2GIS, a binary (E)WKB or, like the PostGIS geometries read without the PostGIS driver extension,
+     * an object whose string value is a hexadecimal (E)WKB or an (E)WKT.
+     *
+     * @param value     Value of the join key.
+     * @param wkbReader {@link WKBReader} used to decode the binary values.
+     * @param wktReader {@link WKTReader} used to decode the text values.
+     * @return The {@link Geometry}, null if the value is null.
+     * @throws ParseException Exception thrown if the value can't be decoded.
+     */
+    @Nullable
+    static Geometry toGeometry(@Nullable Object value, @NotNull WKBReader wkbReader, @NotNull WKTReader wktReader)
+            throws ParseException {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Geometry) {
+            return (Geometry) value;
+        } else if (value instanceof byte[]) {
+            return wkbReader.read((byte[]) value);
+        }
+        String text = value.toString().trim();
+        if (HEX_PATTERN.matcher(text).matches()) {
+            return wkbReader.read(WKBReader.hexToBytes(text));
+        }
+        int srid = 0;
+        if (text.regionMatches(true, 0, "SRID=", 0, 5) && text.indexOf(';') > 0) {
+            try {
+                srid = Integer.parseInt(text.substring(5, text.indexOf(';')).trim());
+            } catch (NumberFormatException e) {
+                throw new ParseException("Invalid SRID in '" + text + "'.");
+            }
+            text = text.substring(text.indexOf(';') + 1);
+        }
+        Geometry geometry = wktReader.read(text);
+        if (srid != 0) {
+            geometry.setSRID(srid);
+        }
+        return geometry;
+    }
+
+    /**
+     * Consumer of the rows read from one side of the join.
+     */
+    private interface RowConsumer {
+
+        /**
+         * Consume a row.
+         *
+         * @param key Value of the join key.
+         * @param row Values of the projected columns.
+         * @throws ParseException Exception thrown if the join key can't be decoded.
+         */
+        void accept(@Nullable Object key, @NotNull Object[] row) throws ParseException;
+    }
+
+    /**
+     * In memory index of the rows of the smaller side of the join.
+     */
+    private interface Index {
+
+        /**
+         * Add a row to the index.
+         *
+         * @param key Value of the join key.
+         * @param row Values of the projected columns.
+         * @throws ParseException Exception thrown if the join key can't be decoded.
+         */
+        void add(@Nullable Object key, @NotNull Object[] row) throws ParseException;
+
+        /**
+         * Return the indexed rows matching the given key.
+         *
+         * @param key       Join key of the probing row.
+         * @param buildLeft True if the indexed rows are the left ones.
+         * @return The matching rows.
+         * @throws ParseException Exception thrown if the join key can't be decoded.
+         */
+        @NotNull
+        List<Object[]> probe(@Nullable Object key, boolean buildLeft) throws ParseException;
+    }
+
+    /**
+     * {@link Index} of the rows by value of their join key.
+     */
+    private static class HashIndex implements Index {
+
+        /**
+         * Indexed rows by normalized key.
+         */
+        private final Map<Object, List<Object[]>> rows = new HashMap<>();
+
+        @Override
+        public void add(@Nullable Object key, @NotNull Object[] row) {
+            if (key != null) {
+                rows.computeIfAbsent(normalize(key), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        @Override
+        @NotNull
+        public List<Object[]> probe(@Nullable Object key, boolean buildLeft) {
+            if (key == null) {
+                return new ArrayList<>();
+            }
+            return rows.getOrDefault(normalize(key), new ArrayList<>());
+        }
+    }
+
+    /**
+     * {@link Index} of the rows by envelope of their join geometry.
+     */
+    private class SpatialIndex implements Index {
+
+        /**
+         * R-tree of the indexed rows, each item being the geometry followed by the row.
+         */
+        private final STRtree tree = new STRtree();
+        /**
+         * Reader of the binary geometries.
+         */
+        private final WKBReader wkbReader = new WKBReader();
+        /**
+         * Reader of the text geometries.
+         */
+        private final WKTReader wktReader = new WKTReader();
+
+        @Override
+        public void add(@Nullable Object key, @NotNull Object[] row) throws ParseException {
+            Geometry geometry = toGeometry(key, wkbReader, wktReader);
+            if (geometry != null && !geometry.isEmpty()) {
+                tree.insert(geometry.getEnvelopeInternal(), new Object[]{geometry, row});
+            }
+        }
+
+        @Override
+        @NotNull
+        public List<Object[]> probe(@Nullable Object key, boolean buildLeft) throws ParseException {
+            List<Object[]> matches = new ArrayList<>();
+            Geometry geometry = toGeometry(key, wkbReader, wktReader);
+            if (geometry == null || geometry.isEmpty()) {
+                return matches;
+            }
+            for (Object item : tree.query(geometry.getEnvelopeInternal())) {
+                Object[] entry = (Object[]) item;
+                Geometry indexed = (Geometry) entry[0];
+                if (buildLeft ? spatialPredicate.test(indexed, geometry) : spatialPredicate.test(geometry, indexed)) {
+                    matches.add((Object[]) entry[1]);
+                }
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * One side of the join : a table of a data source with its pushed down projection and filter.
+     */
+    private static class Side {
+
+        /**
+         * {@link IJdbcDataSource} containing the table.
+         */
+        private final IJdbcDataSource dataSource;
+        /**
+         * Name of the table.
+         */
+        private final String table;
+        /**
+         * Columns to read, all if null or empty.
+         */
+        private String[] columns;
+        /**
+         * Filter applied on the table, none if null.
+         */
+        private String filter;
+        /**
+         * Column or expression of the join key.
+         */
+        private String key;
+        /**
+         * Labels of the projected columns, set once the side has been read.
+         */
+        private List<String> labels;
+
+        /**
+         * Main constructor.
+         *
+         * @param dataSource {@link IJdbcDataSource} containing the table.
+         * @param table      Name of the table.
+         */
+        private Side(@NotNull IJdbcDataSource dataSource, @NotNull String table) {
+            this.dataSource = dataSource;
+            this.table = table;
+        }
+
+        /**
+         * Return the FROM and WHERE clauses of the pushed down queries.
+         *
+         * @return The FROM and WHERE clauses.
+         */
+        @NotNull
+        private String getFromClause() {
+            return " FROM " + table + (filter == null || filter.isEmpty() ? "" : " WHERE " + filter);
+        }
+
+        /**
+         * Return the number of rows of the table matching the filter estimated by the query planner on
+         * PostgreSQL/PostGIS, or counted on the other databases.
+         *
+         * @return The estimated number of rows, -1 if it can't be estimated.
+         */
+        private long estimate() {
+            if (isPostgres()) {
+                try (Statement statement = dataSource.getConnection().createStatement();
+                     ResultSet rs = statement.executeQuery("EXPLAIN SELECT 1" + getFromClause())) {
+                    if (rs.next()) {
+                        Matcher matcher = ROWS_PATTERN.matcher(rs.getString(1));
+                        if (matcher.find()) {
+                            return Long.parseLong(matcher.group(1));
+                        }
+                    }
+                } catch (SQLException e) {
+                    LOGGER.debug("Unable to estimate the rows of '" + table + "', they are counted.", e);
+                }
+            }
+            return count();
+        }
+
+        /**
+         * Return true if the data source is a PostgreSQL/PostGIS one, false otherwise.
+         *
+         * @return True if the data source is a PostgreSQL/PostGIS one, false otherwise.
+         */
+        private boolean isPostgres() {
+            DBTypes type = dataSource.getDataBaseType();
+            return type == DBTypes.POSTGIS || type == DBTypes.POSTGRESQL;
+        }
+
+        /**
+         * Return the number of rows of the table matching the filter.
+         *
+         * @return The number of rows, -1 if it can't be counted.
+         */
+        private long count() {
+            try (Statement statement = dataSource.getConnection().createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*)" + getFromClause())) {
+                return rs.next() ? rs.getLong(1) : 0;
+            } catch (SQLException e) {
+                LOGGER.error("Unable to count the rows of '" + table + "'.\n" + e.getLocalizedMessage());
+                return -1;
+            }
+        }
+
+        /**
+         * Stream the projected rows of the table matching the filter into the given {@link RowConsumer}.
+         *
+         * @param consumer {@link RowConsumer} of the rows.
+         * @return The labels of the projected columns, null if the table can't be read.
+         * @throws ParseException Exception thrown if a join key can't be decoded.
+         */
+        @Nullable
+        private List<String> read(@NotNull RowConsumer consumer) throws ParseException {
+            String projection = columns == null || columns.length == 0 ? "*" : String.join(", ", columns);
+            String query = "SELECT " + projection + ", " + key + " AS " + KEY_LABEL + getFromClause();
+            Connection connection = dataSource.getConnection();
+            boolean restoreAutoCommit = false;
+            try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                //The PostgreSQL driver only uses the fetch size with a cursor, i.e. outside of the auto commit mode
+                if (isPostgres() && connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                    restoreAutoCommit = true;
+                }
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = statement.executeQuery(query)) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    int columnCount = metaData.getColumnCount() - 1;
+                    labels = new ArrayList<>();
+                    for (int i = 1; i <= columnCount; i++) {
+                        labels.add(metaData.getColumnLabel(i));
+                    }
+                    while (rs.next()) {
+                        Object[] row = new Object[columnCount];
+                        for (int i = 0; i < columnCount; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        consumer.accept(rs.getObject(columnCount + 1), row);
+                    }
+                }
+                return labels;
+            } catch (SQLException e) {
+                LOGGER.error("Unable to read the rows of '" + table + "'.\n" + e.getLocalizedMessage());
+                return null;
+            } finally {
+                if (restoreAutoCommit) {
+                    try {
+                        connection.rollback();
+                        connection.setAutoCommit(true);
+                    } catch (SQLException e) {
+                        LOGGER.error("Unable to restore the auto commit mode of '" + table + "' data source.", e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -76,11 +76,11 @@ public class H2GIS extends JdbcDataSource {
     private static final Logger LOGGER = LoggerFactory.getLogger(H2GIS.class);
 
     /**
-     * Private constructor.
+     * Protected constructor.
      *
      * @param connection {@link Connection} to the database.
      */
-    private H2GIS(@NotNull Connection connection) {
+    protected H2GIS(@NotNull Connection connection) {
         super(connection, DBTypes.H2GIS);
     }
 
@@ -520,14 +520,14 @@ public class H2GIS extends JdbcDataSource {
     public Collection<String> getColumnNames(String location){
         try {
             Collection<String> cols = JDBCUtilities.getColumnNames(getConnection(), TableLocation.parse(location, DBTypes.H2GIS).toString());
-            if(!getConnection().getAutoCommit()) {
+            if(!getConnection().getAutoCommit() && !isInTransaction()) {
                 getConnection().commit();
             }
             return cols;
         } catch (SQLException e) {
             LOGGER.error("Unable to get the column names of the table " + location + ".", e);
             try{
-                if(!getConnection().getAutoCommit()) {
+                if(!getConnection().getAutoCommit() && !isInTransaction()) {
                     getConnection().rollback();
                 }
             } catch (SQLException e2) {
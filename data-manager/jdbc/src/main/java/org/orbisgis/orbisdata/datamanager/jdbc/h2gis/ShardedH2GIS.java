@@ -0,0 +1,996 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.h2gis;
+
+import groovy.lang.Closure;
+import groovy.lang.GString;
+import groovy.sql.GroovyRowResult;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IStreamResultSet;
+import org.orbisgis.orbisdata.datamanager.jdbc.JdbcTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+
+/**
+ * {@link H2GIS} data source spanning several H2GIS database files, called shards. The rows of a partitioned table
+ * are spread across the shards either by hashing a key column or by a grid of spatial tiles over a fixed extent.
+ * Writes done with {@link #insert(String, Iterable)} are routed to the shard owning each row, while scans and
+ * aggregates are run on all the shards in parallel and merged in Java, by a thread pool owned by the data source.
+ * The partitioning of the tables is stored in the {@link #PARTITIONING_TABLE} of the first shard and restored when
+ * the data source is opened again.
+ *
+ * The first shard is the primary one : this object is connected to it, so the methods inherited from
+ * {@link H2GIS} only see the tables and rows stored in the first shard. To avoid silently reading or writing a part
+ * of the rows, the table getters, the row methods and the saving methods fail on the queries referencing a partitioned
+ * table, which should be read with {@link #rowsOnShards(String)}, {@link #aggregate(String, BinaryOperator)} or
+ * {@link #getShard(int)}. In the same way, the execute methods throw a {@link SQLException} on these queries : the
+ * rows should be written with {@link #insert(String, Iterable)} and the tables altered with
+ * {@link #executeOnShards(String)}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class ShardedH2GIS extends H2GIS {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedH2GIS.class);
+
+    /**
+     * Suffix added to the base path of the database, followed by the shard index.
+     */
+    public static final String SHARD_SUFFIX = "_shard";
+    /**
+     * Number of rows buffered for each shard before being written.
+     */
+    private static final int BATCH_SIZE = 1000;
+    /**
+     * Name of the table of the first shard storing the partitioning of the tables.
+     */
+    public static final String PARTITIONING_TABLE = "SHARD_PARTITIONING";
+
+    /**
+     * Shards of the data source, the first one sharing the connection of this object.
+     */
+    private final List<H2GIS> shards;
+    /**
+     * Partitioning of the tables, indexed by upper case table name.
+     */
+    private final Map<String, Partitioning> partitionings = new ConcurrentHashMap<>();
+    /**
+     * Thread pool running the tasks on the shards, null if there is a single shard.
+     */
+    @Nullable
+    private final ExecutorService executor;
+
+    /**
+     * Private constructor.
+     *
+     * @param connection {@link Connection} to the primary shard.
+     * @param others     Other shards.
+     */
+    private ShardedH2GIS(@NotNull Connection connection, @NotNull List<H2GIS> others) {
+        super(connection);
+        List<H2GIS> list = new ArrayList<>();
+        //Plain data source on the primary connection, not subject to the partitioned table checks
+        list.add(new H2GIS(connection));
+        list.addAll(others);
+        this.shards = Collections.unmodifiableList(list);
+        this.executor = list.size() == 1 ? null : Executors.newFixedThreadPool(list.size(), runnable -> {
+            Thread thread = new Thread(runnable, "sharded-h2gis");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open the {@link ShardedH2GIS} database made of the given number of shards stored next to the given path.
+     *
+     * @param path       Base path of the shard databases.
+     * @param shardCount Number of shards.
+     * @return An instantiated {@link ShardedH2GIS}, null if a shard can't be opened.
+     */
+    @Nullable
+    public static ShardedH2GIS open(@NotNull String path, int shardCount) {
+        return open(path, shardCount, "sa", "");
+    }
+
+    /**
+     * Open the {@link ShardedH2GIS} database made of the given number of shards stored next to the given path.
+     *
+     * @param path       Base path of the shard databases.
+     * @param shardCount Number of shards.
+     * @param user       User of the databases.
+     * @param password   Password for the user.
+     * @return An instantiated {@link ShardedH2GIS}, null if a shard can't be opened.
+     */
+    @Nullable
+    public static ShardedH2GIS open(@NotNull String path, int shardCount, @Nullable String user,
+                                    @Nullable String password) {
+        if (shardCount < 1) {
+            LOGGER.error("The number of shards should be at least 1.");
+            return null;
+        }
+        List<H2GIS> opened = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            H2GIS shard = H2GIS.open(path + SHARD_SUFFIX + i, user, password);
+            if (shard == null) {
+                LOGGER.error("Unable to open the shard '" + path + SHARD_SUFFIX + i + "'.");
+                opened.forEach(H2GIS::close);
+                return null;
+            }
+            opened.add(shard);
+        }
+        ShardedH2GIS h2gis = new ShardedH2GIS(opened.get(0).getConnection(), opened.subList(1, opened.size()));
+        if (!h2gis.loadPartitionings()) {
+            h2gis.close();
+            return null;
+        }
+        return h2gis;
+    }
+
+    /**
+     * Create the {@link #PARTITIONING_TABLE} if needed and restore the partitioning of the tables it contains.
+     *
+     * @return True if the partitionings have been restored, false if they can't be read or if they have been
+     * stored with another number of shards.
+     */
+    private boolean loadPartitionings() {
+        H2GIS primary = shards.get(0);
+        try {
+            primary.execute("CREATE TABLE IF NOT EXISTS " + PARTITIONING_TABLE + "(TABLE_NAME VARCHAR PRIMARY KEY, " +
+                    "TYPE VARCHAR, COLUMN_NAME VARCHAR, SHARD_COUNT INT, MIN_X DOUBLE, MAX_X DOUBLE, MIN_Y DOUBLE, " +
+                    "MAX_Y DOUBLE)");
+            for (GroovyRowResult row : primary.rows("SELECT * FROM " + PARTITIONING_TABLE)) {
+                String tableName = row.get("TABLE_NAME").toString();
+                int shardCount = ((Number) row.get("SHARD_COUNT")).intValue();
+                if (shardCount != shards.size()) {
+                    LOGGER.error("The table '" + tableName + "' is partitioned across " + shardCount + " shards, " +
+                            "not " + shards.size() + ".");
+                    return false;
+                }
+                String column = row.get("COLUMN_NAME").toString();
+                if (HashPartitioning.TYPE.equals(row.get("TYPE"))) {
+                    partitionings.put(tableName, new HashPartitioning(column, shardCount));
+                } else {
+                    Envelope extent = new Envelope(((Number) row.get("MIN_X")).doubleValue(),
+                            ((Number) row.get("MAX_X")).doubleValue(), ((Number) row.get("MIN_Y")).doubleValue(),
+                            ((Number) row.get("MAX_Y")).doubleValue());
+                    partitionings.put(tableName, new SpacePartitioning(column, extent, shardCount));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to read the partitioning of the tables.\n" + e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Store the given partitioning in the {@link #PARTITIONING_TABLE} and register it.
+     *
+     * @param tableName    Name of the table.
+     * @param partitioning Partitioning of the table.
+     * @param extent       Extent of the spatial partitioning, null for a hash partitioning.
+     * @return True if the partitioning has been stored, false otherwise.
+     */
+    private boolean storePartitioning(@NotNull String tableName, @NotNull Partitioning partitioning,
+                                      @Nullable Envelope extent) {
+        String key = tableName.toUpperCase();
+        try (PreparedStatement statement = shards.get(0).getConnection().prepareStatement("MERGE INTO " +
+                PARTITIONING_TABLE + " KEY(TABLE_NAME) VALUES(?, ?, ?, ?, ?, ?, ?, ?)")) {
+            statement.setString(1, key);
+            statement.setString(2, extent == null ? HashPartitioning.TYPE : SpacePartitioning.TYPE);
+            statement.setString(3, partitioning.column);
+            statement.setInt(4, shards.size());
+            statement.setObject(5, extent == null ? null : extent.getMinX());
+            statement.setObject(6, extent == null ? null : extent.getMaxX());
+            statement.setObject(7, extent == null ? null : extent.getMinY());
+            statement.setObject(8, extent == null ? null : extent.getMaxY());
+            statement.executeUpdate();
+            if (!shards.get(0).getConnection().getAutoCommit()) {
+                shards.get(0).commit();
+            }
+        } catch (SQLException e) {
+            LOGGER.error("Unable to store the partitioning of the table '" + tableName + "'.\n" +
+                    e.getLocalizedMessage());
+            return false;
+        }
+        partitionings.put(key, partitioning);
+        return true;
+    }
+
+    /**
+     * Return the number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Return the shard at the given index. The returned data source gives access to the rows of its own shard,
+     * without the checks of the partitioned tables.
+     *
+     * @param index Index of the shard.
+     * @return The shard at the given index.
+     */
+    @NotNull
+    public H2GIS getShard(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Partition the given table by hashing the values of the given column. The table should be created on all the
+     * shards, for example with {@link #executeOnShards(String)}.
+     *
+     * @param tableName Name of the table.
+     * @param keyColumn Column used to route the rows.
+     * @return True if the partitioning has been stored, false otherwise.
+     */
+    public boolean hashPartition(@NotNull String tableName, @NotNull String keyColumn) {
+        return storePartitioning(tableName, new HashPartitioning(keyColumn, shards.size()), null);
+    }
+
+    /**
+     * Partition the given table by a grid of spatial tiles over the given extent. Each row is routed to the tile
+     * containing the center of the envelope of its geometry, the geometries out of the extent going to the nearest
+     * border tile. The table should be created on all the shards, for example with {@link #executeOnShards(String)}.
+     *
+     * @param tableName  Name of the table.
+     * @param geomColumn Geometric column used to route the rows.
+     * @param extent     Extent covered by the tiles.
+     * @return True if the partitioning has been stored, false otherwise.
+     */
+    public boolean spacePartition(@NotNull String tableName, @NotNull String geomColumn, @NotNull Envelope extent) {
+        return storePartitioning(tableName, new SpacePartitioning(geomColumn, extent, shards.size()), extent);
+    }
+
+    /**
+     * Return true if the given table has been partitioned, false otherwise.
+     *
+     * @param tableName Name of the table.
+     * @return True if the given table has been partitioned, false otherwise.
+     */
+    public boolean isPartitioned(@NotNull String tableName) {
+        return partitionings.containsKey(tableName.toUpperCase());
+    }
+
+    /**
+     * Return the index of the shard storing the rows of the given table with the given partitioning value.
+     *
+     * @param tableName Name of the partitioned table.
+     * @param value     Value of the key or geometric column.
+     * @return The index of the shard, -1 if the table is not partitioned.
+     */
+    public int getShardIndex(@NotNull String tableName, @Nullable Object value) {
+        Partitioning partitioning = partitionings.get(tableName.toUpperCase());
+        if (partitioning == null) {
+            LOGGER.error("The table '" + tableName + "' is not partitioned.");
+            return -1;
+        }
+        return partitioning.getShard(value);
+    }
+
+    /**
+     * Execute the given statement on all the shards in parallel, for example to create a table or an index.
+     *
+     * @param sql Statement to execute.
+     * @return True if the statement has been executed on all the shards, false otherwise.
+     */
+    public boolean executeOnShards(@NotNull String sql) {
+        return fanOut((shard, index) -> {
+            shard.execute(sql);
+            return true;
+        }) != null;
+    }
+
+    /**
+     * Insert the given rows into the given partitioned table, each row being written into the shard owning it. The
+     * rows are buffered by shard and the buffers are written in parallel. All the rows should have the same keys,
+     * which are used as column names.
+     *
+     * The insertion is not atomic : each batch of rows is first written on all the shards without being committed
+     * and rolled back everywhere if a shard fails, but the shards are then committed one by one, so a failure while
+     * committing, or a failure of a later batch, leaves the already committed rows in the shards.
+     *
+     * @param tableName Name of the partitioned table.
+     * @param rows      Rows to insert.
+     * @return The number of inserted rows, -1 if the insertion failed.
+     */
+    public long insert(@NotNull String tableName, @NotNull Iterable<Map<String, Object>> rows) {
+        Partitioning partitioning = partitionings.get(tableName.toUpperCase());
+        if (partitioning == null) {
+            LOGGER.error("The table '" + tableName + "' is not partitioned.");
+            return -1;
+        }
+        List<List<Map<String, Object>>> buffers = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            buffers.add(new ArrayList<>());
+        }
+        List<String> columns = null;
+        long count = 0;
+        int buffered = 0;
+        for (Map<String, Object> row : rows) {
+            if (columns == null) {
+                columns = new ArrayList<>(row.keySet());
+            }
+            buffers.get(partitioning.getShard(partitioning.getValue(row))).add(row);
+            buffered++;
+            if (buffered >= BATCH_SIZE * shards.size()) {
+                if (!flush(tableName, columns, buffers)) {
+                    return -1;
+                }
+                count += buffered;
+                buffered = 0;
+            }
+        }
+        if (buffered > 0) {
+            if (!flush(tableName, columns, buffers)) {
+                return -1;
+            }
+            count += buffered;
+        }
+        return count;
+    }
+
+    /**
+     * Write the buffered rows into their shards in parallel and clear the buffers. The rows are written on all the
+     * shards without being committed, then committed shard by shard if all the writes succeeded or rolled back
+     * otherwise.
+     *
+     * @param tableName Name of the table.
+     * @param columns   Names of the columns to write.
+     * @param buffers   Rows to write for each shard.
+     * @return True if all the rows have been written, false otherwise.
+     */
+    private boolean flush(@NotNull String tableName, @NotNull List<String> columns,
+                          @NotNull List<List<Map<String, Object>>> buffers) {
+        StringBuilder query = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        query.append(String.join(", ", columns)).append(") VALUES (");
+        query.append(String.join(", ", Collections.nCopies(columns.size(), "?"))).append(")");
+        Boolean[] autoCommits = new Boolean[shards.size()];
+        List<Boolean> written = fanOut((shard, index) -> {
+            List<Map<String, Object>> buffer = buffers.get(index);
+            if (buffer.isEmpty()) {
+                return true;
+            }
+            Connection connection = shard.getConnection();
+            autoCommits[index] = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+                for (Map<String, Object> row : buffer) {
+                    for (int i = 0; i < columns.size(); i++) {
+                        statement.setObject(i + 1, row.get(columns.get(i)));
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return true;
+        });
+        boolean success = written != null;
+        for (int i = 0; i < shards.size(); i++) {
+            if (autoCommits[i] == null) {
+                continue;
+            }
+            Connection connection = shards.get(i).getConnection();
+            try {
+                if (success) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                LOGGER.error("Unable to " + (success ? "commit" : "roll back") + " the shard " + i + ".\n" +
+                        e.getLocalizedMessage());
+                success = false;
+            } finally {
+                try {
+                    connection.setAutoCommit(autoCommits[i]);
+                } catch (SQLException e) {
+                    LOGGER.error("Unable to restore the auto commit of the shard " + i + ".", e);
+                }
+            }
+        }
+        if (success) {
+            buffers.forEach(List::clear);
+        }
+        return success;
+    }
+
+    /**
+     * Run the given query on all the shards in parallel and return the concatenation of their rows, in shard order.
+     *
+     * @param sql Query to run.
+     * @return The rows of all the shards, null if the query failed on a shard.
+     */
+    @Nullable
+    public List<GroovyRowResult> rowsOnShards(@NotNull String sql) {
+        List<List<GroovyRowResult>> results = fanOut((shard, index) -> shard.rows(sql));
+        if (results == null) {
+            return null;
+        }
+        List<GroovyRowResult> rows = new ArrayList<>();
+        results.forEach(rows::addAll);
+        return rows;
+    }
+
+    /**
+     * Run the given query returning a single value on all the shards in parallel and merge the values of the shards
+     * with the given operator. The null values are skipped.
+     *
+     * @param sql      Query returning a single value, like <code>SELECT MAX(id) FROM table</code>.
+     * @param combiner Operator merging the values of two shards.
+     * @return The merged value, null if the query failed on a shard or only returned null values.
+     */
+    @Nullable
+    public Object aggregate(@NotNull String sql, @NotNull BinaryOperator<Object> combiner) {
+        List<Object> values = fanOut((shard, index) -> {
+            GroovyRowResult row = shard.firstRow(sql);
+            return row == null ? null : row.getAt(0);
+        });
+        if (values == null) {
+            return null;
+        }
+        Object result = null;
+        for (Object value : values) {
+            if (value != null) {
+                result = result == null ? value : combiner.apply(result, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of rows of the given table summed over all the shards.
+     *
+     * @param tableName Name of the table.
+     * @return The number of rows of the table, -1 if it can't be counted.
+     */
+    public long count(@NotNull String tableName) {
+        Object count = aggregate("SELECT COUNT(*) FROM " + tableName,
+                (a, b) -> ((Number) a).longValue() + ((Number) b).longValue());
+        return count == null ? -1 : ((Number) count).longValue();
+    }
+
+    /**
+     * Run the given task on all the shards with the thread pool of the data source and return the results in shard
+     * order once the task is completed on all of them.
+     *
+     * @param task Task to run.
+     * @param <T>  Type of the task result.
+     * @return The results of the task for each shard, null if the task failed on a shard.
+     */
+    @Nullable
+    private <T> List<T> fanOut(@NotNull ShardTask<T> task) {
+        if (executor == null) {
+            try {
+                return Collections.singletonList(task.run(shards.get(0), 0));
+            } catch (SQLException e) {
+                LOGGER.error("Unable to run the task on the shard.\n" + e.getLocalizedMessage());
+                return null;
+            }
+        }
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            H2GIS shard = shards.get(i);
+            int index = i;
+            futures.add(executor.submit(() -> task.run(shard, index)));
+        }
+        //Wait for all the shards, so no task is still running on a shard once the result is returned
+        List<T> results = new ArrayList<>();
+        boolean failed = false;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("The task on the shards has been interrupted.", e);
+                futures.forEach(f -> f.cancel(true));
+                return null;
+            } catch (ExecutionException e) {
+                LOGGER.error("Unable to run the task on a shard.\n" + e.getCause().getLocalizedMessage());
+                failed = true;
+            }
+        }
+        return failed ? null : results;
+    }
+
+    /**
+     * Return the name of the first partitioned table referenced by the given table name or query, null if there is
+     * none.
+     *
+     * @param nameOrQuery Name of a table or query.
+     * @return The name of the referenced partitioned table, null if there is none.
+     */
+    @Nullable
+    private String findPartitioned(@Nullable String nameOrQuery) {
+        if (nameOrQuery == null || partitionings.isEmpty()) {
+            return null;
+        }
+        for (String token : nameOrQuery.toUpperCase().split("[^A-Z0-9_$.]+")) {
+            String name = token.startsWith(".") ? token.substring(1) : token;
+            for (String partitioned : partitionings.keySet()) {
+                if (name.equals(partitioned) || name.endsWith("." + partitioned) ||
+                        partitioned.endsWith("." + name)) {
+                    return partitioned;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Log an error and return true if the given table name or query references a partitioned table, which rows
+     * are spread across the shards.
+     *
+     * @param nameOrQuery Name of a table or query.
+     * @return True if a partitioned table is referenced, false otherwise.
+     */
+    private boolean rejectPartitioned(@Nullable String nameOrQuery) {
+        String partitioned = findPartitioned(nameOrQuery);
+        if (partitioned == null) {
+            return false;
+        }
+        LOGGER.error("The table '" + partitioned + "' is partitioned across " + shards.size() + " shards, use " +
+                "insert(), executeOnShards(), rowsOnShards(), aggregate(), count() or the shards themselves.");
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public JdbcTable<? extends IStreamResultSet> getTable(@NotNull String nameOrQuery, @Nullable List<Object> params,
+                                                          @NotNull Statement statement) {
+        return rejectPartitioned(nameOrQuery) ? null : super.getTable(nameOrQuery, params, statement);
+    }
+
+    @Override
+    @Nullable
+    public List<GroovyRowResult> rows(String sql) throws SQLException {
+        return rejectPartitioned(sql) ? null : super.rows(sql);
+    }
+
+    @Override
+    @Nullable
+    public List<GroovyRowResult> rows(String sql, List<Object> params) throws SQLException {
+        return rejectPartitioned(sql) ? null : super.rows(sql, params);
+    }
+
+    @Override
+    @Nullable
+    public List<GroovyRowResult> rows(GString gstring) throws SQLException {
+        return rejectPartitioned(gstring.toString()) ? null : super.rows(gstring);
+    }
+
+    @Override
+    @Nullable
+    public GroovyRowResult firstRow(String sql) throws SQLException {
+        return rejectPartitioned(sql) ? null : super.firstRow(sql);
+    }
+
+    @Override
+    @Nullable
+    public GroovyRowResult firstRow(String sql, List<Object> params) throws SQLException {
+        return rejectPartitioned(sql) ? null : super.firstRow(sql, params);
+    }
+
+    @Override
+    @Nullable
+    public GroovyRowResult firstRow(GString gstring) throws SQLException {
+        return rejectPartitioned(gstring.toString()) ? null : super.firstRow(gstring);
+    }
+
+    @Override
+    public void eachRow(String sql, Closure closure) throws SQLException {
+        if (!rejectPartitioned(sql)) {
+            super.eachRow(sql, closure);
+        }
+    }
+
+    @Override
+    public void eachRow(GString gstring, Closure closure) throws SQLException {
+        if (!rejectPartitioned(gstring.toString())) {
+            super.eachRow(gstring, closure);
+        }
+    }
+
+    /**
+     * Throw a {@link SQLException} if the given query references a partitioned table, which rows can't be written
+     * or altered through the connection of the first shard only.
+     *
+     * @param sql Query to check.
+     * @throws SQLException Exception thrown if a partitioned table is referenced.
+     */
+    private void checkNotPartitioned(@Nullable String sql) throws SQLException {
+        if (rejectPartitioned(sql)) {
+            throw new SQLException("The query '" + sql + "' references a partitioned table.");
+        }
+    }
+
+    /**
+     * Throw a {@link SQLException} if one of the given queries references a partitioned table.
+     *
+     * @param queries Queries to check.
+     * @throws SQLException Exception thrown if a partitioned table is referenced.
+     */
+    private void checkNotPartitioned(@NotNull Object[] queries) throws SQLException {
+        for (Object query : queries) {
+            checkNotPartitioned(query == null ? null : query.toString());
+        }
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.execute(sql);
+    }
+
+    @Override
+    public boolean execute(String sql, List<Object> params) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.execute(sql, params);
+    }
+
+    @Override
+    public void execute(String sql, Closure processResults) throws SQLException {
+        checkNotPartitioned(sql);
+        super.execute(sql, processResults);
+    }
+
+    @Override
+    public void execute(String sql, List<Object> params, Closure processResults) throws SQLException {
+        checkNotPartitioned(sql);
+        super.execute(sql, params, processResults);
+    }
+
+    @Override
+    public boolean execute(GString gstring) throws SQLException {
+        checkNotPartitioned(gstring.toString());
+        return super.execute(gstring);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeUpdate(sql);
+    }
+
+    @Override
+    public int executeUpdate(String sql, List<Object> params) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeUpdate(sql, params);
+    }
+
+    @Override
+    public int executeUpdate(GString gstring) throws SQLException {
+        checkNotPartitioned(gstring.toString());
+        return super.executeUpdate(gstring);
+    }
+
+    @Override
+    public List<List<Object>> executeInsert(String sql) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeInsert(sql);
+    }
+
+    @Override
+    public List<List<Object>> executeInsert(String sql, List<Object> params) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeInsert(sql, params);
+    }
+
+    @Override
+    public List<GroovyRowResult> executeInsert(String sql, List<Object> params, List<String> keyColumnNames)
+            throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeInsert(sql, params, keyColumnNames);
+    }
+
+    @Override
+    public List<GroovyRowResult> executeInsert(String sql, String[] keyColumnNames) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeInsert(sql, keyColumnNames);
+    }
+
+    @Override
+    public List<GroovyRowResult> executeInsert(String sql, String[] keyColumnNames, Object[] params)
+            throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeInsert(sql, keyColumnNames, params);
+    }
+
+    @Override
+    public List<List<Object>> executeInsert(GString gstring) throws SQLException {
+        checkNotPartitioned(gstring.toString());
+        return super.executeInsert(gstring);
+    }
+
+    @Override
+    public List<GroovyRowResult> executeInsert(GString gstring, List<String> keyColumnNames) throws SQLException {
+        checkNotPartitioned(gstring.toString());
+        return super.executeInsert(gstring, keyColumnNames);
+    }
+
+    @Override
+    public int[] executeBatch(String[] queries) throws SQLException {
+        checkNotPartitioned(queries);
+        return super.executeBatch(queries);
+    }
+
+    @Override
+    public int[] executeBatch(GString[] queries) throws SQLException {
+        checkNotPartitioned(queries);
+        return super.executeBatch(queries);
+    }
+
+    @Override
+    public long[] executeLargeBatch(String[] queries) throws SQLException {
+        checkNotPartitioned(queries);
+        return super.executeLargeBatch(queries);
+    }
+
+    @Override
+    public long[] executeLargeBatch(GString[] queries) throws SQLException {
+        checkNotPartitioned(queries);
+        return super.executeLargeBatch(queries);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        checkNotPartitioned(sql);
+        return super.executeLargeUpdate(sql);
+    }
+
+    @Override
+    public long executeLargeUpdate(GString sql) throws SQLException {
+        checkNotPartitioned(sql.toString());
+        return super.executeLargeUpdate(sql);
+    }
+
+    @Override
+    public boolean save(String tableName, String filePath, boolean delete) {
+        return !rejectPartitioned(tableName) && super.save(tableName, filePath, delete);
+    }
+
+    @Override
+    public boolean save(@NotNull String tableName, @NotNull String filePath, @Nullable String encoding) {
+        return !rejectPartitioned(tableName) && super.save(tableName, filePath, encoding);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (int i = 1; i < shards.size(); i++) {
+            shards.get(i).close();
+        }
+        super.close();
+    }
+
+    /**
+     * Task run on a single shard.
+     *
+     * @param <T> Type of the task result.
+     */
+    private interface ShardTask<T> {
+
+        /**
+         * Run the task on the given shard.
+         *
+         * @param shard Shard on which the task is run.
+         * @param index Index of the shard.
+         * @return The result of the task.
+         * @throws SQLException Exception thrown if the task fails.
+         */
+        T run(@NotNull H2GIS shard, int index) throws SQLException;
+    }
+
+    /**
+     * Routing of the rows of a partitioned table to the shards.
+     */
+    private abstract static class Partitioning {
+
+        /**
+         * Column used to route the rows.
+         */
+        private final String column;
+        /**
+         * Number of shards.
+         */
+        protected final int shardCount;
+
+        /**
+         * Main constructor.
+         *
+         * @param column     Column used to route the rows.
+         * @param shardCount Number of shards.
+         */
+        protected Partitioning(@NotNull String column, int shardCount) {
+            this.column = column;
+            this.shardCount = shardCount;
+        }
+
+        /**
+         * Return the value of the routing column of the given row, the column name being case insensitive.
+         *
+         * @param row Row to route.
+         * @return The value of the routing column.
+         */
+        @Nullable
+        Object getValue(@NotNull Map<String, Object> row) {
+            if (row.containsKey(column)) {
+                return row.get(column);
+            }
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(column)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Return the index of the shard owning the given value of the routing column.
+         *
+         * @param value Value of the routing column.
+         * @return The index of the shard.
+         */
+        abstract int getShard(@Nullable Object value);
+    }
+
+    /**
+     * {@link Partitioning} hashing the value of a key column. Integral numbers are hashed by value so that an
+     * {@link Integer} and a {@link Long} key are routed to the same shard.
+     */
+    private static class HashPartitioning extends Partitioning {
+
+        /**
+         * Type of the partitioning in the {@link #PARTITIONING_TABLE}.
+         */
+        private static final String TYPE = "HASH";
+
+        /**
+         * Main constructor.
+         *
+         * @param column     Key column.
+         * @param shardCount Number of shards.
+         */
+        private HashPartitioning(@NotNull String column, int shardCount) {
+            super(column, shardCount);
+        }
+
+        @Override
+        int getShard(@Nullable Object value) {
+            int hash;
+            if (value == null) {
+                hash = 0;
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                    || value instanceof Byte) {
+                hash = Long.hashCode(((Number) value).longValue());
+            } else {
+                hash = value.toString().hashCode();
+            }
+            return Math.floorMod(hash, shardCount);
+        }
+    }
+
+    /**
+     * {@link Partitioning} using a grid of spatial tiles, the grid having as many tiles as shards or slightly more,
+     * the extra tiles being assigned back to the first shards.
+     */
+    private static class SpacePartitioning extends Partitioning {
+
+        /**
+         * Type of the partitioning in the {@link #PARTITIONING_TABLE}.
+         */
+        private static final String TYPE = "SPACE";
+
+        /**
+         * Extent covered by the grid.
+         */
+        private final Envelope extent;
+        /**
+         * Number of columns of the grid.
+         */
+        private final int cols;
+        /**
+         * Number of rows of the grid.
+         */
+        private final int rows;
+
+        /**
+         * Main constructor.
+         *
+         * @param column     Geometric column.
+         * @param extent     Extent covered by the grid.
+         * @param shardCount Number of shards.
+         */
+        private SpacePartitioning(@NotNull String column, @NotNull Envelope extent, int shardCount) {
+            super(column, shardCount);
+            this.extent = extent;
+            this.cols = (int) Math.ceil(Math.sqrt(shardCount));
+            this.rows = (int) Math.ceil((double) shardCount / cols);
+        }
+
+        @Override
+        int getShard(@Nullable Object value) {
+            if (!(value instanceof Geometry) || ((Geometry) value).isEmpty()) {
+                return 0;
+            }
+            Envelope envelope = ((Geometry) value).getEnvelopeInternal();
+            int col = getCell((envelope.getMinX() + envelope.getMaxX()) / 2, extent.getMinX(), extent.getWidth(), cols);
+            int row = getCell((envelope.getMinY() + envelope.getMaxY()) / 2, extent.getMinY(), extent.getHeight(), rows);
+            return (row * cols + col) % shardCount;
+        }
+
+        /**
+         * Return the index of the cell containing the given coordinate along one axis of the grid.
+         *
+         * @param coord Coordinate.
+         * @param min   Minimal coordinate of the grid.
+         * @param size  Size of the grid.
+         * @param count Number of cells.
+         * @return The index of the cell, clamped to the grid.
+         */
+        private static int getCell(double coord, double min, double size, int count) {
+            if (size <= 0) {
+                return 0;
+            }
+            int cell = (int) Math.floor((coord - min) / size * count);
+            return Math.max(0, Math.min(count - 1, cell));
+        }
+    }
+}
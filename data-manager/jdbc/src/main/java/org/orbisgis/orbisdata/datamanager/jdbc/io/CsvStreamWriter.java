@@ -0,0 +1,340 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.io;
+
+import org.locationtech.jts.geom.*;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IStreamResultSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * {@link StreamWriter} writing an {@link IStreamResultSet} as a comma separated values file. The first line contains
+ * the column labels, the null values are written as empty fields and the geometries as quoted EWKT.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class CsvStreamWriter extends StreamWriter {
+
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[] EMPTY = bytes(" EMPTY");
+    private static final byte[] SRID = bytes("SRID=");
+    private static final byte[] Z = bytes(" Z");
+    private static final byte[] NAN = bytes("NaN");
+    private static final byte[] INFINITY = bytes("Infinity");
+    private static final byte[] NEGATIVE_INFINITY = bytes("-Infinity");
+    private static final byte[] POINT = bytes("POINT");
+    private static final byte[] LINESTRING = bytes("LINESTRING");
+    private static final byte[] POLYGON = bytes("POLYGON");
+    private static final byte[] MULTIPOINT = bytes("MULTIPOINT");
+    private static final byte[] MULTILINESTRING = bytes("MULTILINESTRING");
+    private static final byte[] MULTIPOLYGON = bytes("MULTIPOLYGON");
+    private static final byte[] GEOMETRYCOLLECTION = bytes("GEOMETRYCOLLECTION");
+
+    /**
+     * Main constructor.
+     *
+     * @param file       File to write.
+     * @param deleteFile True to replace the file if it exists.
+     * @param bufferSize Size of the direct buffer.
+     * @throws IOException Exception thrown if the file can't be open.
+     */
+    public CsvStreamWriter(@NotNull File file, boolean deleteFile, int bufferSize) throws IOException {
+        super(file, deleteFile, bufferSize);
+    }
+
+    @Override
+    protected long writeRows(@NotNull IStreamResultSet rs) throws IOException, SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        if (meta == null) {
+            throw new SQLException("Unable to get the metadata of the ResultSet.");
+        }
+        int columnCount = meta.getColumnCount();
+        int[] types = new int[columnCount + 1];
+        boolean[] geometries = new boolean[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            types[i] = meta.getColumnType(i);
+            geometries[i] = isGeometry(meta, i);
+            if (i > 1) {
+                put(',');
+            }
+            putField(meta.getColumnLabel(i));
+        }
+        put('\n');
+        long count = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    put(',');
+                }
+                putValue(rs, i, types[i], geometries[i]);
+            }
+            put('\n');
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Write the value of the given column of the current row.
+     *
+     * @param rs       {@link IStreamResultSet} to read.
+     * @param index    Index of the column, starting at 1.
+     * @param type     SQL type of the column.
+     * @param geometry True if the column is a geometric one.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putValue(@NotNull IStreamResultSet rs, int index, int type, boolean geometry) throws IOException {
+        if (geometry) {
+            Geometry geom = getGeometry(rs, index);
+            if (geom != null) {
+                put('"');
+                putGeometry(geom);
+                put('"');
+            }
+        } else if (isInteger(type)) {
+            long value = rs.getLong(index);
+            if (!rs.wasNull()) {
+                putLong(value);
+            }
+        } else if (isFloatingPoint(type)) {
+            double value = rs.getDouble(index);
+            if (!rs.wasNull() && !putDouble(value)) {
+                put(Double.isNaN(value) ? NAN : value > 0 ? INFINITY : NEGATIVE_INFINITY);
+            }
+        } else if (isDecimal(type)) {
+            BigDecimal value = rs.getBigDecimal(index);
+            if (value != null && !rs.wasNull()) {
+                putDecimal(value);
+            }
+        } else if (type == Types.BOOLEAN || type == Types.BIT) {
+            boolean value = rs.getBoolean(index);
+            if (!rs.wasNull()) {
+                put(value ? TRUE : FALSE);
+            }
+        } else {
+            String value = rs.getString(index);
+            if (value != null) {
+                putField(value);
+            }
+        }
+    }
+
+    /**
+     * Write a text field, quoting it if it contains a separator, a quote or a line break.
+     *
+     * @param value Value to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putField(@NotNull String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quote) {
+            put('"');
+        }
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            if (codePoint == '"') {
+                put('"');
+            }
+            putCodePoint(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        if (quote) {
+            put('"');
+        }
+    }
+
+    /**
+     * Write the EWKT representation of a {@link Geometry}.
+     *
+     * @param geometry {@link Geometry} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putGeometry(@NotNull Geometry geometry) throws IOException {
+        if (geometry.getSRID() != 0) {
+            put(SRID);
+            putLong(geometry.getSRID());
+            put(';');
+        }
+        putTaggedGeometry(geometry);
+    }
+
+    /**
+     * Write the WKT representation of a {@link Geometry}, starting with its type.
+     *
+     * @param geometry {@link Geometry} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putTaggedGeometry(@NotNull Geometry geometry) throws IOException {
+        put(getTypeName(geometry));
+        if (geometry.isEmpty()) {
+            put(EMPTY);
+            return;
+        }
+        if (hasZ(geometry)) {
+            put(Z);
+        }
+        put(' ');
+        putGeometryText(geometry);
+    }
+
+    /**
+     * Write the WKT representation of a {@link Geometry}, without its type.
+     *
+     * @param geometry {@link Geometry} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putGeometryText(@NotNull Geometry geometry) throws IOException {
+        if (geometry instanceof Point) {
+            put('(');
+            putCoordinates(((Point) geometry).getCoordinateSequence());
+            put(')');
+        } else if (geometry instanceof LineString) {
+            put('(');
+            putCoordinates(((LineString) geometry).getCoordinateSequence());
+            put(')');
+        } else if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon) geometry;
+            put('(');
+            put('(');
+            putCoordinates(polygon.getExteriorRing().getCoordinateSequence());
+            put(')');
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                put(',');
+                put('(');
+                putCoordinates(polygon.getInteriorRingN(i).getCoordinateSequence());
+                put(')');
+            }
+            put(')');
+        } else {
+            boolean collection = !(geometry instanceof MultiPoint || geometry instanceof MultiLineString ||
+                    geometry instanceof MultiPolygon);
+            put('(');
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                if (collection) {
+                    putTaggedGeometry(geometry.getGeometryN(i));
+                } else {
+                    putGeometryText(geometry.getGeometryN(i));
+                }
+            }
+            put(')');
+        }
+    }
+
+    /**
+     * Write the coordinates of a {@link CoordinateSequence} separated by commas.
+     *
+     * @param sequence {@link CoordinateSequence} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putCoordinates(@NotNull CoordinateSequence sequence) throws IOException {
+        boolean hasZ = sequence.getDimension() - sequence.getMeasures() > 2;
+        for (int i = 0; i < sequence.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            putOrdinate(sequence.getX(i));
+            put(' ');
+            putOrdinate(sequence.getY(i));
+            if (hasZ && !Double.isNaN(sequence.getZ(i))) {
+                put(' ');
+                putOrdinate(sequence.getZ(i));
+            }
+        }
+    }
+
+    /**
+     * Write an ordinate, non finite values being written as NaN.
+     *
+     * @param ordinate Ordinate to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putOrdinate(double ordinate) throws IOException {
+        if (!putDouble(ordinate)) {
+            put(NAN);
+        }
+    }
+
+    /**
+     * Return the encoded WKT type name of a {@link Geometry}.
+     *
+     * @param geometry {@link Geometry} to name.
+     * @return The WKT type name.
+     */
+    @NotNull
+    private static byte[] getTypeName(@NotNull Geometry geometry) {
+        if (geometry instanceof Point) {
+            return POINT;
+        } else if (geometry instanceof LineString) {
+            return LINESTRING;
+        } else if (geometry instanceof Polygon) {
+            return POLYGON;
+        } else if (geometry instanceof MultiPoint) {
+            return MULTIPOINT;
+        } else if (geometry instanceof MultiLineString) {
+            return MULTILINESTRING;
+        } else if (geometry instanceof MultiPolygon) {
+            return MULTIPOLYGON;
+        }
+        return GEOMETRYCOLLECTION;
+    }
+
+    /**
+     * Return true if the given non empty {@link Geometry} has Z values.
+     *
+     * @param geometry {@link Geometry} to check.
+     * @return True if the first coordinate of the geometry has a Z value.
+     */
+    private static boolean hasZ(@NotNull Geometry geometry) {
+        Coordinate coordinate = geometry.getCoordinate();
+        return coordinate != null && !Double.isNaN(coordinate.getZ());
+    }
+}
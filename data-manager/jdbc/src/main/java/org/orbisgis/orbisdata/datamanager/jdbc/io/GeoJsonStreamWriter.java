@@ -0,0 +1,414 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.io;
+
+import org.locationtech.jts.geom.*;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IStreamResultSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * {@link StreamWriter} writing an {@link IStreamResultSet} as a GeoJSON feature collection. The first geometric
+ * column is used as feature geometry, the other columns are written as feature properties. The SRID of the first
+ * geometry is written as named CRS. The coordinates are read from the geometry coordinate sequences, the integral
+ * ones being encoded without intermediate {@link String} and the other ones through
+ * {@link Double#toString(double)}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class GeoJsonStreamWriter extends StreamWriter {
+
+    private static final byte[] COLLECTION_START = bytes("{\"type\":\"FeatureCollection\",");
+    private static final byte[] CRS_START = bytes("\"crs\":{\"type\":\"name\",\"properties\":{\"name\":\"EPSG:");
+    private static final byte[] CRS_END = bytes("\"}},");
+    private static final byte[] FEATURES_START = bytes("\"features\":[");
+    private static final byte[] COLLECTION_END = bytes("]}");
+    private static final byte[] FEATURE_START = bytes("{\"type\":\"Feature\",\"geometry\":");
+    private static final byte[] PROPERTIES_START = bytes(",\"properties\":{");
+    private static final byte[] FEATURE_END = bytes("}}");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[] TYPE_POINT = bytes("{\"type\":\"Point\",\"coordinates\":");
+    private static final byte[] TYPE_LINESTRING = bytes("{\"type\":\"LineString\",\"coordinates\":");
+    private static final byte[] TYPE_POLYGON = bytes("{\"type\":\"Polygon\",\"coordinates\":");
+    private static final byte[] TYPE_MULTIPOINT = bytes("{\"type\":\"MultiPoint\",\"coordinates\":");
+    private static final byte[] TYPE_MULTILINESTRING = bytes("{\"type\":\"MultiLineString\",\"coordinates\":");
+    private static final byte[] TYPE_MULTIPOLYGON = bytes("{\"type\":\"MultiPolygon\",\"coordinates\":");
+    private static final byte[] TYPE_COLLECTION = bytes("{\"type\":\"GeometryCollection\",\"geometries\":");
+    private static final byte[] HEX = bytes("0123456789abcdef");
+
+    /**
+     * Main constructor.
+     *
+     * @param file       File to write.
+     * @param deleteFile True to replace the file if it exists.
+     * @param bufferSize Size of the direct buffer.
+     * @throws IOException Exception thrown if the file can't be open.
+     */
+    public GeoJsonStreamWriter(@NotNull File file, boolean deleteFile, int bufferSize) throws IOException {
+        super(file, deleteFile, bufferSize);
+    }
+
+    @Override
+    protected long writeRows(@NotNull IStreamResultSet rs) throws IOException, SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        if (meta == null) {
+            throw new SQLException("Unable to get the metadata of the ResultSet.");
+        }
+        int columnCount = meta.getColumnCount();
+        int[] types = new int[columnCount + 1];
+        boolean[] geometries = new boolean[columnCount + 1];
+        byte[][] keys = new byte[columnCount + 1][];
+        int geometryIndex = -1;
+        for (int i = 1; i <= columnCount; i++) {
+            types[i] = meta.getColumnType(i);
+            geometries[i] = isGeometry(meta, i);
+            if (geometries[i] && geometryIndex < 0) {
+                geometryIndex = i;
+            }
+            keys[i] = bytes(meta.getColumnLabel(i));
+        }
+        boolean hasRow = rs.next();
+        Geometry geometry = hasRow && geometryIndex > 0 ? getGeometry(rs, geometryIndex) : null;
+        put(COLLECTION_START);
+        if (geometry != null && geometry.getSRID() != 0) {
+            put(CRS_START);
+            putLong(geometry.getSRID());
+            put(CRS_END);
+        }
+        put(FEATURES_START);
+        long count = 0;
+        while (hasRow) {
+            if (count > 0) {
+                put(',');
+                geometry = geometryIndex > 0 ? getGeometry(rs, geometryIndex) : null;
+            }
+            put(FEATURE_START);
+            putGeometry(geometry);
+            put(PROPERTIES_START);
+            boolean first = true;
+            for (int i = 1; i <= columnCount; i++) {
+                if (i == geometryIndex) {
+                    continue;
+                }
+                if (!first) {
+                    put(',');
+                }
+                first = false;
+                put('"');
+                putEscaped(keys[i]);
+                put('"');
+                put(':');
+                putValue(rs, i, types[i], geometries[i]);
+            }
+            put(FEATURE_END);
+            count++;
+            hasRow = rs.next();
+        }
+        put(COLLECTION_END);
+        return count;
+    }
+
+    /**
+     * Write the JSON value of the given column of the current row.
+     *
+     * @param rs       {@link IStreamResultSet} to read.
+     * @param index    Index of the column, starting at 1.
+     * @param type     SQL type of the column.
+     * @param geometry True if the column is a geometric one.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putValue(@NotNull IStreamResultSet rs, int index, int type, boolean geometry) throws IOException {
+        if (geometry) {
+            putGeometry(getGeometry(rs, index));
+        } else if (isInteger(type)) {
+            long value = rs.getLong(index);
+            if (rs.wasNull()) {
+                put(NULL);
+            } else {
+                putLong(value);
+            }
+        } else if (isFloatingPoint(type)) {
+            double value = rs.getDouble(index);
+            if (rs.wasNull() || !putDouble(value)) {
+                put(NULL);
+            }
+        } else if (isDecimal(type)) {
+            BigDecimal value = rs.getBigDecimal(index);
+            if (value == null || rs.wasNull()) {
+                put(NULL);
+            } else {
+                putDecimal(value);
+            }
+        } else if (type == Types.BOOLEAN || type == Types.BIT) {
+            boolean value = rs.getBoolean(index);
+            put(rs.wasNull() ? NULL : value ? TRUE : FALSE);
+        } else {
+            String value = rs.getString(index);
+            if (value == null) {
+                put(NULL);
+            } else {
+                put('"');
+                putEscaped(value);
+                put('"');
+            }
+        }
+    }
+
+    /**
+     * Write a JSON escaped text.
+     *
+     * @param value Text to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putEscaped(@NotNull String value) throws IOException {
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            putEscaped(codePoint);
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * Write JSON escaped UTF-8 bytes.
+     *
+     * @param value UTF-8 bytes to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putEscaped(@NotNull byte[] value) throws IOException {
+        for (byte b : value) {
+            if (b >= 0 && b < 0x80) {
+                putEscaped((int) b);
+            } else {
+                put(b);
+            }
+        }
+    }
+
+    /**
+     * Write a JSON escaped code point.
+     *
+     * @param codePoint Code point to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putEscaped(int codePoint) throws IOException {
+        switch (codePoint) {
+            case '"':
+            case '\\':
+                put('\\');
+                put((char) codePoint);
+                break;
+            case '\n':
+                put('\\');
+                put('n');
+                break;
+            case '\r':
+                put('\\');
+                put('r');
+                break;
+            case '\t':
+                put('\\');
+                put('t');
+                break;
+            default:
+                if (codePoint < 0x20) {
+                    put('\\');
+                    put('u');
+                    put('0');
+                    put('0');
+                    put(HEX[codePoint >> 4]);
+                    put(HEX[codePoint & 0xF]);
+                } else {
+                    putCodePoint(codePoint);
+                }
+        }
+    }
+
+    /**
+     * Write the GeoJSON object of a {@link Geometry}.
+     *
+     * @param geometry {@link Geometry} to write, null to write a JSON null value.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putGeometry(@Nullable Geometry geometry) throws IOException {
+        if (geometry == null) {
+            put(NULL);
+        } else if (geometry instanceof Point) {
+            put(TYPE_POINT);
+            if (geometry.isEmpty()) {
+                put('[');
+                put(']');
+            } else {
+                putCoordinate(((Point) geometry).getCoordinateSequence(), 0);
+            }
+            put('}');
+        } else if (geometry instanceof LineString) {
+            put(TYPE_LINESTRING);
+            putCoordinates(((LineString) geometry).getCoordinateSequence());
+            put('}');
+        } else if (geometry instanceof Polygon) {
+            put(TYPE_POLYGON);
+            putRings((Polygon) geometry);
+            put('}');
+        } else if (geometry instanceof MultiPoint) {
+            put(TYPE_MULTIPOINT);
+            put('[');
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                Point point = (Point) geometry.getGeometryN(i);
+                if (point.isEmpty()) {
+                    put('[');
+                    put(']');
+                } else {
+                    putCoordinate(point.getCoordinateSequence(), 0);
+                }
+            }
+            put(']');
+            put('}');
+        } else if (geometry instanceof MultiLineString) {
+            put(TYPE_MULTILINESTRING);
+            put('[');
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                putCoordinates(((LineString) geometry.getGeometryN(i)).getCoordinateSequence());
+            }
+            put(']');
+            put('}');
+        } else if (geometry instanceof MultiPolygon) {
+            put(TYPE_MULTIPOLYGON);
+            put('[');
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                putRings((Polygon) geometry.getGeometryN(i));
+            }
+            put(']');
+            put('}');
+        } else {
+            put(TYPE_COLLECTION);
+            put('[');
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (i > 0) {
+                    put(',');
+                }
+                putGeometry(geometry.getGeometryN(i));
+            }
+            put(']');
+            put('}');
+        }
+    }
+
+    /**
+     * Write the coordinate arrays of the rings of a {@link Polygon}.
+     *
+     * @param polygon {@link Polygon} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putRings(@NotNull Polygon polygon) throws IOException {
+        put('[');
+        if (!polygon.isEmpty()) {
+            putCoordinates(polygon.getExteriorRing().getCoordinateSequence());
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                put(',');
+                putCoordinates(polygon.getInteriorRingN(i).getCoordinateSequence());
+            }
+        }
+        put(']');
+    }
+
+    /**
+     * Write the array of the positions of a {@link CoordinateSequence}.
+     *
+     * @param sequence {@link CoordinateSequence} to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putCoordinates(@NotNull CoordinateSequence sequence) throws IOException {
+        put('[');
+        for (int i = 0; i < sequence.size(); i++) {
+            if (i > 0) {
+                put(',');
+            }
+            putCoordinate(sequence, i);
+        }
+        put(']');
+    }
+
+    /**
+     * Write one position of a {@link CoordinateSequence}.
+     *
+     * @param sequence {@link CoordinateSequence} to write.
+     * @param index    Index of the position.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putCoordinate(@NotNull CoordinateSequence sequence, int index) throws IOException {
+        put('[');
+        putOrdinate(sequence.getX(index));
+        put(',');
+        putOrdinate(sequence.getY(index));
+        if (sequence.getDimension() - sequence.getMeasures() > 2 && !Double.isNaN(sequence.getZ(index))) {
+            put(',');
+            putOrdinate(sequence.getZ(index));
+        }
+        put(']');
+    }
+
+    /**
+     * Write an ordinate, non finite values being written as JSON null values.
+     *
+     * @param ordinate Ordinate to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void putOrdinate(double ordinate) throws IOException {
+        if (!putDouble(ordinate)) {
+            put(NULL);
+        }
+    }
+}
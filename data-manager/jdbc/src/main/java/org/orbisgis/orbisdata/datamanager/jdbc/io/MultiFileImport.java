@@ -0,0 +1,428 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.io;
+
+import org.h2gis.functions.io.utility.IOMethods;
+import org.h2gis.utilities.TableLocation;
+import org.h2gis.utilities.dbtypes.DBTypes;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IImportReport;
+import org.orbisgis.orbisdata.datamanager.jdbc.JdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Import of several files into one {@link JdbcDataSource}. Each file is loaded into its own table, on its own
+ * connection and thread when the data source is backed by a {@link javax.sql.DataSource}, otherwise the files are
+ * loaded one after the other on the main connection. The loaded tables can be gathered into one table or one view
+ * with <code>UNION ALL</code>. The import time and the error of each file are reported into a {@link Report}.
+ *
+ * The supported options are :
+ * <ul>
+ *     <li>{@link #DELETE} : {@link Boolean}, true to delete the existing tables, false by default.</li>
+ *     <li>{@link #ENCODING} : {@link String}, encoding of the files.</li>
+ *     <li>{@link #THREADS} : {@link Integer}, maximum number of concurrent imports, the number of available
+ *     processors by default.</li>
+ *     <li>{@link #MERGE} : {@link String}, name of the table gathering all the loaded tables.</li>
+ *     <li>{@link #VIEW} : {@link Boolean}, true to gather the loaded tables into a view and keep them, false to
+ *     gather them into a table and drop them, false by default.</li>
+ * </ul>
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class MultiFileImport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiFileImport.class);
+
+    /**
+     * Option to delete the existing tables.
+     */
+    public static final String DELETE = "delete";
+    /**
+     * Option giving the encoding of the files.
+     */
+    public static final String ENCODING = "encoding";
+    /**
+     * Option giving the maximum number of concurrent imports.
+     */
+    public static final String THREADS = "threads";
+    /**
+     * Option giving the name of the table gathering the loaded tables.
+     */
+    public static final String MERGE = "merge";
+    /**
+     * Option to gather the loaded tables into a view instead of a table.
+     */
+    public static final String VIEW = "view";
+    /**
+     * Pattern of the valid table names.
+     */
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9_]*$");
+    /**
+     * Pattern of the characters of the file names not allowed in the table names.
+     */
+    private static final Pattern INVALID_CHARACTERS_PATTERN = Pattern.compile("[^a-zA-Z0-9_]");
+    /**
+     * Prefix of the table names built from file names not starting with a letter.
+     */
+    private static final String TABLE_NAME_PREFIX = "T";
+
+    /**
+     * {@link JdbcDataSource} where the files are loaded.
+     */
+    private final JdbcDataSource dataSource;
+
+    /**
+     * Main constructor.
+     *
+     * @param dataSource {@link JdbcDataSource} where the files are loaded.
+     */
+    public MultiFileImport(@NotNull JdbcDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Load the given files.
+     *
+     * @param files   Files to load.
+     * @param options Import options, can be null.
+     * @return The {@link Report} of the import.
+     */
+    @NotNull
+    public Report load(@NotNull Collection<File> files, @Nullable Map<String, Object> options) {
+        Map<String, Object> opts = options == null ? Collections.emptyMap() : options;
+        boolean delete = Boolean.TRUE.equals(opts.get(DELETE));
+        String encoding = opts.get(ENCODING) == null ? null : opts.get(ENCODING).toString();
+        int threads = opts.get(THREADS) instanceof Number ?
+                ((Number) opts.get(THREADS)).intValue() : Runtime.getRuntime().availableProcessors();
+        String merge = opts.get(MERGE) == null ? null : opts.get(MERGE).toString();
+        boolean view = Boolean.TRUE.equals(opts.get(VIEW));
+
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        List<String> paths = new ArrayList<>();
+        List<String> tableNames = new ArrayList<>();
+        Set<String> usedNames = new HashSet<>();
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            String tableName = getTableName(file, usedNames);
+            if (tableName == null) {
+                report.errors.put(path, "Unsupported file characters");
+                continue;
+            }
+            paths.add(path);
+            tableNames.add(tableName);
+        }
+
+        boolean parallel = dataSource.getDataSource() != null && threads > 1 && paths.size() > 1;
+        if (parallel) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, paths.size()));
+            try {
+                List<Future<Result>> futures = new ArrayList<>();
+                for (int i = 0; i < paths.size(); i++) {
+                    String path = paths.get(i);
+                    String tableName = tableNames.get(i);
+                    futures.add(executor.submit(() -> loadFile(path, tableName, encoding, delete, true)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    String path = paths.get(i);
+                    try {
+                        report.add(futures.get(i).get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        LOGGER.error("The import of '" + path + "' has been interrupted.", e);
+                        report.errors.put(path, "Import interrupted");
+                    } catch (ExecutionException e) {
+                        LOGGER.error("Unable to import the file '" + path + "'.", e.getCause());
+                        Throwable cause = e.getCause() == null ? e : e.getCause();
+                        report.errors.put(path, cause.getLocalizedMessage() == null ?
+                                cause.getClass().getName() : cause.getLocalizedMessage());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (int i = 0; i < paths.size(); i++) {
+                report.add(loadFile(paths.get(i), tableNames.get(i), encoding, delete, false));
+            }
+        }
+
+        if (merge != null && !report.tables.isEmpty()) {
+            report.mergedTable = merge(merge, report.tables.values(), view, delete);
+            if (report.mergedTable == null) {
+                report.errors.put(merge, "Unable to gather the loaded tables");
+            }
+        }
+        report.totalTime = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    /**
+     * Return the name of the table of the given file, made unique among the already used names. The characters of
+     * the file name not allowed in a table name are replaced by '_' and a name not starting with a letter is
+     * prefixed, so that for example '2020-roads.shp' is loaded into the table 'T2020_ROADS'.
+     *
+     * @param file      File to load.
+     * @param usedNames Already used table names.
+     * @return The name of the table, null if no valid name can be built from the file name.
+     */
+    @Nullable
+    private String getTableName(@NotNull File file, @NotNull Set<String> usedNames) {
+        String name = file.getName();
+        if (name.contains(".")) {
+            name = name.substring(0, name.lastIndexOf("."));
+        }
+        name = INVALID_CHARACTERS_PATTERN.matcher(name).replaceAll("_");
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0))) {
+            name = TABLE_NAME_PREFIX + name;
+        }
+        name = dataSource.getDataBaseType() == DBTypes.H2GIS ? name.toUpperCase() : name.toLowerCase();
+        if (!TABLE_NAME_PATTERN.matcher(name).find()) {
+            return null;
+        }
+        String unique = name;
+        for (int i = 1; !usedNames.add(unique); i++) {
+            unique = name + "_" + i;
+        }
+        return unique;
+    }
+
+    /**
+     * Load one file into its table.
+     *
+     * @param path          Path of the file.
+     * @param tableName     Name of the table.
+     * @param encoding      Encoding of the file.
+     * @param delete        True to delete the table if it exists.
+     * @param newConnection True to use a new connection, false to use the main one.
+     * @return The {@link Result} of the file import.
+     */
+    @NotNull
+    private Result loadFile(@NotNull String path, @NotNull String tableName, @Nullable String encoding,
+                            boolean delete, boolean newConnection) {
+        long start = System.currentTimeMillis();
+        Connection connection = newConnection ? dataSource.getNewConnection() : dataSource.getConnection();
+        if (connection == null) {
+            return new Result(path, null, 0, "Unable to get a connection.");
+        }
+        try {
+            new IOMethods().importFile(connection, path, tableName, encoding, delete);
+            String location = TableLocation.parse(tableName, dataSource.getDataBaseType()).toString();
+            return new Result(path, location, System.currentTimeMillis() - start, null);
+        } catch (Exception e) {
+            LOGGER.error("Cannot import the file : " + path, e);
+            String message = e.getLocalizedMessage() == null ? e.getClass().getName() : e.getLocalizedMessage();
+            return new Result(path, null, System.currentTimeMillis() - start, message);
+        } finally {
+            if (newConnection) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOGGER.warn("Unable to close the connection used to import '" + path + "'.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gather the loaded tables into one table or view.
+     *
+     * @param name   Name of the gathering table or view.
+     * @param tables Loaded tables.
+     * @param view   True to create a view and keep the loaded tables, false to create a table and drop them.
+     * @param delete True to delete the gathering table or view if it exists.
+     * @return The name of the gathering table or view, null if it can't be created.
+     */
+    @Nullable
+    private String merge(@NotNull String name, @NotNull Collection<String> tables, boolean view, boolean delete) {
+        String location = TableLocation.parse(name, dataSource.getDataBaseType()).toString();
+        List<String> selects = new ArrayList<>();
+        for (String table : tables) {
+            selects.add("SELECT * FROM " + table);
+        }
+        Connection connection = dataSource.getConnection();
+        if (connection == null) {
+            LOGGER.error("Unable to get the connection to create '" + location + "'.");
+            return null;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (delete) {
+                statement.execute("DROP " + (view ? "VIEW" : "TABLE") + " IF EXISTS " + location);
+            }
+            statement.execute("CREATE " + (view ? "VIEW " : "TABLE ") + location + " AS " +
+                    String.join(" UNION ALL ", selects));
+            if (!view) {
+                statement.execute("DROP TABLE IF EXISTS " + String.join(", ", tables));
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return location;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to gather the loaded tables into '" + location + "'.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Import result of one file.
+     */
+    private static class Result {
+        private final String path;
+        private final String table;
+        private final long time;
+        private final String error;
+
+        private Result(@NotNull String path, @Nullable String table, long time, @Nullable String error) {
+            this.path = path;
+            this.table = table;
+            this.time = time;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Report of a multi-file import, giving the loaded table, the import time and the error of each file.
+     */
+    public static class Report implements IImportReport {
+        private final Map<String, String> tables = new LinkedHashMap<>();
+        private final Map<String, Long> times = new LinkedHashMap<>();
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private String mergedTable;
+        private long totalTime;
+
+        /**
+         * Add the result of one file to the report.
+         *
+         * @param result {@link Result} of the file import.
+         */
+        private void add(@NotNull Result result) {
+            times.put(result.path, result.time);
+            if (result.error == null) {
+                tables.put(result.path, result.table);
+            } else {
+                errors.put(result.path, result.error);
+            }
+        }
+
+        /**
+         * Return the loaded tables by file path.
+         *
+         * @return The loaded tables by file path.
+         */
+        @Override
+        @NotNull
+        public Map<String, String> getTables() {
+            return tables;
+        }
+
+        /**
+         * Return the import time in milliseconds by file path.
+         *
+         * @return The import time in milliseconds by file path.
+         */
+        @Override
+        @NotNull
+        public Map<String, Long> getTimes() {
+            return times;
+        }
+
+        /**
+         * Return the error message by path of the files which failed to be loaded, or by name of the gathering table
+         * if the loaded tables can't be gathered.
+         *
+         * @return The error messages.
+         */
+        @Override
+        @NotNull
+        public Map<String, String> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Return the name of the table or view gathering the loaded tables.
+         *
+         * @return The name of the gathering table or view, null if the tables were not gathered.
+         */
+        @Override
+        @Nullable
+        public String getMergedTable() {
+            return mergedTable;
+        }
+
+        /**
+         * Return the total time of the import in milliseconds.
+         *
+         * @return The total time of the import in milliseconds.
+         */
+        @Override
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * Return true if all the files have been loaded and, if requested, gathered.
+         *
+         * @return True if the whole import succeeded, false otherwise.
+         */
+        @Override
+        public boolean isSuccessful() {
+            return errors.isEmpty();
+        }
+    }
+}
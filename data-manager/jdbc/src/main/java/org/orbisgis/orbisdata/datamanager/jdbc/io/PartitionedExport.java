@@ -0,0 +1,697 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.io;
+
+import org.h2gis.functions.io.utility.IOMethods;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.jdbc.JdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export of a table or a query into several files written in parallel. The source is split either by ranges of a
+ * numeric key column or by a grid of spatial tiles. Each part is written on its own connection and thread when the
+ * data source is backed by a {@link javax.sql.DataSource}, otherwise the parts are written one after the other on
+ * the main connection. CSV and GeoJSON parts are streamed with a {@link StreamWriter}. The parts can be kept as a
+ * multi-file dataset or concatenated into a single CSV or GeoJSON file.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class PartitionedExport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedExport.class);
+
+    /**
+     * Suffix added to the name of each part file, followed by the part index.
+     */
+    public static final String PART_SUFFIX = "_part";
+    /**
+     * Number of bytes read to find the beginning of the GeoJSON feature array.
+     */
+    private static final int GEOJSON_HEADER_SIZE = 64 * 1024;
+    /**
+     * Prefix of the tables holding a copy of a parameterized source.
+     */
+    private static final String SNAPSHOT_PREFIX = "PARTITIONED_EXPORT_";
+
+    /**
+     * {@link IJdbcDataSource} containing the data to export.
+     */
+    private final IJdbcDataSource dataSource;
+    /**
+     * Table location or sub-query wrapped into parenthesis to export.
+     */
+    private final String source;
+    /**
+     * Parameters of the source sub-query, null or empty if it has none.
+     */
+    private final List<Object> params;
+
+    /**
+     * Main constructor.
+     *
+     * @param dataSource {@link IJdbcDataSource} containing the data to export.
+     * @param source     Table location or sub-query wrapped into parenthesis to export.
+     */
+    public PartitionedExport(@NotNull IJdbcDataSource dataSource, @NotNull String source) {
+        this(dataSource, source, null);
+    }
+
+    /**
+     * Constructor for a parameterized source sub-query.
+     *
+     * @param dataSource {@link IJdbcDataSource} containing the data to export.
+     * @param source     Table location or sub-query wrapped into parenthesis to export.
+     * @param params     Parameters of the source sub-query.
+     */
+    public PartitionedExport(@NotNull IJdbcDataSource dataSource, @NotNull String source,
+                             @Nullable List<Object> params) {
+        this.dataSource = dataSource;
+        this.source = source;
+        this.params = params;
+    }
+
+    /**
+     * Export the source split into ranges of the given numeric key column.
+     *
+     * @param filePath       Path of the file to be saved.
+     * @param keyColumn      Numeric column used to split the source.
+     * @param partitionCount Number of parts to write.
+     * @param merge          True to concatenate the parts into the given file.
+     * @param deleteFile     True to delete the files if they exist.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    public List<String> byKeyRange(@NotNull String filePath, @NotNull String keyColumn, int partitionCount,
+                                   boolean merge, boolean deleteFile) {
+        double[] bounds = getBounds("MIN(" + keyColumn + "), MAX(" + keyColumn + ")");
+        if (bounds == null) {
+            return null;
+        }
+        List<String> filters = new ArrayList<>();
+        if (Double.isNaN(bounds[0]) || partitionCount <= 1) {
+            filters.add(null);
+        } else {
+            filters.addAll(getRangeFilters(keyColumn, bounds[0], bounds[1], partitionCount));
+            int last = filters.size() - 1;
+            filters.set(last, filters.get(last) + " OR " + keyColumn + " IS NULL");
+        }
+        return export(filePath, filters, merge, deleteFile);
+    }
+
+    /**
+     * Export the source split into exactly the given number of spatial tiles. The extent is split into horizontal
+     * strips, each strip being split into columns, the first strips getting one more column when the tile count
+     * can't be evenly distributed. Each feature is written in the tile containing the lower
+     * left corner of its envelope so it is written only once.
+     *
+     * @param filePath   Path of the file to be saved.
+     * @param geomColumn Geometric column used to split the source.
+     * @param tileCount  Number of tiles to write.
+     * @param merge      True to concatenate the tiles into the given file.
+     * @param deleteFile True to delete the files if they exist.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    public List<String> bySpatialTile(@NotNull String filePath, @NotNull String geomColumn, int tileCount,
+                                      boolean merge, boolean deleteFile) {
+        String xMin = "ST_XMin(" + geomColumn + ")";
+        String yMin = "ST_YMin(" + geomColumn + ")";
+        double[] bounds = getBounds("MIN(" + xMin + "), MAX(" + xMin + "), MIN(" + yMin + "), MAX(" + yMin + ")");
+        if (bounds == null) {
+            return null;
+        }
+        List<String> filters = new ArrayList<>();
+        if (Double.isNaN(bounds[0]) || tileCount <= 1) {
+            filters.add(null);
+        } else {
+            int rows = (int) Math.floor(Math.sqrt(tileCount));
+            List<String> yFilters = getRangeFilters(yMin, bounds[2], bounds[3], rows);
+            for (int row = 0; row < yFilters.size(); row++) {
+                int columns = yFilters.size() == rows ? tileCount / rows + (row < tileCount % rows ? 1 : 0) : tileCount;
+                for (String xFilter : getRangeFilters(xMin, bounds[0], bounds[1], columns)) {
+                    filters.add("(" + xFilter + ") AND (" + yFilters.get(row) + ")");
+                }
+            }
+            int last = filters.size() - 1;
+            filters.set(last, filters.get(last) + " OR " + xMin + " IS NULL");
+        }
+        return export(filePath, filters, merge, deleteFile);
+    }
+
+    /**
+     * Request the given aggregated values on the source.
+     *
+     * @param aggregates Aggregate expressions to select.
+     * @return The aggregated values, NaN values if the source is empty, null if the request failed.
+     */
+    @Nullable
+    private double[] getBounds(@NotNull String aggregates) {
+        Connection connection = dataSource.getConnection();
+        if (connection == null) {
+            LOGGER.error("Unable to get the connection to compute the partitions.");
+            return null;
+        }
+        try (PreparedStatement statement = prepare(connection, "SELECT " + aggregates + " FROM " + source + " AS foo");
+             ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            int count = rs.getMetaData().getColumnCount();
+            double[] bounds = new double[count];
+            for (int i = 0; i < count; i++) {
+                Object value = rs.getObject(i + 1);
+                if (value == null) {
+                    bounds[i] = Double.NaN;
+                } else if (value instanceof Number) {
+                    bounds[i] = ((Number) value).doubleValue();
+                } else {
+                    LOGGER.error("The partition column should be numeric.");
+                    return null;
+                }
+            }
+            return bounds;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to compute the partitions of '" + source + "'.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Return the filters splitting the given expression into contiguous ranges. The first and last ranges are open
+     * so that every non null value belongs to exactly one range.
+     *
+     * @param expression Expression to split.
+     * @param min        Minimum value of the expression.
+     * @param max        Maximum value of the expression.
+     * @param count      Number of ranges.
+     * @return The range filters.
+     */
+    @NotNull
+    private static List<String> getRangeFilters(@NotNull String expression, double min, double max, int count) {
+        List<String> filters = new ArrayList<>();
+        if (count <= 1 || min >= max) {
+            filters.add(expression + " IS NOT NULL");
+            return filters;
+        }
+        double step = (max - min) / count;
+        for (int i = 0; i < count; i++) {
+            List<String> conditions = new ArrayList<>();
+            if (i > 0) {
+                conditions.add(expression + " >= " + (min + i * step));
+            }
+            if (i < count - 1) {
+                conditions.add(expression + " < " + (min + (i + 1) * step));
+            }
+            filters.add(String.join(" AND ", conditions));
+        }
+        return filters;
+    }
+
+    /**
+     * Export each filtered part of the source into its own file. A parameterized source exported into a format not
+     * written by a {@link StreamWriter} is first copied into a table which is dropped once the parts are written, as
+     * the file exporters of H2GIS don't take query parameters.
+     *
+     * @param filePath   Path of the file to be saved.
+     * @param filters    Filters of the parts, a null filter selecting the whole source.
+     * @param merge      True to concatenate the parts into the given file.
+     * @param deleteFile True to delete the files if they exist.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    private List<String> export(@NotNull String filePath, @NotNull List<String> filters, boolean merge,
+                                boolean deleteFile) {
+        if (params == null || params.isEmpty() || StreamWriter.isSupported(filePath)) {
+            return export(filePath, filters, merge, deleteFile, source, params);
+        }
+        String copy = SNAPSHOT_PREFIX + UUID.randomUUID().toString().replace("-", "_").toUpperCase();
+        Connection connection = dataSource.getConnection();
+        try (PreparedStatement statement = prepare(connection, "CREATE TABLE " + copy + " AS SELECT * FROM " +
+                source + " AS foo")) {
+            statement.execute();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            LOGGER.error("Unable to copy the parameterized source '" + source + "'.", e);
+            return null;
+        }
+        try {
+            return export(filePath, filters, merge, deleteFile, copy, null);
+        } finally {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + copy);
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                LOGGER.warn("Unable to drop the table '" + copy + "'.", e);
+            }
+        }
+    }
+
+    /**
+     * Export each filtered part of the given source into its own file.
+     *
+     * @param filePath    Path of the file to be saved.
+     * @param filters     Filters of the parts, a null filter selecting the whole source.
+     * @param merge       True to concatenate the parts into the given file.
+     * @param deleteFile  True to delete the files if they exist.
+     * @param from        Table location or sub-query wrapped into parenthesis to export.
+     * @param queryParams Parameters of the source sub-query.
+     * @return The list of the written files, null if the export failed.
+     */
+    @Nullable
+    private List<String> export(@NotNull String filePath, @NotNull List<String> filters, boolean merge,
+                                boolean deleteFile, @NotNull String from, @Nullable List<Object> queryParams) {
+        File target = new File(filePath);
+        if (merge && !isMergeable(filePath)) {
+            LOGGER.warn("Only CSV and GeoJSON files can be merged, the parts of '" + filePath + "' are kept.");
+            merge = false;
+        }
+        if (merge && target.exists() && !deleteFile) {
+            LOGGER.error("The file '" + filePath + "' already exists.");
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        //Parts existing before the export, kept on failure if they can't be overwritten
+        List<String> existing = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            String part = getPartPath(filePath, i);
+            parts.add(part);
+            if (!deleteFile && new File(part).exists()) {
+                existing.add(part);
+            }
+        }
+        boolean parallel = dataSource instanceof JdbcDataSource && ((JdbcDataSource) dataSource).getDataSource() != null
+                && filters.size() > 1;
+        boolean success = true;
+        if (parallel) {
+            int threads = Math.min(filters.size(), Runtime.getRuntime().availableProcessors());
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            try {
+                for (int i = 0; i < filters.size(); i++) {
+                    String query = getPartQuery(from, filters.get(i));
+                    String part = parts.get(i);
+                    futures.add(executor.submit(() -> exportPart(query, queryParams, part, deleteFile, true)));
+                }
+                for (int i = 0; i < futures.size() && success; i++) {
+                    success = futures.get(i).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("The partitioned export of '" + filePath + "' has been interrupted.", e);
+                success = false;
+            } catch (ExecutionException e) {
+                LOGGER.error("Unable to export a part of '" + filePath + "'.", e);
+                success = false;
+            } finally {
+                //The parts not started are cancelled and the running ones are awaited, so that no part is still
+                //writing when the files are deleted
+                futures.forEach(future -> future.cancel(false));
+                executor.shutdown();
+                awaitTermination(executor);
+            }
+        } else {
+            for (int i = 0; i < filters.size() && success; i++) {
+                success = exportPart(getPartQuery(from, filters.get(i)), queryParams, parts.get(i), deleteFile, false);
+            }
+        }
+        if (!success) {
+            deleteParts(parts, existing);
+            return null;
+        }
+        if (merge) {
+            if (!concatenate(parts, target)) {
+                deleteParts(parts, existing);
+                target.delete();
+                return null;
+            }
+            parts.forEach(part -> new File(part).delete());
+            List<String> merged = new ArrayList<>();
+            merged.add(filePath);
+            return merged;
+        }
+        return parts;
+    }
+
+    /**
+     * Wait for the termination of the given shut down {@link ExecutorService}. The interruptions are delayed until
+     * the termination, the interrupt flag being then restored.
+     *
+     * @param executor {@link ExecutorService} to wait for.
+     */
+    private static void awaitTermination(@NotNull ExecutorService executor) {
+        boolean interrupted = Thread.interrupted();
+        while (!executor.isTerminated()) {
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.warn("Waiting for the termination of the running parts.");
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delete the part files written by a failed export.
+     *
+     * @param parts    Paths of the part files.
+     * @param existing Paths of the part files existing before the export, which are kept.
+     */
+    private static void deleteParts(@NotNull List<String> parts, @NotNull List<String> existing) {
+        for (String part : parts) {
+            File file = new File(part);
+            if (!existing.contains(part) && file.exists() && !file.delete()) {
+                LOGGER.warn("Unable to delete the part file '" + part + "'.");
+            }
+        }
+    }
+
+    /**
+     * Return the query selecting the part of the source matching the given filter.
+     *
+     * @param from   Table location or sub-query wrapped into parenthesis to export.
+     * @param filter Filter of the part, null to select the whole source.
+     * @return The query wrapped into parenthesis.
+     */
+    @NotNull
+    private static String getPartQuery(@NotNull String from, @Nullable String filter) {
+        return "(SELECT * FROM " + from + " AS foo" + (filter == null ? "" : " WHERE " + filter) + ")";
+    }
+
+    /**
+     * Prepare the given query on the source, setting the source parameters.
+     *
+     * @param connection {@link Connection} to use.
+     * @param query      Query to prepare.
+     * @return The prepared statement.
+     * @throws SQLException Exception thrown if the statement can't be prepared.
+     */
+    @NotNull
+    private PreparedStatement prepare(@NotNull Connection connection, @NotNull String query) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query);
+        if (params != null) {
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Write one part into a file.
+     *
+     * @param query         Query of the part.
+     * @param queryParams   Parameters of the query.
+     * @param partPath      Path of the part file.
+     * @param deleteFile    True to delete the file if it exists.
+     * @param newConnection True to use a new connection, false to use the main one.
+     * @return True if the part has been written, false otherwise.
+     */
+    private boolean exportPart(@NotNull String query, @Nullable List<Object> queryParams, @NotNull String partPath,
+                               boolean deleteFile, boolean newConnection) {
+        Connection connection = newConnection ?
+                ((JdbcDataSource) dataSource).getNewConnection() : dataSource.getConnection();
+        if (connection == null) {
+            LOGGER.error("Unable to get a connection to write '" + partPath + "'.");
+            return false;
+        }
+        try {
+            if (StreamWriter.isSupported(partPath)) {
+                StreamWriter.export(connection, query, queryParams, new File(partPath), deleteFile);
+            } else {
+                new IOMethods().exportToFile(connection, query, partPath, null, deleteFile);
+            }
+            return true;
+        } catch (IOException | SQLException e) {
+            LOGGER.error("Unable to write the part '" + partPath + "'.", e);
+            return false;
+        } finally {
+            if (newConnection) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOGGER.warn("Unable to close the connection used to write '" + partPath + "'.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the path of a part file, built by adding the part suffix and index before the file extension.
+     *
+     * @param filePath Path of the whole file.
+     * @param index    Index of the part.
+     * @return The path of the part file.
+     */
+    @NotNull
+    public static String getPartPath(@NotNull String filePath, int index) {
+        File file = new File(filePath);
+        String name = file.getName();
+        int dot = name.indexOf('.');
+        String partName = dot < 0 ? name + PART_SUFFIX + index :
+                name.substring(0, dot) + PART_SUFFIX + index + name.substring(dot);
+        return file.getParent() == null ? partName : new File(file.getParent(), partName).getPath();
+    }
+
+    /**
+     * Return true if the parts of the given file can be concatenated.
+     *
+     * @param filePath Path of the file.
+     * @return True if the file is a CSV or a GeoJSON one.
+     */
+    private static boolean isMergeable(@NotNull String filePath) {
+        String lower = filePath.toLowerCase();
+        return lower.endsWith(".csv") || lower.endsWith(".geojson");
+    }
+
+    /**
+     * Concatenate the part files into the target file. The header of the CSV parts is kept only once and the
+     * features of the GeoJSON parts are gathered into a single feature collection.
+     *
+     * @param parts  Path of the part files.
+     * @param target File to write.
+     * @return True if the files have been concatenated, false otherwise.
+     */
+    private static boolean concatenate(@NotNull List<String> parts, @NotNull File target) {
+        boolean geojson = target.getName().toLowerCase().endsWith(".geojson");
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            boolean hasFeature = false;
+            for (int i = 0; i < parts.size(); i++) {
+                try (FileChannel in = FileChannel.open(new File(parts.get(i)).toPath(), StandardOpenOption.READ)) {
+                    long start;
+                    long end = in.size();
+                    if (geojson) {
+                        long arrayStart = findFeaturesStart(in);
+                        long arrayEnd = findFeaturesEnd(in);
+                        if (arrayStart < 0 || arrayEnd < arrayStart) {
+                            LOGGER.error("Unable to find the features of the GeoJSON file '" + parts.get(i) + "'.");
+                            return false;
+                        }
+                        if (i == 0) {
+                            transfer(in, 0, arrayStart, out);
+                        }
+                        start = arrayStart;
+                        end = arrayEnd;
+                        if (!isBlank(in, start, end)) {
+                            if (hasFeature) {
+                                out.write(ByteBuffer.wrap(new byte[]{','}));
+                            }
+                            hasFeature = true;
+                        }
+                    } else {
+                        start = i == 0 ? 0 : findLineEnd(in);
+                    }
+                    transfer(in, start, end, out);
+                }
+            }
+            if (geojson) {
+                out.write(ByteBuffer.wrap("]}".getBytes(StandardCharsets.UTF_8)));
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Unable to merge the parts into '" + target + "'.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Copy the given byte range of a channel into another one.
+     *
+     * @param in    Channel to read.
+     * @param start Start position, inclusive.
+     * @param end   End position, exclusive.
+     * @param out   Channel to write.
+     * @throws IOException Exception thrown on IO error.
+     */
+    private static void transfer(@NotNull FileChannel in, long start, long end, @NotNull FileChannel out)
+            throws IOException {
+        long position = start;
+        while (position < end) {
+            position += in.transferTo(position, end - position, out);
+        }
+    }
+
+    /**
+     * Return true if the given byte range of a channel only contains white spaces.
+     *
+     * @param in    Channel to read.
+     * @param start Start position, inclusive.
+     * @param end   End position, exclusive.
+     * @return True if the range is blank.
+     * @throws IOException Exception thrown on IO error.
+     */
+    private static boolean isBlank(@NotNull FileChannel in, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        long position = start;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = in.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (!Character.isWhitespace(buffer.get(i))) {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Return the position following the first line break of a channel.
+     *
+     * @param in Channel to read.
+     * @return The position following the first line break, the channel size if there is none.
+     * @throws IOException Exception thrown on IO error.
+     */
+    private static long findLineEnd(@NotNull FileChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (position < in.size()) {
+            buffer.clear();
+            int read = in.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return in.size();
+    }
+
+    /**
+     * Return the position following the opening bracket of the GeoJSON feature array.
+     *
+     * @param in Channel to read.
+     * @return The position following the opening bracket, -1 if not found.
+     * @throws IOException Exception thrown on IO error.
+     */
+    private static long findFeaturesStart(@NotNull FileChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(GEOJSON_HEADER_SIZE, in.size()));
+        in.read(buffer, 0);
+        String header = new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+        int key = header.indexOf("\"features\"");
+        if (key < 0) {
+            return -1;
+        }
+        int bracket = header.indexOf('[', key);
+        return bracket < 0 ? -1 : bracket + 1;
+    }
+
+    /**
+     * Return the position of the closing bracket of the GeoJSON feature array, which is followed by the closing
+     * brace of the feature collection.
+     *
+     * @param in Channel to read.
+     * @return The position of the closing bracket, -1 if not found.
+     * @throws IOException Exception thrown on IO error.
+     */
+    private static long findFeaturesEnd(@NotNull FileChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        boolean braceFound = false;
+        for (long position = in.size() - 1; position >= 0; position--) {
+            buffer.clear();
+            in.read(buffer, position);
+            byte b = buffer.get(0);
+            if (Character.isWhitespace(b)) {
+                continue;
+            }
+            if (!braceFound && b == '}') {
+                braceFound = true;
+            } else if (braceFound && b == ']') {
+                return position;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.io;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IStreamResultSet;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IStreamSpatialResultSet;
+import org.orbisgis.orbisdata.datamanager.jdbc.resultset.StreamResultSet;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Base class of the writers streaming an {@link IStreamResultSet} into a file. The values are encoded directly into
+ * a large direct {@link ByteBuffer} which is flushed into a {@link FileChannel}, the integral numbers and the
+ * integral geometry coordinates being written digit by digit without building intermediate {@link String}. The other
+ * floating point values are written in their shortest round-trip form as given by {@link Double#toString(double)},
+ * and the exact decimal values without loss as given by {@link BigDecimal#toPlainString()}, their characters being
+ * copied into the buffer without intermediate byte array.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public abstract class StreamWriter implements Closeable {
+
+    /**
+     * Default size of the direct buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+    /**
+     * Number of rows fetched at once when streaming a query.
+     */
+    public static final int FETCH_SIZE = 10000;
+    /**
+     * Suffix of the temporary file written before being moved to its final location.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * File to write.
+     */
+    private final File file;
+    /**
+     * Temporary file receiving the data until the writing is complete.
+     */
+    private final File tempFile;
+    /**
+     * True to replace the file if it exists.
+     */
+    private final boolean deleteFile;
+    /**
+     * True once all the rows have been written.
+     */
+    private boolean complete = false;
+    /**
+     * Channel of the written file.
+     */
+    private final FileChannel channel;
+    /**
+     * Direct buffer accumulating the encoded bytes.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * Scratch array used for the integer encoding.
+     */
+    private final byte[] digits = new byte[20];
+    /**
+     * Reader used to decode the geometries given as WKB.
+     */
+    private final WKBReader wkbReader = new WKBReader();
+
+    /**
+     * Main constructor. The data is written into a temporary file next to the given one, which is moved to the given
+     * location once all the rows have been written, so a failed write never leaves a partial file.
+     *
+     * @param file       File to write.
+     * @param deleteFile True to replace the file if it exists.
+     * @param bufferSize Size of the direct buffer.
+     * @throws IOException Exception thrown if the file can't be open.
+     */
+    protected StreamWriter(@NotNull File file, boolean deleteFile, int bufferSize) throws IOException {
+        if (!deleteFile && file.exists()) {
+            throw new FileAlreadyExistsException(file.getPath());
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        this.file = file;
+        this.deleteFile = deleteFile;
+        //The temporary file is created like the final one to get the same permissions once moved
+        this.tempFile = new File(dir, file.getName() + TEMP_SUFFIX);
+        this.channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Return true if the given file can be written by a {@link StreamWriter}.
+     *
+     * @param filePath Path of the file.
+     * @return True if the file is a CSV or a GeoJSON one.
+     */
+    public static boolean isSupported(@NotNull String filePath) {
+        String lower = filePath.toLowerCase();
+        return lower.endsWith(".csv") || lower.endsWith(".geojson");
+    }
+
+    /**
+     * Create the {@link StreamWriter} corresponding to the extension of the given file.
+     *
+     * @param file       File to write.
+     * @param deleteFile True to replace the file if it exists.
+     * @return The {@link StreamWriter} to use, null if the file format is not supported.
+     * @throws IOException Exception thrown if the file can't be open.
+     */
+    @Nullable
+    public static StreamWriter create(@NotNull File file, boolean deleteFile) throws IOException {
+        String lower = file.getName().toLowerCase();
+        if (lower.endsWith(".csv")) {
+            return new CsvStreamWriter(file, deleteFile, DEFAULT_BUFFER_SIZE);
+        } else if (lower.endsWith(".geojson")) {
+            return new GeoJsonStreamWriter(file, deleteFile, DEFAULT_BUFFER_SIZE);
+        }
+        return null;
+    }
+
+    /**
+     * Execute the given query and stream its result into the given CSV or GeoJSON file.
+     *
+     * @param connection {@link Connection} to use.
+     * @param query      Query to execute.
+     * @param params     Parameters of the query.
+     * @param file       File to write.
+     * @param deleteFile True to replace the file if it exists.
+     * @return The number of written rows.
+     * @throws IOException  Exception thrown on write error.
+     * @throws SQLException Exception thrown on read error.
+     */
+    public static long export(@NotNull Connection connection, @NotNull String query, @Nullable List<Object> params,
+                              @NotNull File file, boolean deleteFile) throws IOException, SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            if (params != null) {
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+            }
+            try (ResultSet rs = statement.executeQuery();
+                 StreamWriter writer = create(file, deleteFile)) {
+                if (writer == null) {
+                    throw new IOException("Unsupported file format : " + file.getName());
+                }
+                return writer.write(new StreamResultSet(rs));
+            }
+        }
+    }
+
+    /**
+     * Write all the remaining rows of the given {@link IStreamResultSet}. The file is only moved to its final
+     * location by {@link #close()} if this method succeeds.
+     *
+     * @param rs {@link IStreamResultSet} to write.
+     * @return The number of written rows.
+     * @throws IOException  Exception thrown on write error.
+     * @throws SQLException Exception thrown on read error.
+     */
+    public long write(@NotNull IStreamResultSet rs) throws IOException, SQLException {
+        long count = writeRows(rs);
+        complete = true;
+        return count;
+    }
+
+    /**
+     * Write all the remaining rows of the given {@link IStreamResultSet} into the buffer.
+     *
+     * @param rs {@link IStreamResultSet} to write.
+     * @return The number of written rows.
+     * @throws IOException  Exception thrown on write error.
+     * @throws SQLException Exception thrown on read error.
+     */
+    protected abstract long writeRows(@NotNull IStreamResultSet rs) throws IOException, SQLException;
+
+    /**
+     * Return true if the given column of the {@link ResultSetMetaData} contains geometries.
+     *
+     * @param meta  {@link ResultSetMetaData} of the written data.
+     * @param index Index of the column, starting at 1.
+     * @return True if the column is a geometric one.
+     * @throws SQLException Exception thrown on read error.
+     */
+    protected static boolean isGeometry(@NotNull ResultSetMetaData meta, int index) throws SQLException {
+        String typeName = meta.getColumnTypeName(index);
+        return typeName != null && typeName.toUpperCase().startsWith("GEOMETRY");
+    }
+
+    /**
+     * Return true if the given SQL type is an integer one.
+     *
+     * @param type SQL type from {@link Types}.
+     * @return True if the type is an integer one.
+     */
+    protected static boolean isInteger(int type) {
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT;
+    }
+
+    /**
+     * Return true if the given SQL type is an exact decimal one.
+     *
+     * @param type SQL type from {@link Types}.
+     * @return True if the type is NUMERIC or DECIMAL.
+     */
+    protected static boolean isDecimal(int type) {
+        return type == Types.NUMERIC || type == Types.DECIMAL;
+    }
+
+    /**
+     * Return true if the given SQL type is a floating point one.
+     *
+     * @param type SQL type from {@link Types}.
+     * @return True if the type is a floating point one.
+     */
+    protected static boolean isFloatingPoint(int type) {
+        return type == Types.REAL || type == Types.FLOAT || type == Types.DOUBLE;
+    }
+
+    /**
+     * Read the {@link Geometry} of the given column of the current row.
+     *
+     * @param rs    {@link IStreamResultSet} to read.
+     * @param index Index of the column, starting at 1.
+     * @return The {@link Geometry}, null if the value is null or can't be decoded.
+     */
+    @Nullable
+    protected Geometry getGeometry(@NotNull IStreamResultSet rs, int index) {
+        if (rs instanceof IStreamSpatialResultSet) {
+            return ((IStreamSpatialResultSet) rs).getGeometry(index);
+        }
+        Object value = rs.getObject(index);
+        try {
+            if (value instanceof Geometry) {
+                return (Geometry) value;
+            } else if (value instanceof byte[]) {
+                return wkbReader.read((byte[]) value);
+            } else if (value != null) {
+                return wkbReader.read(WKBReader.hexToBytes(value.toString()));
+            }
+        } catch (ParseException | RuntimeException e) {
+            rs.getLogger().error("Unable to decode the geometry of the column '" + index + "'.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Ensure that the buffer can receive the given number of bytes, flushing it if needed.
+     *
+     * @param length Number of bytes to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    private void ensure(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    /**
+     * Write the buffer content into the file channel.
+     *
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write one byte.
+     *
+     * @param b Byte to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void put(byte b) throws IOException {
+        ensure(1);
+        buffer.put(b);
+    }
+
+    /**
+     * Write one ASCII character.
+     *
+     * @param c Character to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void put(char c) throws IOException {
+        put((byte) c);
+    }
+
+    /**
+     * Write an array of bytes.
+     *
+     * @param bytes Bytes to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void put(@NotNull byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+            return;
+        }
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Encode the given {@link String} constant into bytes, to be written with {@link #put(byte[])}.
+     *
+     * @param constant Constant to encode.
+     * @return The UTF-8 bytes of the constant.
+     */
+    @NotNull
+    protected static byte[] bytes(@NotNull String constant) {
+        return constant.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the UTF-8 encoding of the given code point.
+     *
+     * @param codePoint Code point to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void putCodePoint(int codePoint) throws IOException {
+        ensure(4);
+        if (codePoint < 0x80) {
+            buffer.put((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            buffer.put((byte) (0xC0 | (codePoint >> 6)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (codePoint < 0x10000) {
+            buffer.put((byte) (0xE0 | (codePoint >> 12)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+    }
+
+    /**
+     * Write the decimal representation of a long value.
+     *
+     * @param value Value to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void putLong(long value) throws IOException {
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            putAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /**
+     * Write the shortest decimal representation of a double value which reads back to the same value : the integral
+     * values are written without decimals and the other ones as given by {@link Double#toString(double)}. Non finite
+     * values are not written and false is returned to let the caller encode them.
+     *
+     * @param value Value to write.
+     * @return True if the value has been written, false if the value is not finite.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected boolean putDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            putLong((long) value);
+        } else {
+            putAscii(Double.toString(value));
+        }
+        return true;
+    }
+
+    /**
+     * Write the plain decimal representation of a {@link BigDecimal}, without exponent.
+     *
+     * @param value Value to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void putDecimal(@NotNull BigDecimal value) throws IOException {
+        putAscii(value.toPlainString());
+    }
+
+    /**
+     * Write the characters of the given ASCII {@link CharSequence}, like a number representation, without encoding
+     * it into an intermediate byte array.
+     *
+     * @param value ASCII characters to write.
+     * @throws IOException Exception thrown on write error.
+     */
+    protected void putAscii(@NotNull CharSequence value) throws IOException {
+        int length = value.length();
+        if (length > buffer.capacity()) {
+            put(bytes(value.toString()));
+            return;
+        }
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        boolean written = complete;
+        try {
+            if (written) {
+                flush();
+            }
+        } catch (IOException e) {
+            written = false;
+            throw e;
+        } finally {
+            channel.close();
+            if (written) {
+                if (deleteFile) {
+                    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.move(tempFile.toPath(), file.toPath());
+                }
+            } else {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
+}
@@ -441,14 +441,14 @@ public class POSTGIS extends JdbcDataSource {
     public Collection<String> getColumnNames(String location){
         try {
             Collection<String> cols = JDBCUtilities.getColumnNames(getConnection(), TableLocation.parse(location, DBTypes.POSTGIS).toString());
-            if(!getConnection().getAutoCommit()) {
+            if(!getConnection().getAutoCommit() && !isInTransaction()) {
                 getConnection().commit();
             }
             return cols;
         } catch (SQLException e) {
             LOGGER.error("Unable to get the column names of the table " + location + ".", e);
             try{
-                if(!getConnection().getAutoCommit()) {
+                if(!getConnection().getAutoCommit() && !isInTransaction()) {
                     getConnection().rollback();
                 }
             } catch (SQLException e2) {
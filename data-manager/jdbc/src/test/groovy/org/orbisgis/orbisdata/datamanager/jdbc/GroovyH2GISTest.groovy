@@ -130,6 +130,78 @@ class GroovyH2GISTest {
         assertEquals(4, h2GIS.getTable("H2GIS").getRowCount())
     }
 
+    @Test
+    void queryH2GISWithBatchScope() {
+        def h2GIS = H2GIS.open([databaseName: './target/loadH2GIS'])
+        h2GIS.execute("""
+                DROP TABLE IF EXISTS h2gis;
+                CREATE TABLE h2gis (id int);
+        """)
+        def counts = h2GIS.withBatch(10) {
+            assertTrue(h2GIS.isInTransaction())
+            for (int i = 0; i < 25; i++) {
+                h2GIS.execute "INSERT INTO h2gis VALUES($i)".toString()
+            }
+            assertEquals(25, h2GIS.firstRow("SELECT COUNT(*) AS c FROM h2gis").c)
+        }
+        assertEquals(25, counts.length)
+        assertFalse(h2GIS.isInTransaction())
+        assertEquals(25, h2GIS.getTable("H2GIS").getRowCount())
+    }
+
+    @Test
+    void queryH2GISWithTransaction() {
+        def h2GIS = H2GIS.open([databaseName: './target/loadH2GIS'])
+        h2GIS.execute("""
+                DROP TABLE IF EXISTS h2gis;
+                CREATE TABLE h2gis (id int);
+        """)
+        h2GIS.withTransaction {
+            h2GIS.execute "INSERT INTO h2gis VALUES(1)"
+            h2GIS.withTransaction {
+                h2GIS.execute "INSERT INTO h2gis VALUES(2)"
+            }
+        }
+        assertEquals(2, h2GIS.getTable("H2GIS").getRowCount())
+        assertThrows(SQLException.class, {
+            h2GIS.withTransaction {
+                h2GIS.execute "INSERT INTO h2gis VALUES(3)"
+                h2GIS.execute "INSERT INTO not_a_table VALUES(4)"
+            }
+        })
+        assertEquals(2, h2GIS.getTable("H2GIS").getRowCount())
+    }
+
+    @Test
+    void queryH2GISGStringRetryInTransaction() {
+        def h2GIS = H2GIS.open([databaseName: './target/loadH2GIS'])
+        h2GIS.execute("""
+                DROP TABLE IF EXISTS h2gis, h2gis_retry;
+                CREATE TABLE h2gis (id int);
+        """)
+        def name = "h2gis_retry"
+        boolean otherThread = true
+        boolean otherThreadFailed = false
+        h2GIS.withTransaction {
+            h2GIS.execute "INSERT INTO h2gis VALUES(1)"
+            h2GIS.execute "CREATE TABLE $name (id int)"
+            h2GIS.execute "INSERT INTO h2gis VALUES(2)"
+            def thread = Thread.start {
+                otherThread = h2GIS.isInTransaction()
+                try {
+                    h2GIS.execute "INSERT INTO h2gis VALUES(3)"
+                } catch (SQLException ignored) {
+                    otherThreadFailed = true
+                }
+            }
+            thread.join()
+        }
+        assertFalse(otherThread)
+        assertTrue(otherThreadFailed)
+        assertEquals(2, h2GIS.getTable("H2GIS").getRowCount())
+        assertTrue(h2GIS.hasTable("H2GIS_RETRY"))
+    }
+
     @Test
     void querySpatialTable() {
         def h2GIS = H2GIS.open([databaseName: './target/loadH2GIS'])
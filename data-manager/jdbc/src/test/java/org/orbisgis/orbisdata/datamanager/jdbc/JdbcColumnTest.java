@@ -41,6 +41,7 @@ import org.codehaus.groovy.runtime.InvokerHelper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
 import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
 
 import java.sql.SQLException;
@@ -157,6 +158,47 @@ public class JdbcColumnTest {
         assertEquals(-1, getColumn(COL_NO_TAB).getSize());
     }
 
+    /**
+     * Test the {@link JdbcColumn#toDoubleArray()}, {@link JdbcColumn#toLongArray()},
+     * {@link JdbcColumn#toIntArray()} and {@link JdbcColumn#toGeometryArray()} methods.
+     */
+    @Test
+    public void testToArray() throws SQLException {
+        double[] doubles = getColumn(COL_VALUE).toDoubleArray();
+        assertNotNull(doubles);
+        assertEquals(3, doubles.length);
+        assertEquals(2.3, doubles[0], 1e-6);
+        assertEquals(0.568, doubles[1], 1e-6);
+        assertTrue(Double.isNaN(doubles[2]));
+        assertEquals(-1, getColumn(COL_VALUE).toDoubleArray(-1)[2]);
+        assertArrayEquals(new long[]{1, 2, 2}, getColumn(COL_ID).toLongArray());
+        assertArrayEquals(new int[]{1, 2, 2}, getColumn(COL_ID).toIntArray());
+        assertArrayEquals(new int[]{1, 2, 2}, (int[]) getColumn(COL_ID).asType(int[].class));
+
+        Geometry[] geometries = getColumn(COL_THE_GEOM2).toGeometryArray();
+        assertNotNull(geometries);
+        assertEquals(3, geometries.length);
+        assertEquals("POINT (10 11)", geometries[1].toString());
+        geometries = (Geometry[]) getColumn(COL_THE_GEOM).asType(Geometry[].class);
+        assertNotNull(geometries);
+        assertEquals(3, geometries.length);
+        assertNull(geometries[2]);
+
+        assertNull(getColumn(COL_NO_COL).toDoubleArray());
+        assertNull(getColumn(COL_NO_TAB).toGeometryArray());
+        assertEquals(0, new JdbcColumn(COL_ID, EMPTY_TABLE_NAME, dataSource).toIntArray().length);
+
+        dataSource.execute("DROP TABLE IF EXISTS NULL_IDS; CREATE TABLE NULL_IDS AS SELECT CASEWHEN(MOD(X, 3) = 0, " +
+                "NULL, X) AS ID FROM SYSTEM_RANGE(1, 100000)");
+        long[] longs = new JdbcColumn("ID", "NULL_IDS", dataSource).toLongArray(Long.MIN_VALUE);
+        assertNotNull(longs);
+        assertEquals(100000, longs.length);
+        assertEquals(Long.MIN_VALUE, longs[2]);
+        assertEquals(100000, longs[99999]);
+        assertEquals(0, new JdbcColumn("ID", "NULL_IDS", dataSource).toIntArray()[2]);
+        assertEquals(-1, new JdbcColumn("ID", "NULL_IDS", dataSource).toIntArray(-1)[2]);
+    }
+
     /**
      * Test the {@link JdbcColumn#isSpatial()} method.
      */
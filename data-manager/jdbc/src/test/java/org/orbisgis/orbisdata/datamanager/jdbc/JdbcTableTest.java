@@ -959,4 +959,50 @@ class JdbcTableTest {
         });
         assertEquals("POINT (0 0)POINT (0 1)POINT (10 11)", result[0]);
     }
+
+    /**
+     * Test the primitive consumers of {@link StreamResultSet}.
+     */
+    @Test
+    void testPrimitiveConsumers() throws SQLException {
+        Statement st = connection.createStatement();
+        st.execute("DROP TABLE IF EXISTS PRIMITIVES; CREATE TABLE PRIMITIVES AS SELECT X AS ID, " +
+                "CASEWHEN(MOD(X, 10) = 0, NULL, X / 2.0) AS VAL FROM SYSTEM_RANGE(1, 3000)");
+
+        double[] sum = {0};
+        long count = new StreamResultSet(st.executeQuery("SELECT VAL FROM PRIMITIVES")).forEachDouble(1, v -> sum[0] += v);
+        assertEquals(2700, count);
+        assertEquals((3000 * 3001 / 2 - 10 * 300 * 301 / 2) / 2.0, sum[0]);
+
+        long[] longSum = {0};
+        count = new StreamResultSet(st.executeQuery("SELECT ID FROM PRIMITIVES")).forEachLong("ID", v -> longSum[0] += v);
+        assertEquals(3000, count);
+        assertEquals(3000 * 3001 / 2, longSum[0]);
+
+        int[] max = {0};
+        count = new StreamResultSet(st.executeQuery("SELECT ID FROM PRIMITIVES")).forEachInt(1, v -> max[0] = Math.max(max[0], v));
+        assertEquals(3000, count);
+        assertEquals(3000, max[0]);
+
+        assertEquals(1499.5, new StreamResultSet(st.executeQuery("SELECT VAL FROM PRIMITIVES"))
+                .reduceDouble("VAL", Double.NEGATIVE_INFINITY, Math::max));
+        assertEquals(-1, new StreamResultSet(st.executeQuery("SELECT VAL FROM PRIMITIVES")).forEachDouble("NONE", v -> {}));
+        assertTrue(Double.isNaN(new StreamResultSet(st.executeQuery("SELECT VAL FROM PRIMITIVES"))
+                .reduceDouble(5, 0, Double::sum)));
+
+        ResultSet rs = st.executeQuery("SELECT ID FROM PRIMITIVES");
+        long[] consumed = {0};
+        count = new StreamResultSet(rs).forEachLong(1, v -> {
+            consumed[0]++;
+            if (consumed[0] == StreamResultSet.PRIMITIVE_CHUNK_SIZE) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    fail(e);
+                }
+            }
+        });
+        assertEquals(StreamResultSet.PRIMITIVE_CHUNK_SIZE, consumed[0]);
+        assertEquals(-1 - consumed[0], count);
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * Bundle DataFrame is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.cache;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IMaterializedTable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
+import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link MaterializedTable} class.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class MaterializedTableTest {
+
+    /**
+     * Database connection
+     */
+    private static H2GIS h2gis;
+
+    @BeforeAll
+    public static void beforeAll() throws Exception {
+        h2gis = H2GIS.open("./target/" + MaterializedTableTest.class.getSimpleName());
+        h2gis.execute("DROP TABLE IF EXISTS landuse; CREATE TABLE landuse (id INTEGER, big BIGINT, flag BOOLEAN, " +
+                "val DOUBLE, ratio REAL, type VARCHAR, day DATE, the_geom GEOMETRY)");
+        h2gis.execute("INSERT INTO landuse VALUES (1, 10000000000, true, 1.5, 0.5, 'forest', '2020-01-01', " +
+                "'SRID=2154;POLYGON((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 4, 2 2))'::GEOMETRY)");
+        h2gis.execute("INSERT INTO landuse VALUES (2, null, false, null, 1.5, 'water', null, " +
+                "'SRID=2154;MULTILINESTRING Z((0 0 1, 1 1 2), (2 2 3, 3 3 4))'::GEOMETRY)");
+        h2gis.execute("INSERT INTO landuse VALUES (3, 30, null, 3.25, null, 'forest', '2020-03-01', " +
+                "'SRID=2154;GEOMETRYCOLLECTION(POINT(1 2), MULTIPOINT((3 4), (5 6)))'::GEOMETRY)");
+        h2gis.execute("INSERT INTO landuse VALUES (4, 40, true, 4.0, 2.0, null, null, null)");
+    }
+
+    /**
+     * Test the materialization of a table and the getters of the {@link MaterializedTable}.
+     */
+    @Test
+    void testMaterialize() throws Exception {
+        IMaterializedTable<?, ?> table = h2gis.getTable("LANDUSE").materialize();
+        assertNotNull(table);
+        assertTrue(table instanceof MaterializedTable);
+        MaterializedTable materialized = (MaterializedTable) table;
+        assertEquals(4, materialized.getRowCount());
+        assertEquals(8, materialized.getColumnCount());
+        assertTrue(materialized.isSpatial());
+        assertTrue(materialized.hasColumn("ID", Integer.class));
+        assertTrue(materialized.hasColumn("THE_GEOM", Geometry.class));
+        assertTrue(MaterializedTable.getUsedMemory() > 0);
+
+        assertTrue(materialized.next());
+        assertEquals(1, materialized.getInt("id"));
+        assertEquals(10000000000L, materialized.getLong("BIG"));
+        assertTrue(materialized.getBoolean("FLAG"));
+        assertEquals(1.5, materialized.getDouble("VAL"));
+        assertEquals(0.5f, materialized.getFloat("RATIO"));
+        assertEquals("forest", materialized.getString("TYPE"));
+        assertEquals("2020-01-01", materialized.getDate("DAY").toString());
+        Geometry geometry = materialized.getGeometry("THE_GEOM");
+        assertNotNull(geometry);
+        assertEquals(2154, geometry.getSRID());
+        assertTrue(geometry.equalsExact(new WKTReader().read(
+                "POLYGON((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 4 2, 4 4, 2 4, 2 2))")));
+
+        assertTrue(materialized.next());
+        assertNull(materialized.getObject("BIG"));
+        assertEquals(0, materialized.getLong("BIG"));
+        assertNull(materialized.getObject("VAL"));
+        geometry = materialized.getGeometry(8);
+        assertEquals(2, geometry.getNumGeometries());
+        assertEquals(4, geometry.getCoordinates()[3].getZ());
+
+        assertTrue(materialized.next());
+        assertEquals(3, materialized.getGeometry("THE_GEOM").getNumPoints());
+        assertTrue(materialized.next());
+        assertNull(materialized.getString("TYPE"));
+        assertNull(materialized.getGeometry("THE_GEOM"));
+        assertFalse(materialized.next());
+        assertThrows(Exception.class, () -> materialized.getInt(1));
+
+        double sum = 0;
+        for (MaterializedTable row : materialized) {
+            sum += row.getDouble("VAL");
+        }
+        assertEquals(8.75, sum);
+        assertEquals(4, materialized.stream().count());
+
+        Collection<String> values = materialized.getUniqueValues("TYPE");
+        assertEquals(2, values.size());
+        assertTrue(values.contains("forest"));
+        assertEquals(1, materialized.firstRow().get("ID"));
+
+        materialized.release();
+        assertEquals(0, MaterializedTable.getUsedMemory());
+    }
+
+    /**
+     * Test the materialization of a query and the memory budget.
+     */
+    @Test
+    void testMemoryBudget() {
+        IMaterializedTable<?, ?> table = h2gis.getTable("(SELECT * FROM landuse WHERE type = 'forest')")
+                .materialize();
+        assertNotNull(table);
+        assertEquals(2, table.getRowCount());
+        table.release();
+        assertTrue(table.isReleased());
+        table.release();
+        assertEquals(0, MaterializedTable.getUsedMemory());
+
+        long budget = MaterializedTable.getMemoryBudget();
+        MaterializedTable.setMemoryBudget(1024);
+        try {
+            assertNull(h2gis.getTable("LANDUSE").materialize());
+            assertEquals(0, MaterializedTable.getUsedMemory());
+        } finally {
+            MaterializedTable.setMemoryBudget(budget);
+        }
+    }
+
+    /**
+     * Test that the iterations have their own cursor, the release by closing and the saving of the cached rows.
+     */
+    @Test
+    void testCursorsAndClose() throws Exception {
+        try (MaterializedTable table = (MaterializedTable) h2gis.getTable("LANDUSE").materialize()) {
+            assertNotNull(table);
+            assertTrue(table.next());
+            Iterator<MaterializedTable> it1 = table.iterator();
+            Iterator<MaterializedTable> it2 = table.iterator();
+            MaterializedTable cursor1 = it1.next();
+            cursor1 = it1.next();
+            MaterializedTable cursor2 = it2.next();
+            assertEquals(2, cursor1.getInt("ID"));
+            assertEquals(1, cursor2.getInt("ID"));
+            assertEquals(1, table.getRow());
+            assertEquals(4, table.stream().count());
+            assertEquals(1, table.getRow());
+
+            assertNull(table.filter("ID > 1"));
+            assertNull(table.columns("ID"));
+            assertNull(table.getSpatialTable());
+            assertNull(table.save("./target/materialized.csv", true));
+
+            h2gis.execute("DROP TABLE IF EXISTS LANDUSE_COPY");
+            assertEquals("LANDUSE_COPY", table.save(h2gis, "LANDUSE_COPY", true, 3));
+            assertEquals(4, h2gis.getTable("LANDUSE_COPY").getRowCount());
+        }
+        assertEquals(0, MaterializedTable.getUsedMemory());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.federation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.locationtech.jts.io.WKTReader;
+import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link FederatedJoin}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class FederatedJoinTest {
+
+    private static H2GIS local;
+    private static H2GIS reference;
+
+    @BeforeAll
+    public static void beforeAll() throws SQLException {
+        local = H2GIS.open("./target/federatedLocal");
+        reference = H2GIS.open("./target/federatedReference");
+        local.execute("DROP TABLE IF EXISTS items, pts; CREATE TABLE items(id INT, name VARCHAR);" +
+                "CREATE TABLE pts(id INT, the_geom GEOMETRY);");
+        for (int i = 0; i < 100; i++) {
+            local.execute("INSERT INTO items VALUES(" + i + ", 'item" + i + "');" +
+                    "INSERT INTO pts VALUES(" + i + ", 'POINT(" + (i % 10 + 0.5) + " " + (i / 10 + 0.5) + ")');");
+        }
+        reference.execute("DROP TABLE IF EXISTS refs, zones; CREATE TABLE refs(item_id BIGINT, label VARCHAR);" +
+                "INSERT INTO refs VALUES(2, 'two'), (5, 'five'), (7, 'seven'), (500, 'none'), (NULL, 'null');" +
+                "CREATE TABLE zones(zone VARCHAR, the_geom GEOMETRY);" +
+                "INSERT INTO zones VALUES('left', 'POLYGON((0 0, 5 0, 5 10, 0 10, 0 0))')," +
+                "('corner', 'POLYGON((0 0, 2 0, 2 2, 0 2, 0 0))'), ('out', 'POLYGON((20 20, 21 20, 21 21, 20 20))');");
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        local.close();
+        reference.close();
+    }
+
+    @Test
+    public void hashJoinTest() {
+        List<Map<String, Object>> rows = new FederatedJoin(local, "items", reference, "refs")
+                .leftColumns("id", "name")
+                .rightColumns("label")
+                .rightFilter("label <> 'five'")
+                .on("id", "item_id")
+                .rows();
+        assertNotNull(rows);
+        assertEquals(2, rows.size());
+        rows.sort((a, b) -> ((Integer) a.get("ID")).compareTo((Integer) b.get("ID")));
+        assertEquals(2, rows.get(0).get("ID"));
+        assertEquals("item2", rows.get(0).get("NAME"));
+        assertEquals("two", rows.get(0).get("LABEL"));
+        assertEquals(3, rows.get(0).size());
+        assertEquals("seven", rows.get(1).get("LABEL"));
+
+        long count = new FederatedJoin(reference, "refs", local, "items")
+                .leftFilter("item_id < 100")
+                .on("item_id", "id")
+                .eachRow(row -> assertEquals("item" + row.get("ITEM_ID"), row.get("NAME")));
+        assertEquals(3, count);
+
+        count = new FederatedJoin(local, "items", reference, "refs")
+                .buildLeft(true)
+                .on("id", "item_id")
+                .eachRow(row -> assertEquals("item" + row.get("ITEM_ID"), row.get("NAME")));
+        assertEquals(3, count);
+
+        rows = new FederatedJoin(local, "items", local, "pts")
+                .leftColumns("id")
+                .rightColumns("id")
+                .leftFilter("id < 3")
+                .on("id", "id")
+                .rows();
+        assertNotNull(rows);
+        assertEquals(3, rows.size());
+        rows.forEach(row -> assertEquals(row.get("ID"), row.get(FederatedJoin.RIGHT_PREFIX + "ID")));
+
+        assertEquals(-1, new FederatedJoin(local, "items", reference, "refs").eachRow(row -> {}));
+        assertNull(new FederatedJoin(local, "not_a_table", reference, "refs").on("id", "item_id").rows());
+    }
+
+    @Test
+    public void normalizeTest() {
+        assertEquals(FederatedJoin.normalize(2), FederatedJoin.normalize(2L));
+        assertEquals(FederatedJoin.normalize(2), FederatedJoin.normalize(new BigDecimal("2.00")));
+        assertEquals(FederatedJoin.normalize(2), FederatedJoin.normalize(2.0d));
+        assertEquals(FederatedJoin.normalize(0.1f), FederatedJoin.normalize(0.1d));
+        assertEquals(FederatedJoin.normalize(BigInteger.TEN), FederatedJoin.normalize((short) 10));
+        assertNotEquals(FederatedJoin.normalize(2), FederatedJoin.normalize(2.5d));
+        assertEquals(Double.NaN, FederatedJoin.normalize(Double.NaN));
+        assertEquals("2", FederatedJoin.normalize("2"));
+        assertNull(FederatedJoin.normalize(null));
+    }
+
+    @Test
+    public void toGeometryTest() throws ParseException {
+        WKBReader wkbReader = new WKBReader();
+        WKTReader wktReader = new WKTReader();
+        Geometry point = new GeometryFactory().createPoint(new Coordinate(1, 2));
+        point.setSRID(4326);
+        assertSame(point, FederatedJoin.toGeometry(point, wkbReader, wktReader));
+        assertNull(FederatedJoin.toGeometry(null, wkbReader, wktReader));
+
+        WKBWriter writer = new WKBWriter(2, true);
+        Geometry geometry = FederatedJoin.toGeometry(writer.write(point), wkbReader, wktReader);
+        assertEquals(point, geometry);
+        assertEquals(4326, geometry.getSRID());
+        geometry = FederatedJoin.toGeometry(WKBWriter.toHex(writer.write(point)), wkbReader, wktReader);
+        assertEquals(point, geometry);
+        assertEquals(4326, geometry.getSRID());
+        geometry = FederatedJoin.toGeometry("SRID=2154;POINT (1 2)", wkbReader, wktReader);
+        assertEquals(point, geometry);
+        assertEquals(2154, geometry.getSRID());
+        geometry = FederatedJoin.toGeometry("POINT (1 2)", wkbReader, wktReader);
+        assertEquals(point, geometry);
+        assertEquals(0, geometry.getSRID());
+        assertThrows(ParseException.class, () -> FederatedJoin.toGeometry("SRID=a;POINT (1 2)", wkbReader, wktReader));
+    }
+
+    @Test
+    public void spatialJoinTest() {
+        FederatedJoin invalid = new FederatedJoin(local, "pts", reference, "zones")
+                .spatial("the_geom", "the_geom", "ST_Distance");
+        assertNotNull(invalid);
+        assertNull(invalid.rows());
+        assertNotNull(invalid.spatial("the_geom", "the_geom", "ST_Intersects").rows());
+
+        List<Map<String, Object>> rows = new FederatedJoin(local, "pts", reference, "zones")
+                .leftColumns("id")
+                .rightColumns("zone")
+                .leftFilter("id < 50")
+                .spatial("the_geom", "the_geom", "ST_Within")
+                .rows();
+        assertNotNull(rows);
+        assertEquals(29, rows.size());
+        assertEquals(4, rows.stream().filter(row -> "corner".equals(row.get("ZONE"))).count());
+
+        long count = new FederatedJoin(reference, "zones", local, "pts")
+                .rightColumns("id")
+                .spatial("the_geom", "the_geom", "contains")
+                .eachRow(row -> assertNotEquals("out", row.get("ZONE")));
+        assertEquals(54, count);
+    }
+}
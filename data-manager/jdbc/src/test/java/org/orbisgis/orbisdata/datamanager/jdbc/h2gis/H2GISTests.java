@@ -39,11 +39,17 @@ package org.orbisgis.orbisdata.datamanager.jdbc.h2gis;
 import groovy.lang.Closure;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IImportReport;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.MultiFileImport;
 import org.osgi.service.jdbc.DataSourceFactory;
 
 import java.io.File;
@@ -297,6 +303,43 @@ public class H2GISTests {
         assertEquals(1, (int) values3.get(4));
     }
 
+    /**
+     * Test the {@link org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder#intersects(String, Geometry)} and
+     * {@link org.orbisgis.orbisdata.datamanager.api.dsl.IFilterBuilder#within(String, Geometry)} methods.
+     */
+    @Test
+    public void spatialFilter() throws SQLException, ParseException {
+        H2GIS h2GIS = H2GIS.open("./target/spatialFilter");
+        h2GIS.execute("DROP TABLE IF EXISTS h2gis; " +
+                "CREATE TABLE h2gis (id int PRIMARY KEY, the_geom geometry(linestring, 4326));" +
+                "insert into h2gis values (1, 'SRID=4326;LINESTRING(1 1, 2 2)'::GEOMETRY);" +
+                "insert into h2gis values (2, 'SRID=4326;LINESTRING(4 4, 12 12)'::GEOMETRY);" +
+                "insert into h2gis values (3, 'SRID=4326;LINESTRING(0 8, 8 0)'::GEOMETRY);" +
+                "insert into h2gis values (4, 'SRID=4326;LINESTRING(20 20, 30 30)'::GEOMETRY);");
+        Geometry polygon = new WKTReader().read("POLYGON((0 0, 5 0, 5 5, 0 5, 0 0))");
+        polygon.setSRID(4326);
+
+        assertEquals(3, h2GIS.getTable("h2gis").intersects("the_geom", polygon).getTable().getRowCount());
+        assertEquals(1, h2GIS.getTable("h2gis").within("the_geom", polygon).getTable().getRowCount());
+        assertEquals(3, h2GIS.getTable("h2gis").intersects("the_geom", new Envelope(0, 5, 0, 5), 4326)
+                .getTable().getRowCount());
+        assertEquals(2, h2GIS.getTable("h2gis").within("the_geom", new Envelope(0, 10, 0, 10), 4326)
+                .getTable().getRowCount());
+        assertEquals(1, h2GIS.getTable("h2gis")
+                .columns("id", "the_geom")
+                .intersects("the_geom", polygon)
+                .within("the_geom", new Envelope(0, 3, 0, 3), 4326)
+                .getTable().getRowCount());
+
+        ITable table = (ITable) h2GIS.getTable("h2gis")
+                .intersects("the_geom", polygon)
+                .filter("ORDER BY id DESC")
+                .asType(ITable.class);
+        assertNotNull(table);
+        assertEquals(3, table.getRowCount());
+        assertEquals(3, table.getFirstRow().get(0));
+    }
+
     @Test
     public void hasTable() throws SQLException {
         Map<String, String> map = new HashMap<>();
@@ -439,4 +482,64 @@ public class H2GISTests {
         assertEquals(1, sp.getRowCount());
         assertTrue(((Geometry)sp.firstRow().get("THE_GEOM")).getArea()>0);
     }
+
+    @Test
+    void loadFiles() throws SQLException {
+        BasicDataSource ds = new BasicDataSource();
+        ds.setDriverClassName("org.h2.Driver");
+        ds.setUrl("jdbc:h2:" + new File("./target/loadFiles").getAbsolutePath());
+        ds.setUsername("sa");
+        ds.setPassword("");
+        H2GIS h2GIS = H2GIS.open(ds);
+        assertNotNull(h2GIS);
+        new File("./target/load_files").mkdirs();
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            h2GIS.execute("DROP TABLE IF EXISTS tile; CREATE TABLE tile AS SELECT X AS id, " +
+                    "ST_MakePoint(X, " + i + ") AS the_geom FROM SYSTEM_RANGE(1, 10)");
+            File file = new File("./target/load_files/tile_" + i + ".geojson");
+            assertNotNull(h2GIS.getTable("TILE").save(file.getPath(), true));
+            files.add(file);
+        }
+        files.add(new File("./target/load_files/missing.geojson"));
+
+        Map<String, Object> options = new HashMap<>();
+        options.put(MultiFileImport.DELETE, true);
+        options.put(MultiFileImport.MERGE, "tiles");
+        MultiFileImport.Report report = h2GIS.load(files, options);
+        assertFalse(report.isSuccessful());
+        assertEquals(4, report.getTables().size());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.getErrors().containsKey(files.get(4).getAbsolutePath()));
+        assertEquals(5, report.getTimes().size());
+        assertEquals("TILES", report.getMergedTable());
+        assertEquals(40, h2GIS.getTable("TILES").getRowCount());
+        assertFalse(h2GIS.hasTable("TILE_0"));
+
+        options.put(MultiFileImport.VIEW, true);
+        options.put(MultiFileImport.MERGE, "tiles_view");
+        report = h2GIS.load(files.subList(0, 4), options);
+        assertTrue(report.isSuccessful());
+        assertEquals(40, h2GIS.getTable("TILES_VIEW").getRowCount());
+        assertTrue(h2GIS.hasTable("TILE_0"));
+
+        Map<String, Object> clash = new HashMap<>();
+        clash.put(MultiFileImport.DELETE, true);
+        clash.put(MultiFileImport.MERGE, "TILE_0");
+        IImportReport failed = ((IJdbcDataSource) h2GIS).load(files.subList(0, 2), clash);
+        assertFalse(failed.isSuccessful());
+        assertNull(failed.getMergedTable());
+        assertTrue(failed.getErrors().containsKey("TILE_0"));
+
+        File invalid = new File("./target/load_files/2020-tile 0.geojson");
+        assertNotNull(h2GIS.getTable("TILE").save(invalid.getPath(), true));
+        report = h2GIS.load(Collections.singletonList(invalid), Collections.singletonMap(MultiFileImport.DELETE, true));
+        assertTrue(report.isSuccessful());
+        assertEquals("T2020_TILE_0", report.getTables().get(invalid.getAbsolutePath()));
+
+        H2GIS sequential = H2GIS.open("./target/test");
+        report = sequential.load(files.subList(0, 2));
+        assertTrue(report.isSuccessful());
+        assertEquals(10, sequential.getTable(report.getTables().get(files.get(1).getAbsolutePath())).getRowCount());
+    }
 }
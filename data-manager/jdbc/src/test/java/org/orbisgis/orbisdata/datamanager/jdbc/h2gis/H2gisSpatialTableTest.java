@@ -37,15 +37,22 @@
 package org.orbisgis.orbisdata.datamanager.jdbc.h2gis;
 
 
+import groovy.lang.Closure;
+import org.apache.commons.dbcp.BasicDataSource;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Point;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcSpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
 import org.orbisgis.orbisdata.datamanager.api.dataset.ITable;
+import org.orbisgis.orbisdata.datamanager.jdbc.JdbcColumn;
+import org.orbisgis.orbisdata.datamanager.jdbc.io.PartitionedExport;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -137,4 +144,172 @@ public class H2gisSpatialTableTest {
         assertEquals(4326, spLoaded.getSrid());
         assertTrue(spLoaded.getFirstRow().get(1) instanceof Point);
     }
+
+    /**
+     * Test the {@link H2gisSpatialTable#spatialJoin(ISpatialTable, String, String...)} method.
+     */
+    @Test
+    void testSpatialJoin() throws SQLException {
+        H2GIS dataSource = H2GIS.open("./target/test");
+        dataSource.execute(" DROP TABLE IF EXISTS polygons, points;" +
+                "CREATE TABLE polygons (id int, the_geom geometry(polygon, 4326));" +
+                "INSERT INTO polygons VALUES (1, 'SRID=4326;POLYGON((0 0, 5 0, 5 5, 0 5, 0 0))'::GEOMETRY), " +
+                "(2, 'SRID=4326;POLYGON((10 10, 20 10, 20 20, 10 20, 10 10))'::GEOMETRY);" +
+                "CREATE TABLE points (id int, the_geom geometry(point, 4326));" +
+                "INSERT INTO points VALUES (1, 'SRID=4326;POINT(1 1)'::GEOMETRY), " +
+                "(2, 'SRID=4326;POINT(2 2)'::GEOMETRY), (3, 'SRID=4326;POINT(15 15)'::GEOMETRY), " +
+                "(4, 'SRID=4326;POINT(50 50)'::GEOMETRY);");
+
+        ISpatialTable polygons = dataSource.getSpatialTable("POLYGONS");
+        ISpatialTable points = dataSource.getSpatialTable("POINTS");
+        ISpatialTable joined = polygons.spatialJoin(points, "ST_Intersects", "a.id as poly_id", "b.id as point_id",
+                "b.the_geom");
+        assertNotNull(joined);
+        assertEquals(3, joined.getRowCount());
+        assertEquals(1, joined.getGeometricColumns().size());
+        assertTrue(new JdbcColumn("THE_GEOM", "POLYGONS", dataSource).isSpatialIndexed());
+        assertTrue(new JdbcColumn("THE_GEOM", "POINTS", dataSource).isSpatialIndexed());
+
+        ISpatialTable reprojected = points.reproject(4326);
+        assertNotNull(reprojected);
+        ISpatialTable queryJoined = polygons.spatialJoin(reprojected, "ST_Contains");
+        assertNotNull(queryJoined);
+        assertEquals(3, queryJoined.getRowCount());
+        assertEquals(Arrays.asList("ID", "THE_GEOM", "B_ID", "B_THE_GEOM"), new ArrayList<>(queryJoined.getColumns()));
+        assertEquals(Arrays.asList("THE_GEOM", "B_THE_GEOM"), queryJoined.getGeometricColumns());
+        Set<String> pairs = new HashSet<>();
+        queryJoined.eachRow(new Closure(null) {
+            @Override
+            public Object call(Object argument) {
+                ISpatialTable row = (ISpatialTable) argument;
+                pairs.add(row.getObject("ID") + "-" + row.getObject("B_ID"));
+                return null;
+            }
+        });
+        assertEquals(new HashSet<>(Arrays.asList("1-1", "1-2", "2-3")), pairs);
+
+        assertNull(polygons.spatialJoin(points, "ST_Intersects(a.the_geom, b.the_geom) OR 1=1 --"));
+    }
+
+    /**
+     * Test the {@link H2gisSpatialTable#savePartitioned(String, String, int, boolean, boolean)} and
+     * {@link H2gisSpatialTable#saveTiled(String, int, boolean, boolean)} methods.
+     */
+    @Test
+    void testSavePartitioned() throws SQLException {
+        BasicDataSource ds = new BasicDataSource();
+        ds.setDriverClassName("org.h2.Driver");
+        ds.setUrl("jdbc:h2:" + new File("./target/partitioned_export").getAbsolutePath());
+        ds.setUsername("sa");
+        ds.setPassword("");
+        H2GIS dataSource = H2GIS.open(ds);
+        assertNotNull(dataSource);
+        dataSource.execute("DROP TABLE IF EXISTS points; CREATE TABLE points AS SELECT X AS id, " +
+                "ST_MakePoint(X, X * 2) AS the_geom FROM SYSTEM_RANGE(1, 100);");
+        IJdbcSpatialTable table = dataSource.getSpatialTable("POINTS");
+        assertNotNull(table);
+
+        List<String> parts = table.savePartitioned("./target/partitioned_export.csv", "id", 4, false, true);
+        assertNotNull(parts);
+        assertEquals(4, parts.size());
+        int count = 0;
+        for (String part : parts) {
+            IJdbcTable loaded = dataSource.getTable(dataSource.load(part, true));
+            assertNotNull(loaded);
+            assertTrue(loaded.getRowCount() > 0);
+            count += loaded.getRowCount();
+        }
+        assertEquals(100, count);
+
+        //The existing parts can't be overwritten : the export fails, only removing the parts it has written
+        assertTrue(new File(parts.get(0)).delete());
+        assertNull(table.savePartitioned("./target/partitioned_export.csv", "id", 4, false, false));
+        assertFalse(new File(parts.get(0)).exists());
+        for (int i = 1; i < parts.size(); i++) {
+            assertTrue(new File(parts.get(i)).exists());
+        }
+
+        List<String> merged = table.savePartitioned("./target/partitioned_export.geojson", "id", 4, true, true);
+        assertNotNull(merged);
+        assertEquals(1, merged.size());
+        assertFalse(new File(PartitionedExport.getPartPath("./target/partitioned_export.geojson", 0)).exists());
+        assertEquals(100, dataSource.getTable(dataSource.load(merged.get(0), true)).getRowCount());
+
+        List<String> tiles = table.saveTiled("./target/tiled_export.csv", 4, true, true);
+        assertNotNull(tiles);
+        assertEquals(1, tiles.size());
+        assertEquals(100, dataSource.getTable(dataSource.load(tiles.get(0), true)).getRowCount());
+
+        tiles = table.saveTiled("./target/tiled_export5.csv", 5, false, true);
+        assertNotNull(tiles);
+        assertEquals(5, tiles.size());
+
+        IJdbcSpatialTable param = dataSource.getSpatialTable("(SELECT * FROM points WHERE id > ?)",
+                Collections.singletonList(50));
+        assertNotNull(param);
+        for (String extension : new String[]{"csv", "shp"}) {
+            parts = param.savePartitioned("./target/param_export." + extension, "id", 2, false, true);
+            assertNotNull(parts);
+            assertEquals(2, parts.size());
+            count = 0;
+            for (String part : parts) {
+                count += dataSource.getTable(dataSource.load(part, true)).getRowCount();
+            }
+            assertEquals(50, count);
+        }
+        assertFalse(dataSource.getTableNames().stream().anyMatch(name -> name.contains("PARTITIONED_EXPORT_")));
+
+        H2GIS sequential = H2GIS.open("./target/test");
+        sequential.execute("DROP TABLE IF EXISTS points; CREATE TABLE points AS SELECT X AS id, " +
+                "ST_MakePoint(X, X * 2) AS the_geom FROM SYSTEM_RANGE(1, 50);");
+        tiles = sequential.getSpatialTable("POINTS").saveTiled("./target/tiled_export.geojson", 9, false, true);
+        assertNotNull(tiles);
+        assertEquals(9, tiles.size());
+    }
+
+    /**
+     * Test the streamed save of query based tables.
+     */
+    @Test
+    void testSaveStreamed() throws Exception {
+        H2GIS h2gis = H2GIS.open("./target/test");
+        h2gis.execute("DROP TABLE IF EXISTS streamed; CREATE TABLE streamed AS SELECT X AS id, X / 3.0 AS val, " +
+                "CONCAT('a\"b,', X) AS name, ST_SetSRID(ST_MakePoint(X, X * 2), 2154) AS the_geom " +
+                "FROM SYSTEM_RANGE(1, 20);");
+        IJdbcSpatialTable table = h2gis.getSpatialTable("(SELECT * FROM streamed WHERE id > 10)");
+        assertNotNull(table);
+
+        assertNotNull(table.saveStreamed("./target/streamed.geojson", true));
+        IJdbcSpatialTable loaded = h2gis.getSpatialTable(h2gis.load("./target/streamed.geojson", true));
+        assertNotNull(loaded);
+        assertEquals(10, loaded.getRowCount());
+        assertEquals(2154, loaded.getSrid());
+        assertEquals(0, h2gis.firstRow("SELECT COUNT(*) AS c FROM " + loaded.getName() +
+                " WHERE NAME <> CONCAT('a\"b,', ID)").get("C"));
+
+        assertNotNull(table.saveStreamed("./target/streamed.csv", true));
+        ITable csv = h2gis.getTable(h2gis.load("./target/streamed.csv", true));
+        assertNotNull(csv);
+        assertEquals(10, csv.getRowCount());
+        assertEquals(4, csv.getColumnCount());
+        assertNull(table.saveStreamed("./target/streamed.csv", false));
+        assertNull(table.saveStreamed("./target/streamed.shp", true));
+        assertEquals(10, h2gis.getTable(h2gis.load("./target/streamed.csv", true)).getRowCount());
+
+        h2gis.execute("DROP TABLE IF EXISTS numbers; CREATE TABLE numbers(id INT, dec NUMERIC(20, 2), " +
+                "dbl DOUBLE, the_geom GEOMETRY); INSERT INTO numbers VALUES (1, 123456789012345678.50, " +
+                "0.1 + 0.2, 'POINT(0.123456789012345678 1)'), (2, NULL, 1e20, NULL);");
+        for (String path : new String[]{"./target/numbers.geojson", "./target/numbers.csv"}) {
+            assertNotNull(h2gis.getSpatialTable("numbers").saveStreamed(path, true));
+            String content = new String(Files.readAllBytes(new File(path).toPath()), StandardCharsets.UTF_8);
+            assertTrue(content.contains("123456789012345678.50"));
+            assertFalse(content.contains("\"123456789012345678.50\""));
+            assertTrue(content.contains(Double.toString(0.1 + 0.2)));
+            assertTrue(content.contains(Double.toString(1e20)));
+            assertTrue(content.contains(Double.toString(0.123456789012345678)));
+        }
+        File[] temps = new File("./target").listFiles((dir, name) -> name.endsWith(".tmp"));
+        assertNotNull(temps);
+        assertEquals(0, temps.length);
+    }
 }
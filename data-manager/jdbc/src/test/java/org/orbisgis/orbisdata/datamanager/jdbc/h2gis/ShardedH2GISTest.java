@@ -0,0 +1,163 @@
+/*
+ * Bundle DataManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * DataManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * DataManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * DataManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * DataManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.datamanager.jdbc.h2gis;
+
+import groovy.sql.GroovyRowResult;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link ShardedH2GIS}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC / Chaire GEOTERA 2020)
+ */
+public class ShardedH2GISTest {
+
+    /**
+     * Delete the database files of the shards of the given path, removing their stored partitionings.
+     *
+     * @param path       Base path of the shard databases.
+     * @param shardCount Number of shards.
+     */
+    private static void deleteShards(String path, int shardCount) {
+        for (int i = 0; i < shardCount; i++) {
+            new File(path + ShardedH2GIS.SHARD_SUFFIX + i + ".mv.db").delete();
+        }
+    }
+
+    @Test
+    public void hashPartitionTest() throws SQLException {
+        deleteShards("./target/shardedHash", 3);
+        ShardedH2GIS h2gis = ShardedH2GIS.open("./target/shardedHash", 3);
+        assertNotNull(h2gis);
+        assertEquals(3, h2gis.getShardCount());
+        assertTrue(h2gis.executeOnShards("DROP TABLE IF EXISTS data; CREATE TABLE data(id INT, val DOUBLE)"));
+        assertEquals(-1, h2gis.insert("data", new ArrayList<>()));
+        assertTrue(h2gis.hashPartition("data", "id"));
+        assertTrue(h2gis.isPartitioned("DATA"));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("val", i / 2.0);
+            rows.add(row);
+        }
+        assertEquals(3000, h2gis.insert("data", rows));
+        assertEquals(3000, h2gis.count("data"));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(((Number) h2gis.getShard(i).firstRow("SELECT COUNT(*) FROM data").getAt(0)).intValue() > 0);
+        }
+        int shard = h2gis.getShardIndex("data", 42L);
+        assertEquals(shard, h2gis.getShardIndex("data", 42));
+        assertEquals(1, ((Number) h2gis.getShard(shard).firstRow("SELECT COUNT(*) FROM data WHERE id = 42")
+                .getAt(0)).intValue());
+
+        assertEquals(2999, ((Number) h2gis.aggregate("SELECT MAX(id) FROM data",
+                (a, b) -> Math.max(((Number) a).intValue(), ((Number) b).intValue()))).intValue());
+        List<GroovyRowResult> result = h2gis.rowsOnShards("SELECT id FROM data WHERE id < 10");
+        assertNotNull(result);
+        assertEquals(10, result.size());
+        assertNull(h2gis.rowsOnShards("SELECT * FROM not_a_table"));
+
+        assertNull(h2gis.getTable("data"));
+        assertNull(h2gis.getSpatialTable("DATA"));
+        assertNull(h2gis.rows("SELECT id FROM data WHERE id < 10"));
+        assertNull(h2gis.firstRow("SELECT COUNT(*) FROM PUBLIC.DATA"));
+        assertFalse(h2gis.save("data", "./target/shardedHash.csv"));
+        assertNotNull(h2gis.getShard(0).getTable("data"));
+        ShardedH2GIS sharded = h2gis;
+        assertThrows(SQLException.class, () -> sharded.execute("INSERT INTO data VALUES (3000, 1.0)"));
+        assertThrows(SQLException.class, () -> sharded.executeUpdate("DELETE FROM data WHERE id = 42"));
+        assertThrows(SQLException.class, () -> sharded.executeInsert("INSERT INTO PUBLIC.DATA VALUES (3000, 1.0)"));
+        assertThrows(SQLException.class, () -> sharded.executeBatch(new String[]{"DELETE FROM data"}));
+        assertEquals(3000, h2gis.count("data"));
+        assertTrue(h2gis.execute("SELECT 1"));
+        h2gis.close();
+
+        assertNull(ShardedH2GIS.open("./target/shardedHash", 2));
+        h2gis = ShardedH2GIS.open("./target/shardedHash", 3);
+        assertNotNull(h2gis);
+        assertTrue(h2gis.isPartitioned("data"));
+        assertEquals(shard, h2gis.getShardIndex("data", 42));
+        assertEquals(3000, h2gis.count("data"));
+        h2gis.close();
+    }
+
+    @Test
+    public void spacePartitionTest() {
+        deleteShards("./target/shardedSpace", 4);
+        ShardedH2GIS h2gis = ShardedH2GIS.open("./target/shardedSpace", 4);
+        assertNotNull(h2gis);
+        assertTrue(h2gis.executeOnShards("DROP TABLE IF EXISTS pts; CREATE TABLE pts(id INT, the_geom GEOMETRY)"));
+        assertTrue(h2gis.spacePartition("pts", "the_geom", new Envelope(0, 10, 0, 10)));
+
+        GeometryFactory factory = new GeometryFactory();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("the_geom", factory.createPoint(new Coordinate(i % 10 + 0.5, i / 10 + 0.5)));
+            rows.add(row);
+        }
+        assertEquals(100, h2gis.insert("pts", rows));
+        assertEquals(100, h2gis.count("pts"));
+        assertEquals(0, h2gis.getShardIndex("pts", factory.createPoint(new Coordinate(-5, -5))));
+        assertEquals(3, h2gis.getShardIndex("pts", factory.createPoint(new Coordinate(15, 15))));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(25, h2gis.getShard(i).getTable("PTS").getRowCount());
+        }
+        h2gis.close();
+
+        h2gis = ShardedH2GIS.open("./target/shardedSpace", 4);
+        assertNotNull(h2gis);
+        assertEquals(3, h2gis.getShardIndex("pts", factory.createPoint(new Coordinate(15, 15))));
+        h2gis.close();
+    }
+}
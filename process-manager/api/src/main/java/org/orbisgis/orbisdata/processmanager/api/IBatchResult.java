@@ -0,0 +1,98 @@
+/*
+ * Bundle ProcessManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.api;
+
+import org.orbisgis.commons.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Summary of a batch execution of a {@link IProcess} started with
+ * {@link IProcess#executeAll(Iterable, int, java.util.function.BiConsumer)}. The executions are identified by the
+ * index of their input data map in the input {@link Iterable}.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public interface IBatchResult {
+
+    /**
+     * Return the number of completed executions, successful or not.
+     *
+     * @return The number of completed executions.
+     */
+    int getExecutionCount();
+
+    /**
+     * Return the number of successful executions.
+     *
+     * @return The number of successful executions.
+     */
+    int getSuccessCount();
+
+    /**
+     * Return the number of failed executions.
+     *
+     * @return The number of failed executions.
+     */
+    int getFailureCount();
+
+    /**
+     * Return true if all the executions were successful and the batch has not been aborted, false otherwise.
+     *
+     * @return True if all the executions were successful, false otherwise.
+     */
+    boolean isSuccessful();
+
+    /**
+     * Return true if the batch has been aborted before all the input data maps were executed, for example because the
+     * calling thread has been interrupted. The submitted executions which have not completed are then reported as
+     * failures, while the input data maps not yet submitted are not reported.
+     *
+     * @return True if the batch has been aborted, false otherwise.
+     */
+    boolean isAborted();
+
+    /**
+     * Return the failed executions with the index of their input data map as key and the cause of the failure as
+     * value.
+     *
+     * @return A {@link Map} of the failure causes sorted by input index.
+     */
+    @NotNull
+    Map<Integer, Throwable> getFailures();
+}
@@ -0,0 +1,99 @@
+/*
+ * Bundle ProcessManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.api;
+
+import org.orbisgis.commons.annotations.NotNull;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Recorder of the execution spans of the processes and of their checks. Each span records its wall time, the CPU
+ * time and the bytes allocated by its thread, the thread itself and the size of the input and output data. The
+ * spans can be exported in the Chrome trace event format to be loaded in a timeline viewer.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public interface IExecutionTracer {
+
+    /**
+     * Start a span in the current thread.
+     *
+     * @param name     Name of the span.
+     * @param category Category of the span, e.g. 'mapper', 'process' or 'check'.
+     * @return The started span, an opaque object to give back to {@link #endSpan(Object, Map)}.
+     */
+    @NotNull
+    Object startSpan(@NotNull String name, @NotNull String category);
+
+    /**
+     * End the given span in the current thread, the one which has started it, and record it.
+     *
+     * @param span Span returned by {@link #startSpan(String, String)}.
+     * @param args Arguments of the span, like the input and output sizes and the success of the execution.
+     */
+    void endSpan(@NotNull Object span, @NotNull Map<String, Object> args);
+
+    /**
+     * Return the number of recorded spans.
+     *
+     * @return The number of recorded spans.
+     */
+    int getSpanCount();
+
+    /**
+     * Remove all the recorded spans.
+     */
+    void clear();
+
+    /**
+     * Return the recorded spans as a Chrome trace event JSON document.
+     *
+     * @return The Chrome trace event JSON document.
+     */
+    @NotNull
+    String toChromeTrace();
+
+    /**
+     * Write the recorded spans as a Chrome trace event JSON document into the given file.
+     *
+     * @param file File to write, replaced if it exists.
+     * @return True if the file has been written, false otherwise.
+     */
+    boolean writeChromeTrace(@NotNull File file);
+}
@@ -41,10 +41,12 @@ import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IOutput;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 /**
  * Interface defining the main methods of a process.
@@ -149,4 +151,55 @@ public interface IProcess {
      */
     @NotNull
     IProcess copy();
+
+    /**
+     * Execute a new instance of the process for each of the given input data maps. The executions are run on a
+     * work-stealing pool of the given parallelism and their results are given to the consumer as soon as they
+     * complete, in completion order, from the calling thread. A failed execution does not stop the other ones, the
+     * failures are gathered in the returned {@link IBatchResult}.
+     *
+     * @param inputDataMaps  Input data maps, one per execution.
+     * @param parallelism    Maximum number of concurrent executions. If not strictly positive, the number of available
+     *                       processors is used.
+     * @param resultConsumer Consumer receiving the index of the input data map and the results of each successful
+     *                       execution, may be null.
+     * @return The {@link IBatchResult} summarizing the executions.
+     */
+    @NotNull
+    IBatchResult executeAll(@NotNull Iterable<? extends Map<String, Object>> inputDataMaps, int parallelism,
+                            @Nullable BiConsumer<Integer, Map<String, Object>> resultConsumer);
+
+    /**
+     * Execute a new instance of the process for each of the given input data maps on a work-stealing pool of the
+     * given parallelism.
+     *
+     * @param inputDataMaps Input data maps, one per execution.
+     * @param parallelism   Maximum number of concurrent executions. If not strictly positive, the number of available
+     *                      processors is used.
+     * @return The {@link IBatchResult} summarizing the executions.
+     */
+    @NotNull
+    default IBatchResult executeAll(@NotNull Iterable<? extends Map<String, Object>> inputDataMaps, int parallelism) {
+        return executeAll(inputDataMaps, parallelism, null);
+    }
+
+    /**
+     * Return the {@link IResultCache} used to reuse the results of a previous execution with the same inputs.
+     *
+     * @return The {@link IResultCache} of the process, empty if the results are not cached.
+     */
+    @NotNull
+    default Optional<IResultCache> getResultCache() {
+        return Optional.empty();
+    }
+
+    /**
+     * Return the amount of each resource needed by one execution of the process.
+     *
+     * @return A {@link Map} with the resource name as key and the amount needed as value.
+     */
+    @NotNull
+    default Map<String, Long> getResources() {
+        return Collections.emptyMap();
+    }
 }
\ No newline at end of file
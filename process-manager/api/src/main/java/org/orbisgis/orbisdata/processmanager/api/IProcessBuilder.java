@@ -126,6 +126,28 @@ public interface IProcessBuilder {
     @NotNull
     IProcessBuilder run(@Nullable Closure<?> closure);
 
+    /**
+     * Enable the caching of the results of the process : an execution with the same inputs as a previous one reuses
+     * its results instead of running the closure again. Should only be used for deterministic processes.
+     *
+     * @param maxEntries Maximum number of cached results, the least recently used ones being evicted first.
+     * @return A {@link IProcessBuilder} to continue the building.
+     */
+    @NotNull
+    IProcessBuilder cache(int maxEntries);
+
+    /**
+     * Declare the amount of a resource needed by one execution of the process, like the number of database
+     * connections ('connections'), of threads ('threads') or a memory hint in megabytes ('memory'). The resources
+     * are used by the {@link IProcessMapper} to run its processes concurrently within its budgets.
+     *
+     * @param name   Name of the resource.
+     * @param amount Amount of the resource needed.
+     * @return A {@link IProcessBuilder} to continue the building.
+     */
+    @NotNull
+    IProcessBuilder resource(@NotNull String name, long amount);
+
     /**
      * Build and return the process.
      *
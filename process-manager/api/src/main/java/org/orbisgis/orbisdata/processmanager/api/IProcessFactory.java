@@ -81,6 +81,20 @@ public interface IProcessFactory {
     @NotNull
     Optional<IProcess> getProcess(@Nullable String processId);
 
+    /**
+     * Returns the process with the given identifier and version. If the version is null, the last registered version
+     * of the process is returned.
+     *
+     * @param processId Identifier of the process to get.
+     * @param version   Version of the process to get.
+     * @return The process with the given identifier and version.
+     */
+    @NotNull
+    default Optional<IProcess> getProcess(@Nullable String processId, @Nullable String version) {
+        return getProcess(processId)
+                .filter(process -> version == null || version.equals(process.getVersion().orElse(null)));
+    }
+
     /**
      * Return a {@link IProcessBuilder} to create a {@link IProcess}. Once the process created, it will be register
      * in this {@link IProcessFactory}.
@@ -37,12 +37,15 @@
 package org.orbisgis.orbisdata.processmanager.api;
 
 import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
 import org.orbisgis.orbisdata.processmanager.api.check.ICheckDataBuilder;
 import org.orbisgis.orbisdata.processmanager.api.check.IProcessCheck;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
 
+import java.io.File;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 /**
  * This class should not be used will using a IProcess executing and mapping processes is easier.
@@ -88,6 +91,61 @@ public interface IProcessMapper extends IProcess {
     @NotNull
     ICheckDataBuilder after(@NotNull IProcess process);
 
+    /**
+     * Set the {@link Executor} used to run the processes in parallel. A process is started as soon as the processes
+     * producing its inputs are completed and the resources it needs fit in the budgets, the processes with the longest
+     * chain of dependent processes being started first.
+     *
+     * @param executor {@link Executor} to use, null to execute the processes one after the other.
+     * @return The {@link IProcessMapper} itself.
+     */
+    @NotNull
+    IProcessMapper executor(@Nullable Executor executor);
+
+    /**
+     * Set the directory where the results of each completed process execution are checkpointed. On a later execution,
+     * the processes which have already been completed with the same inputs are not executed again, their checkpointed
+     * results being reused instead.
+     *
+     * @param directory Checkpoint directory, null to disable the checkpoints.
+     * @return The {@link IProcessMapper} itself.
+     */
+    @NotNull
+    IProcessMapper checkpoint(@Nullable File directory);
+
+    /**
+     * Set the {@link IExecutionTracer} recording a span for the execution of the mapper, of each of its processes and
+     * of each of their checks. The nested mappers without their own tracer are recorded by the same tracer.
+     *
+     * @param tracer {@link IExecutionTracer} to use, null to disable the tracing.
+     * @return The {@link IProcessMapper} itself.
+     */
+    @NotNull
+    IProcessMapper tracer(@Nullable IExecutionTracer tracer);
+
+    /**
+     * Set the budget of a resource for the concurrent execution of the processes with the {@link Executor}. A process
+     * is only started once the resources it declares are available. A process needing more than the budget is run
+     * when all the budget is available.
+     *
+     * @param resource Name of the resource.
+     * @param amount   Available amount of the resource, a negative value to remove the budget.
+     * @return The {@link IProcessMapper} itself.
+     */
+    @NotNull
+    IProcessMapper budget(@NotNull String resource, long amount);
+
+    /**
+     * Set the {@link IProcessRunner} executing the processes of the mapper, like on remote workers. Combined with an
+     * {@link Executor}, several ready processes are handed to the runner at the same time. The nested mappers are
+     * still executed by the mapper, their processes being handed to their own runner.
+     *
+     * @param runner {@link IProcessRunner} to use, null to execute the processes in the current JVM.
+     * @return The {@link IProcessMapper} itself.
+     */
+    @NotNull
+    IProcessMapper runner(@Nullable IProcessRunner runner);
+
     @Override
     @NotNull
     default Optional<String> getVersion() {
@@ -0,0 +1,87 @@
+/*
+ * Bundle ProcessManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.api;
+
+/**
+ * Cache of the results of the executions of a {@link IProcess}, keyed by the process identifier, its version and a
+ * fingerprint of the input data. The least recently used entries are evicted once the maximum entry count is reached.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public interface IResultCache {
+
+    /**
+     * Return the maximum number of entries of the cache.
+     *
+     * @return The maximum number of entries of the cache.
+     */
+    int getMaxSize();
+
+    /**
+     * Return the current number of entries of the cache.
+     *
+     * @return The current number of entries of the cache.
+     */
+    int getSize();
+
+    /**
+     * Return the number of executions which results have been read from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    long getHitCount();
+
+    /**
+     * Return the number of executions which results were not in the cache.
+     *
+     * @return The number of cache misses.
+     */
+    long getMissCount();
+
+    /**
+     * Return the number of entries evicted from the cache.
+     *
+     * @return The number of evicted entries.
+     */
+    long getEvictionCount();
+
+    /**
+     * Remove all the entries of the cache and reset its statistics.
+     */
+    void clear();
+}
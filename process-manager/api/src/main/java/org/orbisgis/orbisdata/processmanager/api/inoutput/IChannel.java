@@ -0,0 +1,96 @@
+/*
+ * Bundle ProcessManager API is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager API is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager API is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager API is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager API. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.api.inoutput;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+
+import java.util.stream.Stream;
+
+/**
+ * Bounded hand-off of elements from a producing process to the single process consuming them. The producer blocks
+ * while the buffer is full, so only a bounded number of elements are in memory whatever the size of the data.
+ *
+ * @param <T> Type of the elements.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public interface IChannel<T> {
+
+    /**
+     * Returns the maximum number of elements buffered by the channel.
+     *
+     * @return The maximum number of elements buffered by the channel.
+     */
+    int getCapacity();
+
+    /**
+     * Add an element to the channel, waiting while the buffer is full.
+     *
+     * @param element Element to add.
+     * @return True if the element has been added, false if the channel is closed or cancelled by its consumer.
+     */
+    boolean put(@Nullable T element);
+
+    /**
+     * Close the channel, indicating to the consumer that there is no more element.
+     */
+    void close();
+
+    /**
+     * Cancel the channel from the consumer side. The buffered elements are dropped and the next calls to
+     * {@link #put(Object)} return false.
+     */
+    void cancel();
+
+    /**
+     * Return true if the channel is closed or cancelled, false otherwise.
+     *
+     * @return True if the channel is closed or cancelled, false otherwise.
+     */
+    boolean isClosed();
+
+    /**
+     * Return the {@link Stream} of the channel elements, which waits for the producer when the buffer is empty. The
+     * channel can only be consumed once. Closing the stream cancels the channel.
+     *
+     * @return The {@link Stream} of the channel elements.
+     */
+    @NotNull
+    Stream<T> stream();
+}
@@ -36,8 +36,12 @@
  */
 package org.orbisgis.orbisdata.processmanager.api.inoutput;
 
+import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
 
+import java.sql.ResultSet;
+import java.util.stream.BaseStream;
+
 /**
  * This interface defines the methods dedicated the wrapping of output.
  *
@@ -46,6 +50,58 @@ import org.orbisgis.commons.annotations.Nullable;
  */
 public interface IOutput extends IInOutPut {
 
+    /**
+     * Default number of elements buffered between a streamed output and its consumer.
+     */
+    int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * Set the number of elements buffered between the output, if streamed, and its consumer.
+     *
+     * @param bufferSize Number of buffered elements.
+     * @return The {@link IOutput} to continue its configuration.
+     */
+    @NotNull
+    IOutput bufferSize(int bufferSize);
+
+    /**
+     * Return the number of elements buffered between the output, if streamed, and its consumer.
+     *
+     * @return The number of buffered elements.
+     */
+    int getBufferSize();
+
+    /**
+     * Set if the output is an intermediate table, i.e. a table only read by the processes linked to the output. An
+     * intermediate table is dropped by the mapper as soon as all the processes consuming it have been executed, or at
+     * the end of the execution when the processes are run by an executor. Only the {@code IJdbcTable} values are
+     * dropped, as they give the data source containing the table.
+     *
+     * @param intermediate True if the output is an intermediate table, false otherwise.
+     * @return The {@link IOutput} to continue its configuration.
+     */
+    @NotNull
+    IOutput intermediate(boolean intermediate);
+
+    /**
+     * Return true if the output is an intermediate table, false otherwise.
+     *
+     * @return True if the output is an intermediate table, false otherwise.
+     */
+    boolean isIntermediate();
+
+    /**
+     * Return true if the output is a stream of data consumed while being produced, i.e. its type is a
+     * {@link BaseStream}, a {@link ResultSet} or an {@link IChannel}. A streamed output can only be linked to one
+     * input.
+     *
+     * @return True if the output is streamed, false otherwise.
+     */
+    default boolean isStreamed() {
+        return getType().filter(type -> BaseStream.class.isAssignableFrom(type) ||
+                ResultSet.class.isAssignableFrom(type) || IChannel.class.isAssignableFrom(type)).isPresent();
+    }
+
     /**
      * Returns a copy the the current object.
      *
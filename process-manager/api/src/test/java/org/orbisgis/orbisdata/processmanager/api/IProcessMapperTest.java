@@ -43,10 +43,13 @@ import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IOutput;
 
+import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -118,6 +121,35 @@ public class IProcessMapperTest {
             return null;
         }
 
+        @NotNull
+        @Override
+        public IProcessMapper executor(Executor executor) {
+            return this;
+        }
+
+        @Override
+        public IProcessMapper checkpoint(File directory) {
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public IProcessMapper tracer(IExecutionTracer tracer) {
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public IProcessMapper budget(@NotNull String resource, long amount) {
+            return this;
+        }
+
+        @NotNull
+        @Override
+        public IProcessMapper runner(IProcessRunner runner) {
+            return this;
+        }
+
         @NotNull
         @Override
         public IProcessMapper newInstance() {
@@ -163,5 +195,12 @@ public class IProcessMapperTest {
         public IProcessMapper copy() {
             return null;
         }
+
+        @NotNull
+        @Override
+        public IBatchResult executeAll(@NotNull Iterable<? extends Map<String, Object>> inputDataMaps,
+                                       int parallelism, BiConsumer<Integer, Map<String, Object>> resultConsumer) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,265 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IBatchResult;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Runner of the batch executions of a {@link IProcess}. Each input data map is executed by a new instance of the
+ * process on a {@link ForkJoinPool} and the completed executions are consumed from the calling thread. The number of
+ * submitted but not yet consumed executions is bounded to keep lazy input {@link Iterable} lazy.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+final class BatchExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchExecutor.class);
+
+    /**
+     * Number of pending executions allowed per worker thread.
+     */
+    private static final int PENDING_PER_THREAD = 2;
+
+    /**
+     * Utility class, no instance.
+     */
+    private BatchExecutor() {
+    }
+
+    /**
+     * Execute a new instance of the given {@link IProcess} for each of the given input data maps.
+     *
+     * @param process        {@link IProcess} to execute.
+     * @param inputDataMaps  Input data maps, one per execution.
+     * @param parallelism    Maximum number of concurrent executions. If not strictly positive, the number of available
+     *                       processors is used.
+     * @param resultConsumer Consumer of the index and the results of each successful execution, may be null.
+     * @return The {@link IBatchResult} summarizing the executions.
+     */
+    @NotNull
+    static IBatchResult executeAll(@NotNull IProcess process,
+                                   @NotNull Iterable<? extends Map<String, Object>> inputDataMaps, int parallelism,
+                                   @Nullable BiConsumer<Integer, Map<String, Object>> resultConsumer) {
+        int threadCount = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        CompletionService<Execution> completionService = new ExecutorCompletionService<>(pool);
+        BatchResult batchResult = new BatchResult();
+        Iterator<? extends Map<String, Object>> iterator = inputDataMaps.iterator();
+        Set<Integer> pending = new TreeSet<>();
+        int index = 0;
+        try {
+            while (iterator.hasNext() || !pending.isEmpty()) {
+                while (iterator.hasNext() && pending.size() < threadCount * PENDING_PER_THREAD) {
+                    int inputIndex = index++;
+                    Map<String, Object> inputDataMap = iterator.next();
+                    completionService.submit(() -> execute(process, inputIndex, inputDataMap));
+                    pending.add(inputIndex);
+                }
+                Execution execution = completionService.take().get();
+                pending.remove(execution.index);
+                batchResult.add(execution, resultConsumer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("The batch execution has been interrupted.", e);
+            batchResult.abort(pending, e);
+        } catch (ExecutionException e) {
+            LOGGER.error("Unexpected error while running the batch execution.", e);
+            batchResult.abort(pending, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return batchResult;
+    }
+
+    /**
+     * Execute a new instance of the given {@link IProcess} with the given input data map.
+     *
+     * @param process      {@link IProcess} to execute.
+     * @param index        Index of the input data map.
+     * @param inputDataMap Input data of the execution.
+     * @return The {@link Execution} with the results or the failure cause.
+     */
+    @NotNull
+    private static Execution execute(@NotNull IProcess process, int index,
+                                     @Nullable Map<String, Object> inputDataMap) {
+        try {
+            IProcess instance = process.newInstance();
+            if (instance.execute(inputDataMap == null ? null : new LinkedHashMap<>(inputDataMap))) {
+                return new Execution(index, new HashMap<>(instance.getResults()), null);
+            }
+            return new Execution(index, null,
+                    new IllegalStateException("The execution of the input data map " + index + " has failed."));
+        } catch (Exception e) {
+            return new Execution(index, null, e);
+        }
+    }
+
+    /**
+     * Completed execution of a process instance.
+     */
+    private static final class Execution {
+        /**
+         * Index of the input data map.
+         */
+        private final int index;
+        /**
+         * Results of the execution, null if it has failed.
+         */
+        @Nullable
+        private final Map<String, Object> results;
+        /**
+         * Failure cause, null if the execution was successful.
+         */
+        @Nullable
+        private final Throwable failure;
+
+        /**
+         * Main constructor.
+         *
+         * @param index   Index of the input data map.
+         * @param results Results of the execution.
+         * @param failure Failure cause.
+         */
+        private Execution(int index, @Nullable Map<String, Object> results, @Nullable Throwable failure) {
+            this.index = index;
+            this.results = results;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Implementation of the {@link IBatchResult} interface filled from the calling thread.
+     */
+    private static final class BatchResult implements IBatchResult {
+        /**
+         * Number of successful executions.
+         */
+        private int successCount = 0;
+        /**
+         * Failure causes sorted by input index.
+         */
+        private final SortedMap<Integer, Throwable> failures = new TreeMap<>();
+        /**
+         * True if the batch has been aborted.
+         */
+        private boolean aborted = false;
+
+        /**
+         * Abort the batch, the given submitted executions which have not completed being reported as failures.
+         *
+         * @param indexes Indexes of the input data maps of the executions which have not completed.
+         * @param cause   Cause of the abort.
+         */
+        private void abort(@NotNull Collection<Integer> indexes, @Nullable Throwable cause) {
+            aborted = true;
+            for (int index : indexes) {
+                CancellationException exception = new CancellationException("The execution of the input data map " +
+                        index + " has been aborted.");
+                exception.initCause(cause);
+                failures.put(index, exception);
+            }
+        }
+
+        /**
+         * Add a completed {@link Execution} and give its results to the consumer.
+         *
+         * @param execution      Completed {@link Execution}.
+         * @param resultConsumer Consumer of the results, may be null.
+         */
+        private void add(@NotNull Execution execution,
+                         @Nullable BiConsumer<Integer, Map<String, Object>> resultConsumer) {
+            if (execution.results == null) {
+                LOGGER.error("The execution of the input data map " + execution.index + " has failed.",
+                        execution.failure);
+                failures.put(execution.index, execution.failure);
+                return;
+            }
+            if (resultConsumer != null) {
+                try {
+                    resultConsumer.accept(execution.index, execution.results);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error while consuming the results of the input data map " + execution.index + ".", e);
+                    failures.put(execution.index, e);
+                    return;
+                }
+            }
+            successCount++;
+        }
+
+        @Override
+        public int getExecutionCount() {
+            return successCount + failures.size();
+        }
+
+        @Override
+        public int getSuccessCount() {
+            return successCount;
+        }
+
+        @Override
+        public int getFailureCount() {
+            return failures.size();
+        }
+
+        @Override
+        public boolean isSuccessful() {
+            return !aborted && failures.isEmpty();
+        }
+
+        @Override
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        @NotNull
+        @Override
+        public Map<Integer, Throwable> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Disk-backed store of the results of the completed process executions, used by the {@link ProcessMapper} to resume
+ * a run after a failure. Each checkpoint is a file named from the process identifier, version and input
+ * fingerprint, containing the serialized results of the execution. The processes whose identifier is generated are
+ * identified by their title, which is stable between two runs. The outputs must be {@link Serializable} (table
+ * names, scalars ...) to be checkpointed.
+ *
+ * The {@link IJdbcDataSource} inputs, alone or inside collections and maps, are fingerprinted from their class and
+ * the URL and user of their connection, so they are considered as unchanged between two runs on the same database.
+ * To detect a changed content of the database, the output names of the
+ * tables found in the input data sources are stored with the checkpoint and a checkpoint is only restored if these
+ * tables still exist. The executions with other inputs which can't be fingerprinted from their content are not
+ * checkpointed.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class CheckpointStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointStore.class);
+
+    /**
+     * Extension of the checkpoint files.
+     */
+    private static final String EXTENSION = ".ckpt";
+    /**
+     * Value returned by {@link #canonical(Object, List)} for the values which can't be fingerprinted.
+     */
+    private static final Object UNFINGERPRINTABLE = new Object();
+
+    /**
+     * Directory containing the checkpoint files.
+     */
+    @NotNull
+    private final File directory;
+
+    /**
+     * Main constructor.
+     *
+     * @param directory Directory containing the checkpoint files, created if it does not exist.
+     */
+    public CheckpointStore(@NotNull File directory) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.error("Unable to create the checkpoint directory '" + directory.getAbsolutePath() + "'.");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Return the directory containing the checkpoint files.
+     *
+     * @return The directory containing the checkpoint files.
+     */
+    @NotNull
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Return the checkpointed results of the execution of the given {@link IProcess} with the given input data.
+     *
+     * @param process   Executed {@link IProcess}.
+     * @param inputData Input data of the execution.
+     * @return The checkpointed results, null if there is none.
+     */
+    @Nullable
+    public Map<String, Object> load(@NotNull IProcess process, @NotNull Map<String, Object> inputData) {
+        List<IJdbcDataSource> dataSources = new ArrayList<>();
+        File file = getFile(process, inputData, dataSources);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Object results = in.readObject();
+            Object tables = in.readObject();
+            if (results instanceof Map && tables instanceof List) {
+                for (Object table : (List<?>) tables) {
+                    if (dataSources.stream().noneMatch(ds -> ds.hasTable(table.toString()))) {
+                        LOGGER.warn("The checkpoint file '" + file.getName() + "' is not restored, the table '" +
+                                table + "' does not exist anymore.");
+                        return null;
+                    }
+                }
+                return (Map<String, Object>) results;
+            }
+            LOGGER.warn("The checkpoint file '" + file.getName() + "' is not valid.");
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.warn("Unable to read the checkpoint file '" + file.getName() + "'.\n" + e.getLocalizedMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Save the results of the execution of the given {@link IProcess} with the given input data.
+     *
+     * @param process   Executed {@link IProcess}.
+     * @param inputData Input data of the execution.
+     * @param results   Results of the execution.
+     * @return True if the results have been saved, false otherwise.
+     */
+    public boolean save(@NotNull IProcess process, @NotNull Map<String, Object> inputData,
+                        @NotNull Map<String, Object> results) {
+        for (Map.Entry<String, Object> entry : results.entrySet()) {
+            if (entry.getValue() != null && !(entry.getValue() instanceof Serializable)) {
+                LOGGER.warn("Unable to checkpoint '" + process.getTitle().orElse(process.getIdentifier()) +
+                        "', the output '" + entry.getKey() + "' is not serializable.");
+                return false;
+            }
+        }
+        List<IJdbcDataSource> dataSources = new ArrayList<>();
+        File file = getFile(process, inputData, dataSources);
+        if (file == null) {
+            return false;
+        }
+        ArrayList<String> tables = new ArrayList<>();
+        for (Object value : results.values()) {
+            if (value instanceof String && dataSources.stream().anyMatch(ds -> ds.hasTable((String) value))) {
+                tables.add((String) value);
+            }
+        }
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeObject(new HashMap<>(results));
+                out.writeObject(tables);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the checkpoint of '" + process.getTitle().orElse(process.getIdentifier()) +
+                    "'.\n" + e.getLocalizedMessage());
+            if (tmp.exists() && !tmp.delete()) {
+                LOGGER.warn("Unable to delete the file '" + tmp.getName() + "'.");
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Remove all the checkpoints of the store.
+     */
+    public void clear() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    LOGGER.warn("Unable to delete the checkpoint file '" + file.getName() + "'.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the checkpoint file of the execution of the given {@link IProcess} with the given input data.
+     *
+     * @param process     Executed {@link IProcess}.
+     * @param inputData   Input data of the execution.
+     * @param dataSources List filled with the {@link IJdbcDataSource} found in the input data.
+     * @return The checkpoint {@link File}, null if an input can't be fingerprinted.
+     */
+    @Nullable
+    private File getFile(@NotNull IProcess process, @NotNull Map<String, Object> inputData,
+                         @NotNull List<IJdbcDataSource> dataSources) {
+        Map<String, Object> fingerprintData = new HashMap<>();
+        for (Map.Entry<String, Object> entry : inputData.entrySet()) {
+            Object value = canonical(entry.getValue(), dataSources);
+            if (value == UNFINGERPRINTABLE) {
+                LOGGER.warn("Unable to checkpoint '" + process.getTitle().orElse(process.getIdentifier()) +
+                        "', the input '" + entry.getKey() + "' can't be fingerprinted.");
+                return null;
+            }
+            fingerprintData.put(entry.getKey(), value);
+        }
+        Map<String, Object> key = new HashMap<>();
+        if (process instanceof Process && !((Process) process).hasExplicitIdentifier()) {
+            key.put("title", process.getTitle().orElse(ResultCache.getSourceIdentifier(process)));
+        } else {
+            key.put("identifier", ResultCache.getSourceIdentifier(process));
+        }
+        key.put("version", process.getVersion().orElse(null));
+        key.put("inputs", ResultCache.fingerprint(fingerprintData, null));
+        return new File(directory, ResultCache.fingerprint(key, null) + EXTENSION);
+    }
+
+    /**
+     * Return the given value where the {@link IJdbcDataSource}s are replaced by their identity, element by element
+     * for the arrays, collections and maps.
+     *
+     * @param value       Value to fingerprint.
+     * @param dataSources List filled with the {@link IJdbcDataSource} found in the value.
+     * @return The value to fingerprint, {@link #UNFINGERPRINTABLE} if it can't be fingerprinted.
+     */
+    @Nullable
+    private static Object canonical(@Nullable Object value, @NotNull List<IJdbcDataSource> dataSources) {
+        if (value instanceof IJdbcDataSource) {
+            dataSources.add((IJdbcDataSource) value);
+            return getIdentity((IJdbcDataSource) value);
+        } else if (value instanceof Object[]) {
+            return canonical(Arrays.asList((Object[]) value), dataSources);
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object key = canonical(entry.getKey(), dataSources);
+                Object val = canonical(entry.getValue(), dataSources);
+                if (key == UNFINGERPRINTABLE || val == UNFINGERPRINTABLE) {
+                    return UNFINGERPRINTABLE;
+                }
+                map.put(key, val);
+            }
+            return map;
+        } else if (value instanceof Collection) {
+            Collection<Object> collection = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                Object canonical = canonical(item, dataSources);
+                if (canonical == UNFINGERPRINTABLE) {
+                    return UNFINGERPRINTABLE;
+                }
+                collection.add(canonical);
+            }
+            return collection;
+        }
+        return ResultCache.fingerprint(Collections.singletonMap("value", value), null) == null ?
+                UNFINGERPRINTABLE : value;
+    }
+
+    /**
+     * Return the identity of the given {@link IJdbcDataSource} : its class and the URL and user of its connection.
+     *
+     * @param dataSource {@link IJdbcDataSource} to identify.
+     * @return The identity of the data source, {@link #UNFINGERPRINTABLE} if its connection can't be read.
+     */
+    @NotNull
+    private static Object getIdentity(@NotNull IJdbcDataSource dataSource) {
+        Connection connection = dataSource.getConnection();
+        if (connection == null) {
+            return UNFINGERPRINTABLE;
+        }
+        try {
+            DatabaseMetaData meta = connection.getMetaData();
+            return dataSource.getClass().getName() + ":" + meta.getURL() + ":" + meta.getUserName();
+        } catch (SQLException e) {
+            LOGGER.debug("Unable to read the connection metadata of the data source.", e);
+            return UNFINGERPRINTABLE;
+        }
+    }
+}
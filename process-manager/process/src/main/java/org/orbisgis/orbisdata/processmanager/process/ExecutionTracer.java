@@ -0,0 +1,489 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IExecutionTracer;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the {@link IExecutionTracer} interface. The spans are recorded as Chrome trace complete events,
+ * the nesting of the spans of a thread being given by their time ranges. The CPU time is read from the
+ * {@link ThreadMXBean} and the allocated bytes from the HotSpot extension of the {@link ThreadMXBean} when the JVM
+ * supports them, otherwise they are recorded as -1. The number of recorded spans is bounded, the oldest ones being
+ * dropped once the limit is reached.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ExecutionTracer implements IExecutionTracer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionTracer.class);
+
+    /**
+     * Bean giving the CPU time of the threads.
+     */
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    /**
+     * Method giving the bytes allocated by a thread, null if not supported by the JVM.
+     */
+    @Nullable
+    private static final Method ALLOCATED_BYTES = getAllocatedBytesMethod();
+
+    /**
+     * Default maximum number of recorded spans.
+     */
+    public static final int DEFAULT_MAX_SPANS = 100000;
+
+    /**
+     * Maximum number of recorded spans.
+     */
+    private final int maxSpans;
+    /**
+     * Number of spans dropped because of the limit.
+     */
+    @NotNull
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    /**
+     * Origin of the span timestamps in nanoseconds.
+     */
+    private final long origin = System.nanoTime();
+    /**
+     * Recorded spans.
+     */
+    @NotNull
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of recorded spans.
+     */
+    @NotNull
+    private final AtomicInteger eventCount = new AtomicInteger();
+
+    /**
+     * Default constructor, recording at most {@link #DEFAULT_MAX_SPANS} spans.
+     */
+    public ExecutionTracer() {
+        this(DEFAULT_MAX_SPANS);
+    }
+
+    /**
+     * Main constructor.
+     *
+     * @param maxSpans Maximum number of recorded spans, the oldest ones being dropped once it is reached.
+     */
+    public ExecutionTracer(int maxSpans) {
+        if (maxSpans <= 0) {
+            throw new IllegalArgumentException("The maximum number of spans should be strictly positive.");
+        }
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Execute the given {@link IProcess} and record its span.
+     *
+     * @param process      {@link IProcess} to execute.
+     * @param inputDataMap Input data of the execution.
+     * @return True if the execution is successful, false otherwise.
+     */
+    public boolean execute(@NotNull IProcess process, @Nullable LinkedHashMap<String, Object> inputDataMap) {
+        if (process instanceof ProcessMapper) {
+            return ((ProcessMapper) process).execute(inputDataMap, this);
+        }
+        Object span = startSpan(getName(process), "process");
+        boolean success = false;
+        try {
+            success = process.execute(inputDataMap);
+        } finally {
+            endSpan(span, getArgs(inputDataMap, process.getResults(), success));
+        }
+        return success;
+    }
+
+    @NotNull
+    @Override
+    public Object startSpan(@NotNull String name, @NotNull String category) {
+        return new Span(name, category);
+    }
+
+    @Override
+    public void endSpan(@NotNull Object span, @NotNull Map<String, Object> args) {
+        if (!(span instanceof Span)) {
+            LOGGER.error("The span has not been started by this tracer.");
+            return;
+        }
+        Span started = (Span) span;
+        long duration = System.nanoTime() - started.start;
+        Map<String, Object> allArgs = new LinkedHashMap<>();
+        allArgs.put("cpuTime", started.cpuTime < 0 ? -1 : (getCpuTime() - started.cpuTime) / 1000);
+        allArgs.put("allocatedBytes", started.allocatedBytes < 0 ? -1 :
+                getAllocatedBytes() - started.allocatedBytes);
+        allArgs.putAll(args);
+        events.add(new Event(started, (started.start - origin) / 1000, duration / 1000, allArgs));
+        if (eventCount.incrementAndGet() > maxSpans && events.poll() != null) {
+            eventCount.decrementAndGet();
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public int getSpanCount() {
+        return eventCount.get();
+    }
+
+    /**
+     * Return the number of spans dropped because the maximum number of recorded spans was reached.
+     *
+     * @return The number of dropped spans.
+     */
+    public int getDroppedSpanCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void clear() {
+        events.clear();
+        eventCount.set(0);
+        droppedCount.set(0);
+    }
+
+    @NotNull
+    @Override
+    public String toChromeTrace() {
+        StringBuilder sb = new StringBuilder("{\"traceEvents\":[");
+        Map<Long, String> threads = new TreeMap<>();
+        boolean first = true;
+        for (Event event : events) {
+            threads.put(event.span.threadId, event.span.threadName);
+            if (!first) {
+                sb.append(",");
+            }
+            first = false;
+            sb.append("\n{\"name\":").append(quote(event.span.name))
+                    .append(",\"cat\":").append(quote(event.span.category))
+                    .append(",\"ph\":\"X\",\"ts\":").append(event.timestamp)
+                    .append(",\"dur\":").append(event.duration)
+                    .append(",\"pid\":1,\"tid\":").append(event.span.threadId)
+                    .append(",\"args\":{");
+            boolean firstArg = true;
+            for (Map.Entry<String, Object> arg : event.args.entrySet()) {
+                if (!firstArg) {
+                    sb.append(",");
+                }
+                firstArg = false;
+                sb.append(quote(arg.getKey())).append(":");
+                Object value = arg.getValue();
+                if (value instanceof Number || value instanceof Boolean) {
+                    sb.append(value);
+                } else {
+                    sb.append(quote(String.valueOf(value)));
+                }
+            }
+            sb.append("}}");
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            if (!first) {
+                sb.append(",");
+            }
+            first = false;
+            sb.append("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(thread.getKey())
+                    .append(",\"args\":{\"name\":").append(quote(thread.getValue())).append("}}");
+        }
+        return sb.append("\n],\"displayTimeUnit\":\"ms\"}").toString();
+    }
+
+    @Override
+    public boolean writeChromeTrace(@NotNull File file) {
+        try {
+            Files.write(file.toPath(), toChromeTrace().getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Unable to write the trace file '" + file + "'.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Return the name of the span of the given {@link IProcess}.
+     *
+     * @param process {@link IProcess} of the span.
+     * @return The title of the process or its identifier.
+     */
+    @NotNull
+    static String getName(@NotNull IProcess process) {
+        return process.getTitle().orElse(process.getIdentifier());
+    }
+
+    /**
+     * Return the arguments of the span of an execution.
+     *
+     * @param inputs  Input data of the execution.
+     * @param outputs Results of the execution, may be null.
+     * @param success True if the execution was successful.
+     * @return The arguments of the span.
+     */
+    @NotNull
+    static Map<String, Object> getArgs(@Nullable Map<String, Object> inputs, @Nullable Map<String, Object> outputs,
+                                       boolean success) {
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("inputCount", inputs == null ? 0 : inputs.size());
+        args.put("inputSize", getSize(inputs));
+        if (outputs != null) {
+            args.put("outputCount", outputs.size());
+            args.put("outputSize", getSize(outputs));
+        }
+        args.put("success", success);
+        return args;
+    }
+
+    /**
+     * Return the size of the given data, which is the sum of the element count of its values : the size of the
+     * collections, maps, arrays and character sequences, 1 for the other values and 0 for null.
+     *
+     * @param data Data to measure.
+     * @return The size of the data.
+     */
+    static long getSize(@Nullable Map<String, Object> data) {
+        if (data == null) {
+            return 0;
+        }
+        long size = 0;
+        for (Object value : data.values()) {
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Collection) {
+                size += ((Collection<?>) value).size();
+            } else if (value instanceof Map) {
+                size += ((Map<?, ?>) value).size();
+            } else if (value.getClass().isArray()) {
+                size += Array.getLength(value);
+            } else if (value instanceof CharSequence) {
+                size += ((CharSequence) value).length();
+            } else {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return the CPU time of the current thread.
+     *
+     * @return The CPU time in nanoseconds, -1 if not supported.
+     */
+    private static long getCpuTime() {
+        try {
+            return THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled() ?
+                    THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Return the number of bytes allocated by the current thread.
+     *
+     * @return The allocated bytes, -1 if not supported.
+     */
+    private static long getAllocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Return the method of the HotSpot {@link ThreadMXBean} extension giving the bytes allocated by a thread.
+     *
+     * @return The method, null if not supported by the JVM.
+     */
+    @Nullable
+    private static Method getAllocatedBytesMethod() {
+        try {
+            Class<?> clazz = Class.forName("com.sun.management.ThreadMXBean");
+            if (clazz.isInstance(THREAD_BEAN)) {
+                return clazz.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("The allocated bytes of the threads are not available.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Quote and escape the given string as a JSON string.
+     *
+     * @param value String to quote.
+     * @return The JSON string.
+     */
+    @NotNull
+    private static String quote(@NotNull String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append("\"").toString();
+    }
+
+    /**
+     * Started span of the current thread.
+     */
+    static final class Span {
+        /**
+         * Name of the span.
+         */
+        private final String name;
+        /**
+         * Category of the span.
+         */
+        private final String category;
+        /**
+         * Identifier of the thread.
+         */
+        private final long threadId;
+        /**
+         * Name of the thread.
+         */
+        private final String threadName;
+        /**
+         * Start time in nanoseconds.
+         */
+        private final long start;
+        /**
+         * CPU time of the thread at the start, -1 if not supported.
+         */
+        private final long cpuTime;
+        /**
+         * Bytes allocated by the thread at the start, -1 if not supported.
+         */
+        private final long allocatedBytes;
+
+        /**
+         * Main constructor.
+         *
+         * @param name     Name of the span.
+         * @param category Category of the span.
+         */
+        private Span(@NotNull String name, @NotNull String category) {
+            this.name = name;
+            this.category = category;
+            this.threadId = Thread.currentThread().getId();
+            this.threadName = Thread.currentThread().getName();
+            this.cpuTime = getCpuTime();
+            this.allocatedBytes = getAllocatedBytes();
+            this.start = System.nanoTime();
+        }
+    }
+
+    /**
+     * Recorded span.
+     */
+    private static final class Event {
+        /**
+         * Ended {@link Span}.
+         */
+        private final Span span;
+        /**
+         * Start timestamp in microseconds from the tracer origin.
+         */
+        private final long timestamp;
+        /**
+         * Duration in microseconds.
+         */
+        private final long duration;
+        /**
+         * Arguments of the span.
+         */
+        private final Map<String, Object> args;
+
+        /**
+         * Main constructor.
+         *
+         * @param span      Ended {@link Span}.
+         * @param timestamp Start timestamp in microseconds.
+         * @param duration  Duration in microseconds.
+         * @param args      Arguments of the span.
+         */
+        private Event(@NotNull Span span, long timestamp, long duration, @NotNull Map<String, Object> args) {
+            this.span = span;
+            this.timestamp = timestamp;
+            this.duration = duration;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+
+import java.io.*;
+import java.util.Set;
+
+/**
+ * {@link ObjectInputStream} exchanging the {@link ProcessWorker.RemoteTask}s and {@link ProcessWorker.RemoteResult}s
+ * between the
+ * {@link ProcessCoordinator} and the {@link ProcessWorker}s. It only resolves the classes of its allow-list, rejects
+ * the proxies and bounds each message read with {@link #readMessage()} by its size and by the stack depth of its
+ * object graph.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+final class FilteredObjectInputStream extends ObjectInputStream {
+
+    /**
+     * Default maximum size in bytes of a message.
+     */
+    static final long MAX_MESSAGE_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Allowed value types.
+     */
+    @NotNull
+    private final Set<Class<?>> allowedTypes;
+    /**
+     * Stream counting the bytes of the current message.
+     */
+    @NotNull
+    private final CountingInputStream counter;
+
+    /**
+     * Main constructor.
+     *
+     * @param in             Stream to read.
+     * @param allowedTypes   Allowed value types, the {@link ProcessWorker.RemoteTask},
+     *                       {@link ProcessWorker.RemoteResult} and primitives being always allowed.
+     * @param maxMessageSize Maximum size in bytes of a message.
+     * @throws IOException Exception thrown if the stream header can't be read.
+     */
+    FilteredObjectInputStream(@NotNull InputStream in, @NotNull Set<Class<?>> allowedTypes, long maxMessageSize)
+            throws IOException {
+        this(new CountingInputStream(in, maxMessageSize), allowedTypes);
+    }
+
+    /**
+     * Constructor reading from the given {@link CountingInputStream}.
+     *
+     * @param counter      Stream counting the bytes of the current message.
+     * @param allowedTypes Allowed value types.
+     * @throws IOException Exception thrown if the stream header can't be read.
+     */
+    private FilteredObjectInputStream(@NotNull CountingInputStream counter, @NotNull Set<Class<?>> allowedTypes)
+            throws IOException {
+        super(counter);
+        this.counter = counter;
+        this.allowedTypes = allowedTypes;
+    }
+
+    /**
+     * Read the next message, rejecting it if it exceeds the maximum size or if its object graph is too deep to be
+     * read.
+     *
+     * @return The read message.
+     * @throws IOException            Exception thrown if the message can't be read or is rejected.
+     * @throws ClassNotFoundException Exception thrown if a class of the message can't be found.
+     */
+    Object readMessage() throws IOException, ClassNotFoundException {
+        counter.count = 0;
+        try {
+            return readObject();
+        } catch (StackOverflowError e) {
+            throw new InvalidObjectException("The object graph of the message is too deep.");
+        }
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        Class<?> clazz = super.resolveClass(desc);
+        if (!ProcessWorker.isAllowed(clazz, allowedTypes)) {
+            throw new InvalidClassException(desc.getName(), "The deserialization of the class is rejected.");
+        }
+        return clazz;
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+        throw new InvalidClassException("The deserialization of the proxy classes is rejected.");
+    }
+
+    /**
+     * {@link FilterInputStream} failing once the bytes read since the last reset of its count exceed a maximum.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /**
+         * Maximum number of bytes read between two resets.
+         */
+        private final long max;
+        /**
+         * Number of bytes read since the last reset.
+         */
+        private long count = 0;
+
+        /**
+         * Main constructor.
+         *
+         * @param in  Stream to read.
+         * @param max Maximum number of bytes read between two resets.
+         */
+        private CountingInputStream(@NotNull InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                add(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            add(skipped);
+            return skipped;
+        }
+
+        /**
+         * Add the given number of bytes to the count.
+         *
+         * @param bytes Number of read bytes.
+         * @throws IOException Exception thrown if the maximum is exceeded.
+         */
+        private void add(long bytes) throws IOException {
+            count += bytes;
+            if (count > max) {
+                throw new InvalidObjectException("The message exceeds the maximum size of " + max + " bytes.");
+            }
+        }
+    }
+}
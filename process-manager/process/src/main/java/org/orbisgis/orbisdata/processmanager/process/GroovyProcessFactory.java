@@ -87,6 +87,12 @@ public abstract class GroovyProcessFactory extends Script implements IProcessFac
         return factory.getProcess(processId);
     }
 
+    @Override
+    @NotNull
+    public Optional<IProcess> getProcess(@Nullable String processId, @Nullable String version) {
+        return factory.getProcess(processId, version);
+    }
+
     @Override
     @NotNull
     public IProcessBuilder create() {
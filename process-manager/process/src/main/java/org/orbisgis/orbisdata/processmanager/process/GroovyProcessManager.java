@@ -45,6 +45,7 @@ import org.orbisgis.orbisdata.processmanager.api.IProcessBuilder;
 import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
 import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -122,13 +123,47 @@ public abstract class GroovyProcessManager extends Script implements IProcessMan
         map.values().forEach(factory -> factory.setProcessManager(this));
     }
 
+    /**
+     * Register the given {@link GroovyProcessFactory} classes with their simple name as identifier. The registration
+     * is lazy : a factory is only instantiated and run on the first access to one of its processes.
+     *
+     * @param list List of the {@link GroovyProcessFactory} classes to register.
+     * @throws IllegalAccessException Never thrown by the lazy registration, kept for compatibility.
+     * @throws InstantiationException Never thrown by the lazy registration, kept for compatibility.
+     */
     public void register(@Nullable List<Class<? extends GroovyProcessFactory>> list) throws IllegalAccessException, InstantiationException {
         if(list != null) {
             for (Class<? extends GroovyProcessFactory> clazz : list) {
-                GroovyProcessFactory gpf = clazz.newInstance();
-                gpf.run();
-                registerFactory(clazz.getSimpleName(), gpf);
-                gpf.setProcessManager(this);
+                registerFactory(clazz.getSimpleName(), new LazyProcessFactory(clazz.getSimpleName(), () -> clazz));
+            }
+        }
+    }
+
+    /**
+     * Register the given Groovy factory scripts with their file name without extension as identifier. A script is
+     * only compiled, instantiated and run on the first access to one of its processes.
+     *
+     * @param scripts List of the Groovy factory script files to register.
+     */
+    public void registerScripts(@Nullable List<File> scripts) {
+        registerScripts(scripts, null);
+    }
+
+    /**
+     * Register the given Groovy factory scripts with their file name without extension as identifier. A script is
+     * only compiled, instantiated and run on the first access to one of its processes. The compiled classes are
+     * stored in the given cache directory and reused on the next registrations while they are newer than their
+     * script.
+     *
+     * @param scripts        List of the Groovy factory script files to register.
+     * @param cacheDirectory Directory of the compiled classes, null if no cache should be used.
+     */
+    public void registerScripts(@Nullable List<File> scripts, @Nullable File cacheDirectory) {
+        if(scripts != null) {
+            ScriptCompiler compiler = new ScriptCompiler(cacheDirectory);
+            for (File script : scripts) {
+                String id = ScriptCompiler.getClassName(script);
+                registerFactory(id, new LazyProcessFactory(id, () -> compiler.load(script)));
             }
         }
     }
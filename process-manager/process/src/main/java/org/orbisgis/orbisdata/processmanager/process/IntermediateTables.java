@@ -0,0 +1,234 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.h2gis.utilities.dbtypes.DBTypes;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcTable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lifecycle of the intermediate tables of a {@link ProcessMapper} execution. Each table produced by an intermediate
+ * output is registered with the number of process inputs consuming it and dropped once all of them have been
+ * executed. Only the {@link IJdbcTable} outputs are registered, as they carry the {@link IJdbcDataSource} containing
+ * them : a table given by its name could be dropped from another database having a table with the same name. The
+ * tables still registered at the end of the execution, like the ones of a failed execution, are dropped by
+ * {@link #releaseAll()}.
+ *
+ * The drops are committed, unless a transaction scope of the data source is running. As the connection of a data
+ * source is shared by the processes using it, the tables are dropped from the thread running the mapper : when the
+ * processes are run in parallel by an executor, the drops are deferred until all the processes are completed.
+ *
+ * The {@link #createTableAs(IJdbcDataSource, String, String)} method gives the processes the statement creating a
+ * table without the durability cost of a regular one : an UNLOGGED table on PostgreSQL/PostGIS and a not persistent
+ * memory table on H2/H2GIS.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public final class IntermediateTables {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IntermediateTables.class);
+
+    /**
+     * Registered tables, by producer output key.
+     */
+    @NotNull
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    /**
+     * True to defer the drops to {@link #releaseAll()}, as the processes are running concurrently.
+     */
+    private final boolean deferred;
+
+    /**
+     * Package-private constructor, the instances are managed by the {@link ProcessMapper}.
+     *
+     * @param deferred True to defer the drops to {@link #releaseAll()}, when the processes are run concurrently on
+     *                 other threads than the mapper one.
+     */
+    IntermediateTables(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Return the statement creating the given table from the given query, as an UNLOGGED table on
+     * PostgreSQL/PostGIS, as a not persistent memory table on H2/H2GIS and as a regular table otherwise.
+     *
+     * @param dataSource {@link IJdbcDataSource} where the table is created.
+     * @param tableName  Name of the table to create.
+     * @param query      Query filling the table.
+     * @return The statement creating the table.
+     */
+    @NotNull
+    public static String createTableAs(@NotNull IJdbcDataSource dataSource, @NotNull String tableName,
+                                       @NotNull String query) {
+        DBTypes type = dataSource.getDataBaseType();
+        if (type == DBTypes.POSTGIS || type == DBTypes.POSTGRESQL) {
+            return "CREATE UNLOGGED TABLE " + tableName + " AS " + query;
+        } else if (type == DBTypes.H2GIS || type == DBTypes.H2) {
+            return "CREATE MEMORY TABLE " + tableName + " NOT PERSISTENT AS " + query;
+        }
+        return "CREATE TABLE " + tableName + " AS " + query;
+    }
+
+    /**
+     * Return the key of the given output.
+     *
+     * @param processId  Identifier of the producer process.
+     * @param outputName Name of the output.
+     * @return The key of the output.
+     */
+    @NotNull
+    static String getKey(@NotNull String processId, @Nullable String outputName) {
+        return processId + ":" + outputName;
+    }
+
+    /**
+     * Register the table produced by an intermediate output.
+     *
+     * @param key       Key of the producer output.
+     * @param value     Value of the output, an {@link IJdbcTable} to be dropped.
+     * @param consumers Number of process inputs consuming the table.
+     */
+    void register(@NotNull String key, @Nullable Object value, int consumers) {
+        if (value == null || consumers <= 0) {
+            return;
+        }
+        if (!(value instanceof IJdbcTable)) {
+            LOGGER.warn("The intermediate output '" + key + "' is not an " + IJdbcTable.class.getSimpleName() +
+                    " with its data source, its table won't be dropped.");
+            return;
+        }
+        IJdbcTable<?> table = (IJdbcTable<?>) value;
+        if (table.getTableLocation() == null || table.getTableLocation().getTable().isEmpty()) {
+            //Query table, there is nothing to drop
+            return;
+        }
+        tables.put(key, new Table(table.getTableLocation().toString(table.getDbType()), table.getJdbcDataSource(),
+                consumers));
+    }
+
+    /**
+     * Release the table of the given output for one of its consumers, dropping it once all of them are released if
+     * the drops are not deferred.
+     *
+     * @param key Key of the producer output.
+     */
+    void release(@NotNull String key) {
+        Table table = tables.get(key);
+        if (table != null && table.consumers.decrementAndGet() == 0 && !deferred) {
+            tables.remove(key);
+            drop(table);
+        }
+    }
+
+    /**
+     * Drop all the tables still registered, whatever their remaining consumers.
+     */
+    void releaseAll() {
+        for (String key : new ArrayList<>(tables.keySet())) {
+            Table table = tables.remove(key);
+            if (table != null) {
+                drop(table);
+            }
+        }
+    }
+
+    /**
+     * Drop the given table.
+     *
+     * @param table {@link Table} to drop.
+     */
+    private static void drop(@NotNull Table table) {
+        Connection connection = table.dataSource.getConnection();
+        if (connection == null) {
+            LOGGER.warn("Unable to get the connection to drop the intermediate table '" + table.name + "'.");
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table.name);
+            if (!connection.getAutoCommit() && !table.dataSource.isInTransaction()) {
+                connection.commit();
+            }
+            LOGGER.debug("Intermediate table '" + table.name + "' dropped.");
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to drop the intermediate table '" + table.name + "'.", e);
+        }
+    }
+
+    /**
+     * Registered intermediate table.
+     */
+    private static final class Table {
+        /**
+         * Name of the table.
+         */
+        private final String name;
+        /**
+         * {@link IJdbcDataSource} containing the table.
+         */
+        private final IJdbcDataSource dataSource;
+        /**
+         * Number of consumers not yet executed.
+         */
+        private final AtomicInteger consumers;
+
+        /**
+         * Main constructor.
+         *
+         * @param name       Name of the table.
+         * @param dataSource {@link IJdbcDataSource} containing the table.
+         * @param consumers  Number of consumers of the table.
+         */
+        private Table(@NotNull String name, @NotNull IJdbcDataSource dataSource, int consumers) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.consumers = new AtomicInteger(consumers);
+        }
+    }
+}
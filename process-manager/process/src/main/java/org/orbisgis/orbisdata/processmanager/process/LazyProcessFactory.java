@@ -0,0 +1,236 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import groovy.lang.*;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IProcessBuilder;
+import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
+import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link IProcessFactory} registered by its identifier only. The underlying {@link GroovyProcessFactory} is loaded,
+ * instantiated and run on the first access to one of its processes, so registering hundreds of factories does not
+ * build all their processes at startup.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public final class LazyProcessFactory implements IProcessFactory, GroovyObject, GroovyInterceptable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LazyProcessFactory.class);
+
+    /**
+     * Identifier of the factory, used for the log messages.
+     */
+    @NotNull
+    private final String identifier;
+    /**
+     * Loader of the {@link GroovyProcessFactory} class.
+     */
+    @NotNull
+    private final Callable<Class<? extends GroovyProcessFactory>> loader;
+    /**
+     * Resolved factory, null until the first access.
+     */
+    @Nullable
+    private volatile IProcessFactory factory;
+    /**
+     * Process manager of the factory.
+     */
+    @Nullable
+    private IProcessManager processManager;
+    /**
+     * MetaClass use for groovy methods/properties binding
+     */
+    @NotNull
+    private MetaClass metaClass = InvokerHelper.getMetaClass(LazyProcessFactory.class);
+
+    /**
+     * Main constructor.
+     *
+     * @param identifier Identifier of the factory.
+     * @param loader     Loader of the {@link GroovyProcessFactory} class, only called on the first access.
+     */
+    LazyProcessFactory(@NotNull String identifier, @NotNull Callable<Class<? extends GroovyProcessFactory>> loader) {
+        this.identifier = identifier;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns true if the underlying factory has already been loaded, false otherwise.
+     *
+     * @return True if the underlying factory has already been loaded, false otherwise.
+     */
+    public boolean isResolved() {
+        return factory != null;
+    }
+
+    /**
+     * Load, instantiate and run the underlying factory if not already done and returns it. If the factory can not be
+     * loaded, the error is logged and an empty {@link ProcessFactory} is used instead.
+     *
+     * @return The underlying factory.
+     */
+    @NotNull
+    public IProcessFactory resolve() {
+        IProcessFactory resolved = factory;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = factory;
+                if (resolved == null) {
+                    try {
+                        GroovyProcessFactory gpf = loader.call().newInstance();
+                        gpf.run();
+                        resolved = gpf;
+                    } catch (Exception e) {
+                        LOGGER.error("Unable to load the process factory '" + identifier + "'.", e);
+                        resolved = new ProcessFactory();
+                    }
+                    resolved.setProcessManager(processManager);
+                    factory = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public void registerProcess(@Nullable IProcess process) {
+        resolve().registerProcess(process);
+    }
+
+    @Override
+    public boolean isLocked() {
+        return resolve().isLocked();
+    }
+
+    @Override
+    public boolean isDefault() {
+        return resolve().isDefault();
+    }
+
+    @NotNull
+    @Override
+    public Optional<IProcess> getProcess(@Nullable String processId) {
+        return resolve().getProcess(processId);
+    }
+
+    @NotNull
+    @Override
+    public Optional<IProcess> getProcess(@Nullable String processId, @Nullable String version) {
+        return resolve().getProcess(processId, version);
+    }
+
+    @NotNull
+    @Override
+    public IProcessBuilder create() {
+        return resolve().create();
+    }
+
+    @NotNull
+    @Override
+    public Optional<IProcess> create(@Nullable @DelegatesTo(IProcessBuilder.class) Closure<?> cl) {
+        return resolve().create(cl);
+    }
+
+    @NotNull
+    @Override
+    public Optional<IProcessManager> getProcessManager() {
+        return Optional.ofNullable(processManager);
+    }
+
+    @Override
+    public synchronized void setProcessManager(@Nullable IProcessManager processManager) {
+        this.processManager = processManager;
+        if (factory != null) {
+            factory.setProcessManager(processManager);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object invokeMethod(@Nullable String name, @Nullable Object args) {
+        if (name == null) {
+            return null;
+        }
+        Object obj;
+        if (!getMetaClass().respondsTo(this, name).isEmpty()) {
+            obj = getMetaClass().invokeMethod(this, name, args);
+        } else {
+            obj = InvokerHelper.invokeMethod(resolve(), name, args);
+        }
+        if (obj instanceof Optional) {
+            return ((Optional<?>) obj).orElse(null);
+        } else {
+            return obj;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object getProperty(@Nullable String name) {
+        if (name == null) {
+            return null;
+        }
+        return InvokerHelper.getProperty(resolve(), name);
+    }
+
+    @Override
+    public void setProperty(@Nullable String propertyName, @Nullable Object newValue) {
+        InvokerHelper.setProperty(resolve(), propertyName, newValue);
+    }
+
+    @NotNull
+    @Override
+    public MetaClass getMetaClass() {
+        return metaClass;
+    }
+
+    @Override
+    public void setMetaClass(@Nullable MetaClass metaClass) {
+        this.metaClass = metaClass == null ? InvokerHelper.getMetaClass(this.getClass()) : metaClass;
+    }
+}
@@ -43,7 +43,9 @@ import groovy.lang.MetaClass;
 import org.codehaus.groovy.runtime.InvokerHelper;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IBatchResult;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IResultCache;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IOutput;
@@ -53,6 +55,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -107,6 +110,15 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
      * Unique identifier
      */
     private String identifier;
+    /**
+     * Identifier of the process this one is an instance of, null if it is not an instance.
+     */
+    @Nullable
+    private String sourceIdentifier;
+    /**
+     * True if the identifier of the source process has been explicitly given, false if it has been generated.
+     */
+    private boolean explicitIdentifier;
     /**
      * MetaClass use for groovy methods/properties binding
      */
@@ -115,6 +127,15 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
      * Map of the defaults values
      */
     private Map<String, Object> defaultValues;
+    /**
+     * Cache of the execution results, null if the results are not cached
+     */
+    @Nullable
+    private ResultCache resultCache;
+    /**
+     * Resources needed by an execution of the process
+     */
+    private Map<String, Long> resources = Collections.emptyMap();
 
     /**
      * Create a new Process with its title, description, keyword array, input map, output map, version
@@ -202,6 +223,7 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
         this.closure = closure;
         this.resultMap = new HashMap<>();
         this.identifier = id == null ? UUID.randomUUID().toString() : id;
+        this.explicitIdentifier = id != null;
         this.metaClass = InvokerHelper.getMetaClass(getClass());
     }
 
@@ -215,6 +237,10 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
         process.outputs = this.outputs.stream().map(IOutput::copy).collect(Collectors.toCollection(LinkedList::new));
         process.outputs.forEach(out -> out.setProcess(process));
         process.defaultValues = this.defaultValues;
+        process.resultCache = this.resultCache;
+        process.resources = this.resources;
+        process.sourceIdentifier = this.getSourceIdentifier();
+        process.explicitIdentifier = this.explicitIdentifier;
         return process;
     }
 
@@ -228,10 +254,21 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
         process.outputs = this.outputs.stream().map(IOutput::copy).collect(Collectors.toCollection(LinkedList::new));
         process.outputs.forEach(out -> out.setProcess(process));
         process.defaultValues = this.defaultValues;
+        process.resultCache = this.resultCache;
+        process.resources = this.resources;
         process.identifier = this.identifier;
+        process.sourceIdentifier = this.sourceIdentifier;
+        process.explicitIdentifier = this.explicitIdentifier;
         return process;
     }
 
+    @NotNull
+    @Override
+    public IBatchResult executeAll(@NotNull Iterable<? extends Map<String, Object>> inputDataMaps, int parallelism,
+                                   @Nullable BiConsumer<Integer, Map<String, Object>> resultConsumer) {
+        return BatchExecutor.executeAll(this, inputDataMaps, parallelism, resultConsumer);
+    }
+
     /**
      * Return the curry closure taking into account the optional arguments.
      *
@@ -276,9 +313,65 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
                 .toArray();
     }
 
+    /**
+     * Set the cache of the execution results.
+     *
+     * @param resultCache {@link ResultCache} to use, null to disable the caching.
+     */
+    void setResultCache(@Nullable ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Set the resources needed by an execution of the process.
+     *
+     * @param resources {@link Map} with the resource name as key and the amount needed as value.
+     */
+    void setResources(@NotNull Map<String, Long> resources) {
+        this.resources = Collections.unmodifiableMap(new HashMap<>(resources));
+    }
+
+    @Override
+    @NotNull
+    public Map<String, Long> getResources() {
+        return resources;
+    }
+
+    @Override
+    @NotNull
+    public Optional<IResultCache> getResultCache() {
+        return Optional.ofNullable(resultCache);
+    }
+
     @Override
     public boolean execute(@Nullable LinkedHashMap<String, Object> inputDataMap) {
         LinkedHashMap<String, Object> map = (inputDataMap == null ? new LinkedHashMap<>() : inputDataMap);
+        if (resultCache == null) {
+            return executeClosure(map);
+        }
+        Map<String, Object> cached = resultCache.get(this, map);
+        if (cached != null) {
+            LOGGER.debug("Reuse the cached results of '" + this.getTitle() + "'.");
+            resultMap = cached;
+            return true;
+        }
+        if (!executeClosure(map)) {
+            return false;
+        }
+        //The streamed results can only be consumed once
+        if (outputs.stream().noneMatch(IOutput::isStreamed)) {
+            resultCache.put(this, map, resultMap);
+        }
+        return true;
+    }
+
+    /**
+     * Execute the closure of the process with the given input data and store its results.
+     *
+     * @param map Map of the inputs with the name as key and the input value as value.
+     * @return True if the execution is successful, false otherwise.
+     */
+    private boolean executeClosure(@NotNull LinkedHashMap<String, Object> map) {
         if (closure == null) {
             LOGGER.error("The process should have a Closure defined.");
             return false;
@@ -394,6 +487,27 @@ public class Process implements IProcess, GroovyObject, GroovyInterceptable {
         return identifier;
     }
 
+    /**
+     * Return the identifier of the process this one is an instance of, as registered in its factory, or the
+     * identifier of this process if it is not an instance.
+     *
+     * @return The identifier of the source process.
+     */
+    @NotNull
+    String getSourceIdentifier() {
+        return sourceIdentifier != null ? sourceIdentifier : identifier;
+    }
+
+    /**
+     * Return true if the identifier of the source process has been explicitly given, false if it is a random one
+     * generated by the current JVM, and thus unknown by the other ones.
+     *
+     * @return True if the source identifier has been explicitly given, false otherwise.
+     */
+    boolean hasExplicitIdentifier() {
+        return explicitIdentifier;
+    }
+
     @Override
     @NotNull
     public List<IInput> getInputs() {
@@ -44,7 +44,9 @@ import org.orbisgis.orbisdata.processmanager.api.IProcess;
 import org.orbisgis.orbisdata.processmanager.api.IProcessBuilder;
 import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Implementation of the interface {@link IProcessBuilder}.
@@ -102,6 +104,16 @@ public class ProcessBuilder implements IProcessBuilder {
      */
     @Nullable
     private Closure<?> closure;
+    /**
+     * {@link ResultCache} of the process.
+     */
+    @Nullable
+    private ResultCache resultCache;
+    /**
+     * Resources needed by an execution of the process.
+     */
+    @NotNull
+    private final Map<String, Long> resources = new HashMap<>();
 
     /**
      * Main constructor.
@@ -176,10 +188,26 @@ public class ProcessBuilder implements IProcessBuilder {
         return this;
     }
 
+    @NotNull
+    @Override
+    public IProcessBuilder cache(int maxEntries) {
+        this.resultCache = new ResultCache(maxEntries);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public IProcessBuilder resource(@NotNull String name, long amount) {
+        this.resources.put(name, amount);
+        return this;
+    }
+
     @Override
     @NotNull
     public IProcess getProcess() {
-        IProcess process = new Process(id, title, description, keywords, inputs, outputs, version, closure);
+        Process process = new Process(id, title, description, keywords, inputs, outputs, version, closure);
+        process.setResultCache(resultCache);
+        process.setResources(resources);
         factory.registerProcess(process);
         return process;
     }
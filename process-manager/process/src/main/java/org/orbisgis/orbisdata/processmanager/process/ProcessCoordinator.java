@@ -0,0 +1,334 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IProcessRunner;
+import org.orbisgis.orbisdata.processmanager.process.ProcessWorker.RemoteResult;
+import org.orbisgis.orbisdata.processmanager.process.ProcessWorker.RemoteTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link IProcessRunner} shipping the processes to {@link ProcessWorker}s, usually running in other JVMs. Each
+ * process is described by the identifier it is registered with in its factory, which should thus be explicitly given,
+ * its version and its input data of the allowed types, and is executed by the first idle worker. The allowed types
+ * are the {@link ProcessWorker#DEFAULT_TYPES} and the ones added with {@link #allow(Class)}, the workers should allow
+ * the same ones. Set it as the runner of a {@link ProcessMapper} with an {@link java.util.concurrent.Executor} to run
+ * the ready processes on all the workers at the same time.
+ *
+ * A connection closed by the worker while idle is opened again before sending the process. If a process can't be sent
+ * to a worker, the worker is discarded and the process is sent to another one. Once sent, a process is never sent
+ * again as it may already have been executed : if its result can't be read, because the connection is lost or no
+ * result is received before the timeout, the worker is discarded and the execution fails.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ProcessCoordinator implements IProcessRunner, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessCoordinator.class);
+
+    /**
+     * Delay in milliseconds between two checks of the available workers while waiting for an idle one.
+     */
+    private static final long WAIT_DELAY = 100;
+    /**
+     * Default delay in milliseconds after which a worker not answering is considered as lost.
+     */
+    public static final int DEFAULT_TIMEOUT = 60 * 60 * 1000;
+
+    /**
+     * Idle workers.
+     */
+    @NotNull
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    /**
+     * Number of workers still reachable.
+     */
+    @NotNull
+    private final AtomicInteger workerCount;
+    /**
+     * Value types sent to and received from the workers.
+     */
+    @NotNull
+    private final Set<Class<?>> allowedTypes = ConcurrentHashMap.newKeySet();
+    /**
+     * Delay in milliseconds after which a worker not answering is considered as lost.
+     */
+    private volatile int timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Main constructor.
+     *
+     * @param addresses Addresses of the workers.
+     */
+    public ProcessCoordinator(@NotNull List<InetSocketAddress> addresses) {
+        allowedTypes.addAll(ProcessWorker.DEFAULT_TYPES);
+        addresses.forEach(address -> idleWorkers.add(new Worker(address)));
+        workerCount = new AtomicInteger(addresses.size());
+    }
+
+    /**
+     * Add the given type to the value types sent to and received from the workers, which should allow it too.
+     *
+     * @param type {@link Serializable} type to allow.
+     * @return The {@link ProcessCoordinator} itself.
+     */
+    @NotNull
+    public ProcessCoordinator allow(@NotNull Class<? extends Serializable> type) {
+        allowedTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Set the delay after which a worker not answering is considered as lost. It should be longer than the
+     * execution of the processes.
+     *
+     * @param timeout Delay in milliseconds, 0 to wait forever.
+     * @return The {@link ProcessCoordinator} itself.
+     */
+    @NotNull
+    public ProcessCoordinator timeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+        return this;
+    }
+
+    /**
+     * Create a {@link ProcessCoordinator} with the workers listening on the given ports of the loopback address.
+     *
+     * @param ports Ports of the workers.
+     * @return A {@link ProcessCoordinator} of the local workers.
+     */
+    @NotNull
+    public static ProcessCoordinator local(int... ports) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int port : ports) {
+            addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        }
+        return new ProcessCoordinator(addresses);
+    }
+
+    /**
+     * Return the number of workers still reachable.
+     *
+     * @return The number of workers still reachable.
+     */
+    public int getWorkerCount() {
+        return workerCount.get();
+    }
+
+    @Override
+    public boolean execute(@NotNull IProcess process, @NotNull LinkedHashMap<String, Object> inputData) {
+        if (process instanceof Process && !((Process) process).hasExplicitIdentifier()) {
+            LOGGER.error("The process '" + process.getTitle().orElse(process.getIdentifier()) + "' has no explicit " +
+                    "identifier, it can't be found by the process workers.");
+            return false;
+        }
+        String identifier = process instanceof Process ?
+                ((Process) process).getSourceIdentifier() : process.getIdentifier();
+        RemoteTask task = new RemoteTask(identifier, process.getVersion().orElse(null),
+                ProcessWorker.serializable(inputData, allowedTypes));
+        try {
+            while (workerCount.get() > 0) {
+                Worker worker = idleWorkers.poll(WAIT_DELAY, TimeUnit.MILLISECONDS);
+                if (worker == null) {
+                    continue;
+                }
+                try {
+                    worker.send(task);
+                } catch (IOException e) {
+                    LOGGER.error("Unable to send '" + identifier + "' to the process worker " + worker.address + ".",
+                            e);
+                    worker.close();
+                    workerCount.decrementAndGet();
+                    continue;
+                }
+                RemoteResult result;
+                try {
+                    result = worker.receive();
+                } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                    //The process may have been executed, so it is not sent again
+                    LOGGER.error("Connection to the process worker " + worker.address + " lost while executing '" +
+                            identifier + "'.", e);
+                    worker.close();
+                    workerCount.decrementAndGet();
+                    return false;
+                }
+                idleWorkers.add(worker);
+                if (result.error != null) {
+                    LOGGER.error("Error on the process worker " + worker.address + " : " + result.error);
+                }
+                process.getResults().clear();
+                process.getResults().putAll(result.results);
+                return result.success;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while waiting for a process worker.");
+            return false;
+        }
+        LOGGER.error("No process worker is available to execute '" + identifier + "'.");
+        return false;
+    }
+
+    @Override
+    public void close() {
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.close();
+            workerCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Connection to a {@link ProcessWorker}, opened on the first task.
+     */
+    private final class Worker {
+        /**
+         * Address of the worker.
+         */
+        private final InetSocketAddress address;
+        /**
+         * Socket connected to the worker, null until the first task.
+         */
+        private Socket socket;
+        /**
+         * Stream of the tasks.
+         */
+        private ObjectOutputStream out;
+        /**
+         * Buffered stream of the results, used to check if the connection has been closed by the worker.
+         */
+        private BufferedInputStream buffer;
+        /**
+         * Stream of the results.
+         */
+        private FilteredObjectInputStream in;
+
+        /**
+         * Main constructor.
+         *
+         * @param address Address of the worker.
+         */
+        private Worker(@NotNull InetSocketAddress address) {
+            this.address = address;
+        }
+
+        /**
+         * Send the given task to the worker, opening the connection if needed. An idle connection closed by the worker
+         * is opened again.
+         *
+         * @param task {@link RemoteTask} to send.
+         * @throws IOException Exception thrown if the task can't be sent.
+         */
+        private void send(@NotNull RemoteTask task) throws IOException {
+            if (socket != null && isClosedByWorker()) {
+                LOGGER.debug("Connection to the process worker " + address + " closed, opening it again.");
+                close();
+            }
+            if (socket == null) {
+                socket = new Socket(address.getAddress(), address.getPort());
+                out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.flush();
+                buffer = new BufferedInputStream(socket.getInputStream());
+                in = new FilteredObjectInputStream(buffer, allowedTypes, FilteredObjectInputStream.MAX_MESSAGE_SIZE);
+            }
+            out.writeObject(task);
+            out.flush();
+            out.reset();
+        }
+
+        /**
+         * Wait for the result of the sent task.
+         *
+         * @return The {@link RemoteResult} of the task.
+         * @throws IOException            Exception thrown if the result can't be read before the timeout.
+         * @throws ClassNotFoundException Exception thrown if a result class can't be found.
+         */
+        @NotNull
+        private RemoteResult receive() throws IOException, ClassNotFoundException {
+            socket.setSoTimeout(timeout);
+            return (RemoteResult) in.readMessage();
+        }
+
+        /**
+         * Return true if the idle connection has been closed by the worker, false otherwise.
+         *
+         * @return True if the connection has been closed by the worker, false otherwise.
+         */
+        private boolean isClosedByWorker() {
+            try {
+                socket.setSoTimeout(1);
+                buffer.mark(1);
+                if (buffer.read() < 0) {
+                    return true;
+                }
+                buffer.reset();
+                return false;
+            } catch (SocketTimeoutException e) {
+                return false;
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        /**
+         * Close the connection to the worker.
+         */
+        private void close() {
+            ProcessWorker.closeQuietly(socket);
+            socket = null;
+        }
+    }
+}
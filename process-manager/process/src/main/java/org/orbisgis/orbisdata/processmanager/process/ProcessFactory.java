@@ -45,9 +45,9 @@ import org.orbisgis.orbisdata.processmanager.api.IProcessBuilder;
 import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
 import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the {@link IProcessFactory}.
@@ -66,9 +66,13 @@ public class ProcessFactory implements IProcessFactory, GroovyObject, GroovyInte
      */
     protected boolean isDefault;
     /**
-     * List of the processes created with this factory.
+     * Last registered process of each identifier.
      */
-    private final List<IProcess> processList;
+    private final Map<String, IProcess> processMap;
+    /**
+     * Registered processes of each identifier, indexed by their version.
+     */
+    private final Map<String, Map<String, IProcess>> versionMap;
     @Nullable
     private IProcessManager processManager;
     /**
@@ -92,20 +96,16 @@ public class ProcessFactory implements IProcessFactory, GroovyObject, GroovyInte
     ProcessFactory(boolean lock, boolean dflt) {
         isLock = lock;
         isDefault = dflt;
-        processList = new ArrayList<>();
+        processMap = new ConcurrentHashMap<>();
+        versionMap = new ConcurrentHashMap<>();
     }
 
     @Override
     public void registerProcess(@Nullable IProcess process) {
         if (!isLock && process != null) {
-            List<IProcess> list = new ArrayList<>();
-            for (IProcess p : processList) {
-                if (p.getIdentifier().equals(process.getIdentifier())) {
-                    list.add(p);
-                }
-            }
-            processList.removeAll(list);
-            processList.add(process);
+            versionMap.computeIfAbsent(process.getIdentifier(), id -> new ConcurrentHashMap<>())
+                    .put(process.getVersion().orElse(""), process);
+            processMap.put(process.getIdentifier(), process);
         }
     }
 
@@ -122,11 +122,23 @@ public class ProcessFactory implements IProcessFactory, GroovyObject, GroovyInte
     @Override
     @NotNull
     public Optional<IProcess> getProcess(@Nullable String processId) {
-        return processList
-                .stream()
-                .filter(iProcess -> iProcess.getIdentifier().equals(processId))
-                .findFirst()
-                .map(IProcess::newInstance);
+        if (processId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(processMap.get(processId)).map(IProcess::newInstance);
+    }
+
+    @Override
+    @NotNull
+    public Optional<IProcess> getProcess(@Nullable String processId, @Nullable String version) {
+        if (processId == null) {
+            return Optional.empty();
+        }
+        if (version == null) {
+            return getProcess(processId);
+        }
+        Map<String, IProcess> versions = versionMap.get(processId);
+        return versions == null ? Optional.empty() : Optional.ofNullable(versions.get(version)).map(IProcess::newInstance);
     }
 
     @Override
@@ -46,6 +46,7 @@ import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
 import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of IProcessManager as a singleton.
@@ -84,7 +85,7 @@ public class ProcessManager implements IProcessManager, GroovyObject, GroovyInte
     protected ProcessManager() {
         defaultFactory = new ProcessFactory(false, true);
         defaultFactory.setProcessManager(this);
-        processFactoryMap = new HashMap<>();
+        processFactoryMap = new ConcurrentHashMap<>();
         processFactoryMap.put(DEFAULT_FACTORY_NAME, defaultFactory);
     }
 
@@ -94,7 +95,7 @@ public class ProcessManager implements IProcessManager, GroovyObject, GroovyInte
      * @return The unique instance of the ProcessManager.
      */
     @NotNull
-    public static ProcessManager getProcessManager() {
+    public static synchronized ProcessManager getProcessManager() {
         if (instance == null) {
             instance = new ProcessManager();
         }
@@ -133,12 +134,11 @@ public class ProcessManager implements IProcessManager, GroovyObject, GroovyInte
         if(identifier == null) {
             return factory();
         }
-        if (!processFactoryMap.containsKey(identifier)) {
+        return processFactoryMap.computeIfAbsent(identifier, id -> {
             IProcessFactory factory = new ProcessFactory();
             factory.setProcessManager(this);
-            processFactoryMap.put(identifier, factory);
-        }
-        return processFactoryMap.get(identifier);
+            return factory;
+        });
     }
 
     @NotNull
@@ -172,10 +172,9 @@ public class ProcessManager implements IProcessManager, GroovyObject, GroovyInte
 
     @Override
     public boolean registerFactory(@Nullable String id, @Nullable IProcessFactory factory) {
-        if(factory == null || id == null || id.isEmpty() || processFactoryMap.containsKey(id)) {
+        if(factory == null || id == null || id.isEmpty() || processFactoryMap.putIfAbsent(id, factory) != null) {
             return false;
         }
-        processFactoryMap.put(id, factory);
         factory.setProcessManager(this);
         return true;
     }
@@ -42,9 +42,12 @@ import groovy.lang.MetaClass;
 import org.codehaus.groovy.runtime.InvokerHelper;
 import org.orbisgis.commons.annotations.NotNull;
 import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IBatchResult;
+import org.orbisgis.orbisdata.processmanager.api.IExecutionTracer;
 import org.orbisgis.orbisdata.processmanager.api.ILinker;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
 import org.orbisgis.orbisdata.processmanager.api.IProcessMapper;
+import org.orbisgis.orbisdata.processmanager.api.IProcessRunner;
 import org.orbisgis.orbisdata.processmanager.api.check.ICheckDataBuilder;
 import org.orbisgis.orbisdata.processmanager.api.check.IProcessCheck;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
@@ -52,12 +55,18 @@ import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IOutput;
 import org.orbisgis.orbisdata.processmanager.process.check.CheckDataBuilder;
 import org.orbisgis.orbisdata.processmanager.process.check.ProcessCheck;
+import org.orbisgis.orbisdata.processmanager.process.inoutput.Channel;
 import org.orbisgis.orbisdata.processmanager.process.inoutput.Input;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.BaseStream;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of IProcessMapper. This class should not be used will using a IProcess executing and mapping
@@ -102,6 +111,36 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
      * Title of the mapper.
      */
     private final String title;
+    /**
+     * {@link Executor} used to run the processes in parallel, null for a sequential execution.
+     */
+    @Nullable
+    private Executor executor;
+    /**
+     * Store of the completed process executions, null if the checkpoints are disabled.
+     */
+    @Nullable
+    private CheckpointStore checkpointStore;
+    /**
+     * Tracer recording the execution spans, null if the tracing is disabled.
+     */
+    @Nullable
+    private IExecutionTracer tracer;
+    /**
+     * Budget of each resource for the concurrent execution of the processes.
+     */
+    @NotNull
+    private Map<String, Long> budgets = new HashMap<>();
+    /**
+     * Runner executing the processes, null to execute them in the current JVM.
+     */
+    @Nullable
+    private IProcessRunner runner;
+    /**
+     * Compiled execution plan, null if the mapper has not been linked yet or has been modified since.
+     */
+    @Nullable
+    private List<List<PlanNode>> plan;
 
     /**
      * Groovy {@link MetaClass}.
@@ -244,8 +283,9 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
      */
     private boolean link() {
         executionTree = new ArrayList<>();
-        results = new HashMap<>();
         processList = new ArrayList<>();
+        inputs.clear();
+        outputs.clear();
 
         linkerList.stream().map(Linker::getAliases).forEach(aliases::putAll);
         linkerList.stream().map(Linker::getInputOutputMap).forEach(inputOutputMap::putAll);
@@ -277,9 +317,111 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
                             .collect(Collectors.joining(",")) + "'");
             return false;
         }
+        //A streamed output can only be consumed once
+        for (IProcess process : processList) {
+            for (IOutput output : process.getOutputs()) {
+                if (output.isStreamed() && inputOutputMap.values().stream().filter(output::equals).count() > 1) {
+                    LOGGER.error("The streamed output '" + output.getName().orElse(null) + "' of the process '" +
+                            process.getTitle().orElse(process.getIdentifier()) + "' can only be linked to one input.");
+                    return false;
+                }
+            }
+        }
+        plan = compile();
         return true;
     }
 
+    /**
+     * Compile the linked execution tree into an execution plan : for each process, the source of each input and the
+     * checks to run are resolved once so the executions don't have to scan the links again.
+     *
+     * @return The compiled execution plan.
+     */
+    @NotNull
+    private List<List<PlanNode>> compile() {
+        Set<IProcess> processSet = new HashSet<>(processList);
+        Map<IProcess, Map<String, IInOutPut>> producers = new HashMap<>();
+        for (Map.Entry<IInOutPut, IInOutPut> entry : inputOutputMap.entrySet()) {
+            IProcess process = entry.getKey().getProcess().orElse(null);
+            IProcess producer = entry.getValue().getProcess().orElse(null);
+            if (process != null && producer != null && processSet.contains(producer)) {
+                producers.computeIfAbsent(process, p -> new HashMap<>())
+                        .put(entry.getKey().getName().orElse(null), entry.getValue());
+            }
+        }
+        Map<IProcess, Set<String>> linkedOutputs = new HashMap<>();
+        for (IInOutPut output : inputOutputMap.values()) {
+            output.getProcess().ifPresent(p ->
+                    linkedOutputs.computeIfAbsent(p, k -> new HashSet<>()).add(output.getName().orElse(null)));
+        }
+        List<List<PlanNode>> compiled = new ArrayList<>();
+        Map<IProcess, PlanNode> processNodes = new HashMap<>();
+        for (List<IProcess> level : executionTree) {
+            List<PlanNode> nodes = new ArrayList<>();
+            for (IProcess process : level) {
+                PlanNode node = new PlanNode(process);
+                Map<String, IInOutPut> processProducers = producers.getOrDefault(process, Collections.emptyMap());
+                processProducers.values().stream()
+                        .map(producer -> processNodes.get(producer.getProcess().orElse(null)))
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .forEach(node.predecessors::add);
+                for (IInput in : process.getInputs()) {
+                    String name = in.getName().orElse(null);
+                    String alias = getAlias(name, process);
+                    IInOutPut producer = processProducers.get(name);
+                    node.slots.add(new InputSlot(name, alias != null ? alias : name, producer, in));
+                    if (producer != null && processNodes.containsKey(producer.getProcess().orElse(null))) {
+                        processNodes.get(producer.getProcess().get()).consumers
+                                .merge(producer.getName().orElse(null), 1, Integer::sum);
+                    }
+                }
+                for (IOutput out : process.getOutputs()) {
+                    String name = out.getName().orElse(null);
+                    node.targets.put(name, Optional.ofNullable(getResultKey(name, process, linkedOutputs)));
+                }
+                node.linkedOutputs = linkedOutputs.getOrDefault(process, Collections.emptySet());
+                beforeList.stream()
+                        .filter(check -> check.getProcess().isPresent())
+                        .filter(check -> check.getProcess().get().getIdentifier().equals(process.getIdentifier()))
+                        .forEach(node.beforeChecks::add);
+                afterList.stream()
+                        .filter(check -> check.getProcess().isPresent())
+                        .filter(check -> check.getProcess().get().getIdentifier().equals(process.getIdentifier()))
+                        .forEach(node.afterChecks::add);
+                nodes.add(node);
+            }
+            nodes.forEach(node -> processNodes.put(node.process, node));
+            compiled.add(nodes);
+        }
+        //The priority of a node is the length of the longest chain of nodes depending on it, its critical path
+        for (int i = compiled.size() - 1; i >= 0; i--) {
+            for (PlanNode node : compiled.get(i)) {
+                node.priority++;
+                node.predecessors.forEach(previous -> previous.priority = Math.max(previous.priority, node.priority));
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Return the key used to store the given result of the given {@link IProcess} in the mapper results.
+     *
+     * @param key           Name of the result.
+     * @param process       {@link IProcess} producing the result.
+     * @param linkedOutputs Names of the outputs linked to an other process input, by process.
+     * @return The key of the result in the mapper results, null if it should not be stored.
+     */
+    @Nullable
+    private String getResultKey(@Nullable String key, @NotNull IProcess process,
+                                @NotNull Map<IProcess, Set<String>> linkedOutputs) {
+        String alias = getAlias(key, process);
+        if (alias != null) {
+            return alias;
+        }
+        return linkedOutputs.getOrDefault(process, Collections.emptySet()).contains(key) ? null : key;
+    }
+
     @NotNull
     @Override
     public List<IInput> getInputs() {
@@ -301,6 +443,11 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
         mapper.linkerList = new ArrayList<>(linkerList);
         mapper.inputs = this.inputs.stream().map(IInput::copy).collect(Collectors.toCollection(LinkedList::new));
         mapper.outputs = this.outputs.stream().map(IOutput::copy).collect(Collectors.toCollection(LinkedList::new));
+        mapper.executor = this.executor;
+        mapper.checkpointStore = this.checkpointStore;
+        mapper.tracer = this.tracer;
+        mapper.budgets = new HashMap<>(this.budgets);
+        mapper.runner = this.runner;
         return mapper;
     }
 
@@ -313,44 +460,49 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
         mapper.linkerList = new ArrayList<>(linkerList);
         mapper.inputs = this.inputs.stream().map(IInput::copy).collect(Collectors.toCollection(LinkedList::new));
         mapper.outputs = this.outputs.stream().map(IOutput::copy).collect(Collectors.toCollection(LinkedList::new));
+        mapper.executor = this.executor;
+        mapper.checkpointStore = this.checkpointStore;
+        mapper.tracer = this.tracer;
+        mapper.budgets = new HashMap<>(this.budgets);
+        mapper.runner = this.runner;
         return mapper;
     }
 
+    /**
+     * {@inheritDoc}
+     * The instances of a {@link ProcessMapper} share its {@link IProcess}, so the executions are run one at a time
+     * whatever the given parallelism is. Use the {@link #executor(Executor)} to run the processes of a mapper
+     * concurrently.
+     */
+    @NotNull
+    @Override
+    public IBatchResult executeAll(@NotNull Iterable<? extends Map<String, Object>> inputDataMaps, int parallelism,
+                                   @Nullable BiConsumer<Integer, Map<String, Object>> resultConsumer) {
+        return BatchExecutor.executeAll(this, inputDataMaps, 1, resultConsumer);
+    }
+
     /**
      * Return a {@link LinkedHashMap} with the input data for the given {@link IProcess} execution.
      *
-     * @param process {@link IProcess} which will executed.
+     * @param node    {@link PlanNode} of the {@link IProcess} which will executed.
      * @param dataMap {@link Map} with the {@link ProcessMapper} input data.
      * @return A {@link LinkedHashMap} with the input data for the given {@link IProcess}.
      */
-    private LinkedHashMap<String, Object> getInputDataMap(IProcess process, Map<String, Object> dataMap) {
+    private LinkedHashMap<String, Object> getInputDataMap(PlanNode node, Map<String, Object> dataMap) {
         LinkedHashMap<String, Object> processInData = new LinkedHashMap<>();
-        for (IInput in : process.getInputs()) {
+        for (InputSlot slot : node.slots) {
+            Object data;
             //Try to get the data directly from the out of a process
-            String alias = getAlias(in.getName().orElse(null), process);
-            final Object[] data = new Object[1];
-            if (alias != null) {
-                data[0] = dataMap.get(alias);
+            if (slot.producer != null) {
+                data = slot.producer.getProcess().get().getResults().get(slot.producer.getName().orElse(null));
             } else {
-                data[0] = dataMap.get(in.getName().orElse(null));
+                data = dataMap.get(slot.dataKey);
             }
-            //Get the link between the input 'in' and a process output if exists
-            inputOutputMap.forEach((input, output) -> {
-                if (process.equals(input.getProcess().orElse(null)) &&
-                        input.getName().equals(in.getName())) {
-                    //get the process with the output linked to 'in'
-                    for (IProcess p : processList) {
-                        if (p.equals(output.getProcess().orElse(null))) {
-                            data[0] = p.getResults().get(output.getName().orElse(null));
-                        }
-                    }
-                }
-            });
             //Do not add null value for optional input
-            if (in.isOptional() && data[0] == null) {
-                processInData.put(in.getName().orElse(null), in.getDefaultValue().orElse(null));
+            if (slot.input.isOptional() && data == null) {
+                processInData.put(slot.name, slot.input.getDefaultValue().orElse(null));
             } else {
-                processInData.put(in.getName().orElse(null), data[0]);
+                processInData.put(slot.name, data);
             }
         }
         return processInData;
@@ -358,53 +510,278 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
 
     @Override
     public boolean execute(@Nullable LinkedHashMap<String, Object> inputDataMap) {
-        if (!link()) {
+        return execute(inputDataMap, null);
+    }
+
+    /**
+     * Execute the mapper, recording its span with its own tracer or, if it has none, with the tracer of the
+     * enclosing mapper.
+     *
+     * @param inputDataMap    Map of the inputs with the name as key and the input value as value.
+     * @param inheritedTracer Tracer of the enclosing mapper, may be null.
+     * @return True if the execution is successful, false otherwise.
+     */
+    boolean execute(@Nullable LinkedHashMap<String, Object> inputDataMap, @Nullable IExecutionTracer inheritedTracer) {
+        IExecutionTracer activeTracer = tracer != null ? tracer : inheritedTracer;
+        if (activeTracer == null) {
+            return executePlan(inputDataMap, null);
+        }
+        Object span = activeTracer.startSpan(ExecutionTracer.getName(this), "mapper");
+        boolean success = false;
+        try {
+            success = executePlan(inputDataMap, activeTracer);
+        } finally {
+            activeTracer.endSpan(span, ExecutionTracer.getArgs(inputDataMap, results, success));
+        }
+        return success;
+    }
+
+    /**
+     * Execute the processes of the execution plan.
+     *
+     * @param inputDataMap Map of the inputs with the name as key and the input value as value.
+     * @param activeTracer Tracer recording the execution spans, may be null.
+     * @return True if the execution is successful, false otherwise.
+     */
+    private boolean executePlan(@Nullable LinkedHashMap<String, Object> inputDataMap,
+                                @Nullable IExecutionTracer activeTracer) {
+        if (plan == null && !link()) {
             return false;
         }
+        results = new HashMap<>();
         Map<String, Object> dataMap = inputDataMap == null ? new HashMap<>() : new HashMap<>(inputDataMap);
-        //Iterate over the execution tree
-        for (List<IProcess> processes : executionTree) {
-            for (IProcess process : processes) {
-                LinkedHashMap<String, Object> processInData = getInputDataMap(process, dataMap);
-                //Do the before check
-                beforeList.stream()
-                        .filter(check -> check.getProcess().isPresent())
-                        .filter(check -> check.getProcess().get().getIdentifier().equals(process.getIdentifier()))
-                        .forEach(check -> check.run(processInData));
-                //Execute the process
-                process.execute(processInData);
-                storeResults(process);
-                //Do the after check
-                afterList.stream()
-                        .filter(check -> check.getProcess().isPresent())
-                        .filter(check -> check.getProcess().get().getIdentifier().equals(process.getIdentifier()))
-                        .forEach(check -> check.run(processInData));
+        IntermediateTables intermediates = new IntermediateTables(executor != null);
+        try {
+            if (executor != null) {
+                //Start each process as soon as its producers are completed and its resources available
+                List<PlanNode> nodes = plan.stream().flatMap(List::stream).collect(Collectors.toList());
+                boolean success = new ResourceScheduler<PlanNode>(executor, budgets).run(nodes,
+                        node -> node.predecessors, node -> node.process.getResources(), node -> node.priority,
+                        node -> executeNode(node, dataMap, activeTracer, intermediates), this::storeResults);
+                if (!success) {
+                    LOGGER.error("Error while executing the processes of the mapper '" + title + "'.");
+                }
+                return success;
+            }
+            //Iterate over the execution plan
+            for (List<PlanNode> nodes : plan) {
+                nodes.forEach(node -> executeNode(node, dataMap, activeTracer, intermediates));
+                nodes.forEach(this::storeResults);
             }
+            return true;
+        } finally {
+            //Drop the intermediate tables whose consumers have not all been executed
+            intermediates.releaseAll();
         }
-        return true;
     }
 
     /**
-     * Store the result of the {@link IProcess} execution.
+     * Execute the {@link IProcess} of the given {@link PlanNode} with the before and after checks.
+     *
+     * @param node         {@link PlanNode} of the {@link IProcess} to execute.
+     * @param dataMap       {@link Map} with the {@link ProcessMapper} input data.
+     * @param activeTracer  Tracer recording the execution spans, may be null.
+     * @param intermediates Intermediate tables of the execution.
+     */
+    private void executeNode(@NotNull PlanNode node, @NotNull Map<String, Object> dataMap,
+                             @Nullable IExecutionTracer activeTracer, @NotNull IntermediateTables intermediates) {
+        IProcess process = node.process;
+        LinkedHashMap<String, Object> processInData = getInputDataMap(node, dataMap);
+        try {
+            runNode(node, processInData, activeTracer, intermediates);
+        } finally {
+            closeStreams(node, processInData);
+        }
+    }
+
+    /**
+     * Execute the {@link IProcess} of the given {@link PlanNode} with the given input data.
      *
-     * @param process {@link IProcess} which results should be stored.
-     */
-    private void storeResults(IProcess process) {
-        for (String key : process.getResults().keySet()) {
-            boolean isBetween = inputOutputMap.values().stream()
-                    .anyMatch(value -> key.equals(value.getName().orElse(null)) &&
-                            process.equals(value.getProcess().orElse(null)));
-            String alias = getAlias(key, process);
-            if (alias != null) {
-                results.put(alias, process.getResults().get(key));
+     * @param node          {@link PlanNode} of the {@link IProcess} to execute.
+     * @param processInData Input data of the {@link IProcess}.
+     * @param activeTracer  Tracer recording the execution spans, may be null.
+     * @param intermediates Intermediate tables of the execution.
+     */
+    private void runNode(@NotNull PlanNode node, @NotNull LinkedHashMap<String, Object> processInData,
+                         @Nullable IExecutionTracer activeTracer, @NotNull IntermediateTables intermediates) {
+        IProcess process = node.process;
+        //Do the before check
+        node.beforeChecks.forEach(check -> runCheck(check, "before", processInData, activeTracer));
+        //Execute the process or restore its checkpointed results
+        Object span = activeTracer == null ? null :
+                activeTracer.startSpan(ExecutionTracer.getName(process), "process");
+        Map<String, Object> checkpoint = null;
+        boolean success = false;
+        try {
+            checkpoint = checkpointStore == null ? null : checkpointStore.load(process, processInData);
+            if (checkpoint != null) {
+                LOGGER.debug("Restore the checkpointed results of '" + process.getTitle().orElse(null) + "'.");
+                process.getResults().clear();
+                process.getResults().putAll(checkpoint);
+                success = true;
             } else {
-                if (!isBetween) {
-                    results.put(key, process.getResults().get(key));
+                if (process instanceof ProcessMapper) {
+                    success = ((ProcessMapper) process).execute(processInData, activeTracer);
+                } else {
+                    success = runner != null ? runner.execute(process, processInData) :
+                            process.execute(processInData);
+                }
+                if (success && !(process instanceof ProcessMapper)) {
+                    bufferStreams(process);
+                }
+                //The intermediate tables are dropped after the execution, so they can't be restored from a checkpoint
+                if (success && checkpointStore != null &&
+                        process.getOutputs().stream().noneMatch(IOutput::isIntermediate)) {
+                    checkpointStore.save(process, processInData, process.getResults());
+                }
+            }
+        } finally {
+            if (span != null) {
+                Map<String, Object> args = ExecutionTracer.getArgs(processInData, process.getResults(), success);
+                args.put("checkpoint", checkpoint != null);
+                activeTracer.endSpan(span, args);
+            }
+        }
+        //Do the after check
+        node.afterChecks.forEach(check -> runCheck(check, "after", processInData, activeTracer));
+        //Register the produced intermediate tables which are not mapper results and release the consumed ones
+        if (success) {
+            for (IOutput output : process.getOutputs()) {
+                String name = output.getName().orElse(null);
+                if (output.isIntermediate() && !node.targets.getOrDefault(name, Optional.empty()).isPresent()) {
+                    intermediates.register(IntermediateTables.getKey(process.getIdentifier(), name),
+                            process.getResults().get(name), node.consumers.getOrDefault(name, 0));
+                }
+            }
+        }
+        for (InputSlot slot : node.slots) {
+            if (slot.producer != null && slot.producer.getProcess().isPresent()) {
+                intermediates.release(IntermediateTables.getKey(slot.producer.getProcess().get().getIdentifier(),
+                        slot.producer.getName().orElse(null)));
+            }
+        }
+    }
+
+    /**
+     * Replace the {@link Stream} results of the streamed outputs of the given {@link IProcess} by a
+     * {@link Channel} buffered stream, so the source is read while its consumer processes the elements. The primitive
+     * streams are kept as they are, the buffering would box their values.
+     *
+     * @param process Executed {@link IProcess}.
+     */
+    private static void bufferStreams(@NotNull IProcess process) {
+        for (IOutput output : process.getOutputs()) {
+            String name = output.getName().orElse(null);
+            Object value = process.getResults().get(name);
+            if (output.isStreamed() && value instanceof Stream) {
+                process.getResults().put(name, Channel.buffer((Stream<?>) value, output.getBufferSize()));
+            }
+        }
+    }
+
+    /**
+     * Close the {@link BaseStream} inputs of the given {@link PlanNode} coming from the streamed outputs of other
+     * processes, so their source is released even if the consumer has not read them until their end.
+     *
+     * @param node          Completed {@link PlanNode}.
+     * @param processInData Input data of the {@link IProcess} of the node.
+     */
+    private static void closeStreams(@NotNull PlanNode node, @NotNull Map<String, Object> processInData) {
+        for (InputSlot slot : node.slots) {
+            Object value = processInData.get(slot.name);
+            if (slot.producer instanceof IOutput && ((IOutput) slot.producer).isStreamed() &&
+                    value instanceof BaseStream) {
+                try {
+                    ((BaseStream<?, ?>) value).close();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unable to close the streamed input '" + slot.name + "'.", e);
                 }
             }
         }
     }
 
+    /**
+     * Run the given check, recording its span if the tracing is enabled.
+     *
+     * @param check         {@link IProcessCheck} to run.
+     * @param type          Type of the check, 'before' or 'after'.
+     * @param processInData Input data of the checked process.
+     * @param activeTracer  Tracer recording the execution spans, may be null.
+     */
+    private void runCheck(@NotNull IProcessCheck check, @NotNull String type,
+                          @NotNull LinkedHashMap<String, Object> processInData,
+                          @Nullable IExecutionTracer activeTracer) {
+        if (activeTracer == null) {
+            check.run(processInData);
+            return;
+        }
+        Object span = activeTracer.startSpan(type + " check of " +
+                check.getProcess().map(ExecutionTracer::getName).orElse("?"), "check");
+        boolean success = false;
+        try {
+            success = check.run(processInData);
+        } finally {
+            activeTracer.endSpan(span, ExecutionTracer.getArgs(processInData, null, success));
+        }
+    }
+
+    @NotNull
+    @Override
+    public IProcessMapper executor(@Nullable Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public IProcessMapper checkpoint(@Nullable File directory) {
+        this.checkpointStore = directory == null ? null : new CheckpointStore(directory);
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public IProcessMapper budget(@NotNull String resource, long amount) {
+        if (amount < 0) {
+            budgets.remove(resource);
+        } else {
+            budgets.put(resource, amount);
+        }
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public IProcessMapper runner(@Nullable IProcessRunner runner) {
+        this.runner = runner;
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public IProcessMapper tracer(@Nullable IExecutionTracer tracer) {
+        this.tracer = tracer;
+        return this;
+    }
+
+    /**
+     * Store the result of the {@link IProcess} execution.
+     *
+     * @param node {@link PlanNode} of the {@link IProcess} which results should be stored.
+     */
+    private void storeResults(PlanNode node) {
+        for (Map.Entry<String, Object> entry : node.process.getResults().entrySet()) {
+            Optional<String> target = node.targets.get(entry.getKey());
+            if (target == null) {
+                String alias = getAlias(entry.getKey(), node.process);
+                target = Optional.ofNullable(alias != null ? alias :
+                        node.linkedOutputs.contains(entry.getKey()) ? null : entry.getKey());
+                node.targets.put(entry.getKey(), target);
+            }
+            target.ifPresent(key -> results.put(key, entry.getValue()));
+        }
+    }
+
     @NotNull
     @Override
     public Optional<String> getTitle() {
@@ -420,6 +797,7 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
     @NotNull
     @Override
     public ILinker link(@NotNull IInOutPut... inOutPuts) {
+        plan = null;
         Linker linker = new Linker(inOutPuts);
         linkerList.add(linker);
         return linker;
@@ -428,6 +806,7 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
     @NotNull
     @Override
     public ICheckDataBuilder before(@NotNull IProcess process) {
+        plan = null;
         IProcessCheck processCheck = new ProcessCheck(process);
         beforeList.add(processCheck);
         return new CheckDataBuilder(processCheck);
@@ -436,6 +815,7 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
     @NotNull
     @Override
     public ICheckDataBuilder after(@NotNull IProcess process) {
+        plan = null;
         IProcessCheck processCheck = new ProcessCheck(process);
         afterList.add(processCheck);
         return new CheckDataBuilder(processCheck);
@@ -490,4 +870,93 @@ public class ProcessMapper implements IProcessMapper, GroovyObject, GroovyInterc
     public void setMetaClass(@Nullable MetaClass metaClass) {
         this.metaClass = metaClass == null ? InvokerHelper.getMetaClass(this.getClass()) : metaClass;
     }
+
+    /**
+     * Node of the compiled execution plan.
+     */
+    private static final class PlanNode {
+        /**
+         * {@link IProcess} to execute.
+         */
+        private final IProcess process;
+        /**
+         * Sources of the inputs of the process, in the process input order.
+         */
+        private final List<InputSlot> slots = new ArrayList<>();
+        /**
+         * Key of each result in the mapper results, empty if the result should not be stored.
+         */
+        private final Map<String, Optional<String>> targets = new HashMap<>();
+        /**
+         * Names of the outputs linked to an other process input.
+         */
+        private Set<String> linkedOutputs = Collections.emptySet();
+        /**
+         * Nodes producing the data of the inputs.
+         */
+        private final List<PlanNode> predecessors = new ArrayList<>();
+        /**
+         * Number of process inputs consuming each output.
+         */
+        private final Map<String, Integer> consumers = new HashMap<>();
+        /**
+         * Length of the longest chain of nodes starting from this one.
+         */
+        private int priority = 0;
+        /**
+         * Checks to do before the execution.
+         */
+        private final List<IProcessCheck> beforeChecks = new ArrayList<>();
+        /**
+         * Checks to do after the execution.
+         */
+        private final List<IProcessCheck> afterChecks = new ArrayList<>();
+
+        /**
+         * Main constructor.
+         *
+         * @param process {@link IProcess} to execute.
+         */
+        private PlanNode(@NotNull IProcess process) {
+            this.process = process;
+        }
+    }
+
+    /**
+     * Source of the data of a process input.
+     */
+    private static final class InputSlot {
+        /**
+         * Name of the input.
+         */
+        private final String name;
+        /**
+         * Key of the data in the mapper input data.
+         */
+        private final String dataKey;
+        /**
+         * Output of an other process producing the data, null if the data comes from the mapper input data.
+         */
+        @Nullable
+        private final IInOutPut producer;
+        /**
+         * Process input.
+         */
+        private final IInput input;
+
+        /**
+         * Main constructor.
+         *
+         * @param name     Name of the input.
+         * @param dataKey  Key of the data in the mapper input data.
+         * @param producer Output of an other process producing the data.
+         * @param input    Process input.
+         */
+        private InputSlot(String name, String dataKey, @Nullable IInOutPut producer, @NotNull IInput input) {
+            this.name = name;
+            this.dataKey = dataKey;
+            this.producer = producer;
+            this.input = input;
+        }
+    }
 }
@@ -0,0 +1,540 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
+import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Worker executing the processes sent by a {@link ProcessCoordinator}. The worker listens on a local socket and
+ * resolves each received process by its identifier and version in the factories of its {@link IProcessManager},
+ * which should thus have the same factories registered as the coordinator.
+ *
+ * Only the {@link Serializable} input values are sent by the coordinator. The others, like the data sources, are
+ * replaced by the local inputs of the worker set with {@link #input(String, Object)}, so each worker can use its own
+ * H2GIS file or PostGIS connection. Likewise, only the {@link Serializable} results are sent back.
+ *
+ * The worker only listens on the loopback address and only deserializes the tasks and the value types of its
+ * allow-list, the {@link #DEFAULT_TYPES} and the ones added with {@link #allow(Class)}, through a
+ * {@link FilteredObjectInputStream} which also bounds the size of each task. The coordinator connections idle for
+ * longer than the timeout are closed.
+ *
+ * The worker can be run in its own JVM with the {@link #main(String[])} method.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ProcessWorker implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessWorker.class);
+
+    /**
+     * Message printed on the standard output by {@link #main(String[])} once the worker is listening, followed by
+     * its port.
+     */
+    public static final String READY_MESSAGE = "Process worker listening on port ";
+    /**
+     * Default delay in milliseconds after which an idle coordinator connection is closed.
+     */
+    public static final int DEFAULT_TIMEOUT = 10 * 60 * 1000;
+    /**
+     * Value types accepted by default in the serialized tasks and results.
+     */
+    public static final Set<Class<?>> DEFAULT_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Number.class, Byte.class, Short.class, Integer.class,
+            Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, HashMap.class,
+            LinkedHashMap.class, ArrayList.class)));
+
+    /**
+     * {@link IProcessManager} containing the factories of the processes to execute.
+     */
+    @NotNull
+    private final IProcessManager processManager;
+    /**
+     * Local input values, used for the inputs not sent by the coordinator.
+     */
+    @NotNull
+    private final Map<String, Object> localInputs = new ConcurrentHashMap<>();
+    /**
+     * Value types accepted in the received tasks.
+     */
+    @NotNull
+    private final Set<Class<?>> allowedTypes = ConcurrentHashMap.newKeySet();
+    /**
+     * Delay in milliseconds after which an idle coordinator connection is closed.
+     */
+    private volatile int timeout = DEFAULT_TIMEOUT;
+    /**
+     * Factory identifier of the already resolved processes, by process identifier.
+     */
+    @NotNull
+    private final Map<String, String> factoryIds = new ConcurrentHashMap<>();
+    /**
+     * Sockets of the connected coordinators.
+     */
+    @NotNull
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    /**
+     * Latch released when the worker is closed.
+     */
+    @NotNull
+    private final CountDownLatch closed = new CountDownLatch(1);
+    /**
+     * Listening socket, null until started.
+     */
+    @Nullable
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Main constructor.
+     *
+     * @param processManager {@link IProcessManager} containing the factories of the processes to execute.
+     */
+    public ProcessWorker(@NotNull IProcessManager processManager) {
+        this.processManager = processManager;
+        this.allowedTypes.addAll(DEFAULT_TYPES);
+    }
+
+    /**
+     * Add the given type to the value types accepted in the received tasks. The coordinators should allow the same
+     * types, the values of the other types being kept local.
+     *
+     * @param type {@link Serializable} type to accept.
+     * @return The {@link ProcessWorker} itself.
+     */
+    @NotNull
+    public ProcessWorker allow(@NotNull Class<? extends Serializable> type) {
+        allowedTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Set the delay after which an idle coordinator connection is closed.
+     *
+     * @param timeout Delay in milliseconds, 0 to never close the idle connections.
+     * @return The {@link ProcessWorker} itself.
+     */
+    @NotNull
+    public ProcessWorker timeout(int timeout) {
+        this.timeout = Math.max(0, timeout);
+        return this;
+    }
+
+    /**
+     * Set the local value of an input, used when the coordinator does not send it.
+     *
+     * @param name  Name of the input.
+     * @param value Value of the input, null to remove it.
+     * @return The {@link ProcessWorker} itself.
+     */
+    @NotNull
+    public ProcessWorker input(@NotNull String name, @Nullable Object value) {
+        if (value == null) {
+            localInputs.remove(name);
+        } else {
+            localInputs.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Start listening on the given port of the loopback address.
+     *
+     * @param port Port to listen, 0 to use any free port.
+     * @return The listened port, -1 if the worker can't be started.
+     */
+    public synchronized int start(int port) {
+        if (serverSocket != null) {
+            LOGGER.error("The process worker is already started.");
+            return -1;
+        }
+        ServerSocket socket;
+        try {
+            socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            LOGGER.error("Unable to listen on the port " + port + ".", e);
+            return -1;
+        }
+        serverSocket = socket;
+        Thread acceptor = new Thread(() -> accept(socket), "process-worker-" + socket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Return true if the worker is listening, false otherwise.
+     *
+     * @return True if the worker is listening, false otherwise.
+     */
+    public boolean isRunning() {
+        ServerSocket socket = serverSocket;
+        return socket != null && !socket.isClosed();
+    }
+
+    /**
+     * Wait until the worker is closed.
+     *
+     * @throws InterruptedException Exception thrown if the current thread is interrupted while waiting.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        ServerSocket socket = serverSocket;
+        if (socket != null) {
+            closeQuietly(socket);
+        }
+        sockets.forEach(ProcessWorker::closeQuietly);
+        closed.countDown();
+    }
+
+    /**
+     * Accept the coordinator connections, each one being served by its own thread.
+     *
+     * @param socket Listening socket.
+     */
+    private void accept(@NotNull ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connection.setSoTimeout(timeout);
+                sockets.add(connection);
+                Thread thread = new Thread(() -> serve(connection), "process-worker-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.error("Unable to accept a coordinator connection.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute the tasks received on the given connection until it is closed.
+     *
+     * @param connection Coordinator connection.
+     */
+    private void serve(@NotNull Socket connection) {
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            out.flush();
+            FilteredObjectInputStream in = new FilteredObjectInputStream(
+                    new BufferedInputStream(connection.getInputStream()), allowedTypes,
+                    FilteredObjectInputStream.MAX_MESSAGE_SIZE);
+            while (true) {
+                Object task;
+                try {
+                    task = in.readMessage();
+                } catch (EOFException e) {
+                    break;
+                } catch (SocketTimeoutException e) {
+                    LOGGER.debug("Idle coordinator connection closed.");
+                    break;
+                }
+                out.writeObject(execute((RemoteTask) task));
+                out.flush();
+                out.reset();
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            if (isRunning()) {
+                LOGGER.warn("Coordinator connection lost.", e);
+            }
+        } finally {
+            sockets.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Execute the given task.
+     *
+     * @param task {@link RemoteTask} to execute.
+     * @return The {@link RemoteResult} of the execution.
+     */
+    @NotNull
+    RemoteResult execute(@NotNull RemoteTask task) {
+        IProcess process = findProcess(task.identifier, task.version);
+        if (process == null) {
+            return new RemoteResult(false, new HashMap<>(), "Unable to find the process '" + task.identifier +
+                    "' with the version '" + task.version + "'.");
+        }
+        LinkedHashMap<String, Object> inputData = new LinkedHashMap<>(task.inputs);
+        for (IInput input : process.getInputs()) {
+            String name = input.getName().orElse(null);
+            if (name != null && !inputData.containsKey(name) && localInputs.containsKey(name)) {
+                inputData.put(name, localInputs.get(name));
+            }
+        }
+        try {
+            boolean success = process.execute(inputData);
+            return new RemoteResult(success, serializable(process.getResults(), allowedTypes), null);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error while executing the process '" + task.identifier + "'.", e);
+            return new RemoteResult(false, new HashMap<>(), e.toString());
+        }
+    }
+
+    /**
+     * Return a new instance of the process with the given identifier and version from the factories of the
+     * {@link IProcessManager}.
+     *
+     * @param identifier Identifier of the process.
+     * @param version    Version of the process, null for any version.
+     * @return A new instance of the process, null if not found.
+     */
+    @Nullable
+    private IProcess findProcess(@NotNull String identifier, @Nullable String version) {
+        String factoryId = factoryIds.get(identifier);
+        if (factoryId != null) {
+            Optional<IProcess> process = processManager.factory(factoryId).getProcess(identifier, version);
+            if (process.isPresent()) {
+                return process.get();
+            }
+        }
+        for (String id : processManager.factoryIds()) {
+            Optional<IProcess> process = processManager.factory(id).getProcess(identifier, version);
+            if (process.isPresent()) {
+                factoryIds.put(identifier, id);
+                return process.get();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return a copy of the given map containing only its values of the allowed types.
+     *
+     * @param map          Map to copy.
+     * @param allowedTypes Allowed value types.
+     * @return The copy with only the values of the allowed types.
+     */
+    @NotNull
+    static LinkedHashMap<String, Object> serializable(@NotNull Map<String, Object> map,
+                                                      @NotNull Set<Class<?>> allowedTypes) {
+        LinkedHashMap<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> {
+            if (isAllowed(value, allowedTypes)) {
+                copy.put(key, value);
+            } else {
+                LOGGER.debug("The value of '" + key + "' is not of an allowed type, it is not sent.");
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * Return true if the given value, and the elements of the collections, maps and arrays it contains, are of the
+     * allowed types.
+     *
+     * @param value        Value to check.
+     * @param allowedTypes Allowed value types.
+     * @return True if the value can be sent, false otherwise.
+     */
+    private static boolean isAllowed(@Nullable Object value, @NotNull Set<Class<?>> allowedTypes) {
+        if (value == null) {
+            return true;
+        }
+        if (!isAllowed(value.getClass(), allowedTypes)) {
+            return false;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().allMatch(element -> isAllowed(element, allowedTypes));
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream().allMatch(entry ->
+                    isAllowed(entry.getKey(), allowedTypes) && isAllowed(entry.getValue(), allowedTypes));
+        } else if (value instanceof Object[]) {
+            return Arrays.stream((Object[]) value).allMatch(element -> isAllowed(element, allowedTypes));
+        }
+        return true;
+    }
+
+    /**
+     * Return true if the given class, or the component class of an array, is a primitive or an allowed type.
+     *
+     * @param clazz        Class to check.
+     * @param allowedTypes Allowed value types.
+     * @return True if the class is allowed, false otherwise.
+     */
+    static boolean isAllowed(@NotNull Class<?> clazz, @NotNull Set<Class<?>> allowedTypes) {
+        Class<?> type = clazz;
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return type.isPrimitive() || type == RemoteTask.class || type == RemoteResult.class ||
+                allowedTypes.contains(type);
+    }
+
+    /**
+     * Close the given {@link Closeable} ignoring the errors.
+     *
+     * @param closeable {@link Closeable} to close.
+     */
+    static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close '" + closeable + "'.", e);
+            }
+        }
+    }
+
+    /**
+     * Run a worker in the current JVM. The first argument is the port to listen, 0 for any free port, and the next
+     * ones are the names of the {@link GroovyProcessFactory} classes to register, lazily. Once listening, the
+     * {@link #READY_MESSAGE} followed by the port is printed on the standard output. The worker stops when its
+     * standard input is closed, so it does not outlive the JVM which has launched it.
+     *
+     * @param args Port to listen and names of the {@link GroovyProcessFactory} classes.
+     * @throws Exception Exception thrown if a factory class can't be found or if the worker can't be started.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage : ProcessWorker port [factoryClass ...]");
+        }
+        ProcessManager processManager = ProcessManager.getProcessManager();
+        for (int i = 1; i < args.length; i++) {
+            Class<? extends GroovyProcessFactory> clazz = Class.forName(args[i]).asSubclass(GroovyProcessFactory.class);
+            processManager.registerFactory(clazz.getSimpleName(),
+                    new LazyProcessFactory(clazz.getSimpleName(), () -> clazz));
+        }
+        ProcessWorker worker = new ProcessWorker(processManager);
+        int port = worker.start(Integer.parseInt(args[0]));
+        if (port < 0) {
+            throw new IOException("Unable to start the process worker.");
+        }
+        Thread watcher = new Thread(() -> {
+            try {
+                while (System.in.read() >= 0) {
+                    //Wait for the end of the standard input
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Standard input closed.", e);
+            }
+            worker.close();
+        }, "process-worker-stdin");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println(READY_MESSAGE + port);
+        System.out.flush();
+        worker.awaitClose();
+    }
+
+    /**
+     * Execution request sent by the coordinator.
+     */
+    static final class RemoteTask implements Serializable {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Identifier of the process.
+         */
+        private final String identifier;
+        /**
+         * Version of the process, null for any version.
+         */
+        private final String version;
+        /**
+         * Serializable input data.
+         */
+        private final LinkedHashMap<String, Object> inputs;
+
+        /**
+         * Main constructor.
+         *
+         * @param identifier Identifier of the process.
+         * @param version    Version of the process, null for any version.
+         * @param inputs     Serializable input data.
+         */
+        RemoteTask(@NotNull String identifier, @Nullable String version, @NotNull LinkedHashMap<String, Object> inputs) {
+            this.identifier = identifier;
+            this.version = version;
+            this.inputs = inputs;
+        }
+    }
+
+    /**
+     * Execution result sent back by the worker.
+     */
+    static final class RemoteResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+        /**
+         * True if the execution is successful.
+         */
+        final boolean success;
+        /**
+         * Serializable results.
+         */
+        final LinkedHashMap<String, Object> results;
+        /**
+         * Error message, null if there is none.
+         */
+        final String error;
+
+        /**
+         * Main constructor.
+         *
+         * @param success True if the execution is successful.
+         * @param results Serializable results.
+         * @param error   Error message, null if there is none.
+         */
+        RemoteResult(boolean success, @NotNull Map<String, Object> results, @Nullable String error) {
+            this.success = success;
+            this.results = new LinkedHashMap<>(results);
+            this.error = error;
+        }
+    }
+}
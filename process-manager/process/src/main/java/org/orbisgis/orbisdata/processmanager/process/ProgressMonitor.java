@@ -42,22 +42,35 @@ import org.orbisgis.orbisdata.processmanager.api.IProgressMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Implementation of the {@link IProgressMonitor} interface.
  *
+ * The monitor can be shared by concurrent workers : the steps are counted with a {@link LongAdder}, the aggregated
+ * progress is cached and only computed again once a step of the monitor or of one of its children has changed, and
+ * the automatic logging is throttled to one message per log interval.
+ *
  * @author Erwan Bocher (CNRS)
  * @author Sylvain PALOMINOS (UBS Lab-STICC 2020)
  */
 public class ProgressMonitor implements IProgressMonitor {
 
     /**
-     * Actual step of the progression.
+     * Default minimum interval between two automatic logs in milliseconds.
      */
-    private int step;
+    public static final long DEFAULT_LOG_INTERVAL = 1000;
+
+    /**
+     * Step counter of the progression.
+     */
+    @NotNull
+    private final LongAdder steps;
     /**
      * Maximum step count.
      */
@@ -89,7 +102,24 @@ public class ProgressMonitor implements IProgressMonitor {
     /**
      * Indicates if the progression has end.
      */
-    private boolean end;
+    private volatile boolean end;
+    /**
+     * True if the cached progress should be computed again.
+     */
+    private volatile boolean dirty;
+    /**
+     * Cached progress.
+     */
+    private volatile double progress;
+    /**
+     * Minimum interval between two automatic logs in nanoseconds.
+     */
+    private volatile long logInterval;
+    /**
+     * Time of the last automatic log in nanoseconds.
+     */
+    @NotNull
+    private final AtomicLong lastLog;
 
     /**
      * Returns a child {@link IProgressMonitor} with the given name as task name, the given maximum as maximum
@@ -103,12 +133,15 @@ public class ProgressMonitor implements IProgressMonitor {
     public ProgressMonitor(@Nullable IProgressMonitor parent, @Nullable String taskName, int maximum, boolean autoLog){
         this.name = taskName == null ? "task_" + UUID.randomUUID().toString() : taskName;
         this.maximum = maximum;
-        this.step = 0;
-        this.children = new ArrayList<>();
+        this.steps = new LongAdder();
+        this.children = new CopyOnWriteArrayList<>();
         this.autoLog = autoLog;
         this.logger = LoggerFactory.getLogger(ProgressMonitor.class);
         this.parent = parent;
         this.end = false;
+        this.dirty = true;
+        this.logInterval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LOG_INTERVAL);
+        this.lastLog = new AtomicLong(System.nanoTime() - logInterval);
     }
 
     /**
@@ -190,39 +223,90 @@ public class ProgressMonitor implements IProgressMonitor {
         this(null, null, -1, false);
     }
 
+    /**
+     * Set the minimum interval between two automatic logs of the progression. The explicit calls to {@link #log()}
+     * are not throttled.
+     *
+     * @param interval Minimum interval in milliseconds, 0 to log every step.
+     */
+    public void setLogInterval(long interval) {
+        this.logInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0, interval));
+    }
+
     @Override
     public void incrementStep() {
-        if(step < maximum) {
-            this.step++;
-        }
-        if(maximum != -1 && step >= maximum){
-            end = true;
+        if(maximum != -1) {
+            steps.increment();
+            invalidate(false);
         }
         if(autoLog) {
-            if(parent != null) {
-                parent.log();
-            }
-            else {
-                log();
+            autoLog(false);
+        }
+    }
+
+    /**
+     * Return the current step, bounded by the maximum step count.
+     *
+     * @return The current step.
+     */
+    private long getStep() {
+        return maximum == -1 ? 0 : Math.min(steps.sum(), maximum);
+    }
+
+    /**
+     * Invalidate the cached progress of this monitor and of its parents. Unless forced, the propagation stops at the
+     * first monitor already invalidated so that concurrent increments mostly read the flag.
+     *
+     * @param force True to invalidate all the parents, false to stop at the first invalidated one.
+     */
+    private void invalidate(boolean force) {
+        if(force || !dirty) {
+            dirty = true;
+            if(parent instanceof ProgressMonitor) {
+                ((ProgressMonitor) parent).invalidate(force);
             }
         }
     }
 
     @Override
     public double getProgress() {
+        if(!dirty){
+            return progress;
+        }
+        dirty = false;
+        double value = computeProgress();
+        progress = value;
+        return value;
+    }
+
+    /**
+     * Compute the progress of the monitor from its step and the progress of its children.
+     *
+     * @return The progress of the monitor.
+     */
+    private double computeProgress() {
         if(end){
             return 100;
         }
         if(maximum == -1){
             return -1;
         }
-        if(children.stream().map(IProgressMonitor::getProgress).anyMatch(d -> d==-1)){
+        long step = getStep();
+        if(step >= maximum){
+            end = true;
+            return 100;
+        }
+        double childrenProgress = 0;
+        boolean unknown = false;
+        for(IProgressMonitor child : children) {
+            double childProgress = child.getProgress();
+            unknown |= childProgress == -1;
+            childrenProgress += childProgress;
+        }
+        if(unknown) {
             return -1;
         }
-        double tot = 100.0 /
-                (children.size() + maximum) *
-                (children.stream().map(IProgressMonitor::getProgress).reduce(0.0, Double::sum)/100 +step);
-        return tot;
+        return 100.0 / (children.size() + maximum) * (childrenProgress / 100 + step);
     }
 
     @Override
@@ -275,8 +359,10 @@ public class ProgressMonitor implements IProgressMonitor {
     @Override
     @NotNull
     public IProgressMonitor getSubProgress(@Nullable String taskName, int maximum, boolean autoLog) {
-        IProgressMonitor pm = new ProgressMonitor(this, taskName, maximum, autoLog);
+        ProgressMonitor pm = new ProgressMonitor(this, taskName, maximum, autoLog);
+        pm.logInterval = this.logInterval;
         children.add(pm);
+        invalidate(true);
         return pm;
     }
 
@@ -290,11 +376,34 @@ public class ProgressMonitor implements IProgressMonitor {
         }
     }
 
+    /**
+     * Log the progression of the root monitor if the log interval of the root monitor has elapsed since its last
+     * automatic log. Only one of the concurrent callers logs.
+     *
+     * @param force True to log even if the log interval has not elapsed.
+     */
+    private void autoLog(boolean force) {
+        if(parent instanceof ProgressMonitor) {
+            ((ProgressMonitor) parent).autoLog(force);
+        }
+        else if(parent != null) {
+            parent.log();
+        }
+        else {
+            long now = System.nanoTime();
+            long last = lastLog.get();
+            if((force || now - last >= logInterval) && lastLog.compareAndSet(last, now)) {
+                log();
+            }
+        }
+    }
+
     @Override
     public void end() {
         end = true;
+        invalidate(true);
         if(autoLog){
-            log();
+            autoLog(true);
         }
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Scheduler of a graph of dependent tasks on an {@link Executor} within resource budgets. A task becomes ready once
+ * all its predecessors are completed. The ready tasks are started by decreasing priority as long as their resources
+ * are available, a lower priority task being started when a higher one does not fit. A task needing more than a
+ * budget is started once all the budget is available. The completion callbacks are run from the calling thread.
+ *
+ * @param <T> Type of the tasks.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+final class ResourceScheduler<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceScheduler.class);
+
+    /**
+     * {@link Executor} running the tasks.
+     */
+    @NotNull
+    private final Executor executor;
+    /**
+     * Budget of each resource, the resources without budget are not limited.
+     */
+    @NotNull
+    private final Map<String, Long> budgets;
+
+    /**
+     * Main constructor.
+     *
+     * @param executor {@link Executor} running the tasks.
+     * @param budgets  Budget of each resource.
+     */
+    ResourceScheduler(@NotNull Executor executor, @NotNull Map<String, Long> budgets) {
+        this.executor = executor;
+        this.budgets = budgets;
+    }
+
+    /**
+     * Run all the given tasks.
+     *
+     * @param tasks        Tasks to run, in their default order.
+     * @param predecessors Function returning the tasks which should be completed before a task.
+     * @param needs        Function returning the resources needed by a task.
+     * @param priority     Function returning the priority of a task, the highest ones being started first.
+     * @param action       Action running a task.
+     * @param onComplete   Callback of each successfully completed task, run from the calling thread.
+     * @return True if all the tasks have been successfully completed, false otherwise.
+     */
+    boolean run(@NotNull List<T> tasks, @NotNull Function<T, Collection<T>> predecessors,
+                @NotNull Function<T, Map<String, Long>> needs, @NotNull ToIntFunction<T> priority,
+                @NotNull Consumer<T> action, @NotNull Consumer<T> onComplete) {
+        Map<T, Integer> order = new HashMap<>();
+        Map<T, Integer> pending = new HashMap<>();
+        Map<T, List<T>> successors = new HashMap<>();
+        for (T task : tasks) {
+            order.put(task, order.size());
+            Collection<T> previous = predecessors.apply(task);
+            pending.put(task, previous.size());
+            previous.forEach(p -> successors.computeIfAbsent(p, k -> new ArrayList<>()).add(task));
+        }
+        Comparator<T> comparator = Comparator.<T>comparingInt(t -> -priority.applyAsInt(t))
+                .thenComparingInt(order::get);
+        List<T> ready = new ArrayList<>();
+        tasks.stream().filter(t -> pending.get(t) == 0).forEach(ready::add);
+        Map<String, Long> available = new HashMap<>(budgets);
+        BlockingQueue<Completion<T>> completions = new LinkedBlockingQueue<>();
+        int running = 0;
+        int completed = 0;
+        boolean failed = false;
+        try {
+            while (completed < tasks.size()) {
+                if (!failed) {
+                    ready.sort(comparator);
+                    Iterator<T> iterator = ready.iterator();
+                    while (iterator.hasNext()) {
+                        T task = iterator.next();
+                        Map<String, Long> taskNeeds = needs.apply(task);
+                        if (running > 0 && !fits(taskNeeds, available)) {
+                            continue;
+                        }
+                        iterator.remove();
+                        acquire(taskNeeds, available, -1);
+                        running++;
+                        CompletableFuture.runAsync(() -> action.accept(task), executor)
+                                .whenComplete((v, e) -> completions.add(new Completion<>(task, e)));
+                    }
+                }
+                if (running == 0) {
+                    break;
+                }
+                Completion<T> completion = completions.take();
+                running--;
+                acquire(needs.apply(completion.task), available, 1);
+                if (completion.error != null) {
+                    LOGGER.error("Error while executing a scheduled task.", completion.error);
+                    failed = true;
+                    continue;
+                }
+                onComplete.accept(completion.task);
+                completed++;
+                for (T successor : successors.getOrDefault(completion.task, Collections.emptyList())) {
+                    if (pending.merge(successor, -1, Integer::sum) == 0) {
+                        ready.add(successor);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("The scheduled execution has been interrupted.", e);
+            return false;
+        }
+        if (!failed && completed < tasks.size()) {
+            LOGGER.error("Some tasks can't be scheduled because of cyclic dependencies.");
+        }
+        return !failed && completed == tasks.size();
+    }
+
+    /**
+     * Return true if the given needs fit in the available resources, the needs being bounded by the budgets.
+     *
+     * @param needs     Resources needed.
+     * @param available Available resources.
+     * @return True if the needs fit, false otherwise.
+     */
+    private boolean fits(@NotNull Map<String, Long> needs, @NotNull Map<String, Long> available) {
+        for (Map.Entry<String, Long> need : needs.entrySet()) {
+            Long budget = budgets.get(need.getKey());
+            if (budget != null && Math.min(need.getValue(), budget) > available.get(need.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take or give back the given needs from the available resources, the needs being bounded by the budgets.
+     *
+     * @param needs     Resources needed.
+     * @param available Available resources.
+     * @param sign      -1 to take the resources, 1 to give them back.
+     */
+    private void acquire(@NotNull Map<String, Long> needs, @NotNull Map<String, Long> available, int sign) {
+        for (Map.Entry<String, Long> need : needs.entrySet()) {
+            Long budget = budgets.get(need.getKey());
+            if (budget != null) {
+                available.merge(need.getKey(), sign * Math.min(need.getValue(), budget), Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Completion of a task.
+     *
+     * @param <T> Type of the task.
+     */
+    private static final class Completion<T> {
+        /**
+         * Completed task.
+         */
+        private final T task;
+        /**
+         * Error raised by the task, null if successful.
+         */
+        private final Throwable error;
+
+        /**
+         * Main constructor.
+         *
+         * @param task  Completed task.
+         * @param error Error raised by the task, null if successful.
+         */
+        private Completion(@NotNull T task, Throwable error) {
+            this.task = task;
+            this.error = error;
+        }
+    }
+}
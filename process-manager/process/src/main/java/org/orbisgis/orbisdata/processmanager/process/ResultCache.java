@@ -0,0 +1,398 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IResultCache;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Implementation of the {@link IResultCache} interface based on an access ordered {@link LinkedHashMap}. The input
+ * fingerprint is a SHA-256 hash of the input names and values : the values with a value semantic (strings, numbers,
+ * booleans, enums, dates, arrays, collections and maps of them) are hashed from their content, the other ones are
+ * kept in the key through {@link WeakReference}s and compared by reference on lookup. The processes are identified by
+ * the identifier of their source process and their version, so all the instances of a process share their entries.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ResultCache implements IResultCache {
+
+    /**
+     * Maximum number of entries.
+     */
+    private final int maxSize;
+    /**
+     * Cached results with the process key as key.
+     */
+    private final LinkedHashMap<Key, Map<String, Object>> entries;
+    /**
+     * Number of cache hits.
+     */
+    private long hitCount = 0;
+    /**
+     * Number of cache misses.
+     */
+    private long missCount = 0;
+    /**
+     * Number of evicted entries.
+     */
+    private long evictionCount = 0;
+
+    /**
+     * Main constructor.
+     *
+     * @param maxSize Maximum number of entries, should be strictly positive.
+     */
+    public ResultCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache should be strictly positive.");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Key, Map<String, Object>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Map<String, Object>> eldest) {
+                if (size() > ResultCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached results of the execution of the given {@link IProcess} with the given input data.
+     *
+     * @param process   Executed {@link IProcess}.
+     * @param inputData Input data of the execution.
+     * @return A copy of the cached results, null if there is none.
+     */
+    @Nullable
+    public synchronized Map<String, Object> get(@NotNull IProcess process, @NotNull Map<String, Object> inputData) {
+        Map<String, Object> results = entries.get(getKey(process, inputData));
+        if (results == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return new HashMap<>(results);
+    }
+
+    /**
+     * Store the results of the execution of the given {@link IProcess} with the given input data.
+     *
+     * @param process   Executed {@link IProcess}.
+     * @param inputData Input data of the execution.
+     * @param results   Results of the execution.
+     */
+    public synchronized void put(@NotNull IProcess process, @NotNull Map<String, Object> inputData,
+                                 @NotNull Map<String, Object> results) {
+        entries.keySet().removeIf(Key::isCleared);
+        entries.put(getKey(process, inputData), new HashMap<>(results));
+    }
+
+    /**
+     * Return the cache key of the given {@link IProcess} execution.
+     *
+     * @param process   Executed {@link IProcess}.
+     * @param inputData Input data of the execution.
+     * @return The cache key.
+     */
+    @NotNull
+    private static Key getKey(@NotNull IProcess process, @NotNull Map<String, Object> inputData) {
+        List<Object> identities = new ArrayList<>();
+        String fingerprint = getSourceIdentifier(process) + "\u0000" + process.getVersion().orElse("") + "\u0000" +
+                fingerprint(inputData, identities);
+        return new Key(fingerprint, identities);
+    }
+
+    /**
+     * Return the identifier of the source of the given {@link IProcess}, which is shared by all its instances, unlike
+     * {@link IProcess#getIdentifier()}.
+     *
+     * @param process {@link IProcess}.
+     * @return The identifier of the source process.
+     */
+    @NotNull
+    static String getSourceIdentifier(@NotNull IProcess process) {
+        return process instanceof Process ? ((Process) process).getSourceIdentifier() : process.getIdentifier();
+    }
+
+    /**
+     * Return the SHA-256 fingerprint of the given input data.
+     *
+     * @param inputData  Input data.
+     * @param identities List filled with the values without a value semantic, which are fingerprinted from their
+     *                   identity. If null, the fingerprint can't be computed if there is such a value.
+     * @return The hexadecimal fingerprint, null if it can't be computed.
+     */
+    @Nullable
+    static String fingerprint(@NotNull Map<String, Object> inputData, @Nullable List<Object> identities) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(inputData).entrySet()) {
+            builder.append(entry.getKey()).append('=');
+            if (!appendValue(builder, entry.getValue(), identities)) {
+                return null;
+            }
+            builder.append(';');
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Append the canonical representation of the given value to the given {@link StringBuilder}.
+     *
+     * @param builder  {@link StringBuilder} to fill.
+     * @param value    Value to append.
+     * @param identities List filled with the values represented by their identity, null to reject them.
+     * @return True if the value has been appended, false otherwise.
+     */
+    private static boolean appendValue(@NotNull StringBuilder builder, @Nullable Object value,
+                                       @Nullable List<Object> identities) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean ||
+                value instanceof Character || value instanceof Enum || value instanceof Date ||
+                value instanceof UUID) {
+            builder.append(value.getClass().getName()).append(':').append(value.toString().length())
+                    .append(':').append(value);
+        } else if (value instanceof Object[]) {
+            builder.append('[');
+            for (Object o : (Object[]) value) {
+                if (!appendValue(builder, o, identities)) {
+                    return false;
+                }
+                builder.append(',');
+            }
+            builder.append(']');
+        } else if (value.getClass().isArray()) {
+            builder.append(value.getClass().getName()).append(':');
+            switch (value.getClass().getComponentType().getName()) {
+                case "int":
+                    builder.append(Arrays.toString((int[]) value));
+                    break;
+                case "long":
+                    builder.append(Arrays.toString((long[]) value));
+                    break;
+                case "double":
+                    builder.append(Arrays.toString((double[]) value));
+                    break;
+                case "float":
+                    builder.append(Arrays.toString((float[]) value));
+                    break;
+                case "short":
+                    builder.append(Arrays.toString((short[]) value));
+                    break;
+                case "byte":
+                    builder.append(Arrays.toString((byte[]) value));
+                    break;
+                case "char":
+                    builder.append(Arrays.toString((char[]) value));
+                    break;
+                default:
+                    builder.append(Arrays.toString((boolean[]) value));
+                    break;
+            }
+        } else if (value instanceof Map) {
+            builder.append('{');
+            List<String> keys = new ArrayList<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                StringBuilder entryBuilder = new StringBuilder();
+                if (!appendValue(entryBuilder, entry.getKey(), identities)) {
+                    return false;
+                }
+                entryBuilder.append(':');
+                if (!appendValue(entryBuilder, entry.getValue(), identities)) {
+                    return false;
+                }
+                keys.add(entryBuilder.toString());
+            }
+            Collections.sort(keys);
+            keys.forEach(key -> builder.append(key).append(','));
+            builder.append('}');
+        } else if (value instanceof Collection) {
+            builder.append(value instanceof Set ? "set[" : "[");
+            List<String> items = new ArrayList<>();
+            for (Object o : (Collection<?>) value) {
+                StringBuilder itemBuilder = new StringBuilder();
+                if (!appendValue(itemBuilder, o, identities)) {
+                    return false;
+                }
+                items.add(itemBuilder.toString());
+            }
+            if (value instanceof Set) {
+                Collections.sort(items);
+            }
+            items.forEach(item -> builder.append(item).append(','));
+            builder.append(']');
+        } else if (identities != null) {
+            builder.append(value.getClass().getName()).append('@').append(identities.size());
+            identities.add(value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Key of the cache : the fingerprint of the process and of the input values with a value semantic, and weak
+     * references to the input values compared by reference.
+     */
+    private static final class Key {
+        /**
+         * Fingerprint of the process and of the input values.
+         */
+        private final String fingerprint;
+        /**
+         * Input values compared by reference.
+         */
+        private final List<WeakReference<Object>> identities;
+        /**
+         * Hash code of the key.
+         */
+        private final int hash;
+
+        /**
+         * Main constructor.
+         *
+         * @param fingerprint Fingerprint of the process and of the input values.
+         * @param identities  Input values compared by reference.
+         */
+        private Key(@NotNull String fingerprint, @NotNull List<Object> identities) {
+            this.fingerprint = fingerprint;
+            this.identities = new ArrayList<>();
+            int h = fingerprint.hashCode();
+            for (Object identity : identities) {
+                this.identities.add(new WeakReference<>(identity));
+                h = 31 * h + System.identityHashCode(identity);
+            }
+            this.hash = h;
+        }
+
+        /**
+         * Return true if one of the input values has been garbage collected, so the key can't be matched anymore.
+         *
+         * @return True if one of the input values has been garbage collected.
+         */
+        private boolean isCleared() {
+            for (WeakReference<Object> identity : identities) {
+                if (identity.get() == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash || !fingerprint.equals(other.fingerprint) ||
+                    identities.size() != other.identities.size()) {
+                return false;
+            }
+            for (int i = 0; i < identities.size(); i++) {
+                Object identity = identities.get(i).get();
+                if (identity == null || identity != other.identities.get(i).get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Compiler of Groovy process factory scripts. The scripts are compiled with {@link GroovyProcessFactory} as base
+ * class. If a cache directory is given, the class files are written into it and reused as long as they are newer
+ * than their script, which avoids the compilation on the next start. Only the scripts without package declaration
+ * can be cached.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+final class ScriptCompiler {
+
+    /**
+     * Directory of the compiled classes, null if no cache is used.
+     */
+    @Nullable
+    private final File cacheDirectory;
+
+    /**
+     * Main constructor.
+     *
+     * @param cacheDirectory Directory of the compiled classes, null if no cache should be used.
+     */
+    ScriptCompiler(@Nullable File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Returns the name of the class compiled from the given script.
+     *
+     * @param script Groovy script file.
+     * @return The name of the class compiled from the script.
+     */
+    @NotNull
+    static String getClassName(@NotNull File script) {
+        String name = script.getName();
+        int index = name.lastIndexOf('.');
+        return index > 0 ? name.substring(0, index) : name;
+    }
+
+    /**
+     * Returns the {@link GroovyProcessFactory} class of the given script, compiling it if it is not in the cache or if
+     * the cached class is older than the script.
+     *
+     * @param script Groovy script file.
+     * @return The {@link GroovyProcessFactory} class of the script.
+     * @throws IOException            Exception thrown if the script can not be read.
+     * @throws ClassNotFoundException Exception thrown if the compiled class can not be found in the cache.
+     */
+    @NotNull
+    Class<? extends GroovyProcessFactory> load(@NotNull File script) throws IOException, ClassNotFoundException {
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.setScriptBaseClass(GroovyProcessFactory.class.getName());
+        ClassLoader parent = GroovyProcessFactory.class.getClassLoader();
+        if (cacheDirectory == null) {
+            return new GroovyClassLoader(parent, config).parseClass(script).asSubclass(GroovyProcessFactory.class);
+        }
+        String className = getClassName(script);
+        File classFile = new File(cacheDirectory, className + ".class");
+        if (!classFile.exists() || classFile.lastModified() < script.lastModified()) {
+            if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+                throw new IOException("Unable to create the cache directory '" + cacheDirectory + "'.");
+            }
+            config.setTargetDirectory(cacheDirectory);
+            CompilationUnit unit = new CompilationUnit(config, null, new GroovyClassLoader(parent, config));
+            unit.addSource(script);
+            unit.compile();
+        }
+        URLClassLoader loader = new URLClassLoader(new URL[]{cacheDirectory.toURI().toURL()}, parent);
+        return loader.loadClass(className).asSubclass(GroovyProcessFactory.class);
+    }
+}
@@ -0,0 +1,719 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IDataSet;
+import org.orbisgis.orbisdata.datamanager.api.dataset.ISpatialTable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Scatter/gather runner executing a {@link IProcess} tile by tile over a large {@link ISpatialTable}.
+ *
+ * The extent of the first geometry column of the table is split into a regular grid or into a quadtree of tiles. For
+ * each tile, the features intersecting the tile extended by the buffer are copied into a tile table which is given to
+ * a new instance of the process. Once all the tiles are executed, the output tables are merged into a single table.
+ * As the features of the buffer are processed by several tiles, an output feature is only kept from the tile
+ * containing the lower left corner of its envelope.
+ *
+ * The tiles are executed in parallel when a connection factory is given, each tile using its own
+ * {@link IJdbcDataSource} on the same database, otherwise they are executed one after the other on the main
+ * {@link IJdbcDataSource}. The output tables of all the tiles should have the same columns.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class SpatialTileRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpatialTileRunner.class);
+
+    /**
+     * Maximum depth of the quadtree.
+     */
+    private static final int MAX_QUADTREE_DEPTH = 8;
+
+    /**
+     * {@link IProcess} to execute per tile.
+     */
+    private final IProcess process;
+    /**
+     * Main {@link IJdbcDataSource} used to split the table and to merge the outputs.
+     */
+    private final IJdbcDataSource dataSource;
+    /**
+     * Name of the process input receiving the tile table.
+     */
+    @Nullable
+    private String inputName;
+    /**
+     * {@link ISpatialTable} to split.
+     */
+    @Nullable
+    private ISpatialTable<?> table;
+    /**
+     * Name of the process output containing the tile output table.
+     */
+    @Nullable
+    private String outputName;
+    /**
+     * Name of the process input receiving the {@link IJdbcDataSource} of the tile, null if not needed.
+     */
+    @Nullable
+    private String dataSourceInputName;
+    /**
+     * Number of grid columns.
+     */
+    private int columns = 1;
+    /**
+     * Number of grid rows.
+     */
+    private int rows = 1;
+    /**
+     * Maximum number of features per quadtree tile, the grid is used if not strictly positive.
+     */
+    private int maxTileFeatures = -1;
+    /**
+     * Buffer distance added around each tile.
+     */
+    private double buffer = 0;
+    /**
+     * Maximum number of tiles executed concurrently.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Factory of the {@link IJdbcDataSource} of each tile, null to use the main one.
+     */
+    @Nullable
+    private Supplier<IJdbcDataSource> connectionFactory;
+
+    /**
+     * Main constructor.
+     *
+     * @param process    {@link IProcess} to execute per tile.
+     * @param dataSource {@link IJdbcDataSource} containing the table to split.
+     */
+    public SpatialTileRunner(@NotNull IProcess process, @NotNull IJdbcDataSource dataSource) {
+        this.process = process;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Set the {@link ISpatialTable} to split and the process input receiving the tiles. If the input is declared as a
+     * {@link String}, the tile table name is given, otherwise the tile {@link ISpatialTable}.
+     *
+     * @param inputName Name of the process input.
+     * @param table     {@link ISpatialTable} to split.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner input(@NotNull String inputName, @NotNull ISpatialTable<?> table) {
+        this.inputName = inputName;
+        this.table = table;
+        return this;
+    }
+
+    /**
+     * Set the process output containing the output table of a tile, either as a table name or as a
+     * {@link IDataSet}.
+     *
+     * @param outputName Name of the process output.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner output(@NotNull String outputName) {
+        this.outputName = outputName;
+        return this;
+    }
+
+    /**
+     * Set the process input receiving the {@link IJdbcDataSource} of the tile.
+     *
+     * @param inputName Name of the process input.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner dataSourceInput(@Nullable String inputName) {
+        this.dataSourceInputName = inputName;
+        return this;
+    }
+
+    /**
+     * Split the table into a regular grid.
+     *
+     * @param columns Number of grid columns.
+     * @param rows    Number of grid rows.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner grid(int columns, int rows) {
+        this.columns = Math.max(1, columns);
+        this.rows = Math.max(1, rows);
+        this.maxTileFeatures = -1;
+        return this;
+    }
+
+    /**
+     * Split the table into a quadtree, a tile being split into four ones while it contains more than the given
+     * number of features.
+     *
+     * @param maxTileFeatures Maximum number of features per tile.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner quadtree(int maxTileFeatures) {
+        this.maxTileFeatures = maxTileFeatures;
+        return this;
+    }
+
+    /**
+     * Set the buffer distance added around each tile to select its features.
+     *
+     * @param buffer Buffer distance in the unit of the table SRID.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner buffer(double buffer) {
+        this.buffer = Math.max(0, buffer);
+        return this;
+    }
+
+    /**
+     * Set the maximum number of tiles executed concurrently.
+     *
+     * @param parallelism Maximum number of concurrent tiles.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner parallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Set the factory of the {@link IJdbcDataSource} of each tile. The created {@link IJdbcDataSource} should be
+     * connected to the same database as the main one and is closed once its tile is executed.
+     *
+     * @param connectionFactory Factory of the tile {@link IJdbcDataSource}, null to use the main one.
+     * @return The {@link SpatialTileRunner} itself.
+     */
+    @NotNull
+    public SpatialTileRunner connections(@Nullable Supplier<IJdbcDataSource> connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        return this;
+    }
+
+    /**
+     * Execute the process on each tile and merge the outputs into the given table. The tile tables are dropped
+     * once merged.
+     *
+     * @param outputTableName Name of the merged output table, replaced if it already exists.
+     * @param inputData       Other input data of the process, given to each tile.
+     * @return The name of the merged output table, null if the execution failed.
+     */
+    @Nullable
+    public String execute(@NotNull String outputTableName, @Nullable Map<String, Object> inputData) {
+        if (inputName == null || table == null || outputName == null) {
+            LOGGER.error("The tiled input and the output of the process should be set.");
+            return null;
+        }
+        List<String> geometricColumns = table.getGeometricColumns();
+        if (geometricColumns == null || geometricColumns.isEmpty()) {
+            LOGGER.error("Unable to find the geometric column to split the table.");
+            return null;
+        }
+        String geomColumn = geometricColumns.get(0);
+        String source = table.getLocation();
+        int srid = table.getSrid();
+        List<Tile> tiles = getTiles(source, geomColumn, srid);
+        if (tiles == null) {
+            return null;
+        }
+        String prefix = "TILE_" + UUID.randomUUID().toString().replaceAll("-", "").toUpperCase() + "_";
+        String[] outputs = new String[tiles.size()];
+        boolean success = true;
+        try {
+            if (connectionFactory != null && parallelism > 1 && tiles.size() > 1) {
+                ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tiles.size()));
+                List<Future<String>> futures = new ArrayList<>();
+                try {
+                    for (Tile tile : tiles) {
+                        futures.add(executor.submit(() ->
+                                executeTile(tile, source, geomColumn, srid, prefix, inputData)));
+                    }
+                    for (int i = 0; i < futures.size() && success; i++) {
+                        outputs[i] = futures.get(i).get();
+                        success = outputs[i] != null;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.error("The tiled execution has been interrupted.", e);
+                    success = false;
+                } catch (ExecutionException e) {
+                    LOGGER.error("Unable to execute a tile.", e);
+                    success = false;
+                } finally {
+                    //The tiles not started are cancelled and the running ones are awaited, so that no tile is still
+                    //writing when its tables are dropped
+                    futures.forEach(future -> future.cancel(false));
+                    executor.shutdown();
+                    awaitTermination(executor);
+                    collectOutputs(futures, outputs);
+                }
+            } else {
+                for (int i = 0; i < tiles.size() && success; i++) {
+                    outputs[i] = executeTile(tiles.get(i), source, geomColumn, srid, prefix, inputData);
+                    success = outputs[i] != null;
+                }
+            }
+            return success ? merge(tiles, outputs, outputTableName) : null;
+        } finally {
+            dropTables(tiles, outputs, prefix, source, outputTableName);
+        }
+    }
+
+    /**
+     * Wait for the termination of the given shut down {@link ExecutorService}. The interruptions are delayed until
+     * the termination, the interrupt flag being then restored.
+     *
+     * @param executor {@link ExecutorService} to wait for.
+     */
+    private static void awaitTermination(@NotNull ExecutorService executor) {
+        boolean interrupted = Thread.interrupted();
+        while (!executor.isTerminated()) {
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.warn("Waiting for the termination of the running tiles.");
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fill the missing outputs with the ones of the tiles which have completed, so that their tables are dropped.
+     *
+     * @param futures {@link Future} of the tiles, all done.
+     * @param outputs Output tables of the tiles, null for the missing ones.
+     */
+    private static void collectOutputs(@NotNull List<Future<String>> futures, @NotNull String[] outputs) {
+        for (int i = 0; i < futures.size(); i++) {
+            Future<String> future = futures.get(i);
+            if (outputs[i] == null && future.isDone() && !future.isCancelled()) {
+                try {
+                    outputs[i] = future.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    LOGGER.debug("No output for the tile " + i + ".", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the tiles covering the extent of the table.
+     *
+     * @param source     Location of the table.
+     * @param geomColumn Geometric column used to split the table.
+     * @param srid       SRID of the geometric column.
+     * @return The list of the {@link Tile}, null if they can't be computed.
+     */
+    @Nullable
+    private List<Tile> getTiles(@NotNull String source, @NotNull String geomColumn, int srid) {
+        List<Tile> tiles = new ArrayList<>();
+        Geometry extentGeometry = table.getExtent();
+        if (extentGeometry == null || extentGeometry.isEmpty()) {
+            tiles.add(new Tile(0, null, null));
+            return tiles;
+        }
+        Envelope extent = extentGeometry.getEnvelopeInternal();
+        if (maxTileFeatures > 0) {
+            Deque<Envelope> cells = new ArrayDeque<>();
+            Deque<Integer> depths = new ArrayDeque<>();
+            cells.push(extent);
+            depths.push(0);
+            while (!cells.isEmpty()) {
+                Envelope cell = cells.pop();
+                int depth = depths.pop();
+                long count = countFeatures(source, new Tile(-1, cell, extent).getCountFilter(geomColumn, srid));
+                if (count < 0) {
+                    return null;
+                }
+                if (count <= maxTileFeatures || depth >= MAX_QUADTREE_DEPTH || cell.getWidth() == 0 ||
+                        cell.getHeight() == 0) {
+                    tiles.add(new Tile(tiles.size(), cell, extent));
+                } else {
+                    double midX = (cell.getMinX() + cell.getMaxX()) / 2;
+                    double midY = (cell.getMinY() + cell.getMaxY()) / 2;
+                    cells.push(new Envelope(cell.getMinX(), midX, cell.getMinY(), midY));
+                    cells.push(new Envelope(midX, cell.getMaxX(), cell.getMinY(), midY));
+                    cells.push(new Envelope(cell.getMinX(), midX, midY, cell.getMaxY()));
+                    cells.push(new Envelope(midX, cell.getMaxX(), midY, cell.getMaxY()));
+                    for (int i = 0; i < 4; i++) {
+                        depths.push(depth + 1);
+                    }
+                }
+            }
+        } else {
+            int columnCount = extent.getWidth() > 0 ? columns : 1;
+            int rowCount = extent.getHeight() > 0 ? rows : 1;
+            double stepX = extent.getWidth() / columnCount;
+            double stepY = extent.getHeight() / rowCount;
+            for (int row = 0; row < rowCount; row++) {
+                for (int column = 0; column < columnCount; column++) {
+                    double minX = extent.getMinX() + column * stepX;
+                    double minY = extent.getMinY() + row * stepY;
+                    tiles.add(new Tile(tiles.size(), new Envelope(minX,
+                            column == columnCount - 1 ? extent.getMaxX() : minX + stepX,
+                            minY, row == rowCount - 1 ? extent.getMaxY() : minY + stepY), extent));
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Count the features of the table matching the given filter.
+     *
+     * @param source Location of the table.
+     * @param filter Filter of the features, null to count all of them.
+     * @return The number of features, -1 if the count failed.
+     */
+    private long countFeatures(@NotNull String source, @Nullable String filter) {
+        try (Statement statement = dataSource.getConnection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + source + " AS foo" +
+                     (filter == null ? "" : " WHERE " + filter))) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            LOGGER.error("Unable to count the features of the tile.", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Copy the features of the tile into a tile table and execute a new instance of the process on it.
+     *
+     * @param tile       {@link Tile} to execute.
+     * @param source     Location of the table.
+     * @param geomColumn Geometric column of the table.
+     * @param srid       SRID of the geometric column.
+     * @param prefix     Prefix of the tile table names.
+     * @param inputData  Other input data of the process.
+     * @return The name of the output table of the tile, null if the execution failed.
+     */
+    @Nullable
+    private String executeTile(@NotNull Tile tile, @NotNull String source, @NotNull String geomColumn, int srid,
+                               @NotNull String prefix, @Nullable Map<String, Object> inputData) {
+        IJdbcDataSource tileDataSource = connectionFactory == null ? dataSource : connectionFactory.get();
+        if (tileDataSource == null) {
+            LOGGER.error("Unable to get the data source of the tile " + tile.index + ".");
+            return null;
+        }
+        String tileTable = prefix + tile.index;
+        try {
+            String filter = tile.getInputFilter(geomColumn, srid, buffer);
+            Connection connection = tileDataSource.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + tileTable);
+                statement.execute("CREATE TABLE " + tileTable + " AS SELECT * FROM " + source + " AS foo" +
+                        (filter == null ? "" : " WHERE " + filter));
+            }
+            //The tile table should be visible to the process and kept when a factory data source is closed
+            if (!connection.getAutoCommit() && !tileDataSource.isInTransaction()) {
+                connection.commit();
+            }
+            LinkedHashMap<String, Object> data = inputData == null ? new LinkedHashMap<>() :
+                    new LinkedHashMap<>(inputData);
+            data.put(inputName, isStringInput(inputName) ? tileTable : tileDataSource.getSpatialTable(tileTable));
+            if (dataSourceInputName != null) {
+                data.put(dataSourceInputName, tileDataSource);
+            }
+            IProcess instance = process.newInstance();
+            if (!instance.execute(data)) {
+                LOGGER.error("The execution of the tile " + tile.index + " has failed.");
+                return null;
+            }
+            Object output = instance.getResults().get(outputName);
+            if (output instanceof IDataSet) {
+                return ((IDataSet) output).getLocation();
+            } else if (output instanceof CharSequence) {
+                return output.toString();
+            }
+            LOGGER.error("The output '" + outputName + "' of the tile " + tile.index + " is not a table.");
+            return null;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to create the table of the tile " + tile.index + ".", e);
+            return null;
+        } finally {
+            if (connectionFactory != null) {
+                tileDataSource.close();
+            }
+        }
+    }
+
+    /**
+     * Return true if the given process input is declared as a {@link String}.
+     *
+     * @param name Name of the process input.
+     * @return True if the input is declared as a {@link String}, false otherwise.
+     */
+    private boolean isStringInput(@NotNull String name) {
+        for (IInput input : process.getInputs()) {
+            if (input.getName().map(name::equals).orElse(false)) {
+                return input.getType().map(String.class::equals).orElse(false);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merge the output tables of the tiles into the given table, keeping each output feature from the tile
+     * containing the lower left corner of its envelope.
+     *
+     * @param tiles           Executed {@link Tile}.
+     * @param outputs         Output tables of the tiles.
+     * @param outputTableName Name of the merged table.
+     * @return The name of the merged table, null if the merge failed.
+     */
+    @Nullable
+    private String merge(@NotNull List<Tile> tiles, @NotNull String[] outputs, @NotNull String outputTableName) {
+        StringJoiner union = new StringJoiner(" UNION ALL ");
+        for (int i = 0; i < tiles.size(); i++) {
+            ISpatialTable<?> output = dataSource.getSpatialTable(outputs[i]);
+            List<String> geometricColumns = output == null ? null : output.getGeometricColumns();
+            if (geometricColumns == null || geometricColumns.isEmpty()) {
+                LOGGER.error("Unable to find the geometric column of the output table '" + outputs[i] + "'.");
+                return null;
+            }
+            String filter = tiles.get(i).getCoreFilter(geometricColumns.get(0));
+            union.add("SELECT * FROM " + outputs[i] + (filter == null ? "" : " WHERE " + filter));
+        }
+        try (Statement statement = dataSource.getConnection().createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + outputTableName);
+            statement.execute("CREATE TABLE " + outputTableName + " AS " + union);
+            return outputTableName;
+        } catch (SQLException e) {
+            LOGGER.error("Unable to merge the output tables of the tiles.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Drop the input and output tables of the tiles.
+     *
+     * @param tiles           Executed {@link Tile}.
+     * @param outputs         Output tables of the tiles, null for the failed ones.
+     * @param prefix          Prefix of the tile table names.
+     * @param source          Location of the split table, never dropped.
+     * @param outputTableName Name of the merged table, never dropped.
+     */
+    private void dropTables(@NotNull List<Tile> tiles, @NotNull String[] outputs, @NotNull String prefix,
+                            @NotNull String source, @NotNull String outputTableName) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Tile tile : tiles) {
+            tables.add(prefix + tile.index);
+        }
+        for (String output : outputs) {
+            if (output != null && !output.equals(source) && !output.equals(outputTableName)) {
+                tables.add(output);
+            }
+        }
+        try (Statement statement = dataSource.getConnection().createStatement()) {
+            for (String name : tables) {
+                statement.execute("DROP TABLE IF EXISTS " + name);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Unable to drop the tables of the tiles.", e);
+        }
+    }
+
+    /**
+     * Tile of the split table. The core of a tile is half open : its minimal bounds are included and its maximal
+     * bounds excluded, except on the bounds of the table extent which are left open.
+     */
+    private static final class Tile {
+        /**
+         * Index of the tile, used to name its table.
+         */
+        private final int index;
+        /**
+         * Core envelope of the tile, null for a tile covering the whole table.
+         */
+        @Nullable
+        private final Envelope core;
+        /**
+         * Extent of the table.
+         */
+        @Nullable
+        private final Envelope extent;
+
+        /**
+         * Main constructor.
+         *
+         * @param index  Index of the tile.
+         * @param core   Core envelope of the tile, null for a tile covering the whole table.
+         * @param extent Extent of the table.
+         */
+        private Tile(int index, @Nullable Envelope core, @Nullable Envelope extent) {
+            this.index = index;
+            this.core = core;
+            this.extent = extent;
+        }
+
+        /**
+         * Return the filter selecting the features which lower left envelope corner is in the core of the tile.
+         *
+         * @param geomColumn Geometric column to filter.
+         * @return The filter, null if the tile covers the whole table.
+         */
+        @Nullable
+        private String getCoreFilter(@NotNull String geomColumn) {
+            if (core == null || extent == null) {
+                return null;
+            }
+            String filter = getCoreConditions(geomColumn);
+            return isLast() ? "(" + filter + ") OR " + geomColumn + " IS NULL" : filter;
+        }
+
+        /**
+         * Return the filter counting the features of the core of the tile, prefiltered by the intersection of their
+         * envelope with the tile so that the spatial index of the column can be used.
+         *
+         * @param geomColumn Geometric column to filter.
+         * @param srid       SRID of the geometric column.
+         * @return The filter, null if the tile covers the whole table.
+         */
+        @Nullable
+        private String getCountFilter(@NotNull String geomColumn, int srid) {
+            if (core == null || extent == null) {
+                return null;
+            }
+            String filter = getEnvelopeFilter(geomColumn, srid, 0) + " AND (" + getCoreConditions(geomColumn) + ")";
+            return isLast() ? "(" + filter + ") OR " + geomColumn + " IS NULL" : filter;
+        }
+
+        /**
+         * Return the conditions on the lower left envelope corner of the features, without the null geometries.
+         *
+         * @param geomColumn Geometric column to filter.
+         * @return The conditions.
+         */
+        @NotNull
+        private String getCoreConditions(@NotNull String geomColumn) {
+            String xMin = "ST_XMin(" + geomColumn + ")";
+            String yMin = "ST_YMin(" + geomColumn + ")";
+            List<String> conditions = new ArrayList<>();
+            if (core.getMinX() > extent.getMinX()) {
+                conditions.add(xMin + " >= " + core.getMinX());
+            }
+            if (core.getMaxX() < extent.getMaxX()) {
+                conditions.add(xMin + " < " + core.getMaxX());
+            }
+            if (core.getMinY() > extent.getMinY()) {
+                conditions.add(yMin + " >= " + core.getMinY());
+            }
+            if (core.getMaxY() < extent.getMaxY()) {
+                conditions.add(yMin + " < " + core.getMaxY());
+            }
+            return conditions.isEmpty() ? geomColumn + " IS NOT NULL" : String.join(" AND ", conditions);
+        }
+
+        /**
+         * Return the filter selecting the features intersecting the tile extended by the buffer.
+         *
+         * @param geomColumn Geometric column to filter.
+         * @param srid       SRID of the geometric column.
+         * @param buffer     Buffer distance.
+         * @return The filter, null if the tile covers the whole table.
+         */
+        @Nullable
+        private String getInputFilter(@NotNull String geomColumn, int srid, double buffer) {
+            if (core == null) {
+                return null;
+            }
+            String filter = getEnvelopeFilter(geomColumn, srid, buffer);
+            return isLast() ? "(" + filter + ") OR " + geomColumn + " IS NULL" : filter;
+        }
+
+        /**
+         * Return the filter selecting the features which envelope intersects the tile extended by the buffer.
+         *
+         * @param geomColumn Geometric column to filter.
+         * @param srid       SRID of the geometric column.
+         * @param buffer     Buffer distance.
+         * @return The filter.
+         */
+        @NotNull
+        private String getEnvelopeFilter(@NotNull String geomColumn, int srid, double buffer) {
+            return geomColumn + " && ST_MakeEnvelope(" + (core.getMinX() - buffer) + ", " +
+                    (core.getMinY() - buffer) + ", " + (core.getMaxX() + buffer) + ", " +
+                    (core.getMaxY() + buffer) + ", " + srid + ")";
+        }
+
+        /**
+         * Return true if the tile is the upper right one, which also keeps the null geometries.
+         *
+         * @return True if the tile is the upper right one.
+         */
+        private boolean isLast() {
+            return core != null && extent != null && core.getMaxX() >= extent.getMaxX() &&
+                    core.getMaxY() >= extent.getMaxY();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process.inoutput;
+
+import org.orbisgis.commons.annotations.NotNull;
+import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.inoutput.IChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementation of the {@link IChannel} interface backed by an {@link ArrayBlockingQueue}. A channel has one
+ * producer thread and one consumer thread.
+ *
+ * @param <T> Type of the elements.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class Channel<T> implements IChannel<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Channel.class);
+
+    /**
+     * Marker of the end of the elements.
+     */
+    private static final Object END = new Object();
+    /**
+     * Marker of a null element, not accepted by the queue.
+     */
+    private static final Object NULL = new Object();
+    /**
+     * Delay in milliseconds between two checks of the cancellation while waiting.
+     */
+    private static final long WAIT_DELAY = 100;
+    /**
+     * Maximum delay in milliseconds to wait for the end of the filling thread when a buffered stream is closed.
+     */
+    private static final long CLOSE_DELAY = 10 * WAIT_DELAY;
+
+    /**
+     * Buffer of the elements.
+     */
+    @NotNull
+    private final BlockingQueue<Object> queue;
+    /**
+     * Maximum number of buffered elements.
+     */
+    private final int capacity;
+    /**
+     * True if the producer has closed the channel.
+     */
+    private volatile boolean closed = false;
+    /**
+     * True if the consumer has cancelled the channel.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * Error of the producer, null if there is none.
+     */
+    @Nullable
+    private volatile Throwable failure;
+    /**
+     * True once the stream of the channel has been returned.
+     */
+    @NotNull
+    private final AtomicBoolean consumed = new AtomicBoolean(false);
+
+    /**
+     * Main constructor.
+     *
+     * @param capacity Maximum number of buffered elements, at least 1.
+     */
+    public Channel(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean put(@Nullable T element) {
+        return !closed && offer(element == null ? NULL : element);
+    }
+
+    /**
+     * Add the given object to the queue, waiting while the queue is full and the channel not cancelled.
+     *
+     * @param object Object to add.
+     * @return True if the object has been added, false otherwise.
+     */
+    private boolean offer(@NotNull Object object) {
+        try {
+            while (!cancelled) {
+                if (queue.offer(object, WAIT_DELAY, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            offer(END);
+        }
+    }
+
+    /**
+     * Close the channel because of an error of the producer. The error is thrown to the consumer once the buffered
+     * elements are consumed.
+     *
+     * @param throwable Error of the producer.
+     */
+    public void fail(@NotNull Throwable throwable) {
+        failure = throwable;
+        close();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed || cancelled;
+    }
+
+    @NotNull
+    @Override
+    public Stream<T> stream() {
+        if (consumed.getAndSet(true)) {
+            LOGGER.error("The channel has already been consumed.");
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new ChannelSpliterator(), false).onClose(this::cancel);
+    }
+
+    /**
+     * Return a {@link Stream} of the elements of the given source, buffered in a {@link Channel} filled by a daemon
+     * thread started on the first read. The source is thus consumed while the elements are processed, with at most
+     * the given number of elements waiting in memory. As the {@link ResultSet} elements, like the rows of a table
+     * stream, are cursors moving on the next row, they are copied into a {@link Map} of the column labels and values.
+     * Closing the returned stream stops the filling thread and closes the source.
+     *
+     * The primitive streams ({@link java.util.stream.IntStream}, {@link java.util.stream.LongStream} and
+     * {@link java.util.stream.DoubleStream}) are not accepted, as their buffering would box their values.
+     *
+     * @param source   Source of the elements.
+     * @param capacity Maximum number of buffered elements.
+     * @return The {@link Stream} of the buffered elements.
+     */
+    @NotNull
+    public static Stream<Object> buffer(@NotNull Stream<?> source, int capacity) {
+        Channel<Object> channel = new Channel<>(capacity);
+        Spliterator<Object> elements = channel.stream().spliterator();
+        AtomicBoolean started = new AtomicBoolean(false);
+        AtomicReference<Thread> pump = new AtomicReference<>();
+        Spliterator<Object> spliterator = new Spliterators.AbstractSpliterator<Object>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Object> action) {
+                if (!started.getAndSet(true)) {
+                    Thread thread = new Thread(() -> pump(source, channel), "channel-" + channel.hashCode());
+                    thread.setDaemon(true);
+                    pump.set(thread);
+                    thread.start();
+                }
+                return elements.tryAdvance(action);
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            channel.cancel();
+            if (!started.getAndSet(true)) {
+                source.close();
+                return;
+            }
+            Thread thread = pump.get();
+            if (thread != null && thread != Thread.currentThread()) {
+                //Stop the thread waiting on the full queue, the source being closed at its end
+                thread.interrupt();
+                try {
+                    thread.join(CLOSE_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (thread.isAlive()) {
+                    LOGGER.warn("The source of the channel is still read, it will be closed at the end of the read.");
+                }
+            }
+        });
+    }
+
+    /**
+     * Move the elements of the source into the channel until the source end or the channel cancellation.
+     *
+     * @param source  Source of the elements.
+     * @param channel Channel to fill.
+     */
+    private static void pump(@NotNull Stream<?> source, @NotNull Channel<Object> channel) {
+        try (Stream<?> stream = source) {
+            Spliterator<?> spliterator = stream.spliterator();
+            AtomicBoolean open = new AtomicBoolean(true);
+            while (open.get() && spliterator.tryAdvance(element -> open.set(channel.put(toRow(element))))) {
+                //The elements are put by the action
+            }
+            channel.close();
+        } catch (RuntimeException e) {
+            if (!channel.cancelled) {
+                LOGGER.error("Error while reading the source of the channel.", e);
+            }
+            channel.fail(e);
+        }
+    }
+
+    /**
+     * Return the given element or, if it is a {@link ResultSet}, a copy of its current row.
+     *
+     * @param element Element to convert.
+     * @return The element or the {@link Map} of the column labels and values of its current row.
+     */
+    @Nullable
+    private static Object toRow(@Nullable Object element) {
+        if (!(element instanceof ResultSet)) {
+            return element;
+        }
+        ResultSet rs = (ResultSet) element;
+        try {
+            ResultSetMetaData metaData = rs.getMetaData();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                row.put(metaData.getColumnLabel(i), rs.getObject(i));
+            }
+            return row;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the current row.", e);
+        }
+    }
+
+    /**
+     * {@link Spliterator} taking the elements from the queue.
+     */
+    private final class ChannelSpliterator extends Spliterators.AbstractSpliterator<T> {
+
+        /**
+         * True once the end of the channel reached.
+         */
+        private boolean done = false;
+
+        /**
+         * Main constructor.
+         */
+        private ChannelSpliterator() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (done) {
+                return false;
+            }
+            Object object = null;
+            try {
+                while (object == null && !cancelled) {
+                    object = queue.poll(WAIT_DELAY, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (object == null || object == END) {
+                done = true;
+                if (failure != null) {
+                    throw new IllegalStateException("The producer of the channel has failed.", failure);
+                }
+                return false;
+            }
+            action.accept(object == NULL ? null : (T) object);
+            return true;
+        }
+    }
+}
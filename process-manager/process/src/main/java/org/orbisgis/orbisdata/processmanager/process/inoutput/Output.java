@@ -53,6 +53,15 @@ import java.util.Objects;
  */
 public class Output extends InOutPut implements IOutput {
 
+    /**
+     * Number of elements buffered between the output, if streamed, and its consumer.
+     */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    /**
+     * True if the output is an intermediate table.
+     */
+    private boolean intermediate = false;
+
     /**
      * Default constructor.
      */
@@ -102,6 +111,30 @@ public class Output extends InOutPut implements IOutput {
         return this;
     }
 
+    @Override
+    @NotNull
+    public Output bufferSize(int bufferSize) {
+        this.bufferSize = Math.max(1, bufferSize);
+        return this;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    @NotNull
+    public Output intermediate(boolean intermediate) {
+        this.intermediate = intermediate;
+        return this;
+    }
+
+    @Override
+    public boolean isIntermediate() {
+        return intermediate;
+    }
+
     @Override
     public void setMetaClass(@Nullable MetaClass metaClass) {
         this.metaClass = metaClass == null ? InvokerHelper.getMetaClass(this.getClass()) : metaClass;
@@ -127,6 +160,8 @@ public class Output extends InOutPut implements IOutput {
         copy.setTitle(this.getTitle().orElse(null));
         copy.setDescription(this.getDescription().orElse(null));
         copy.setKeywords(this.getKeywords().orElse(null));
+        copy.bufferSize(this.getBufferSize());
+        copy.intermediate(this.isIntermediate());
         return copy;
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.junit.jupiter.api.Test;
+import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link CheckpointStore} class.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class CheckpointStoreTest {
+
+    /**
+     * Test the fingerprint of the inputs and the check of the restored tables.
+     */
+    @Test
+    void checkpointTest() throws Exception {
+        File directory = new File("./target/checkpointStoreTest");
+        CheckpointStore store = new CheckpointStore(directory);
+        store.clear();
+        IProcess process = new ProcessBuilder(new ProcessFactory(), this).title("store").getProcess();
+        H2GIS h2gis = H2GIS.open("./target/checkpointStoreTest");
+        h2gis.execute("DROP TABLE IF EXISTS CHECKPOINTED; CREATE TABLE CHECKPOINTED (ID INT)");
+
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("ds", Collections.singletonList(h2gis));
+        inputs.put("value", Arrays.asList(1, 2));
+        assertTrue(store.save(process, inputs, Collections.singletonMap("table", "CHECKPOINTED")));
+        assertEquals("CHECKPOINTED", store.load(process, inputs).get("table"));
+        assertEquals("CHECKPOINTED", store.load(process.newInstance(), inputs).get("table"));
+
+        inputs.put("value", Arrays.asList(1, 3));
+        assertNull(store.load(process, inputs));
+        inputs.put("value", Arrays.asList(1, 2));
+
+        IProcess other = new ProcessBuilder(new ProcessFactory(), this).title("store").id("otherStore").getProcess();
+        assertNull(store.load(other, inputs));
+
+        h2gis.execute("DROP TABLE CHECKPOINTED");
+        assertNull(store.load(process, inputs));
+
+        inputs.put("object", Collections.singletonList(new Object()));
+        assertFalse(store.save(process, inputs, Collections.singletonMap("table", "CHECKPOINTED")));
+        assertNull(store.load(process, inputs));
+        store.clear();
+    }
+}
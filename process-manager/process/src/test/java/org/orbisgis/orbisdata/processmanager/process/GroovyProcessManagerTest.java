@@ -46,7 +46,10 @@ import org.junit.jupiter.api.Test;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
 import org.orbisgis.orbisdata.processmanager.api.IProcessFactory;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -220,6 +223,47 @@ public class GroovyProcessManagerTest {
         assertTrue(pm.factoryIds().contains("DummyGPF"));
     }
 
+    /**
+     * Test the lazy registration of the {@link GroovyProcessManager#register(List)} and
+     * {@link GroovyProcessManager#registerScripts(List, File)} methods.
+     */
+    @Test
+    void lazyRegisterTest() throws Exception {
+        GroovyProcessManager pm = new DummyGPM();
+        CountingGPF.RUN_COUNT.set(0);
+        pm.register(Collections.singletonList(CountingGPF.class));
+        assertTrue(pm.factory("CountingGPF") instanceof LazyProcessFactory);
+        assertFalse(((LazyProcessFactory) pm.factory("CountingGPF")).isResolved());
+        assertEquals(0, CountingGPF.RUN_COUNT.get());
+
+        assertFalse(pm.process("not a process", "CountingGPF").isPresent());
+        assertTrue(((LazyProcessFactory) pm.factory("CountingGPF")).isResolved());
+        assertEquals(1, CountingGPF.RUN_COUNT.get());
+        assertTrue(pm.factory("CountingGPF").getProcessManager().isPresent());
+        pm.factory("CountingGPF").isLocked();
+        assertEquals(1, CountingGPF.RUN_COUNT.get());
+
+        File dir = new File("./target/GroovyProcessManagerTest");
+        File cache = new File(dir, "cache");
+        File script = new File(dir, "ScriptFactory.groovy");
+        assertTrue(dir.exists() || dir.mkdirs());
+        Files.write(script.toPath(), "def value = 1".getBytes());
+        File classFile = new File(cache, "ScriptFactory.class");
+        assertTrue(!classFile.exists() || classFile.delete());
+
+        pm.registerScripts(Collections.singletonList(script), cache);
+        assertTrue(pm.factoryIds().contains("ScriptFactory"));
+        assertFalse(classFile.exists());
+        assertFalse(pm.factory("ScriptFactory").isLocked());
+        assertTrue(classFile.exists());
+        long lastModified = classFile.lastModified();
+
+        GroovyProcessManager pm2 = new DummyGPM();
+        pm2.registerScripts(Collections.singletonList(script), cache);
+        assertFalse(pm2.factory("ScriptFactory").isLocked());
+        assertEquals(lastModified, classFile.lastModified());
+    }
+
     /**
      * Test the {@link GroovyProcessFactory#getProperty(String)} method.
      */
@@ -254,6 +298,16 @@ public class GroovyProcessManagerTest {
             return null;
         }
     }
+    public static class CountingGPF extends GroovyProcessFactory {
+
+        private static final AtomicInteger RUN_COUNT = new AtomicInteger();
+
+        @Override
+        public Object run() {
+            RUN_COUNT.incrementAndGet();
+            return this;
+        }
+    }
     public static class DummyGPF extends GroovyProcessFactory {
 
         @Override
@@ -0,0 +1,271 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import groovy.lang.Closure;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IProcessMapper;
+import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to the {@link ProcessCoordinator} and {@link ProcessWorker} classes, with workers running in
+ * their own JVM.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ProcessCoordinatorTest {
+
+    /**
+     * Worker JVMs.
+     */
+    private static final List<java.lang.Process> WORKERS = new ArrayList<>();
+    /**
+     * Ports of the workers.
+     */
+    private static int[] ports;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        ports = new int[2];
+        for (int i = 0; i < ports.length; i++) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            java.lang.Process worker = new java.lang.ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    ProcessWorker.class.getName(), "0", RemoteFactory.class.getName())
+                    .redirectError(java.lang.ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            WORKERS.add(worker);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(worker.getInputStream()));
+            String line;
+            while ((line = reader.readLine()) != null && !line.startsWith(ProcessWorker.READY_MESSAGE)) {
+                //Skip the worker start logs
+            }
+            assertNotNull(line);
+            ports[i] = Integer.parseInt(line.substring(ProcessWorker.READY_MESSAGE.length()).trim());
+        }
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        WORKERS.forEach(java.lang.Process::destroy);
+    }
+
+    /**
+     * Test the execution of the processes of a {@link ProcessMapper} on several worker JVMs.
+     */
+    @Test
+    public void remoteMapperTest() {
+        RemoteFactory factory = new RemoteFactory();
+        factory.run();
+        Optional<IProcess> opt = factory.getProcess("concat");
+        assertTrue(opt.isPresent());
+        IProcess process = opt.get();
+
+        IProcessMapper mapper = new ProcessMapper();
+        for (int i = 0; i < 4; i++) {
+            Process p = (Process) process.newInstance();
+            mapper.link((IInOutPut) p.getProperty("a")).to("a" + i);
+            mapper.link((IInOutPut) p.getProperty("b")).to("b" + i);
+            mapper.link((IInOutPut) p.getProperty("ab")).to("ab" + i);
+            mapper.link((IInOutPut) p.getProperty("jvm")).to("jvm" + i);
+        }
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            dataMap.put("a" + i, "a" + i);
+            dataMap.put("b" + i, "b" + i);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (ProcessCoordinator coordinator = ProcessCoordinator.local(ports)) {
+            assertEquals(2, coordinator.getWorkerCount());
+            assertTrue(mapper.executor(executorService).runner(coordinator).execute(dataMap));
+            Set<Object> jvms = new HashSet<>();
+            for (int i = 0; i < 4; i++) {
+                assertEquals("a" + i + "b" + i, mapper.getResults().get("ab" + i));
+                jvms.add(mapper.getResults().get("jvm" + i));
+            }
+            assertEquals(2, jvms.size());
+            assertFalse(jvms.contains(ManagementFactory.getRuntimeMXBean().getName()));
+
+            IProcess unknown = factory.create().id("unknown").title("unknown").getProcess();
+            assertFalse(coordinator.execute(unknown, new LinkedHashMap<>()));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Test the use of the local inputs of a {@link ProcessWorker} running in the current JVM.
+     */
+    @Test
+    public void localInputTest() {
+        ProcessManager processManager = ProcessManager.getProcessManager();
+        RemoteFactory factory = new RemoteFactory();
+        factory.run();
+        processManager.registerFactory("localInputTest", factory);
+        try (ProcessWorker worker = new ProcessWorker(processManager).input("b", "_local");
+             ProcessCoordinator coordinator = ProcessCoordinator.local(worker.start(0))) {
+            assertTrue(worker.isRunning());
+            assertEquals(-1, worker.start(0));
+            IProcess process = factory.getProcess("concat").get();
+            LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+            dataMap.put("a", "a");
+            dataMap.put("b", new Object());
+            assertTrue(coordinator.execute(process, dataMap));
+            assertEquals("a_local", process.getResults().get("ab"));
+
+            IProcess anonymous = factory.create().title("anonymous").getProcess();
+            assertFalse(coordinator.execute(anonymous, new LinkedHashMap<>()));
+        }
+    }
+
+    /**
+     * Test the closing of the idle connections of a {@link ProcessWorker} and the reconnection of the
+     * {@link ProcessCoordinator}.
+     */
+    @Test
+    public void timeoutTest() throws InterruptedException {
+        ProcessManager processManager = ProcessManager.getProcessManager();
+        RemoteFactory factory = new RemoteFactory();
+        factory.run();
+        processManager.registerFactory("timeoutTest", factory);
+        try (ProcessWorker worker = new ProcessWorker(processManager).timeout(100);
+             ProcessCoordinator coordinator = ProcessCoordinator.local(worker.start(0))) {
+            IProcess process = factory.getProcess("concat").get();
+            LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+            dataMap.put("a", "a");
+            dataMap.put("b", "b");
+            assertTrue(coordinator.execute(process, dataMap));
+            Thread.sleep(500);
+            assertTrue(coordinator.execute(process, dataMap));
+            assertEquals("ab", process.getResults().get("ab"));
+            assertEquals(1, coordinator.getWorkerCount());
+        }
+    }
+
+    /**
+     * Test the {@link FilteredObjectInputStream} class.
+     */
+    @Test
+    public void filterTest() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+            inputs.put("a", 1);
+            inputs.put("b", new double[]{1.5});
+            out.writeObject(inputs);
+            out.writeObject(new HashSet<>(Collections.singleton("a")));
+        }
+        try (FilteredObjectInputStream in = new FilteredObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()),
+                ProcessWorker.DEFAULT_TYPES, FilteredObjectInputStream.MAX_MESSAGE_SIZE)) {
+            Map<?, ?> inputs = (Map<?, ?>) in.readMessage();
+            assertEquals(1, inputs.get("a"));
+            assertThrows(InvalidClassException.class, in::readMessage);
+        }
+
+        bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(Collections.nCopies(100, "a")));
+            ArrayList<Integer> large = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                large.add(1000000 + i);
+            }
+            out.writeObject(large);
+        }
+        try (FilteredObjectInputStream in = new FilteredObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()),
+                ProcessWorker.DEFAULT_TYPES, 1000)) {
+            assertEquals(100, ((List<?>) in.readMessage()).size());
+            assertThrows(InvalidObjectException.class, in::readMessage);
+        }
+
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("a", "a");
+        map.put("b", Collections.singletonList(new Object()));
+        map.put("c", new HashSet<>());
+        assertEquals(Collections.singleton("a"), ProcessWorker.serializable(map, ProcessWorker.DEFAULT_TYPES).keySet());
+    }
+
+    /**
+     * {@link GroovyProcessFactory} registered in the coordinator and in the workers.
+     */
+    public static class RemoteFactory extends GroovyProcessFactory {
+
+        @Override
+        public Object run() {
+            LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+            inputs.put("a", String.class);
+            inputs.put("b", String.class);
+            LinkedHashMap<String, Object> outputs = new LinkedHashMap<>();
+            outputs.put("ab", String.class);
+            outputs.put("jvm", String.class);
+            create().id("concat").title("concat").version("1").inputs(inputs).outputs(outputs)
+                    .run(new Closure<Object>(null) {
+                        public int getMaximumNumberOfParameters() {
+                            return 2;
+                        }
+
+                        @Override
+                        public Object call(Object... arguments) {
+                            Map<String, Object> map = new HashMap<>();
+                            map.put("ab", arguments[0].toString() + arguments[1].toString());
+                            map.put("jvm", ManagementFactory.getRuntimeMXBean().getName());
+                            return map;
+                        }
+                    }).getProcess();
+            return this;
+        }
+    }
+}
@@ -43,7 +43,10 @@ import org.codehaus.groovy.runtime.InvokerHelper;
 import org.junit.jupiter.api.Test;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,6 +115,35 @@ public class ProcessFactoryTest {
         assertFalse(pf.getProcess(process.getIdentifier()).isPresent());
     }
 
+    /**
+     * Test the {@link ProcessFactory#getProcess(String, String)} method and the concurrent process registration.
+     */
+    @Test
+    void testVersionedRegister() {
+        IProcess v1 = new Process("id", null, null, null, null, null, "1.0", null);
+        IProcess v2 = new Process("id", null, null, null, null, null, "2.0", null);
+
+        ProcessFactory pf = new ProcessFactory(false, false);
+        pf.registerProcess(v1);
+        pf.registerProcess(v2);
+        assertTrue(pf.getProcess("id").isPresent());
+        assertEquals("2.0", pf.getProcess("id").get().getVersion().orElse(null));
+        assertEquals("1.0", pf.getProcess("id", "1.0").get().getVersion().orElse(null));
+        assertEquals("2.0", pf.getProcess("id", "2.0").get().getVersion().orElse(null));
+        assertEquals("2.0", pf.getProcess("id", null).get().getVersion().orElse(null));
+        assertFalse(pf.getProcess("id", "3.0").isPresent());
+        assertFalse(pf.getProcess("other", "1.0").isPresent());
+        assertFalse(pf.getProcess(null, "1.0").isPresent());
+        assertFalse(pf.getProcess(null).isPresent());
+
+        ProcessFactory concurrent = new ProcessFactory(false, false);
+        List<IProcess> processes = IntStream.range(0, 1000)
+                .mapToObj(i -> (IProcess) new Process("id" + i, null, null, null, null, null, null, null))
+                .collect(Collectors.toList());
+        processes.parallelStream().forEach(concurrent::registerProcess);
+        processes.forEach(p -> assertTrue(concurrent.getProcess(p.getIdentifier()).isPresent()));
+    }
+
     /**
      * Test the {@link ProcessFactory#create()} and {@link ProcessFactory#create(Closure)} methods.
      */
@@ -41,16 +41,35 @@ import groovy.lang.GroovyShell;
 import org.codehaus.groovy.runtime.InvokerHelper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.orbisgis.orbisdata.datamanager.api.dataset.IJdbcTable;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
+import org.orbisgis.orbisdata.processmanager.api.IExecutionTracer;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
 import org.orbisgis.orbisdata.processmanager.api.IProcessManager;
 import org.orbisgis.orbisdata.processmanager.api.IProcessMapper;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
 import org.orbisgis.orbisdata.processmanager.process.inoutput.InOutPut;
-
+import org.orbisgis.orbisdata.processmanager.process.inoutput.Output;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -297,6 +316,457 @@ public class ProcessMapperTest {
         assertEquals("KD", mapper.getResults().get("outC2"));
     }
 
+    /**
+     * Test the execution of the processes of a same level with an {@link java.util.concurrent.Executor}.
+     */
+    @Test
+    public void parallelLevelTest() throws InterruptedException {
+        int count = 4;
+        CountDownLatch latch = new CountDownLatch(count);
+        LinkedHashMap<String, Object> inputMap = new LinkedHashMap<>();
+        inputMap.put("in", String.class);
+        LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>();
+        outputMap.put("out", String.class);
+        IProcess process = processManager.factory("parallel").create().title("pP").inputs(inputMap).outputs(outputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        latch.countDown();
+                        boolean concurrent;
+                        try {
+                            concurrent = latch.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            concurrent = false;
+                        }
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("out", arguments[0].toString() + concurrent);
+                        return map;
+                    }
+                }).getProcess();
+
+        IProcessMapper mapper = new ProcessMapper();
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            IProcess p = process.newInstance();
+            mapper.link((IInOutPut) ((Process) p).getProperty("in")).to("in" + i);
+            mapper.link((IInOutPut) ((Process) p).getProperty("out")).to("out" + i);
+            dataMap.put("in" + i, "p" + i);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(count);
+        try {
+            assertTrue(mapper.executor(executorService).execute(dataMap));
+        } finally {
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals("p" + i + "true", mapper.getResults().get("out" + i));
+        }
+    }
+
+    /**
+     * Test the execution of the processes within the resource budgets of the mapper, the critical path first.
+     */
+    @Test
+    public void resourceBudgetTest() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        LinkedHashMap<String, Object> inputMap = new LinkedHashMap<>();
+        inputMap.put("in", String.class);
+        LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>();
+        outputMap.put("out", String.class);
+        IProcess process = processManager.factory("budget").create().title("pBudget").inputs(inputMap)
+                .outputs(outputMap).resource("connections", 1)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        started.add(arguments[0].toString());
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("out", arguments[0].toString() + "_");
+                        return map;
+                    }
+                }).getProcess();
+        assertEquals(1L, process.getResources().get("connections"));
+
+        Process pA = (Process) process.newInstance();
+        Process pB = (Process) process.newInstance();
+        Process pC = (Process) process.newInstance();
+        Process pD = (Process) process.newInstance();
+        IProcessMapper mapper = new ProcessMapper();
+        mapper.link((IInOutPut) pC.getProperty("in")).to("inC");
+        mapper.link((IInOutPut) pC.getProperty("out")).to("outC");
+        mapper.link((IInOutPut) pD.getProperty("in")).to("inD");
+        mapper.link((IInOutPut) pD.getProperty("out")).to("outD");
+        mapper.link((IInOutPut) pA.getProperty("in")).to("inA");
+        mapper.link((IInOutPut) pA.getProperty("out")).to((IInOutPut) pB.getProperty("in"));
+        mapper.link((IInOutPut) pB.getProperty("out")).to("outB");
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("inA", "a");
+        dataMap.put("inC", "c");
+        dataMap.put("inD", "d");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            assertTrue(mapper.executor(executorService).budget("connections", 1).execute(dataMap));
+            assertEquals(1, maxRunning.get());
+            assertEquals(4, started.size());
+            assertEquals("a", started.get(0));
+            assertEquals("a__", mapper.getResults().get("outB"));
+            assertEquals("c_", mapper.getResults().get("outC"));
+            assertEquals("d_", mapper.getResults().get("outD"));
+
+            maxRunning.set(0);
+            assertTrue(mapper.budget("connections", -1).execute(dataMap));
+            assertTrue(maxRunning.get() > 1);
+        } finally {
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test the resume of a mapper execution from its checkpoints.
+     */
+    @Test
+    public void checkpointTest() {
+        File directory = new File("./target/checkpointTest");
+        new CheckpointStore(directory).clear();
+        int[] count = new int[]{0};
+        LinkedHashMap<String, Object> inputMap = new LinkedHashMap<>();
+        inputMap.put("in", String.class);
+        LinkedHashMap<String, Object> outputMap = new LinkedHashMap<>();
+        outputMap.put("out", String.class);
+        IProcess process = processManager.factory("checkpoint").create().title("pCheckpoint").inputs(inputMap)
+                .outputs(outputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        count[0]++;
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("out", arguments[0].toString().toUpperCase() + "_");
+                        return map;
+                    }
+                }).getProcess();
+
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("in", "a");
+        for (int i = 0; i < 2; i++) {
+            Process p1 = (Process) process.newInstance();
+            Process p2 = (Process) process.newInstance();
+            IProcessMapper mapper = new ProcessMapper().checkpoint(directory);
+            mapper.link((IInOutPut) p1.getProperty("in")).to("in");
+            mapper.link((IInOutPut) p1.getProperty("out")).to((IInOutPut) p2.getProperty("in"));
+            mapper.link((IInOutPut) p2.getProperty("out")).to("out");
+            assertTrue(mapper.execute(new LinkedHashMap<>(dataMap)));
+            assertEquals("A__", mapper.getResults().get("out"));
+            assertEquals(2, count[0]);
+        }
+
+        Process p1 = (Process) process.newInstance();
+        Process p2 = (Process) process.newInstance();
+        IProcessMapper mapper = new ProcessMapper().checkpoint(directory);
+        mapper.link((IInOutPut) p1.getProperty("in")).to("in");
+        mapper.link((IInOutPut) p1.getProperty("out")).to((IInOutPut) p2.getProperty("in"));
+        mapper.link((IInOutPut) p2.getProperty("out")).to("out");
+        dataMap.put("in", "b");
+        assertTrue(mapper.execute(dataMap));
+        assertEquals("B__", mapper.getResults().get("out"));
+        assertEquals(4, count[0]);
+        new CheckpointStore(directory).clear();
+    }
+
+    /**
+     * Test that the compiled execution plan is reused by several executions and rebuilt after a new link.
+     */
+    @Test
+    public void executionPlanTest() {
+        Process p1 = (Process) pA1.newInstance();
+        Process p2 = (Process) pB1.newInstance();
+        IProcessMapper mapper = new ProcessMapper();
+        mapper.link((IInOutPut) p1.getProperty("outA1")).to((IInOutPut) p2.getProperty("inB1"));
+        mapper.link((IInOutPut) p2.getProperty("outB1")).to("out");
+
+        for (int i = 0; i < 3; i++) {
+            LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+            dataMap.put("inA1", "a" + i);
+            dataMap.put("inA2", "b");
+            dataMap.put("inB2", "c");
+            assertTrue(mapper.execute(dataMap));
+            assertEquals("c or a" + i + "b", mapper.getResults().get("out"));
+            assertEquals(3, mapper.getInputs().size());
+            assertEquals(1, mapper.getOutputs().size());
+        }
+
+        mapper.link((IInOutPut) p1.getProperty("inA2")).to("common");
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("inA1", "a");
+        dataMap.put("common", "d");
+        dataMap.put("inB2", "c");
+        assertTrue(mapper.execute(dataMap));
+        assertEquals("c or ad", mapper.getResults().get("out"));
+        assertEquals(3, mapper.getInputs().size());
+    }
+
+    /**
+     * Test the hand-off of a streamed output to the linked process input.
+     */
+    @Test
+    public void streamTest() {
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        LinkedHashMap<String, Object> producerInputMap = new LinkedHashMap<>();
+        producerInputMap.put("count", Integer.class);
+        LinkedHashMap<String, Object> producerOutputMap = new LinkedHashMap<>();
+        producerOutputMap.put("rows", new Output().type(Stream.class).bufferSize(16));
+        Process producer = (Process) processManager.factory("stream").create().title("producer")
+                .inputs(producerInputMap).outputs(producerOutputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("rows", IntStream.range(0, (Integer) arguments[0])
+                                .peek(i -> produced.incrementAndGet()).boxed().onClose(closed::incrementAndGet));
+                        return map;
+                    }
+                }).getProcess();
+        LinkedHashMap<String, Object> consumerInputMap = new LinkedHashMap<>();
+        consumerInputMap.put("rows", Stream.class);
+        LinkedHashMap<String, Object> consumerOutputMap = new LinkedHashMap<>();
+        consumerOutputMap.put("sum", Long.class);
+        Process consumer = (Process) processManager.factory("stream").create().title("consumer")
+                .inputs(consumerInputMap).outputs(consumerOutputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("sum", ((Stream<?>) arguments[0]).mapToLong(o -> (Integer) o).sum());
+                        return map;
+                    }
+                }).getProcess();
+
+        IProcessMapper mapper = new ProcessMapper();
+        mapper.link((IInOutPut) producer.getProperty("count")).to("count");
+        mapper.link((IInOutPut) producer.getProperty("rows")).to((IInOutPut) consumer.getProperty("rows"));
+        mapper.link((IInOutPut) consumer.getProperty("sum")).to("sum");
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("count", 10000);
+        assertTrue(mapper.execute(dataMap));
+        assertEquals(49995000L, mapper.getResults().get("sum"));
+        assertEquals(10000, produced.get());
+        assertEquals(1, closed.get());
+
+        Process consumer2 = (Process) consumer.newInstance();
+        IProcessMapper mapper2 = new ProcessMapper();
+        mapper2.link((IInOutPut) producer.getProperty("rows")).to((IInOutPut) consumer.getProperty("rows"));
+        mapper2.link((IInOutPut) producer.getProperty("rows")).to((IInOutPut) consumer2.getProperty("rows"));
+        assertFalse(mapper2.execute(dataMap));
+    }
+
+    /**
+     * Test the drop of the intermediate tables once consumed.
+     */
+    @Test
+    public void intermediateTest() throws SQLException {
+        H2GIS h2gis = H2GIS.open("./target/intermediateTest");
+        h2gis.execute("DROP TABLE IF EXISTS INTERMEDIATE, KEPT");
+        LinkedHashMap<String, Object> producerInputMap = new LinkedHashMap<>();
+        producerInputMap.put("ds", IJdbcDataSource.class);
+        producerInputMap.put("name", String.class);
+        LinkedHashMap<String, Object> producerOutputMap = new LinkedHashMap<>();
+        producerOutputMap.put("table", new Output().type(IJdbcTable.class).intermediate(true));
+        Process producer = (Process) processManager.factory("intermediate").create().title("producer")
+                .inputs(producerInputMap).outputs(producerOutputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 2;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        IJdbcDataSource ds = (IJdbcDataSource) arguments[0];
+                        String name = arguments[1].toString();
+                        try (Statement statement = ds.getConnection().createStatement()) {
+                            statement.execute(IntermediateTables.createTableAs(ds, name,
+                                    "SELECT X AS ID FROM SYSTEM_RANGE(1, 10)"));
+                        } catch (SQLException e) {
+                            return null;
+                        }
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("table", ds.getTable(name));
+                        return map;
+                    }
+                }).getProcess();
+        LinkedHashMap<String, Object> consumerInputMap = new LinkedHashMap<>();
+        consumerInputMap.put("table", IJdbcTable.class);
+        LinkedHashMap<String, Object> consumerOutputMap = new LinkedHashMap<>();
+        consumerOutputMap.put("count", Integer.class);
+        Process consumer = (Process) processManager.factory("intermediate").create().title("consumer")
+                .inputs(consumerInputMap).outputs(consumerOutputMap)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("count", ((IJdbcTable<?>) arguments[0]).getRowCount());
+                        return map;
+                    }
+                }).getProcess();
+
+        Process p1 = (Process) producer.newInstance();
+        Process c1 = (Process) consumer.newInstance();
+        Process c2 = (Process) consumer.newInstance();
+        Process p2 = (Process) producer.newInstance();
+        IProcessMapper mapper = new ProcessMapper();
+        mapper.link((IInOutPut) p1.getProperty("ds"), (IInOutPut) p2.getProperty("ds")).to("ds");
+        mapper.link((IInOutPut) p1.getProperty("name")).to("name");
+        mapper.link((IInOutPut) p1.getProperty("table")).to((IInOutPut) c1.getProperty("table"));
+        mapper.link((IInOutPut) p1.getProperty("table")).to((IInOutPut) c2.getProperty("table"));
+        mapper.link((IInOutPut) c1.getProperty("count")).to("count1");
+        mapper.link((IInOutPut) c2.getProperty("count")).to("count2");
+        mapper.link((IInOutPut) p2.getProperty("name")).to("keptName");
+        mapper.link((IInOutPut) p2.getProperty("table")).to("kept");
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("ds", h2gis);
+        dataMap.put("name", "INTERMEDIATE");
+        dataMap.put("keptName", "KEPT");
+        assertTrue(mapper.execute(dataMap));
+        assertEquals(10, mapper.getResults().get("count1"));
+        assertEquals(10, mapper.getResults().get("count2"));
+        assertEquals("KEPT", ((IJdbcTable<?>) mapper.getResults().get("kept")).getName());
+        assertFalse(h2gis.hasTable("INTERMEDIATE"));
+        assertTrue(h2gis.hasTable("KEPT"));
+
+        Process p3 = (Process) producer.newInstance();
+        Process c3 = (Process) consumer.newInstance();
+        IProcessMapper failing = new ProcessMapper().runner((process, inputData) -> {
+            if (process == c3) {
+                throw new IllegalStateException("error");
+            }
+            return process.execute(inputData);
+        });
+        failing.link((IInOutPut) p3.getProperty("table")).to((IInOutPut) c3.getProperty("table"));
+        failing.link((IInOutPut) c3.getProperty("count")).to("count");
+        assertThrows(IllegalStateException.class, () -> failing.execute(dataMap));
+        assertFalse(h2gis.hasTable("INTERMEDIATE"));
+    }
+
+    /**
+     * Test the tracing of the executions with {@link ProcessMapper#tracer(org.orbisgis.orbisdata.processmanager.api.IExecutionTracer)}.
+     */
+    @Test
+    public void tracerTest() {
+        Process p1 = (Process) pA1.newInstance();
+        Process p2 = (Process) pB1.newInstance();
+        ExecutionTracer tracer = new ExecutionTracer();
+        IProcessMapper mapper = new ProcessMapper().tracer(tracer);
+        mapper.link((IInOutPut) p1.getProperty("outA1")).to((IInOutPut) p2.getProperty("inB1"));
+        mapper.link((IInOutPut) p2.getProperty("outB1")).to("out");
+        mapper.after(p2).with().check((Closure<?>) new GroovyShell().evaluate("({1+1 == 2})"));
+
+        LinkedHashMap<String, Object> dataMap = new LinkedHashMap<>();
+        dataMap.put("inA1", "a");
+        dataMap.put("inA2", "b");
+        dataMap.put("inB2", "c");
+        assertTrue(mapper.execute(dataMap));
+        assertEquals("c or ab", mapper.getResults().get("out"));
+        assertEquals(4, tracer.getSpanCount());
+
+        String trace = tracer.toChromeTrace();
+        assertTrue(trace.startsWith("{\"traceEvents\":["));
+        assertTrue(trace.contains("\"name\":\"pA\",\"cat\":\"process\",\"ph\":\"X\""));
+        assertTrue(trace.contains("\"name\":\"pB\",\"cat\":\"process\""));
+        assertTrue(trace.contains("\"name\":\"after check of pB\",\"cat\":\"check\""));
+        assertTrue(trace.contains("\"cat\":\"mapper\""));
+        assertTrue(trace.contains("\"name\":\"thread_name\""));
+        assertTrue(trace.contains("\"inputCount\":3"));
+
+        tracer.clear();
+        assertEquals(0, tracer.getSpanCount());
+        assertTrue(tracer.execute(mapper, dataMap));
+        assertEquals(4, tracer.getSpanCount());
+        File file = new File("./target/tracerTest.json");
+        assertTrue(tracer.writeChromeTrace(file));
+        assertTrue(file.exists());
+
+        mapper.tracer(null);
+        tracer.clear();
+        assertTrue(mapper.execute(dataMap));
+        assertEquals(0, tracer.getSpanCount());
+
+        ExecutionTracer bounded = new ExecutionTracer(3);
+        mapper.tracer(bounded);
+        assertTrue(mapper.execute(dataMap));
+        assertEquals(3, bounded.getSpanCount());
+        assertEquals(1, bounded.getDroppedSpanCount());
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionTracer(0));
+
+        List<String> started = new ArrayList<>();
+        List<Object> ended = new ArrayList<>();
+        IExecutionTracer custom = new IExecutionTracer() {
+            @Override
+            public Object startSpan(String name, String category) {
+                started.add(category);
+                return name;
+            }
+            @Override
+            public void endSpan(Object span, Map<String, Object> args) {
+                ended.add(span);
+            }
+            @Override
+            public int getSpanCount() {
+                return ended.size();
+            }
+            @Override
+            public void clear() {
+                ended.clear();
+            }
+            @Override
+            public String toChromeTrace() {
+                return "";
+            }
+            @Override
+            public boolean writeChromeTrace(File file) {
+                return false;
+            }
+        };
+        mapper.tracer(custom);
+        assertTrue(mapper.execute(dataMap));
+        assertEquals(4, custom.getSpanCount());
+        assertEquals(Arrays.asList("mapper", "process", "process", "check"), started);
+        assertTrue(ended.contains("pA"));
+    }
+
     /**
      * Test a mapper which processes can't be linked.
      */
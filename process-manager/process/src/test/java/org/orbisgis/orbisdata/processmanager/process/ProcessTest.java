@@ -43,15 +43,23 @@ import org.codehaus.groovy.runtime.InvokerHelper;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.orbisgis.commons.annotations.Nullable;
+import org.orbisgis.orbisdata.processmanager.api.IBatchResult;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
+import org.orbisgis.orbisdata.processmanager.api.IResultCache;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInOutPut;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IInput;
 import org.orbisgis.orbisdata.processmanager.api.inoutput.IOutput;
 import org.orbisgis.orbisdata.processmanager.process.inoutput.Input;
 import org.orbisgis.orbisdata.processmanager.process.inoutput.Output;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -445,4 +453,136 @@ public class ProcessTest {
         assertEquals(fullProcess, fullProcess);
         assertEquals(miniProcess, miniProcess);
     }
+
+    /**
+     * Test the caching of the results with {@link ProcessBuilder#cache(int)}.
+     */
+    @Test
+    void resultCacheTest() {
+        int[] count = new int[]{0};
+        LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("in", String.class);
+        LinkedHashMap<String, Object> outputs = new LinkedHashMap<>();
+        outputs.put("out", String.class);
+        IProcess process = new ProcessBuilder(new ProcessFactory(), this).title("cached").version("1.0")
+                .inputs(inputs).outputs(outputs).cache(2)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        count[0]++;
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("out", arguments[0].toString() + count[0]);
+                        return map;
+                    }
+                }).getProcess();
+        assertFalse(miniProcess.getResultCache().isPresent());
+        assertTrue(process.getResultCache().isPresent());
+        IResultCache cache = process.getResultCache().get();
+
+        LinkedHashMap<String, Object> data = new LinkedHashMap<>();
+        data.put("in", "a");
+        assertTrue(process.execute(data));
+        assertEquals("a1", process.getResults().get("out"));
+        assertTrue(process.execute(new LinkedHashMap<>(data)));
+        assertEquals("a1", process.getResults().get("out"));
+        assertEquals(1, count[0]);
+
+        data.put("in", "b");
+        assertTrue(process.execute(data));
+        assertEquals("b2", process.getResults().get("out"));
+        data.put("in", "c");
+        assertTrue(process.execute(data));
+        assertEquals("c3", process.getResults().get("out"));
+        data.put("in", "a");
+        assertTrue(process.execute(data));
+        assertEquals("a4", process.getResults().get("out"));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+        assertEquals(2, cache.getEvictionCount());
+
+        IProcess copy = process.copy();
+        assertTrue(copy.execute(data));
+        assertEquals("a4", copy.getResults().get("out"));
+        assertEquals(4, count[0]);
+
+        IProcess instance = process.newInstance();
+        assertNotEquals(process.getIdentifier(), instance.getIdentifier());
+        assertTrue(instance.execute(data));
+        assertEquals("a4", instance.getResults().get("out"));
+        assertEquals(4, count[0]);
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    /**
+     * Test the {@link Process#executeAll(Iterable, int, java.util.function.BiConsumer)} method.
+     */
+    @Test
+    void executeAllTest() {
+        Map<String, Boolean> threads = new ConcurrentHashMap<>();
+        LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("in", Integer.class);
+        LinkedHashMap<String, Object> outputs = new LinkedHashMap<>();
+        outputs.put("out", Integer.class);
+        IProcess process = new ProcessBuilder(new ProcessFactory(), this).title("batch")
+                .inputs(inputs).outputs(outputs)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 1;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        threads.put(Thread.currentThread().getName(), true);
+                        int in = (Integer) arguments[0];
+                        if (in % 10 == 3) {
+                            throw new IllegalArgumentException("Unsupported value " + in);
+                        }
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("out", in * 2);
+                        return map;
+                    }
+                }).getProcess();
+
+        List<Map<String, Object>> dataList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("in", i);
+            dataList.add(data);
+        }
+        Map<Integer, Object> results = new HashMap<>();
+        IBatchResult batchResult = process.executeAll(dataList, 4, (index, map) -> results.put(index, map.get("out")));
+        assertEquals(100, batchResult.getExecutionCount());
+        assertEquals(90, batchResult.getSuccessCount());
+        assertEquals(10, batchResult.getFailureCount());
+        assertFalse(batchResult.isSuccessful());
+        assertEquals(Arrays.asList(3, 13, 23, 33, 43, 53, 63, 73, 83, 93),
+                new ArrayList<>(batchResult.getFailures().keySet()));
+        assertEquals(90, results.size());
+        assertEquals(42, results.get(21));
+        assertFalse(results.containsKey(13));
+        assertTrue(threads.size() <= 4);
+        assertTrue(process.getResults().isEmpty());
+
+        batchResult = process.executeAll(new ArrayList<>(), 0);
+        assertEquals(0, batchResult.getExecutionCount());
+        assertTrue(batchResult.isSuccessful());
+        assertFalse(batchResult.isAborted());
+
+        Thread.currentThread().interrupt();
+        batchResult = process.executeAll(dataList, 4);
+        assertTrue(Thread.interrupted());
+        assertTrue(batchResult.isAborted());
+        assertFalse(batchResult.isSuccessful());
+        assertEquals(8, batchResult.getFailureCount());
+        assertTrue(batchResult.getFailures().get(0) instanceof CancellationException);
+    }
 }
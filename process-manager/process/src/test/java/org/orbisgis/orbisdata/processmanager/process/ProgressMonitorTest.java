@@ -233,6 +233,34 @@ class ProgressMonitorTest {
         }
     }
 
+    @Test
+    public void concurrentProgressTest() throws InterruptedException {
+        int threadCount = 16;
+        int stepCount = 10000;
+        ProgressMonitor pm = new ProgressMonitor("main", threadCount * stepCount + 1, true);
+        pm.setLogInterval(50);
+        IProgressMonitor subPm = pm.getSubProgress("sub", threadCount * stepCount);
+        assertEquals(0.0, pm.getProgress());
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < stepCount; j++) {
+                    pm.incrementStep();
+                    subPm.incrementStep();
+                    pm.getProgress();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100.0, subPm.getProgress());
+        assertEquals(100.0 / (threadCount * stepCount + 2) * (threadCount * stepCount + 1), pm.getProgress(), 1e-9);
+        pm.incrementStep();
+        assertEquals(100.0, pm.getProgress());
+    }
+
     private double getProg(float p, float p1, float p2, float p3, float p4, float p5, float p6, float p7){
         if(p3 == 0 || p5 == 0 || p6 == 0){
             return -1;
@@ -0,0 +1,107 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import org.junit.jupiter.api.Test;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link ResultCache} class.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class ResultCacheTest {
+
+    /**
+     * Test the {@link ResultCache#fingerprint(Map, List)} method.
+     */
+    @Test
+    void fingerprintTest() {
+        Map<String, Object> map1 = new LinkedHashMap<>();
+        map1.put("a", 1);
+        map1.put("b", Arrays.asList("x", "y"));
+        map1.put("c", new double[]{1.5, 2.5});
+        Map<String, Object> map2 = new LinkedHashMap<>();
+        map2.put("c", new double[]{1.5, 2.5});
+        map2.put("b", new ArrayList<>(Arrays.asList("x", "y")));
+        map2.put("a", 1);
+        assertNotNull(ResultCache.fingerprint(map1, null));
+        assertEquals(ResultCache.fingerprint(map1, null), ResultCache.fingerprint(map2, null));
+
+        map2.put("a", 1L);
+        assertNotEquals(ResultCache.fingerprint(map1, null), ResultCache.fingerprint(map2, null));
+        map2.put("a", "1");
+        assertNotEquals(ResultCache.fingerprint(map1, null), ResultCache.fingerprint(map2, null));
+
+        Map<String, Object> map3 = new HashMap<>();
+        map3.put("object", new Object());
+        assertNull(ResultCache.fingerprint(map3, null));
+        List<Object> identities = new ArrayList<>();
+        assertNotNull(ResultCache.fingerprint(map3, identities));
+        assertEquals(1, identities.size());
+    }
+
+    /**
+     * Test that the input values without a value semantic are compared by reference.
+     */
+    @Test
+    void identityTest() {
+        IProcess process = new ProcessBuilder(new ProcessFactory(), this).title("identity").getProcess();
+        ResultCache cache = new ResultCache(4);
+        Object object1 = new Object();
+        Object object2 = new Object();
+        cache.put(process, Collections.singletonMap("in", object1), Collections.singletonMap("out", 1));
+        cache.put(process, Collections.singletonMap("in", object2), Collections.singletonMap("out", 2));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.get(process, Collections.singletonMap("in", object1)).get("out"));
+        assertEquals(2, cache.get(process, Collections.singletonMap("in", object2)).get("out"));
+        assertNull(cache.get(process, Collections.singletonMap("in", new Object())));
+    }
+
+    /**
+     * Test the constructor of {@link ResultCache} with a bad size.
+     */
+    @Test
+    void badSizeTest() {
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache(0));
+    }
+}
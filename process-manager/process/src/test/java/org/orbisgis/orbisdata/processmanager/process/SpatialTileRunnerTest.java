@@ -0,0 +1,162 @@
+/*
+ * Bundle ProcessManager is part of the OrbisGIS platform
+ *
+ * OrbisGIS is a java GIS application dedicated to research in GIScience.
+ * OrbisGIS is developed by the GIS group of the DECIDE team of the
+ * Lab-STICC CNRS laboratory, see <http://www.lab-sticc.fr/>.
+ *
+ * The GIS group of the DECIDE team is located at :
+ *
+ * Laboratoire Lab-STICC – CNRS UMR 6285
+ * Equipe DECIDE
+ * UNIVERSITÉ DE BRETAGNE-SUD
+ * Institut Universitaire de Technologie de Vannes
+ * 8, Rue Montaigne - BP 561 56017 Vannes Cedex
+ *
+ * ProcessManager is distributed under LGPL 3 license.
+ *
+ * Copyright (C) 2018 CNRS (Lab-STICC UMR CNRS 6285)
+ *
+ *
+ * ProcessManager is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * ProcessManager is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * ProcessManager. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.orbisgis.orbisdata.processmanager.process;
+
+import groovy.lang.Closure;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orbisgis.orbisdata.datamanager.api.datasource.IJdbcDataSource;
+import org.orbisgis.orbisdata.datamanager.jdbc.h2gis.H2GIS;
+import org.orbisgis.orbisdata.processmanager.api.IProcess;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link SpatialTileRunner} class.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2019-2020)
+ */
+public class SpatialTileRunnerTest {
+
+    /**
+     * Path of the test database.
+     */
+    private static final String DB_PATH = "./target/" + SpatialTileRunnerTest.class.getSimpleName();
+
+    /**
+     * Database connection
+     */
+    private static H2GIS h2gis;
+
+    @BeforeAll
+    public static void beforeAll() throws Exception {
+        h2gis = H2GIS.open(DB_PATH);
+        h2gis.execute("DROP TABLE IF EXISTS points; CREATE TABLE points AS SELECT X AS id, " +
+                "ST_MakePoint(MOD(X, 10), X / 10) AS the_geom FROM SYSTEM_RANGE(0, 99)");
+    }
+
+    /**
+     * Create a process buffering the points of its input table into a new table.
+     *
+     * @param threads Map filled with the name of the threads executing the process.
+     * @return The buffering {@link IProcess}.
+     */
+    private IProcess createBufferProcess(Map<String, Boolean> threads) {
+        LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+        inputs.put("inputTable", String.class);
+        inputs.put("dataSource", IJdbcDataSource.class);
+        LinkedHashMap<String, Object> outputs = new LinkedHashMap<>();
+        outputs.put("outputTable", String.class);
+        return new ProcessBuilder(new ProcessFactory(), this).title("buffer")
+                .inputs(inputs).outputs(outputs)
+                .run(new Closure<Object>(null) {
+                    public int getMaximumNumberOfParameters() {
+                        return 2;
+                    }
+
+                    @Override
+                    public Object call(Object... arguments) {
+                        threads.put(Thread.currentThread().getName(), true);
+                        String inputTable = (String) arguments[0];
+                        IJdbcDataSource dataSource = (IJdbcDataSource) arguments[1];
+                        try (Statement statement = dataSource.getConnection().createStatement()) {
+                            statement.execute("CREATE TABLE " + inputTable + "_OUT AS SELECT id, " +
+                                    "ST_Buffer(the_geom, 0.1) AS the_geom FROM " + inputTable);
+                        } catch (SQLException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        Map<String, Object> map = new HashMap<>();
+                        map.put("outputTable", inputTable + "_OUT");
+                        return map;
+                    }
+                }).getProcess();
+    }
+
+    /**
+     * Test the execution of a process on a grid of tiles, each tile having its own connection.
+     */
+    @Test
+    void gridTest() throws SQLException {
+        Map<String, Boolean> threads = new ConcurrentHashMap<>();
+        String merged = new SpatialTileRunner(createBufferProcess(threads), h2gis)
+                .input("inputTable", h2gis.getSpatialTable("POINTS"))
+                .dataSourceInput("dataSource")
+                .output("outputTable")
+                .grid(3, 3)
+                .buffer(2)
+                .parallelism(4)
+                .connections(() -> H2GIS.open(DB_PATH))
+                .execute("GRID_MERGED", null);
+        assertEquals("GRID_MERGED", merged);
+        assertEquals(100, h2gis.getTable("GRID_MERGED").getRowCount());
+        assertEquals(100, ((Number) h2gis.firstRow("SELECT COUNT(DISTINCT id) AS c FROM GRID_MERGED").get("c"))
+                .intValue());
+        assertTrue(threads.size() > 1);
+        assertTrue(h2gis.getTableNames().stream().noneMatch(name -> name.contains("TILE_")));
+    }
+
+    /**
+     * Test the execution of a process on a quadtree of tiles using the main connection.
+     */
+    @Test
+    void quadtreeTest() throws SQLException {
+        Map<String, Boolean> threads = new ConcurrentHashMap<>();
+        String merged = new SpatialTileRunner(createBufferProcess(threads), h2gis)
+                .input("inputTable", h2gis.getSpatialTable("POINTS"))
+                .dataSourceInput("dataSource")
+                .output("outputTable")
+                .quadtree(10)
+                .buffer(1)
+                .execute("QUADTREE_MERGED", null);
+        assertEquals("QUADTREE_MERGED", merged);
+        assertEquals(100, h2gis.getTable("QUADTREE_MERGED").getRowCount());
+        assertEquals(100, ((Number) h2gis.firstRow("SELECT COUNT(DISTINCT id) AS c FROM QUADTREE_MERGED")
+                .get("c")).intValue());
+        assertEquals(1, threads.size());
+        assertTrue(h2gis.getTableNames().stream().noneMatch(name -> name.contains("TILE_")));
+
+        assertNull(new SpatialTileRunner(createBufferProcess(threads), h2gis).execute("NONE", null));
+    }
+}
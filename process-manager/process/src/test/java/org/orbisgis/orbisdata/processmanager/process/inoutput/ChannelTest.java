@@ -0,0 +1,98 @@
+package org.orbisgis.orbisdata.processmanager.process.inoutput;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class dedicated to {@link Channel} class.
+ *
+ * @author Erwan Bocher (CNRS)
+ * @author Sylvain PALOMINOS (UBS Lab-STICC 2020)
+ */
+public class ChannelTest {
+
+    /**
+     * Test the {@link Channel#put(Object)}, {@link Channel#close()} and {@link Channel#stream()} methods.
+     */
+    @Test
+    void putTest() throws InterruptedException {
+        Channel<Integer> channel = new Channel<>(4);
+        assertEquals(4, channel.getCapacity());
+        assertEquals(1, new Channel<>(0).getCapacity());
+        Thread producer = new Thread(() -> {
+            IntStream.range(0, 1000).forEach(channel::put);
+            channel.put(null);
+            channel.close();
+        });
+        producer.start();
+        List<Integer> list = channel.stream().collect(Collectors.toList());
+        producer.join();
+        assertEquals(1001, list.size());
+        assertEquals(999, list.get(999).intValue());
+        assertNull(list.get(1000));
+        assertTrue(channel.isClosed());
+        assertFalse(channel.put(1));
+        assertEquals(0, channel.stream().count());
+    }
+
+    /**
+     * Test the {@link Channel#cancel()} method.
+     */
+    @Test
+    void cancelTest() throws InterruptedException {
+        Channel<Integer> channel = new Channel<>(2);
+        AtomicInteger count = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            while (channel.put(count.get())) {
+                count.incrementAndGet();
+            }
+        });
+        producer.start();
+        try (Stream<Integer> stream = channel.stream()) {
+            assertEquals(Arrays.asList(0, 1, 2), stream.limit(3).collect(Collectors.toList()));
+        }
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertTrue(channel.isClosed());
+    }
+
+    /**
+     * Test the {@link Channel#buffer(Stream, int)} and {@link Channel#fail(Throwable)} methods.
+     */
+    @Test
+    void bufferTest() {
+        AtomicInteger read = new AtomicInteger();
+        Stream<Object> stream = Channel.buffer(IntStream.range(0, 10000).peek(i -> read.incrementAndGet()).boxed(), 8);
+        assertEquals(0, read.get());
+        assertEquals(49995000L, stream.mapToLong(o -> (Integer) o).sum());
+        assertEquals(10000, read.get());
+
+        Stream<Object> failing = Channel.buffer(Stream.of(1, 2).map(i -> {
+            if (i == 2) {
+                throw new IllegalArgumentException("error");
+            }
+            return i;
+        }), 8);
+        assertThrows(IllegalStateException.class, () -> failing.collect(Collectors.toList()));
+
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<Object> unread = Channel.buffer(Stream.of(1, 2).onClose(() -> closed.set(true)), 8);
+        unread.close();
+        assertTrue(closed.get());
+
+        closed.set(false);
+        Stream<Object> partial = Channel.buffer(IntStream.range(0, 10000).boxed().onClose(() -> closed.set(true)), 8);
+        assertEquals(0, partial.iterator().next());
+        partial.close();
+        assertTrue(closed.get());
+    }
+}
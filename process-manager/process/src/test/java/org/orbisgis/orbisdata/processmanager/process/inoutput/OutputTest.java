@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.orbisgis.orbisdata.processmanager.api.IProcess;
 import org.orbisgis.orbisdata.processmanager.process.ProcessManager;
 
+import java.sql.ResultSet;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -101,6 +105,24 @@ public class OutputTest {
         assertFalse(output.getType().isPresent());
     }
 
+    /**
+     * Test the {@link Output#bufferSize(int)}, {@link Output#getBufferSize()} and {@link Output#isStreamed()} methods.
+     */
+    @Test
+    void streamedTest() {
+        Output output = new  Output();
+        assertEquals(Output.DEFAULT_BUFFER_SIZE, output.getBufferSize());
+        assertEquals(16, output.bufferSize(16).getBufferSize());
+        assertEquals(1, output.bufferSize(-1).getBufferSize());
+        assertFalse(output.isStreamed());
+        assertFalse(output.type(String.class).isStreamed());
+        assertTrue(output.type(Stream.class).isStreamed());
+        assertTrue(output.type(IntStream.class).isStreamed());
+        assertTrue(output.type(ResultSet.class).isStreamed());
+        assertTrue(output.type(Channel.class).isStreamed());
+        assertEquals(1, output.copy().getBufferSize());
+    }
+
     /**
      * Test the {@link Output#toString()} method.
      */